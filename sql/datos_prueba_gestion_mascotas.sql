@@ -8,25 +8,47 @@ INSERT INTO duenios (dni, nombre, apellido, telefono, email, direccion, eliminad
 ('33333333', 'Carlos', 'Lopez', '1166778899', 'carlos.lopez@email.com', 'San Martin 456', FALSE),
 ('44444444', 'Ana', 'Martinez', '1177889900', 'ana.martinez@email.com', NULL, FALSE); -- Dirección NULL es válida
 
--- 2. INSERTAR MASCOTAS
+-- 2. INSERTAR DICCIONARIOS
+-- (Especies, razas y veterinarias se guardan una sola vez y se referencian por ID.)
+
+INSERT INTO especies (id, nombre) VALUES
+(1, 'PERRO'), (2, 'GATO'), (3, 'PEZ');
+
+INSERT INTO razas (id, nombre) VALUES
+(1, 'Labrador'), (2, 'Siames'), (3, 'Ovejero'), (4, 'Dorado'), (5, 'Callejero');
+
+INSERT INTO veterinarias (id, nombre) VALUES
+(1, 'Veterinaria Central'), (2, 'Veterinaria Norte'), (3, 'Hospital Veterinario'),
+(4, 'Mundo Marino'), (5, 'Refugio Patitas');
+
+-- 3. INSERTAR MASCOTAS
 -- (Asociadas a los dueños por ID.)
 
-INSERT INTO mascotas (nombre, especie, raza, fecha_nacimiento, duenio_id, eliminado) VALUES 
-('Firulais', 'PERRO', 'Labrador', '2020-05-20', 1, FALSE), -- Mascota de Juan
-('Mishi', 'GATO', 'Siames', '2019-10-15', 2, FALSE),      -- Mascota de Maria
-('Rex', 'PERRO', 'Ovejero', '2021-01-01', 3, FALSE),      -- Mascota de Carlos
-('Nemo', 'PEZ', 'Dorado', '2023-03-10', 1, FALSE),        -- Otra mascota de Juan (1-a-N)
-('Luna', 'GATO', 'Callejero', '2022-07-07', 4, FALSE);    -- Mascota de Ana
+INSERT INTO mascotas (nombre, especie_id, raza_id, fecha_nacimiento, duenio_id, eliminado) VALUES 
+('Firulais', 1, 1, '2020-05-20', 1, FALSE), -- PERRO Labrador, mascota de Juan
+('Mishi', 2, 2, '2019-10-15', 2, FALSE),    -- GATO Siames, mascota de Maria
+('Rex', 1, 3, '2021-01-01', 3, FALSE),      -- PERRO Ovejero, mascota de Carlos
+('Nemo', 3, 4, '2023-03-10', 1, FALSE),     -- PEZ Dorado, otra mascota de Juan (1-a-N)
+('Luna', 2, 5, '2022-07-07', 4, FALSE);     -- GATO Callejero, mascota de Ana
 
--- 3. INSERTAR MICROCHIPS
+-- 4. INSERTAR MICROCHIPS
 -- (Relación 1-a-1. Cada mascota_id debe ser único aquí)
 
-INSERT INTO microchips (codigo, observaciones, veterinaria, mascota_id, eliminado) VALUES 
-('CHIP-001-ABC', 'Vacunas al día', 'Veterinaria Central', 1, FALSE),       -- Para Firulais
-('CHIP-002-DEF', 'Alergico a la penicilina', 'Veterinaria Norte', 2, FALSE), -- Para Mishi
-('CHIP-003-GHI', NULL, 'Hospital Veterinario', 3, FALSE),                  -- Para Rex
-('CHIP-004-JKL', 'Pez de acuario grande', 'Mundo Marino', 4, FALSE),       -- Para Nemo
-('CHIP-005-MNO', 'Rescatada', 'Refugio Patitas', 5, FALSE);                -- Para Luna
+INSERT INTO microchips (codigo, observaciones, veterinaria_id, mascota_id, eliminado) VALUES 
+('CHIP-001-ABC', 'Vacunas al día', 1, 1, FALSE),           -- Veterinaria Central, para Firulais
+('CHIP-002-DEF', 'Alergico a la penicilina', 2, 2, FALSE), -- Veterinaria Norte, para Mishi
+('CHIP-003-GHI', NULL, 3, 3, FALSE),                       -- Hospital Veterinario, para Rex
+('CHIP-004-JKL', 'Pez de acuario grande', 4, 4, FALSE),    -- Mundo Marino, para Nemo
+('CHIP-005-MNO', 'Rescatada', 5, 5, FALSE);                -- Refugio Patitas, para Luna
+
+-- 5. CONTADOR DE MASCOTAS ACTIVAS
+-- (Desnormalizado en 'duenios.mascotas_activas'; los INSERT directos no lo mantienen: mismo valor
+-- inicial que la migración 10.)
+
+UPDATE duenios d
+    JOIN (SELECT duenio_id, COUNT(*) AS cantidad FROM mascotas WHERE eliminado = FALSE GROUP BY duenio_id) c
+        ON c.duenio_id = d.id
+    SET d.mascotas_activas = c.cantidad;
 
 -- =============================================
 -- VERIFICACIÓN
@@ -38,9 +60,10 @@ SELECT * FROM microchips;
 -- Ver la relación completa (Mascota + Dueño + Chip)
 SELECT 
     m.nombre AS Mascota, 
-    m.especie, 
+    e.nombre AS especie, 
     d.nombre AS Duenio, 
     mc.codigo AS Microchip
 FROM mascotas m
+JOIN especies e ON m.especie_id = e.id
 JOIN duenios d ON m.duenio_id = d.id
 JOIN microchips mc ON m.id = mc.mascota_id;
@@ -9,6 +9,22 @@ DROP TABLE IF EXISTS duenio;
 DROP TABLE IF EXISTS microchip;
 SET FOREIGN_KEY_CHECKS = 1;
 
+-- DICCIONARIOS (valores repetidos guardados una sola vez, con claves enteras pequeñas)
+CREATE TABLE especies (
+    id TINYINT UNSIGNED PRIMARY KEY AUTO_INCREMENT,
+    nombre VARCHAR(30) NOT NULL UNIQUE
+);
+
+CREATE TABLE razas (
+    id SMALLINT UNSIGNED PRIMARY KEY AUTO_INCREMENT,
+    nombre VARCHAR(60) NOT NULL UNIQUE
+);
+
+CREATE TABLE veterinarias (
+    id SMALLINT UNSIGNED PRIMARY KEY AUTO_INCREMENT,
+    nombre VARCHAR(120) NOT NULL UNIQUE
+);
+
 -- DUENIOS (Tabla independiente)
 CREATE TABLE duenios (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -19,25 +35,54 @@ CREATE TABLE duenios (
     email VARCHAR(120) UNIQUE,
     direccion VARCHAR (50), 
     eliminado BOOLEAN NOT NULL DEFAULT FALSE,
+    -- Mascotas no eliminadas del dueño (desnormalizado: lo mantienen los servicios en la misma
+    -- transacción que el alta/baja de la mascota; dao.ReconciliadorMascotasActivas corrige desvíos)
+    mascotas_activas INT NOT NULL DEFAULT 0,
+    -- CONCURRENCIA OPTIMISTA: cada UPDATE de la aplicación la incrementa y exige la versión leída
+    version INT NOT NULL DEFAULT 0,
+    -- SEGUIMIENTO DE CAMBIOS (sincronización incremental; un trigger marca el cambio con NULL y
+    -- dao.NumeradorCambios le asigna después su número)
+    actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    seq_cambio BIGINT NULL DEFAULT 0,
+    
+    -- ÍNDICES (existeTelefono se consulta en cada alta de dueño)
+    INDEX idx_duenios_telefono (telefono),
+    INDEX idx_duenios_seq_cambio (seq_cambio),
     
     CONSTRAINT chk_email CHECK (email LIKE '%@%'),
-    CONSTRAINT chk_telefono CHECK (LENGTH(telefono) >= 7) 
+    CONSTRAINT chk_telefono CHECK (LENGTH(telefono) >= 7),
+    -- Un contador desviado hacia abajo falla en la sentencia que lo desvía, en lugar de quedar negativo
+    CONSTRAINT chk_mascotas_activas CHECK (mascotas_activas >= 0)
 );
 
 -- MASCOTA (Depende de Duenio)
 -- Esta es 'A' en la relación A->B
+-- Con decenas de millones de filas se puede particionar por rango de 'id' con la migración opcional
+-- sql/migraciones/09_particionado_mascotas.sql (reemplaza estas FKs por triggers).
 CREATE TABLE mascotas (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     eliminado BOOLEAN NOT NULL DEFAULT FALSE,
     nombre VARCHAR(60)  NOT NULL,
-    especie VARCHAR(30) NOT NULL,
-    raza VARCHAR(60),
+    especie_id TINYINT UNSIGNED NOT NULL,
+    raza_id SMALLINT UNSIGNED,
     fecha_nacimiento DATE,
     duenio_id BIGINT NOT NULL,
+    version INT NOT NULL DEFAULT 0, -- Concurrencia optimista (ver duenios.version)
+    -- SEGUIMIENTO DE CAMBIOS (sincronización incremental; un trigger marca el cambio con NULL y
+    -- dao.NumeradorCambios le asigna después su número)
+    actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    seq_cambio BIGINT NULL DEFAULT 0,
+
+    -- ÍNDICES
+    INDEX idx_mascotas_seq_cambio (seq_cambio),
     
     -- RELACIONES 
     CONSTRAINT fk_mascota_duenio
         FOREIGN KEY (duenio_id) REFERENCES duenios(id),
+    CONSTRAINT fk_mascota_especie
+        FOREIGN KEY (especie_id) REFERENCES especies(id),
+    CONSTRAINT fk_mascota_raza
+        FOREIGN KEY (raza_id) REFERENCES razas(id),
         
     -- RESTRICCIONES
     CONSTRAINT chk_mascota_nombre CHECK (TRIM(nombre) <> '')
@@ -49,14 +94,256 @@ CREATE TABLE microchips (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     eliminado BOOLEAN NOT NULL DEFAULT FALSE,
     codigo VARCHAR(25) NOT NULL UNIQUE, 
+    -- Clave numérica de los códigos ISO 11784 (15 dígitos); NULL para códigos con otro formato
+    codigo_iso BIGINT UNSIGNED AS (IF(codigo REGEXP '^[0-9]{15}$', CAST(codigo AS UNSIGNED), NULL)) STORED,
     observaciones TEXT,
-    veterinaria VARCHAR(120),
+    veterinaria_id SMALLINT UNSIGNED,
     mascota_id BIGINT NOT NULL UNIQUE, 
+    version INT NOT NULL DEFAULT 0, -- Concurrencia optimista (ver duenios.version)
+    -- SEGUIMIENTO DE CAMBIOS (sincronización incremental; un trigger marca el cambio con NULL y
+    -- dao.NumeradorCambios le asigna después su número)
+    actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    seq_cambio BIGINT NULL DEFAULT 0,
 
     -- RELACIONES
     CONSTRAINT fk_microchip_mascota
         FOREIGN KEY (mascota_id) REFERENCES mascotas(id),
+    CONSTRAINT fk_microchip_veterinaria
+        FOREIGN KEY (veterinaria_id) REFERENCES veterinarias(id),
 
     -- RESTRICCIONES
-    CONSTRAINT chk_microchip_codigo CHECK (TRIM(codigo) <> '')
-);
\ No newline at end of file
+    CONSTRAINT chk_microchip_codigo CHECK (TRIM(codigo) <> ''),
+
+    -- ÍNDICES
+    UNIQUE INDEX idx_microchips_codigo_iso (codigo_iso),
+    INDEX idx_microchips_seq_cambio (seq_cambio)
+);
+-- SECUENCIAS (IDs asignados por la aplicación en bloques "hi-lo", ver dao.AsignadorHiLo)
+-- Una fila por tabla; la aplicación la crea en el primer uso a partir de MAX(id) + 1.
+-- Las filas 'cambios.<tabla>' son las secuencias de cambios (las usa dao.NumeradorCambios, ver más abajo).
+CREATE TABLE secuencias (
+    tabla VARCHAR(64) PRIMARY KEY,
+    proximo BIGINT NOT NULL
+);
+
+INSERT INTO secuencias (tabla, proximo) VALUES
+    ('cambios.duenios', 1),
+    ('cambios.mascotas', 1),
+    ('cambios.microchips', 1);
+
+-- ALTA COMPLETA EN UNA SOLA IDA Y VUELTA (ver MascotaDaoImpl.crearCompleta)
+-- Valida dueño y código, inserta mascota + microchip en su propia transacción y devuelve ambos IDs.
+-- Los IDs pueden venir asignados por la aplicación (hi-lo) o en NULL (AUTO_INCREMENT).
+-- Debe invocarse con autocommit activo: START TRANSACTION confirmaría una transacción abierta del llamador.
+DROP PROCEDURE IF EXISTS sp_crear_mascota_completa;
+DELIMITER //
+CREATE PROCEDURE sp_crear_mascota_completa(
+    IN p_mascota_id BIGINT,
+    IN p_duenio_id BIGINT,
+    IN p_nombre VARCHAR(60),
+    IN p_especie_id TINYINT UNSIGNED,
+    IN p_raza_id SMALLINT UNSIGNED,
+    IN p_fecha_nacimiento DATE,
+    IN p_microchip_id BIGINT,
+    IN p_codigo VARCHAR(25),
+    IN p_observaciones TEXT,
+    IN p_veterinaria_id SMALLINT UNSIGNED)
+BEGIN
+    DECLARE v_mascota_id BIGINT;
+    DECLARE v_microchip_id BIGINT;
+    DECLARE v_mensaje VARCHAR(200);
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL; -- Conserva el SQLSTATE original (45000 = regla de negocio, 23000 = restricción)
+    END;
+
+    START TRANSACTION;
+    -- Suma la mascota al contador del dueño: verifica que esté activo y lo bloquea hasta el COMMIT
+    UPDATE duenios SET mascotas_activas = mascotas_activas + 1 WHERE id = p_duenio_id AND eliminado = FALSE;
+    IF ROW_COUNT() = 0 THEN
+        SET v_mensaje = CONCAT('El dueño con ID ', p_duenio_id, ' no existe.');
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_mensaje;
+    END IF;
+    IF EXISTS (SELECT 1 FROM microchips WHERE codigo = p_codigo AND eliminado = FALSE) THEN
+        SET v_mensaje = CONCAT('El código de microchip ''', p_codigo, ''' ya se encuentra registrado.');
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_mensaje;
+    END IF;
+
+    INSERT INTO mascotas (id, duenio_id, nombre, especie_id, raza_id, fecha_nacimiento)
+        VALUES (p_mascota_id, p_duenio_id, p_nombre, p_especie_id, p_raza_id, p_fecha_nacimiento);
+    SET v_mascota_id = COALESCE(p_mascota_id, LAST_INSERT_ID());
+
+    INSERT INTO microchips (id, codigo, observaciones, veterinaria_id, mascota_id)
+        VALUES (p_microchip_id, p_codigo, p_observaciones, p_veterinaria_id, v_mascota_id);
+    SET v_microchip_id = COALESCE(p_microchip_id, LAST_INSERT_ID());
+    COMMIT;
+
+    SELECT v_mascota_id AS mascota_id, v_microchip_id AS microchip_id;
+END //
+DELIMITER ;
+
+-- SECUENCIA DE CAMBIOS (sincronización incremental, ver DuenioDAO/MascotaDAO/MicrochipDAO.cambiosDesde)
+-- Los triggers solo marcan como pendiente (seq_cambio = NULL) cada alta y cada modificación o baja
+-- lógica de los datos; el número lo asigna después dao.NumeradorCambios, en transacciones cortas propias
+-- que se serializan sobre 'cambios.<tabla>' y saltean las filas que una transacción en curso tiene
+-- bloqueadas. Así ninguna escritura toma un lock global hasta su COMMIT, y los números ya confirmados
+-- siempre forman un prefijo: quien lee "seq_cambio > último visto" no saltea cambios.
+-- No son cambios: el ajuste del contador 'mascotas_activas' ni la propia numeración (el UPDATE que asigna
+-- seq_cambio). Con @omitir_seq_cambio definida en la sesión (carga masiva) las filas quedan con seq_cambio = 0.
+DROP TRIGGER IF EXISTS trg_duenios_cambio_ins;
+DROP TRIGGER IF EXISTS trg_duenios_cambio_upd;
+DROP TRIGGER IF EXISTS trg_mascotas_cambio_ins;
+DROP TRIGGER IF EXISTS trg_mascotas_cambio_upd;
+DROP TRIGGER IF EXISTS trg_microchips_cambio_ins;
+DROP TRIGGER IF EXISTS trg_microchips_cambio_upd;
+DELIMITER //
+CREATE TRIGGER trg_duenios_cambio_ins BEFORE INSERT ON duenios FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        SET NEW.seq_cambio = NULL;
+    END IF;
+END //
+
+CREATE TRIGGER trg_duenios_cambio_upd BEFORE UPDATE ON duenios FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL AND NEW.seq_cambio <=> OLD.seq_cambio
+       AND NOT (CAST(NEW.dni AS BINARY) <=> CAST(OLD.dni AS BINARY)
+               AND CAST(NEW.nombre AS BINARY) <=> CAST(OLD.nombre AS BINARY)
+               AND CAST(NEW.apellido AS BINARY) <=> CAST(OLD.apellido AS BINARY)
+               AND CAST(NEW.telefono AS BINARY) <=> CAST(OLD.telefono AS BINARY)
+               AND CAST(NEW.email AS BINARY) <=> CAST(OLD.email AS BINARY)
+               AND CAST(NEW.direccion AS BINARY) <=> CAST(OLD.direccion AS BINARY)
+               AND NEW.eliminado <=> OLD.eliminado) THEN
+        SET NEW.seq_cambio = NULL;
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_cambio_ins BEFORE INSERT ON mascotas FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        SET NEW.seq_cambio = NULL;
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_cambio_upd BEFORE UPDATE ON mascotas FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL AND NEW.seq_cambio <=> OLD.seq_cambio
+       AND NOT (CAST(NEW.nombre AS BINARY) <=> CAST(OLD.nombre AS BINARY)
+               AND NEW.eliminado <=> OLD.eliminado
+               AND NEW.especie_id <=> OLD.especie_id
+               AND NEW.raza_id <=> OLD.raza_id
+               AND NEW.fecha_nacimiento <=> OLD.fecha_nacimiento
+               AND NEW.duenio_id <=> OLD.duenio_id) THEN
+        SET NEW.seq_cambio = NULL;
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_cambio_ins BEFORE INSERT ON microchips FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        SET NEW.seq_cambio = NULL;
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_cambio_upd BEFORE UPDATE ON microchips FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL AND NEW.seq_cambio <=> OLD.seq_cambio
+       AND NOT (CAST(NEW.codigo AS BINARY) <=> CAST(OLD.codigo AS BINARY)
+               AND CAST(NEW.observaciones AS BINARY) <=> CAST(OLD.observaciones AS BINARY)
+               AND NEW.eliminado <=> OLD.eliminado
+               AND NEW.veterinaria_id <=> OLD.veterinaria_id
+               AND NEW.mascota_id <=> OLD.mascota_id) THEN
+        SET NEW.seq_cambio = NULL;
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+DELIMITER ;
+
+-- ARCHIVO (bajas lógicas antiguas movidas fuera de las tablas activas, ver herramientas.ArchivadorEliminados)
+-- Mismas columnas que las tablas activas, sin FKs ni UNIQUE (un DNI o código archivado puede volver a usarse).
+CREATE TABLE duenios_archivo (
+    id BIGINT PRIMARY KEY,
+    dni VARCHAR(20) NOT NULL,
+    nombre VARCHAR(80) NOT NULL,
+    apellido VARCHAR(80) NOT NULL,
+    telefono VARCHAR(30),
+    email VARCHAR(120),
+    direccion VARCHAR (50),
+    eliminado BOOLEAN NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL,
+    seq_cambio BIGINT NOT NULL,
+    archivado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_duenios_archivo_dni (dni)
+);
+
+CREATE TABLE mascotas_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    nombre VARCHAR(60) NOT NULL,
+    especie_id TINYINT UNSIGNED NOT NULL,
+    raza_id SMALLINT UNSIGNED,
+    fecha_nacimiento DATE,
+    duenio_id BIGINT NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL,
+    seq_cambio BIGINT NOT NULL,
+    archivado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_mascotas_archivo_duenio (duenio_id)
+);
+
+CREATE TABLE microchips_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    codigo VARCHAR(25) NOT NULL,
+    observaciones TEXT,
+    veterinaria_id SMALLINT UNSIGNED,
+    mascota_id BIGINT NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL,
+    seq_cambio BIGINT NOT NULL,
+    archivado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_microchips_archivo_mascota (mascota_id),
+    INDEX idx_microchips_archivo_codigo (codigo)
+);
+
+-- Avance del archivado por tabla (último ID revisado): una ejecución interrumpida continúa desde ahí
+CREATE TABLE archivado_progreso (
+    tabla VARCHAR(64) PRIMARY KEY,
+    ultimo_id BIGINT NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)
+);
+
+-- AUDITORÍA (solo inserción; la escribe en segundo plano auditoria.Auditoria, por lotes)
+-- Imágenes JSON antes/después de cada alta, modificación o baja hecha desde los servicios.
+CREATE TABLE auditoria (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    instante TIMESTAMP(3) NOT NULL,
+    usuario VARCHAR(64) NOT NULL,
+    entidad VARCHAR(20) NOT NULL,
+    entidad_id BIGINT,
+    operacion VARCHAR(20) NOT NULL,
+    antes JSON,
+    despues JSON,
+
+    -- ÍNDICES (historia de una entidad)
+    INDEX idx_auditoria_entidad (entidad, entidad_id, instante)
+);
+
+-- La auditoría no se modifica ni se borra
+DROP TRIGGER IF EXISTS trg_auditoria_sin_update;
+DROP TRIGGER IF EXISTS trg_auditoria_sin_delete;
+DELIMITER //
+CREATE TRIGGER trg_auditoria_sin_update BEFORE UPDATE ON auditoria FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'La auditoría es de solo inserción.';
+END //
+
+CREATE TRIGGER trg_auditoria_sin_delete BEFORE DELETE ON auditoria FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'La auditoría es de solo inserción.';
+END //
+DELIMITER ;
@@ -0,0 +1,5 @@
+-- Migración 01: índice para la verificación de unicidad del teléfono (DuenioDaoImpl.SQL_EXISTS_TELEFONO).
+-- Sin este índice, cada alta de dueño recorre la tabla 'duenios' completa.
+USE gestion_mascota;
+
+ALTER TABLE duenios ADD INDEX idx_duenios_telefono (telefono);
@@ -0,0 +1,53 @@
+-- Migración 02: normaliza especie, raza y veterinaria en tablas diccionario con claves enteras pequeñas.
+-- Cada valor distinto se guarda una sola vez; 'mascotas' y 'microchips' pasan a referenciarlo por ID
+-- (1-2 bytes por fila en lugar de un VARCHAR repetido). Los DAOs resuelven los nombres con una caché
+-- en memoria (dao.CatalogoDiccionarios), así que las entidades conservan su API de texto.
+USE gestion_mascota;
+
+-- 1. Tablas diccionario
+CREATE TABLE especies (
+    id TINYINT UNSIGNED PRIMARY KEY AUTO_INCREMENT,
+    nombre VARCHAR(30) NOT NULL UNIQUE
+);
+
+CREATE TABLE razas (
+    id SMALLINT UNSIGNED PRIMARY KEY AUTO_INCREMENT,
+    nombre VARCHAR(60) NOT NULL UNIQUE
+);
+
+CREATE TABLE veterinarias (
+    id SMALLINT UNSIGNED PRIMARY KEY AUTO_INCREMENT,
+    nombre VARCHAR(120) NOT NULL UNIQUE
+);
+
+-- 2. Valores existentes (sin espacios sobrantes; los duplicados por mayúsculas se unifican por la collation)
+INSERT IGNORE INTO especies (nombre)
+    SELECT DISTINCT TRIM(especie) FROM mascotas WHERE especie IS NOT NULL AND TRIM(especie) <> '';
+INSERT IGNORE INTO razas (nombre)
+    SELECT DISTINCT TRIM(raza) FROM mascotas WHERE raza IS NOT NULL AND TRIM(raza) <> '';
+INSERT IGNORE INTO veterinarias (nombre)
+    SELECT DISTINCT TRIM(veterinaria) FROM microchips WHERE veterinaria IS NOT NULL AND TRIM(veterinaria) <> '';
+
+-- 3. Columnas de referencia, completadas a partir del texto
+ALTER TABLE mascotas
+    ADD COLUMN especie_id TINYINT UNSIGNED NULL AFTER especie,
+    ADD COLUMN raza_id SMALLINT UNSIGNED NULL AFTER raza;
+ALTER TABLE microchips
+    ADD COLUMN veterinaria_id SMALLINT UNSIGNED NULL AFTER veterinaria;
+
+UPDATE mascotas m JOIN especies e ON e.nombre = TRIM(m.especie) SET m.especie_id = e.id;
+UPDATE mascotas m JOIN razas r ON r.nombre = TRIM(m.raza) SET m.raza_id = r.id;
+UPDATE microchips mc JOIN veterinarias v ON v.nombre = TRIM(mc.veterinaria) SET mc.veterinaria_id = v.id;
+
+-- 4. Restricciones y baja de las columnas de texto (falla si alguna mascota quedó sin especie)
+ALTER TABLE mascotas
+    MODIFY especie_id TINYINT UNSIGNED NOT NULL,
+    ADD CONSTRAINT fk_mascota_especie FOREIGN KEY (especie_id) REFERENCES especies(id),
+    ADD CONSTRAINT fk_mascota_raza FOREIGN KEY (raza_id) REFERENCES razas(id),
+    DROP COLUMN especie,
+    DROP COLUMN raza;
+ALTER TABLE microchips
+    ADD CONSTRAINT fk_microchip_veterinaria FOREIGN KEY (veterinaria_id) REFERENCES veterinarias(id),
+    DROP COLUMN veterinaria;
+
+ANALYZE TABLE mascotas, microchips;
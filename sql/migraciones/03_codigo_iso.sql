@@ -0,0 +1,11 @@
+-- Migración 03: clave numérica para los códigos de microchip con formato ISO 11784 (15 dígitos).
+-- 'codigo_iso' es una columna generada (STORED): MySQL la mantiene sola a partir de 'codigo', así que
+-- nunca queda desincronizada. Su índice ocupa 8 bytes por entrada (frente a hasta 100 del VARCHAR) y
+-- MicrochipDaoImpl lo usa en buscarPorCodigo/existeCodigo cuando el código es ISO.
+-- Los códigos heredados con otro formato quedan en NULL y se siguen buscando por 'codigo'.
+USE gestion_mascota;
+
+ALTER TABLE microchips
+    ADD COLUMN codigo_iso BIGINT UNSIGNED
+        AS (IF(codigo REGEXP '^[0-9]{15}$', CAST(codigo AS UNSIGNED), NULL)) STORED AFTER codigo,
+    ADD UNIQUE INDEX idx_microchips_codigo_iso (codigo_iso);
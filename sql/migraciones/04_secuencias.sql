@@ -0,0 +1,17 @@
+-- Migración 04: tabla de secuencias para la asignación de IDs por bloques (ids.estrategia=hilo).
+-- La aplicación reserva rangos de IDs con un UPDATE atómico por bloque y los asigna antes del INSERT,
+-- lo que permite enviar mascotas y microchips como INSERT multi-fila sin leer claves generadas.
+-- Se siembra con MAX(id) + 1 para continuar la numeración existente (AUTO_INCREMENT se mantiene).
+-- Quien inserte IDs explícitos por fuera de la aplicación debe adelantar 'proximo' después
+-- (herramientas.CargadorMasivo lo hace al terminar cada carga).
+USE gestion_mascota;
+
+CREATE TABLE secuencias (
+    tabla VARCHAR(64) PRIMARY KEY,
+    proximo BIGINT NOT NULL
+);
+
+INSERT INTO secuencias (tabla, proximo)
+    SELECT 'duenios', COALESCE(MAX(id), 0) + 1 FROM duenios
+    UNION ALL SELECT 'mascotas', COALESCE(MAX(id), 0) + 1 FROM mascotas
+    UNION ALL SELECT 'microchips', COALESCE(MAX(id), 0) + 1 FROM microchips;
@@ -0,0 +1,50 @@
+-- Migración 05: procedimiento para dar de alta mascota + microchip en una sola ida y vuelta.
+-- Reemplaza validar dueño, validar código, INSERT mascota, INSERT microchip, commit y los cambios
+-- de autocommit (6-8 viajes a la base) por un único CALL (MascotaDaoImpl.crearCompleta).
+USE gestion_mascota;
+
+DROP PROCEDURE IF EXISTS sp_crear_mascota_completa;
+DELIMITER //
+CREATE PROCEDURE sp_crear_mascota_completa(
+    IN p_mascota_id BIGINT,
+    IN p_duenio_id BIGINT,
+    IN p_nombre VARCHAR(60),
+    IN p_especie_id TINYINT UNSIGNED,
+    IN p_raza_id SMALLINT UNSIGNED,
+    IN p_fecha_nacimiento DATE,
+    IN p_microchip_id BIGINT,
+    IN p_codigo VARCHAR(25),
+    IN p_observaciones TEXT,
+    IN p_veterinaria_id SMALLINT UNSIGNED)
+BEGIN
+    DECLARE v_mascota_id BIGINT;
+    DECLARE v_microchip_id BIGINT;
+    DECLARE v_mensaje VARCHAR(200);
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL; -- Conserva el SQLSTATE original (45000 = regla de negocio, 23000 = restricción)
+    END;
+
+    START TRANSACTION;
+    IF NOT EXISTS (SELECT 1 FROM duenios WHERE id = p_duenio_id AND eliminado = FALSE) THEN
+        SET v_mensaje = CONCAT('El dueño con ID ', p_duenio_id, ' no existe.');
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_mensaje;
+    END IF;
+    IF EXISTS (SELECT 1 FROM microchips WHERE codigo = p_codigo AND eliminado = FALSE) THEN
+        SET v_mensaje = CONCAT('El código de microchip ''', p_codigo, ''' ya se encuentra registrado.');
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_mensaje;
+    END IF;
+
+    INSERT INTO mascotas (id, duenio_id, nombre, especie_id, raza_id, fecha_nacimiento)
+        VALUES (p_mascota_id, p_duenio_id, p_nombre, p_especie_id, p_raza_id, p_fecha_nacimiento);
+    SET v_mascota_id = COALESCE(p_mascota_id, LAST_INSERT_ID());
+
+    INSERT INTO microchips (id, codigo, observaciones, veterinaria_id, mascota_id)
+        VALUES (p_microchip_id, p_codigo, p_observaciones, p_veterinaria_id, v_mascota_id);
+    SET v_microchip_id = COALESCE(p_microchip_id, LAST_INSERT_ID());
+    COMMIT;
+
+    SELECT v_mascota_id AS mascota_id, v_microchip_id AS microchip_id;
+END //
+DELIMITER ;
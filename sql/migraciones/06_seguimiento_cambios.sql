@@ -0,0 +1,109 @@
+-- Migración 06: seguimiento de cambios para sincronización incremental (delta sync).
+-- Agrega 'actualizado_en' y 'seq_cambio' (indexada) a duenios, mascotas y microchips, y los triggers
+-- que numeran cada alta, modificación y baja lógica. Las filas existentes quedan con seq_cambio = 0:
+-- un consumidor nuevo hace una copia completa (recorrer) y luego pide los cambios desde el token inicial.
+-- (La migración 12 reemplaza estos triggers: la numeración pasa a hacerse fuera de la transacción que escribe.)
+USE gestion_mascota;
+
+ALTER TABLE duenios
+    ADD COLUMN actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD COLUMN seq_cambio BIGINT NOT NULL DEFAULT 0,
+    ADD INDEX idx_duenios_seq_cambio (seq_cambio);
+
+ALTER TABLE mascotas
+    ADD COLUMN actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD COLUMN seq_cambio BIGINT NOT NULL DEFAULT 0,
+    ADD INDEX idx_mascotas_seq_cambio (seq_cambio);
+
+ALTER TABLE microchips
+    ADD COLUMN actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD COLUMN seq_cambio BIGINT NOT NULL DEFAULT 0,
+    ADD INDEX idx_microchips_seq_cambio (seq_cambio);
+
+INSERT INTO secuencias (tabla, proximo) VALUES
+    ('cambios.duenios', 1),
+    ('cambios.mascotas', 1),
+    ('cambios.microchips', 1);
+
+-- SECUENCIA DE CAMBIOS (sincronización incremental, ver DuenioDAO/MascotaDAO/MicrochipDAO.cambiosDesde)
+-- Toda escritura (alta, modificación o baja lógica, desde los DAOs o desde el procedimiento) toma el
+-- siguiente número de 'cambios.<tabla>'. El lock de esa fila se mantiene hasta el COMMIT, así que
+-- las escrituras de una misma tabla se confirman en el orden de su número: un consumidor que lee
+-- "seq_cambio > último visto" no saltea cambios que todavía no eran visibles.
+-- Con @omitir_seq_cambio definida en la sesión (carga masiva) las filas quedan con seq_cambio = 0.
+DROP TRIGGER IF EXISTS trg_duenios_cambio_ins;
+DROP TRIGGER IF EXISTS trg_duenios_cambio_upd;
+DROP TRIGGER IF EXISTS trg_mascotas_cambio_ins;
+DROP TRIGGER IF EXISTS trg_mascotas_cambio_upd;
+DROP TRIGGER IF EXISTS trg_microchips_cambio_ins;
+DROP TRIGGER IF EXISTS trg_microchips_cambio_upd;
+DELIMITER //
+CREATE TRIGGER trg_duenios_cambio_ins BEFORE INSERT ON duenios FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        UPDATE secuencias SET proximo = LAST_INSERT_ID(proximo) + 1 WHERE tabla = 'cambios.duenios';
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Falta la secuencia de cambios de duenios.';
+        END IF;
+        SET NEW.seq_cambio = LAST_INSERT_ID();
+    END IF;
+END //
+
+CREATE TRIGGER trg_duenios_cambio_upd BEFORE UPDATE ON duenios FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        UPDATE secuencias SET proximo = LAST_INSERT_ID(proximo) + 1 WHERE tabla = 'cambios.duenios';
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Falta la secuencia de cambios de duenios.';
+        END IF;
+        SET NEW.seq_cambio = LAST_INSERT_ID();
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_cambio_ins BEFORE INSERT ON mascotas FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        UPDATE secuencias SET proximo = LAST_INSERT_ID(proximo) + 1 WHERE tabla = 'cambios.mascotas';
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Falta la secuencia de cambios de mascotas.';
+        END IF;
+        SET NEW.seq_cambio = LAST_INSERT_ID();
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_cambio_upd BEFORE UPDATE ON mascotas FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        UPDATE secuencias SET proximo = LAST_INSERT_ID(proximo) + 1 WHERE tabla = 'cambios.mascotas';
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Falta la secuencia de cambios de mascotas.';
+        END IF;
+        SET NEW.seq_cambio = LAST_INSERT_ID();
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_cambio_ins BEFORE INSERT ON microchips FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        UPDATE secuencias SET proximo = LAST_INSERT_ID(proximo) + 1 WHERE tabla = 'cambios.microchips';
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Falta la secuencia de cambios de microchips.';
+        END IF;
+        SET NEW.seq_cambio = LAST_INSERT_ID();
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_cambio_upd BEFORE UPDATE ON microchips FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        UPDATE secuencias SET proximo = LAST_INSERT_ID(proximo) + 1 WHERE tabla = 'cambios.microchips';
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Falta la secuencia de cambios de microchips.';
+        END IF;
+        SET NEW.seq_cambio = LAST_INSERT_ID();
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+DELIMITER ;
@@ -0,0 +1,35 @@
+-- Migración 07: tabla de auditoría (solo inserción) con imágenes antes/después de cada escritura.
+-- La aplicación la completa en segundo plano y por lotes (auditoria.destino=tabla); los triggers
+-- impiden modificar o borrar registros.
+USE gestion_mascota;
+
+-- AUDITORÍA (solo inserción; la escribe en segundo plano auditoria.Auditoria, por lotes)
+-- Imágenes JSON antes/después de cada alta, modificación o baja hecha desde los servicios.
+CREATE TABLE auditoria (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    instante TIMESTAMP(3) NOT NULL,
+    usuario VARCHAR(64) NOT NULL,
+    entidad VARCHAR(20) NOT NULL,
+    entidad_id BIGINT,
+    operacion VARCHAR(20) NOT NULL,
+    antes JSON,
+    despues JSON,
+
+    -- ÍNDICES (historia de una entidad)
+    INDEX idx_auditoria_entidad (entidad, entidad_id, instante)
+);
+
+-- La auditoría no se modifica ni se borra
+DROP TRIGGER IF EXISTS trg_auditoria_sin_update;
+DROP TRIGGER IF EXISTS trg_auditoria_sin_delete;
+DELIMITER //
+CREATE TRIGGER trg_auditoria_sin_update BEFORE UPDATE ON auditoria FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'La auditoría es de solo inserción.';
+END //
+
+CREATE TRIGGER trg_auditoria_sin_delete BEFORE DELETE ON auditoria FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'La auditoría es de solo inserción.';
+END //
+DELIMITER ;
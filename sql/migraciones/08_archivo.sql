@@ -0,0 +1,59 @@
+-- Migración 08: tablas de archivo para las bajas lógicas antiguas y avance del archivador.
+-- herramientas.ArchivadorEliminados mueve por lotes las filas dadas de baja hace más de
+-- 'archivado.retencion_dias' días, para que no ocupen lugar en los índices de las tablas activas.
+USE gestion_mascota;
+
+-- ARCHIVO (bajas lógicas antiguas movidas fuera de las tablas activas, ver herramientas.ArchivadorEliminados)
+-- Mismas columnas que las tablas activas, sin FKs ni UNIQUE (un DNI o código archivado puede volver a usarse).
+CREATE TABLE duenios_archivo (
+    id BIGINT PRIMARY KEY,
+    dni VARCHAR(20) NOT NULL,
+    nombre VARCHAR(80) NOT NULL,
+    apellido VARCHAR(80) NOT NULL,
+    telefono VARCHAR(30),
+    email VARCHAR(120),
+    direccion VARCHAR (50),
+    eliminado BOOLEAN NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL,
+    seq_cambio BIGINT NOT NULL,
+    archivado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_duenios_archivo_dni (dni)
+);
+
+CREATE TABLE mascotas_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    nombre VARCHAR(60) NOT NULL,
+    especie_id TINYINT UNSIGNED NOT NULL,
+    raza_id SMALLINT UNSIGNED,
+    fecha_nacimiento DATE,
+    duenio_id BIGINT NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL,
+    seq_cambio BIGINT NOT NULL,
+    archivado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_mascotas_archivo_duenio (duenio_id)
+);
+
+CREATE TABLE microchips_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    codigo VARCHAR(25) NOT NULL,
+    observaciones TEXT,
+    veterinaria_id SMALLINT UNSIGNED,
+    mascota_id BIGINT NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL,
+    seq_cambio BIGINT NOT NULL,
+    archivado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_microchips_archivo_mascota (mascota_id),
+    INDEX idx_microchips_archivo_codigo (codigo)
+);
+
+-- Avance del archivado por tabla (último ID revisado): una ejecución interrumpida continúa desde ahí
+CREATE TABLE archivado_progreso (
+    tabla VARCHAR(64) PRIMARY KEY,
+    ultimo_id BIGINT NOT NULL,
+    actualizado_en TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)
+);
@@ -0,0 +1,114 @@
+-- Migración 09 (OPCIONAL, bases con decenas de millones de mascotas): particionado por rango de 'id' de 'mascotas'.
+-- Cada partición cubre 'particiones.tamanio_ids' IDs consecutivos (por defecto 5.000.000) y se llama
+-- p<primer id>; la última, 'pmax', recibe cualquier ID posterior. herramientas.MantenedorParticiones
+-- agrega particiones por delante del crecimiento partiendo 'pmax' mientras todavía está vacía.
+--
+-- LIMITACIONES DE MySQL y cómo se resuelven:
+-- 1. Una tabla InnoDB particionada no puede tener FKs ni ser referenciada por una FK. Se quitan las FKs de
+--    'mascotas' y la de 'microchips' hacia 'mascotas', y se reemplazan por triggers que hacen la misma
+--    verificación (solo con foreign_key_checks = 1, igual que una FK, así CargadorMasivo sigue sin pagarla).
+--    A diferencia de una FK, el trigger no bloquea la fila padre: la aplicación nunca borra físicamente
+--    dueños ni mascotas (solo ArchivadorEliminados, que lo hace en orden y bajo FOR UPDATE).
+-- 2. Toda clave UNIQUE debe incluir la columna de particionado. 'mascotas' solo tiene la PK (id), pero
+--    'microchips' tiene UNIQUE(codigo), UNIQUE(mascota_id) y UNIQUE(codigo_iso), de los que dependen el
+--    upsert por código y la unicidad de chip por mascota: 'microchips' NO se particiona (es, a lo sumo,
+--    una fila por mascota y todas sus búsquedas son por índice).
+-- 3. Solo las consultas que filtran por 'id' leen una única partición (leerPorId, actualizar, eliminar).
+--    buscarPorDuenioId y contarMascotasActivasPorDuenio recorren el índice de 'duenio_id' de cada
+--    partición; herramientas.VerificadorPlanes controla qué consultas podan.
+USE gestion_mascota;
+
+-- 1. FKs -> triggers de integridad (los índices que respaldaban las FKs, ej. el de 'duenio_id', se conservan)
+ALTER TABLE microchips DROP FOREIGN KEY fk_microchip_mascota;
+ALTER TABLE mascotas
+    DROP FOREIGN KEY fk_mascota_duenio,
+    DROP FOREIGN KEY fk_mascota_especie,
+    DROP FOREIGN KEY fk_mascota_raza;
+
+DROP TRIGGER IF EXISTS trg_mascotas_ref_ins;
+DROP TRIGGER IF EXISTS trg_mascotas_ref_upd;
+DROP TRIGGER IF EXISTS trg_mascotas_ref_del;
+DROP TRIGGER IF EXISTS trg_microchips_ref_ins;
+DROP TRIGGER IF EXISTS trg_microchips_ref_upd;
+DROP TRIGGER IF EXISTS trg_duenios_ref_del;
+DELIMITER //
+CREATE TRIGGER trg_mascotas_ref_ins BEFORE INSERT ON mascotas FOR EACH ROW
+BEGIN
+    IF @@SESSION.foreign_key_checks = 1 THEN
+        IF NOT EXISTS (SELECT 1 FROM duenios WHERE id = NEW.duenio_id) THEN
+            SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'La mascota referencia un dueño inexistente.';
+        END IF;
+        IF NOT EXISTS (SELECT 1 FROM especies WHERE id = NEW.especie_id) THEN
+            SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'La mascota referencia una especie inexistente.';
+        END IF;
+        IF NEW.raza_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM razas WHERE id = NEW.raza_id) THEN
+            SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'La mascota referencia una raza inexistente.';
+        END IF;
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_ref_upd BEFORE UPDATE ON mascotas FOR EACH ROW
+BEGIN
+    IF @@SESSION.foreign_key_checks = 1 THEN
+        IF NEW.duenio_id <> OLD.duenio_id AND NOT EXISTS (SELECT 1 FROM duenios WHERE id = NEW.duenio_id) THEN
+            SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'La mascota referencia un dueño inexistente.';
+        END IF;
+        IF NEW.especie_id <> OLD.especie_id AND NOT EXISTS (SELECT 1 FROM especies WHERE id = NEW.especie_id) THEN
+            SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'La mascota referencia una especie inexistente.';
+        END IF;
+        IF NOT (NEW.raza_id <=> OLD.raza_id) AND NEW.raza_id IS NOT NULL
+                AND NOT EXISTS (SELECT 1 FROM razas WHERE id = NEW.raza_id) THEN
+            SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'La mascota referencia una raza inexistente.';
+        END IF;
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_ref_del BEFORE DELETE ON mascotas FOR EACH ROW
+BEGIN
+    IF @@SESSION.foreign_key_checks = 1 AND EXISTS (SELECT 1 FROM microchips WHERE mascota_id = OLD.id) THEN
+        SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'La mascota todavía tiene un microchip.';
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_ref_ins BEFORE INSERT ON microchips FOR EACH ROW
+BEGIN
+    IF @@SESSION.foreign_key_checks = 1 AND NOT EXISTS (SELECT 1 FROM mascotas WHERE id = NEW.mascota_id) THEN
+        SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'El microchip referencia una mascota inexistente.';
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_ref_upd BEFORE UPDATE ON microchips FOR EACH ROW
+BEGIN
+    IF @@SESSION.foreign_key_checks = 1 AND NEW.mascota_id <> OLD.mascota_id
+            AND NOT EXISTS (SELECT 1 FROM mascotas WHERE id = NEW.mascota_id) THEN
+        SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'El microchip referencia una mascota inexistente.';
+    END IF;
+END //
+
+CREATE TRIGGER trg_duenios_ref_del BEFORE DELETE ON duenios FOR EACH ROW
+BEGIN
+    IF @@SESSION.foreign_key_checks = 1 AND EXISTS (SELECT 1 FROM mascotas WHERE duenio_id = OLD.id) THEN
+        SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'El dueño todavía tiene mascotas.';
+    END IF;
+END //
+DELIMITER ;
+
+-- 2. Particiones iniciales: desde 0 hasta el próximo ID que se puede asignar (MAX(id) o el bloque
+-- hi-lo ya reservado en 'secuencias'), más una partición libre por delante y 'pmax'.
+SET SESSION group_concat_max_len = 1000000; -- Una definición por partición
+SET @tamanio_particion = 5000000;
+SELECT GREATEST(COALESCE((SELECT MAX(id) FROM mascotas), 0),
+                COALESCE((SELECT proximo FROM secuencias WHERE tabla = 'mascotas'), 0)) DIV @tamanio_particion + 1
+    INTO @ultima_particion;
+
+SELECT GROUP_CONCAT(CONCAT('PARTITION p', n * @tamanio_particion,
+                           ' VALUES LESS THAN (', (n + 1) * @tamanio_particion, ')') ORDER BY n SEPARATOR ', ')
+    INTO @particiones
+    FROM (WITH RECURSIVE rango (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM rango WHERE n < @ultima_particion)
+          SELECT n FROM rango) r;
+
+SET @sql_particionar = CONCAT('ALTER TABLE mascotas PARTITION BY RANGE (id) (', @particiones,
+                              ', PARTITION pmax VALUES LESS THAN MAXVALUE)');
+PREPARE particionar FROM @sql_particionar;
+EXECUTE particionar;
+DEALLOCATE PREPARE particionar;
@@ -0,0 +1,62 @@
+-- Migración 10: contador desnormalizado de mascotas activas por dueño ('duenios.mascotas_activas').
+-- Evita el COUNT(*) sobre 'mascotas' al consultar o dar de baja un dueño y permite listar dueños con su
+-- cantidad de mascotas. Lo mantienen, en la misma transacción, sp_crear_mascota_completa (que ahora
+-- verifica y bloquea al dueño con el propio UPDATE del contador), la importación por lotes y la baja
+-- de mascotas; dao.ReconciliadorMascotasActivas detecta y corrige desvíos en segundo plano.
+USE gestion_mascota;
+
+ALTER TABLE duenios ADD COLUMN mascotas_activas INT NOT NULL DEFAULT 0 AFTER eliminado;
+
+-- Valor inicial (cada dueño con mascotas recibe un número de cambio nuevo: el contador es parte de la fila)
+UPDATE duenios d
+    JOIN (SELECT duenio_id, COUNT(*) AS cantidad FROM mascotas WHERE eliminado = FALSE GROUP BY duenio_id) c
+        ON c.duenio_id = d.id
+    SET d.mascotas_activas = c.cantidad;
+
+DROP PROCEDURE IF EXISTS sp_crear_mascota_completa;
+DELIMITER //
+CREATE PROCEDURE sp_crear_mascota_completa(
+    IN p_mascota_id BIGINT,
+    IN p_duenio_id BIGINT,
+    IN p_nombre VARCHAR(60),
+    IN p_especie_id TINYINT UNSIGNED,
+    IN p_raza_id SMALLINT UNSIGNED,
+    IN p_fecha_nacimiento DATE,
+    IN p_microchip_id BIGINT,
+    IN p_codigo VARCHAR(25),
+    IN p_observaciones TEXT,
+    IN p_veterinaria_id SMALLINT UNSIGNED)
+BEGIN
+    DECLARE v_mascota_id BIGINT;
+    DECLARE v_microchip_id BIGINT;
+    DECLARE v_mensaje VARCHAR(200);
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL; -- Conserva el SQLSTATE original (45000 = regla de negocio, 23000 = restricción)
+    END;
+
+    START TRANSACTION;
+    -- Suma la mascota al contador del dueño: verifica que esté activo y lo bloquea hasta el COMMIT
+    UPDATE duenios SET mascotas_activas = mascotas_activas + 1 WHERE id = p_duenio_id AND eliminado = FALSE;
+    IF ROW_COUNT() = 0 THEN
+        SET v_mensaje = CONCAT('El dueño con ID ', p_duenio_id, ' no existe.');
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_mensaje;
+    END IF;
+    IF EXISTS (SELECT 1 FROM microchips WHERE codigo = p_codigo AND eliminado = FALSE) THEN
+        SET v_mensaje = CONCAT('El código de microchip ''', p_codigo, ''' ya se encuentra registrado.');
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_mensaje;
+    END IF;
+
+    INSERT INTO mascotas (id, duenio_id, nombre, especie_id, raza_id, fecha_nacimiento)
+        VALUES (p_mascota_id, p_duenio_id, p_nombre, p_especie_id, p_raza_id, p_fecha_nacimiento);
+    SET v_mascota_id = COALESCE(p_mascota_id, LAST_INSERT_ID());
+
+    INSERT INTO microchips (id, codigo, observaciones, veterinaria_id, mascota_id)
+        VALUES (p_microchip_id, p_codigo, p_observaciones, p_veterinaria_id, v_mascota_id);
+    SET v_microchip_id = COALESCE(p_microchip_id, LAST_INSERT_ID());
+    COMMIT;
+
+    SELECT v_mascota_id AS mascota_id, v_microchip_id AS microchip_id;
+END //
+DELIMITER ;
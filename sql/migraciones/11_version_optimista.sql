@@ -0,0 +1,12 @@
+-- Migración 11: columna 'version' para concurrencia optimista en 'duenios', 'mascotas' y 'microchips'.
+-- Las entidades leídas llevan su versión; el UPDATE de los DAOs la exige en el WHERE y la incrementa,
+-- así dos operadores que editan el mismo registro no se pisan en silencio y nadie bloquea la fila
+-- mientras edita. Las bajas lógicas, los traspasos y los upserts también la incrementan; el contador
+-- 'mascotas_activas' no (no es un dato que edite un operador).
+-- Las tablas '*_archivo' no la necesitan: una fila archivada no se actualiza.
+USE gestion_mascota;
+
+-- Las filas existentes quedan en la versión 0
+ALTER TABLE duenios ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER mascotas_activas;
+ALTER TABLE mascotas ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER duenio_id;
+ALTER TABLE microchips ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER mascota_id;
@@ -0,0 +1,91 @@
+-- Migración 12: numeración diferida de 'seq_cambio'.
+-- Con los triggers de la migración 06 cada escritura tomaba el siguiente número de 'cambios.<tabla>' y
+-- retenía el lock de esa fila hasta el COMMIT: todas las escrituras de una tabla hacían cola sobre una
+-- única fila, dos transacciones que escribían mascotas y microchips en distinto orden se bloqueaban
+-- mutuamente sin compartir datos, y cada ajuste del contador 'mascotas_activas' renumeraba al dueño.
+-- Ahora 'seq_cambio' admite NULL (cambio pendiente de numerar) y los triggers no tocan 'secuencias'.
+-- Las tablas '*_archivo' no cambian: herramientas.ArchivadorEliminados solo mueve filas ya numeradas.
+USE gestion_mascota;
+
+ALTER TABLE duenios MODIFY COLUMN seq_cambio BIGINT NULL DEFAULT 0;
+ALTER TABLE mascotas MODIFY COLUMN seq_cambio BIGINT NULL DEFAULT 0;
+ALTER TABLE microchips MODIFY COLUMN seq_cambio BIGINT NULL DEFAULT 0;
+
+-- SECUENCIA DE CAMBIOS (sincronización incremental, ver DuenioDAO/MascotaDAO/MicrochipDAO.cambiosDesde)
+-- Los triggers solo marcan como pendiente (seq_cambio = NULL) cada alta y cada modificación o baja
+-- lógica de los datos; el número lo asigna después dao.NumeradorCambios, en transacciones cortas propias
+-- que se serializan sobre 'cambios.<tabla>' y saltean las filas que una transacción en curso tiene
+-- bloqueadas. Así ninguna escritura toma un lock global hasta su COMMIT, y los números ya confirmados
+-- siempre forman un prefijo: quien lee "seq_cambio > último visto" no saltea cambios.
+-- No son cambios: el ajuste del contador 'mascotas_activas' ni la propia numeración (el UPDATE que asigna
+-- seq_cambio). Con @omitir_seq_cambio definida en la sesión (carga masiva) las filas quedan con seq_cambio = 0.
+DROP TRIGGER IF EXISTS trg_duenios_cambio_ins;
+DROP TRIGGER IF EXISTS trg_duenios_cambio_upd;
+DROP TRIGGER IF EXISTS trg_mascotas_cambio_ins;
+DROP TRIGGER IF EXISTS trg_mascotas_cambio_upd;
+DROP TRIGGER IF EXISTS trg_microchips_cambio_ins;
+DROP TRIGGER IF EXISTS trg_microchips_cambio_upd;
+DELIMITER //
+CREATE TRIGGER trg_duenios_cambio_ins BEFORE INSERT ON duenios FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        SET NEW.seq_cambio = NULL;
+    END IF;
+END //
+
+CREATE TRIGGER trg_duenios_cambio_upd BEFORE UPDATE ON duenios FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL AND NEW.seq_cambio <=> OLD.seq_cambio
+       AND NOT (CAST(NEW.dni AS BINARY) <=> CAST(OLD.dni AS BINARY)
+               AND CAST(NEW.nombre AS BINARY) <=> CAST(OLD.nombre AS BINARY)
+               AND CAST(NEW.apellido AS BINARY) <=> CAST(OLD.apellido AS BINARY)
+               AND CAST(NEW.telefono AS BINARY) <=> CAST(OLD.telefono AS BINARY)
+               AND CAST(NEW.email AS BINARY) <=> CAST(OLD.email AS BINARY)
+               AND CAST(NEW.direccion AS BINARY) <=> CAST(OLD.direccion AS BINARY)
+               AND NEW.eliminado <=> OLD.eliminado) THEN
+        SET NEW.seq_cambio = NULL;
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_cambio_ins BEFORE INSERT ON mascotas FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        SET NEW.seq_cambio = NULL;
+    END IF;
+END //
+
+CREATE TRIGGER trg_mascotas_cambio_upd BEFORE UPDATE ON mascotas FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL AND NEW.seq_cambio <=> OLD.seq_cambio
+       AND NOT (CAST(NEW.nombre AS BINARY) <=> CAST(OLD.nombre AS BINARY)
+               AND NEW.eliminado <=> OLD.eliminado
+               AND NEW.especie_id <=> OLD.especie_id
+               AND NEW.raza_id <=> OLD.raza_id
+               AND NEW.fecha_nacimiento <=> OLD.fecha_nacimiento
+               AND NEW.duenio_id <=> OLD.duenio_id) THEN
+        SET NEW.seq_cambio = NULL;
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_cambio_ins BEFORE INSERT ON microchips FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL THEN
+        SET NEW.seq_cambio = NULL;
+    END IF;
+END //
+
+CREATE TRIGGER trg_microchips_cambio_upd BEFORE UPDATE ON microchips FOR EACH ROW
+BEGIN
+    IF @omitir_seq_cambio IS NULL AND NEW.seq_cambio <=> OLD.seq_cambio
+       AND NOT (CAST(NEW.codigo AS BINARY) <=> CAST(OLD.codigo AS BINARY)
+               AND CAST(NEW.observaciones AS BINARY) <=> CAST(OLD.observaciones AS BINARY)
+               AND NEW.eliminado <=> OLD.eliminado
+               AND NEW.veterinaria_id <=> OLD.veterinaria_id
+               AND NEW.mascota_id <=> OLD.mascota_id) THEN
+        SET NEW.seq_cambio = NULL;
+        SET NEW.actualizado_en = CURRENT_TIMESTAMP(3);
+    END IF;
+END //
+DELIMITER ;
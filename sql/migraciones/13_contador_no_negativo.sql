@@ -0,0 +1,13 @@
+-- Migración 13: 'duenios.mascotas_activas' nunca negativo.
+-- Un descuento de más (por ejemplo, la baja de una mascota de una base sembrada sin el contador) deja de
+-- pasar en silencio: la sentencia que lo desvía falla y su transacción se deshace.
+-- Antes de agregar la restricción se recalculan todos los contadores (igual que la migración 10, incluidos
+-- los dueños sin mascotas activas), así una base ya desviada no impide la migración.
+USE gestion_mascota;
+
+UPDATE duenios d
+    LEFT JOIN (SELECT duenio_id, COUNT(*) AS cantidad FROM mascotas WHERE eliminado = FALSE GROUP BY duenio_id) c
+        ON c.duenio_id = d.id
+    SET d.mascotas_activas = COALESCE(c.cantidad, 0);
+
+ALTER TABLE duenios ADD CONSTRAINT chk_mascotas_activas CHECK (mascotas_activas >= 0);
@@ -0,0 +1,242 @@
+package auditoria;
+
+import auditoria.RegistroAuditoria.Operacion;
+import config.Configuracion;
+import entities.Duenio;
+import entities.Mascota;
+import entities.Microchip;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de auditoría asíncrono ("write-behind") de todas las escrituras de los servicios.
+ *
+ * ROL: Dejar constancia de quién cambió qué dueño, mascota o microchip y cuándo, con sus imágenes
+ * antes/después, sin sumar un INSERT a cada transacción de negocio.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Captura:** Los servicios llaman a {@code registrarX(...)} después del commit; la entrada se
+ * arma en ese momento (imágenes JSON) y se encola en memoria.
+ * 2.  **Contrapresión acotada:** La cola tiene capacidad fija. Si está llena, el hilo de la operación
+ * espera como máximo 'auditoria.espera_maxima_ms'; si aun así no hay lugar, la entrada se descarta y
+ * se cuenta en {@link #getDescartados()} (la escritura de negocio ya está confirmada y no se frena
+ * indefinidamente por un destino caído).
+ * 3.  **Escritura por lotes:** Un hilo propio vacía la cola en lotes de hasta 'auditoria.lote' entradas
+ * hacia el destino configurado: la tabla 'auditoria' (un INSERT multi-fila por lote) o archivos
+ * JSON Lines segmentados. Un lote que falla se reintenta antes de darlo por perdido.
+ * 4.  **Cierre:** {@link #cerrar()} deja de aceptar entradas y escribe todo lo pendiente antes de volver.
+ */
+public final class Auditoria {
+
+    public static final String DUENIOS = "duenios";
+    public static final String MASCOTAS = "mascotas";
+    public static final String MICROCHIPS = "microchips";
+
+    private static final long INTERVALO_SONDEO_MS = 200;
+    private static final int INTENTOS_POR_LOTE = 3;
+    private static final long PAUSA_REINTENTO_MS = 1_000;
+    private static final long ESPERA_CIERRE_MS = 30_000;
+
+    private final DestinoAuditoria destino; // null = auditoría desactivada
+    private final String usuario;
+    private final BlockingQueue<RegistroAuditoria> cola;
+    private final int tamanioLote;
+    private final long esperaMaximaMs;
+    private final Thread escritor;
+    private volatile boolean activa;
+
+    private final LongAdder registrados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder perdidos = new LongAdder();
+
+    private Auditoria(DestinoAuditoria destino, String usuario, int capacidad, int tamanioLote, long esperaMaximaMs) {
+        this.destino = destino;
+        this.usuario = usuario;
+        this.cola = new ArrayBlockingQueue<>(Math.max(1, capacidad));
+        this.tamanioLote = tamanioLote;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.activa = destino != null;
+        if (activa) {
+            escritor = new Thread(this::escribirPendientes, "auditoria-escritor");
+            escritor.setDaemon(true); // El cierre ordenado lo hace cerrar(); no impide terminar la aplicación
+            escritor.start();
+        } else {
+            escritor = null;
+        }
+    }
+
+    /** @return Una auditoría que no registra nada ('auditoria.destino=ninguno'). */
+    public static Auditoria desactivada() {
+        return new Auditoria(null, null, 1, 1, 0);
+    }
+
+    /**
+     * Crea la auditoría según la configuración vigente ('auditoria.*').
+     *
+     * @throws IllegalStateException Si el destino es 'archivo' y el directorio no se puede preparar.
+     */
+    public static Auditoria configurada() {
+        Configuracion cfg = Configuracion.actual();
+        String tipo = cfg.getString(Configuracion.AUDITORIA_DESTINO).toLowerCase(Locale.ROOT);
+        DestinoAuditoria destino;
+        try {
+            destino = switch (tipo) {
+                case "tabla" -> new DestinoTablaAuditoria();
+                case "archivo" -> new DestinoArchivoAuditoria(Paths.get(cfg.getString(Configuracion.AUDITORIA_DIRECTORIO)),
+                        cfg.getLong(Configuracion.AUDITORIA_TAMANIO_SEGMENTO_MB) * 1024 * 1024);
+                default -> null;
+            };
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo preparar la auditoría en archivo: " + e.getMessage(), e);
+        }
+        String usuario = cfg.getString(Configuracion.AUDITORIA_USUARIO, System.getProperty("user.name", "desconocido"));
+        return new Auditoria(destino, usuario, cfg.getInt(Configuracion.AUDITORIA_CAPACIDAD),
+                cfg.getInt(Configuracion.AUDITORIA_LOTE), cfg.getLong(Configuracion.AUDITORIA_ESPERA_MAXIMA_MS));
+    }
+
+    /**
+     * @return true si se están registrando cambios. Los servicios lo consultan antes de leer
+     * la imagen previa, para no pagar esa lectura con la auditoría desactivada.
+     */
+    public boolean isActiva() {
+        return activa;
+    }
+
+    // --- 1. CAPTURA (después del commit) ---
+
+    public void registrarDuenio(Operacion operacion, Duenio antes, Duenio despues) {
+        if (activa) {
+            encolar(DUENIOS, id(antes == null ? null : antes.getId(), despues == null ? null : despues.getId()),
+                    operacion, ImagenAuditoria.de(antes), ImagenAuditoria.de(despues));
+        }
+    }
+
+    public void registrarMascota(Operacion operacion, Mascota antes, Mascota despues) {
+        if (activa) {
+            encolar(MASCOTAS, id(antes == null ? null : antes.getId(), despues == null ? null : despues.getId()),
+                    operacion, ImagenAuditoria.de(antes), ImagenAuditoria.de(despues));
+        }
+    }
+
+    public void registrarMicrochip(Operacion operacion, Microchip antes, Microchip despues) {
+        if (activa) {
+            encolar(MICROCHIPS, id(antes == null ? null : antes.getId(), despues == null ? null : despues.getId()),
+                    operacion, ImagenAuditoria.de(antes), ImagenAuditoria.de(despues));
+        }
+    }
+
+    private void encolar(String entidad, Long entidadId, Operacion operacion, String antes, String despues) {
+        RegistroAuditoria registro = new RegistroAuditoria(usuario, entidad, entidadId, operacion, antes, despues);
+        try {
+            if (cola.offer(registro) || cola.offer(registro, esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                registrados.increment();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        descartados.increment();
+    }
+
+    // --- 2. ESCRITURA EN SEGUNDO PLANO ---
+
+    private void escribirPendientes() {
+        List<RegistroAuditoria> lote = new ArrayList<>(tamanioLote);
+        while (true) {
+            try {
+                RegistroAuditoria primero = cola.poll(INTERVALO_SONDEO_MS, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    if (!activa && cola.isEmpty()) {
+                        return; // Cerrada y sin pendientes
+                    }
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, tamanioLote - 1);
+                escribir(lote);
+                lote.clear();
+            } catch (InterruptedException e) {
+                activa = false; // Se termina de vaciar la cola antes de salir
+            }
+        }
+    }
+
+    private void escribir(List<RegistroAuditoria> lote) {
+        for (int intento = 1; intento <= INTENTOS_POR_LOTE; intento++) {
+            try {
+                destino.escribir(lote);
+                escritos.add(lote.size());
+                return;
+            } catch (Exception e) {
+                System.err.println("[Auditoria] Falló la escritura de " + lote.size() + " registros (intento "
+                        + intento + " de " + INTENTOS_POR_LOTE + "): " + e.getMessage());
+                if (intento < INTENTOS_POR_LOTE) {
+                    try {
+                        Thread.sleep(PAUSA_REINTENTO_MS);
+                    } catch (InterruptedException ie) {
+                        activa = false;
+                    }
+                }
+            }
+        }
+        perdidos.add(lote.size());
+    }
+
+    // --- 3. CIERRE Y MÉTRICAS ---
+
+    /**
+     * Deja de aceptar entradas, escribe las pendientes y cierra el destino.
+     * Se invoca al terminar la aplicación, antes de cerrar el pool.
+     */
+    public synchronized void cerrar() {
+        if (escritor == null || !escritor.isAlive()) {
+            return;
+        }
+        activa = false;
+        try {
+            escritor.join(ESPERA_CIERRE_MS);
+            destino.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("[Auditoria] Error al cerrar el destino: " + e.getMessage());
+        }
+        if (!cola.isEmpty()) {
+            System.err.println("[Auditoria] Quedaron " + cola.size() + " registros sin escribir.");
+        }
+    }
+
+    public long getRegistrados() {
+        return registrados.sum();
+    }
+
+    public long getEscritos() {
+        return escritos.sum();
+    }
+
+    /** @return Entradas rechazadas por cola llena (contrapresión agotada). */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /** @return Entradas encoladas que no se pudieron escribir tras los reintentos. */
+    public long getPerdidos() {
+        return perdidos.sum();
+    }
+
+    /** @return Entradas esperando escritura. */
+    public int getPendientes() {
+        return cola.size();
+    }
+
+    private static Long id(Long antes, Long despues) {
+        return despues != null ? despues : antes;
+    }
+}
@@ -0,0 +1,95 @@
+package auditoria;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Guarda los lotes como JSON Lines en archivos locales segmentados, solo agregando al final.
+ *
+ * Los segmentos se llaman 'auditoria-000001.jsonl', 'auditoria-000002.jsonl', ...; al superar el
+ * tamaño configurado se abre el siguiente. Cada lote se escribe de una vez y se fuerza a disco
+ * (un fsync por lote, no por registro). Al reiniciar, se continúa en el último segmento.
+ */
+final class DestinoArchivoAuditoria implements DestinoAuditoria {
+
+    private static final String PREFIJO = "auditoria-";
+    private static final String EXTENSION = ".jsonl";
+
+    private final Path directorio;
+    private final long tamanioSegmento;
+    private int numeroSegmento;
+    private FileChannel canal;
+
+    /**
+     * @param tamanioSegmento Bytes a partir de los cuales se cambia de segmento.
+     */
+    DestinoArchivoAuditoria(Path directorio, long tamanioSegmento) throws IOException {
+        this.directorio = directorio;
+        this.tamanioSegmento = tamanioSegmento;
+        Files.createDirectories(directorio);
+        this.numeroSegmento = Math.max(1, ultimoSegmento());
+        abrir();
+    }
+
+    @Override
+    public void escribir(List<RegistroAuditoria> lote) throws IOException {
+        StringBuilder sb = new StringBuilder(lote.size() * 256);
+        for (RegistroAuditoria r : lote) {
+            sb.append("{\"instante\":\"").append(Instant.ofEpochMilli(r.getInstanteMs())).append("\",\"usuario\":");
+            ImagenAuditoria.texto(sb, r.getUsuario());
+            sb.append(",\"entidad\":\"").append(r.getEntidad())
+              .append("\",\"entidad_id\":").append(r.getEntidadId())
+              .append(",\"operacion\":\"").append(r.getOperacion())
+              .append("\",\"antes\":").append(r.getAntes())
+              .append(",\"despues\":").append(r.getDespues())
+              .append("}\n");
+        }
+        if (canal.size() >= tamanioSegmento) {
+            canal.close();
+            numeroSegmento++;
+            abrir();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            canal.write(bytes);
+        }
+        canal.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    // --- MÉTODOS "HELPER" ---
+
+    private void abrir() throws IOException {
+        Path archivo = directorio.resolve(String.format("%s%06d%s", PREFIJO, numeroSegmento, EXTENSION));
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /** @return El número del segmento más reciente del directorio, o 0 si no hay ninguno. */
+    private int ultimoSegmento() throws IOException {
+        int ultimo = 0;
+        try (DirectoryStream<Path> segmentos = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            for (Path segmento : segmentos) {
+                String nombre = segmento.getFileName().toString();
+                String numero = nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length());
+                try {
+                    ultimo = Math.max(ultimo, Integer.parseInt(numero));
+                } catch (NumberFormatException e) {
+                    // Archivo ajeno con nombre parecido: se ignora
+                }
+            }
+        }
+        return ultimo;
+    }
+}
@@ -0,0 +1,18 @@
+package auditoria;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * Dónde se guardan los lotes de auditoría: la tabla 'auditoria' o archivos locales segmentados.
+ *
+ * Lo usa un único hilo (el escritor de {@link Auditoria}), así que las implementaciones no
+ * necesitan sincronización.
+ */
+interface DestinoAuditoria extends Closeable {
+
+    /**
+     * Guarda el lote completo de forma durable (o falla sin guardar una parte confirmada a medias).
+     */
+    void escribir(List<RegistroAuditoria> lote) throws Exception;
+}
@@ -0,0 +1,58 @@
+package auditoria;
+
+import config.DatabaseConnectionPool;
+import dao.PresupuestoConsulta;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Guarda los lotes en la tabla 'auditoria' (solo inserción) con un INSERT multi-fila por lote.
+ *
+ * Usa una conexión propia del pool y su propia transacción: nunca participa de la transacción
+ * de la operación auditada, que ya está confirmada cuando el registro llega acá.
+ */
+final class DestinoTablaAuditoria implements DestinoAuditoria {
+
+    private static final String SQL_INSERT =
+        "INSERT INTO auditoria (instante, usuario, entidad, entidad_id, operacion, antes, despues) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Override
+    public void escribir(List<RegistroAuditoria> lote) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
+                PresupuestoConsulta.aplicar(ps, "Auditoria.escribir");
+                for (RegistroAuditoria r : lote) {
+                    ps.setTimestamp(1, new Timestamp(r.getInstanteMs()));
+                    ps.setString(2, r.getUsuario());
+                    ps.setString(3, r.getEntidad());
+                    if (r.getEntidadId() == null) {
+                        ps.setNull(4, Types.BIGINT);
+                    } else {
+                        ps.setLong(4, r.getEntidadId());
+                    }
+                    ps.setString(5, r.getOperacion().name());
+                    ps.setString(6, r.getAntes());
+                    ps.setString(7, r.getDespues());
+                    ps.addBatch();
+                }
+                ps.executeBatch(); // Con 'rewriteBatchedStatements': un único INSERT multi-fila
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // Las conexiones son del pool: no hay nada propio que cerrar
+    }
+}
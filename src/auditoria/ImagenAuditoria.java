@@ -0,0 +1,103 @@
+package auditoria;
+
+import entities.Duenio;
+import entities.Mascota;
+import entities.Microchip;
+
+/**
+ * Serializa el estado de una entidad como un objeto JSON plano (imagen antes/después de la auditoría).
+ *
+ * Solo columnas propias: las relaciones se guardan por ID (una mascota no copia a su dueño).
+ */
+final class ImagenAuditoria {
+
+    private ImagenAuditoria() {
+    }
+
+    static String de(Duenio d) {
+        if (d == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(160).append('{');
+        campo(sb, "id", d.getId());
+        campo(sb, "dni", d.getDni());
+        campo(sb, "nombre", d.getNombre());
+        campo(sb, "apellido", d.getApellido());
+        campo(sb, "telefono", d.getTelefono());
+        campo(sb, "email", d.getEmail());
+        campo(sb, "direccion", d.getDireccion());
+        campo(sb, "eliminado", d.getEliminado());
+        return cerrar(sb);
+    }
+
+    static String de(Mascota m) {
+        if (m == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(160).append('{');
+        campo(sb, "id", m.getId());
+        campo(sb, "nombre", m.getNombre());
+        campo(sb, "especie", m.getEspecie());
+        campo(sb, "raza", m.getRaza());
+        campo(sb, "fecha_nacimiento", m.getFechaNacimiento() == null ? null : m.getFechaNacimiento().toString());
+        campo(sb, "duenio_id", m.getDuenio() == null ? null : m.getDuenio().getId());
+        campo(sb, "microchip_id", m.getMicrochip() == null ? null : m.getMicrochip().getId());
+        campo(sb, "eliminado", m.getEliminado());
+        return cerrar(sb);
+    }
+
+    static String de(Microchip c) {
+        if (c == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(160).append('{');
+        campo(sb, "id", c.getId());
+        campo(sb, "codigo", c.getCodigo());
+        campo(sb, "observaciones", c.getObservaciones());
+        campo(sb, "veterinaria", c.getVeterinaria());
+        campo(sb, "eliminado", c.getEliminado());
+        return cerrar(sb);
+    }
+
+    // --- MÉTODOS "HELPER" ---
+
+    private static void campo(StringBuilder sb, String nombre, Object valor) {
+        sb.append('"').append(nombre).append("\":");
+        if (valor == null) {
+            sb.append("null");
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            sb.append(valor);
+        } else {
+            texto(sb, valor.toString());
+        }
+        sb.append(',');
+    }
+
+    private static String cerrar(StringBuilder sb) {
+        sb.setCharAt(sb.length() - 1, '}'); // Reemplaza la última coma
+        return sb.toString();
+    }
+
+    /** Agrega el texto como cadena JSON (con escapes). */
+    static void texto(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
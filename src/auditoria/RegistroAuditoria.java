@@ -0,0 +1,69 @@
+package auditoria;
+
+/**
+ * Una entrada del registro de auditoría (inmutable): quién cambió qué entidad, cuándo y cómo.
+ *
+ * Las imágenes antes/después se guardan ya serializadas como JSON ({@link ImagenAuditoria}) en el
+ * momento del commit: la entrada no retiene entidades que el llamador podría seguir modificando.
+ */
+public final class RegistroAuditoria {
+
+    /** Tipo de cambio registrado. */
+    public enum Operacion {
+        ALTA,
+        MODIFICACION,
+        BAJA
+    }
+
+    private final long instanteMs;
+    private final String usuario;
+    private final String entidad;
+    private final Long entidadId;
+    private final Operacion operacion;
+    private final String antes;
+    private final String despues;
+
+    /**
+     * @param entidad Nombre de la tabla afectada (ej. "mascotas").
+     * @param entidadId ID de la fila, o null si todavía no se conoce (alta con AUTO_INCREMENT en lote).
+     * @param antes Imagen JSON previa (null en las altas).
+     * @param despues Imagen JSON posterior (null si no aplica).
+     */
+    RegistroAuditoria(String usuario, String entidad, Long entidadId, Operacion operacion, String antes, String despues) {
+        this.instanteMs = System.currentTimeMillis();
+        this.usuario = usuario;
+        this.entidad = entidad;
+        this.entidadId = entidadId;
+        this.operacion = operacion;
+        this.antes = antes;
+        this.despues = despues;
+    }
+
+    public long getInstanteMs() {
+        return instanteMs;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public Long getEntidadId() {
+        return entidadId;
+    }
+
+    public Operacion getOperacion() {
+        return operacion;
+    }
+
+    public String getAntes() {
+        return antes;
+    }
+
+    public String getDespues() {
+        return despues;
+    }
+}
@@ -0,0 +1,432 @@
+package config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Configuración externa de la aplicación (conexión, pool y driver).
+ *
+ * ROL: Reemplaza los valores fijos en el código para que ajustar el rendimiento no requiera recompilar.
+ *
+ * ORIGEN DE LOS VALORES (de menor a mayor prioridad):
+ * 1.  **Perfil:** Valores por defecto del perfil elegido con la clave 'perfil'
+ * ({@code interactivo}, {@code carga_masiva} o {@code reportes}).
+ * 2.  **Archivo:** 'gestion_mascotas.properties' en el directorio de trabajo, o la ruta indicada
+ * en la propiedad de sistema / variable de entorno 'GESTION_CONFIG'.
+ * 3.  **Variables de entorno:** Prefijo GESTION_ + clave en mayúsculas con '_' (ej. db.password -> GESTION_DB_PASSWORD).
+ * 4.  **Propiedades de sistema:** -Dclave=valor (ej. -Dperfil=reportes).
+ *
+ * La configuración se valida al cargarse (ver {@link #cargar()}); un valor inválido detiene el inicio
+ * con un mensaje que lista todos los problemas encontrados.
+ */
+public final class Configuracion {
+
+    // --- 1. CLAVES CONOCIDAS ---
+
+    public static final String PERFIL = "perfil";
+
+    public static final String DB_URL = "db.url";
+    public static final String DB_USUARIO = "db.usuario";
+    public static final String DB_PASSWORD = "db.password";
+
+    public static final String POOL_MAXIMO = "pool.maximo";
+    public static final String POOL_MINIMO_INACTIVAS = "pool.minimo_inactivas";
+    public static final String POOL_TIMEOUT_CONEXION_MS = "pool.timeout_conexion_ms";
+    public static final String POOL_TIMEOUT_INACTIVA_MS = "pool.timeout_inactiva_ms";
+    public static final String POOL_VIDA_MAXIMA_MS = "pool.vida_maxima_ms";
+    public static final String POOL_ESPERA_PRIMER_USO_MS = "pool.espera_primer_uso_ms";
+
+    public static final String DRIVER_SENTENCIAS_SERVIDOR = "driver.sentencias_servidor";
+    public static final String DRIVER_CACHE_SENTENCIAS = "driver.cache_sentencias";
+    public static final String DRIVER_CACHE_TAMANIO = "driver.cache_sentencias_tamanio";
+    public static final String DRIVER_CACHE_LIMITE_SQL = "driver.cache_sentencias_limite_sql";
+    public static final String DRIVER_REESCRIBIR_LOTES = "driver.reescribir_lotes";
+    public static final String DRIVER_FETCH_SIZE = "driver.fetch_size";
+    public static final String DRIVER_USAR_CURSOR = "driver.usar_cursor";
+
+    // Presupuestos de latencia (ver dao.PresupuestoConsulta y dao.Plazo). Se pueden afinar por
+    // operación con claves opcionales 'timeout.<Dao>.<metodo>' y 'plazo.<Servicio>.<metodo>'.
+    public static final String TIMEOUT_CONSULTA_DEFECTO_MS = "timeout.consulta_defecto_ms";
+    public static final String PLAZO_OPERACION_DEFECTO_MS = "plazo.operacion_defecto_ms";
+
+    // Asignación de IDs (ver dao.AsignadorIds): 'autoincremento' (la BD) o 'hilo' (bloques de la tabla 'secuencias')
+    public static final String IDS_ESTRATEGIA = "ids.estrategia";
+    public static final String IDS_TAMANIO_BLOQUE = "ids.tamanio_bloque";
+
+    // Bus de eventos de dominio (ver eventos.BusEventos)
+    public static final String EVENTOS_CAPACIDAD = "eventos.capacidad";
+    public static final String EVENTOS_HILOS_SUSCRIPTORES = "eventos.hilos_suscriptores";
+
+    // Auditoría asíncrona (ver auditoria.Auditoria): destino 'tabla', 'archivo' o 'ninguno'
+    public static final String AUDITORIA_DESTINO = "auditoria.destino";
+    public static final String AUDITORIA_CAPACIDAD = "auditoria.capacidad";
+    public static final String AUDITORIA_LOTE = "auditoria.lote";
+    public static final String AUDITORIA_ESPERA_MAXIMA_MS = "auditoria.espera_maxima_ms";
+    public static final String AUDITORIA_DIRECTORIO = "auditoria.directorio";
+    public static final String AUDITORIA_TAMANIO_SEGMENTO_MB = "auditoria.tamanio_segmento_mb";
+    public static final String AUDITORIA_USUARIO = "auditoria.usuario"; // Opcional: por defecto el usuario del sistema
+
+    // Archivado de bajas lógicas antiguas (ver herramientas.ArchivadorEliminados)
+    public static final String ARCHIVADO_RETENCION_DIAS = "archivado.retencion_dias";
+    public static final String ARCHIVADO_VENTANA_IDS = "archivado.ventana_ids";
+    public static final String ARCHIVADO_PAUSA_MS = "archivado.pausa_ms";
+
+    // Particionado por rango de id (ver sql/migraciones/09 y herramientas.MantenedorParticiones)
+    public static final String PARTICIONES_TAMANIO_IDS = "particiones.tamanio_ids";
+    public static final String PARTICIONES_ADELANTO = "particiones.adelanto";
+
+    // Reconciliación de 'duenios.mascotas_activas' (ver dao.ReconciliadorMascotasActivas); intervalo 0 = desactivada
+    public static final String CONTADORES_RECONCILIACION_INTERVALO_S = "contadores.reconciliacion_intervalo_s";
+    public static final String CONTADORES_VENTANA_IDS = "contadores.ventana_ids";
+
+    // Reintentos de transacciones abortadas por deadlock o espera de bloqueo (ver service.PoliticaReintentos)
+    public static final String REINTENTOS_MAXIMO_INTENTOS = "reintentos.maximo_intentos";
+    public static final String REINTENTOS_ESPERA_BASE_MS = "reintentos.espera_base_ms";
+    public static final String REINTENTOS_ESPERA_MAXIMA_MS = "reintentos.espera_maxima_ms";
+
+    public static final String ARCHIVO_POR_DEFECTO = "gestion_mascotas.properties";
+    private static final String CLAVE_RUTA_ARCHIVO = "GESTION_CONFIG";
+    private static final String PREFIJO_ENTORNO = "GESTION_";
+
+    // --- 2. PERFILES ---
+
+    private static final Map<String, String> COMUNES = new LinkedHashMap<>();
+    private static final Map<String, Map<String, String>> PERFILES = new LinkedHashMap<>();
+    static {
+        COMUNES.put(DB_URL, "jdbc:mysql://localhost:3306/gestion_mascota");
+        COMUNES.put(DB_USUARIO, "root");
+        COMUNES.put(DB_PASSWORD, "");
+        COMUNES.put(POOL_TIMEOUT_INACTIVA_MS, "600000");
+        COMUNES.put(POOL_VIDA_MAXIMA_MS, "1800000");
+        COMUNES.put(POOL_ESPERA_PRIMER_USO_MS, "10000");
+        COMUNES.put(DRIVER_CACHE_SENTENCIAS, "true");
+        COMUNES.put(DRIVER_CACHE_LIMITE_SQL, "2048");
+        COMUNES.put(IDS_ESTRATEGIA, "hilo");
+        COMUNES.put(EVENTOS_CAPACIDAD, "4096");
+        COMUNES.put(EVENTOS_HILOS_SUSCRIPTORES, "1");
+        COMUNES.put(AUDITORIA_DESTINO, "tabla");
+        COMUNES.put(AUDITORIA_CAPACIDAD, "10000");
+        COMUNES.put(AUDITORIA_LOTE, "500");
+        COMUNES.put(AUDITORIA_ESPERA_MAXIMA_MS, "50");
+        COMUNES.put(AUDITORIA_DIRECTORIO, "auditoria");
+        COMUNES.put(AUDITORIA_TAMANIO_SEGMENTO_MB, "64");
+        COMUNES.put(ARCHIVADO_RETENCION_DIAS, "90");
+        COMUNES.put(ARCHIVADO_VENTANA_IDS, "1000");
+        COMUNES.put(ARCHIVADO_PAUSA_MS, "100");
+        COMUNES.put(PARTICIONES_TAMANIO_IDS, "5000000");
+        COMUNES.put(PARTICIONES_ADELANTO, "2");
+        COMUNES.put(CONTADORES_RECONCILIACION_INTERVALO_S, "3600");
+        COMUNES.put(CONTADORES_VENTANA_IDS, "1000");
+        COMUNES.put(REINTENTOS_MAXIMO_INTENTOS, "4");
+        COMUNES.put(REINTENTOS_ESPERA_BASE_MS, "25");
+        COMUNES.put(REINTENTOS_ESPERA_MAXIMA_MS, "1000");
+
+        // Atención en mostrador: muchas consultas cortas, latencia baja, fallar rápido
+        PERFILES.put("interactivo", perfil(
+                POOL_MAXIMO, "10", POOL_MINIMO_INACTIVAS, "5", POOL_TIMEOUT_CONEXION_MS, "3000",
+                DRIVER_SENTENCIAS_SERVIDOR, "true", DRIVER_CACHE_TAMANIO, "250",
+                DRIVER_REESCRIBIR_LOTES, "true", DRIVER_FETCH_SIZE, "0", DRIVER_USAR_CURSOR, "false",
+                TIMEOUT_CONSULTA_DEFECTO_MS, "5000", PLAZO_OPERACION_DEFECTO_MS, "8000",
+                IDS_TAMANIO_BLOQUE, "50"));
+        // Importaciones: pocas conexiones, lotes grandes reescritos como INSERT multi-fila
+        PERFILES.put("carga_masiva", perfil(
+                POOL_MAXIMO, "4", POOL_MINIMO_INACTIVAS, "2", POOL_TIMEOUT_CONEXION_MS, "30000",
+                DRIVER_SENTENCIAS_SERVIDOR, "false", DRIVER_CACHE_TAMANIO, "50",
+                DRIVER_REESCRIBIR_LOTES, "true", DRIVER_FETCH_SIZE, "0", DRIVER_USAR_CURSOR, "false",
+                TIMEOUT_CONSULTA_DEFECTO_MS, "120000", PLAZO_OPERACION_DEFECTO_MS, "600000",
+                IDS_TAMANIO_BLOQUE, "5000"));
+        // Listados y exportaciones: resultados grandes leídos por cursor, en bloques
+        PERFILES.put("reportes", perfil(
+                POOL_MAXIMO, "4", POOL_MINIMO_INACTIVAS, "1", POOL_TIMEOUT_CONEXION_MS, "30000",
+                DRIVER_SENTENCIAS_SERVIDOR, "true", DRIVER_CACHE_TAMANIO, "100",
+                DRIVER_REESCRIBIR_LOTES, "false", DRIVER_FETCH_SIZE, "1000", DRIVER_USAR_CURSOR, "true",
+                TIMEOUT_CONSULTA_DEFECTO_MS, "300000", PLAZO_OPERACION_DEFECTO_MS, "900000",
+                IDS_TAMANIO_BLOQUE, "50"));
+    }
+
+    private static volatile Configuracion actual;
+
+    // --- 3. ESTADO ---
+
+    private final Map<String, String> valores;
+    private final Map<String, String> origenes;
+
+    private Configuracion(Map<String, String> valores, Map<String, String> origenes) {
+        this.valores = valores;
+        this.origenes = origenes;
+    }
+
+    // --- 4. CARGA Y VALIDACIÓN ---
+
+    /**
+     * Devuelve la configuración vigente (la carga la primera vez).
+     * @throws IllegalStateException Si la configuración es inválida.
+     */
+    public static Configuracion actual() {
+        Configuracion c = actual;
+        if (c == null) {
+            c = cargar();
+        }
+        return c;
+    }
+
+    /**
+     * (Re)carga la configuración desde todas sus fuentes y la valida.
+     * Main la invoca al iniciar para que un error de configuración se detecte de inmediato.
+     *
+     * @return La configuración cargada (queda como vigente).
+     * @throws IllegalStateException Si el archivo no se puede leer o algún valor es inválido.
+     */
+    public static synchronized Configuracion cargar() {
+        Properties archivo = leerArchivo();
+        Map<String, String> valores = new LinkedHashMap<>();
+        Map<String, String> origenes = new LinkedHashMap<>();
+
+        String perfil = primeroNoNulo(System.getProperty(PERFIL), System.getenv(claveEntorno(PERFIL)),
+                archivo.getProperty(PERFIL), "interactivo").trim().toLowerCase(Locale.ROOT);
+        Map<String, String> defectos = PERFILES.get(perfil);
+        if (defectos == null) {
+            throw new IllegalStateException("Configuración inválida: perfil '" + perfil
+                    + "' desconocido. Perfiles disponibles: " + PERFILES.keySet());
+        }
+        poner(valores, origenes, COMUNES, "defecto");
+        poner(valores, origenes, defectos, "perfil " + perfil);
+        for (String clave : archivo.stringPropertyNames()) {
+            valores.put(clave, archivo.getProperty(clave).trim());
+            origenes.put(clave, "archivo");
+        }
+        for (String clave : new ArrayList<>(valores.keySet())) {
+            String entorno = System.getenv(claveEntorno(clave));
+            if (entorno != null) {
+                valores.put(clave, entorno.trim());
+                origenes.put(clave, "entorno");
+            }
+            String sistema = System.getProperty(clave);
+            if (sistema != null) {
+                valores.put(clave, sistema.trim());
+                origenes.put(clave, "sistema");
+            }
+        }
+        valores.put(PERFIL, perfil);
+
+        Configuracion c = new Configuracion(valores, origenes);
+        c.validar();
+        actual = c;
+        return c;
+    }
+
+    private void validar() {
+        List<String> errores = new ArrayList<>();
+        if (!getString(DB_URL).startsWith("jdbc:mysql:")) {
+            errores.add(DB_URL + " debe comenzar con 'jdbc:mysql:'");
+        }
+        if (getString(DB_USUARIO).isEmpty()) {
+            errores.add(DB_USUARIO + " no puede estar vacío");
+        }
+        validarEntero(errores, POOL_MAXIMO, 1, 500);
+        validarEntero(errores, POOL_MINIMO_INACTIVAS, 0, 500);
+        validarEntero(errores, POOL_TIMEOUT_CONEXION_MS, 250, 600_000); // HikariCP exige >= 250 ms
+        validarEntero(errores, POOL_TIMEOUT_INACTIVA_MS, 0, Integer.MAX_VALUE);
+        validarEntero(errores, POOL_VIDA_MAXIMA_MS, 0, Integer.MAX_VALUE);
+        validarEntero(errores, POOL_ESPERA_PRIMER_USO_MS, 0, 600_000);
+        validarEntero(errores, DRIVER_CACHE_TAMANIO, 0, 100_000);
+        validarEntero(errores, DRIVER_CACHE_LIMITE_SQL, 0, 1_000_000);
+        validarEntero(errores, DRIVER_FETCH_SIZE, 0, 1_000_000);
+        validarEntero(errores, TIMEOUT_CONSULTA_DEFECTO_MS, 0, 86_400_000);
+        validarEntero(errores, PLAZO_OPERACION_DEFECTO_MS, 1, 86_400_000);
+        validarEntero(errores, IDS_TAMANIO_BLOQUE, 1, 1_000_000);
+        validarEntero(errores, EVENTOS_CAPACIDAD, 2, 1 << 20);
+        validarEntero(errores, EVENTOS_HILOS_SUSCRIPTORES, 1, 64);
+        validarEntero(errores, AUDITORIA_CAPACIDAD, 1, 1_000_000);
+        validarEntero(errores, AUDITORIA_LOTE, 1, 10_000);
+        validarEntero(errores, AUDITORIA_ESPERA_MAXIMA_MS, 0, 60_000);
+        validarEntero(errores, AUDITORIA_TAMANIO_SEGMENTO_MB, 1, 4_096);
+        validarEntero(errores, ARCHIVADO_RETENCION_DIAS, 0, 36_500);
+        validarEntero(errores, ARCHIVADO_VENTANA_IDS, 1, 1_000_000);
+        validarEntero(errores, ARCHIVADO_PAUSA_MS, 0, 60_000);
+        validarEntero(errores, PARTICIONES_TAMANIO_IDS, 1_000, 1_000_000_000);
+        validarEntero(errores, PARTICIONES_ADELANTO, 1, 100);
+        validarEntero(errores, CONTADORES_RECONCILIACION_INTERVALO_S, 0, 604_800);
+        validarEntero(errores, CONTADORES_VENTANA_IDS, 1, 1_000_000);
+        validarEntero(errores, REINTENTOS_MAXIMO_INTENTOS, 1, 20); // 1 = sin reintentos
+        validarEntero(errores, REINTENTOS_ESPERA_BASE_MS, 1, 60_000);
+        validarEntero(errores, REINTENTOS_ESPERA_MAXIMA_MS, 1, 600_000);
+        validarPresupuestosPorOperacion(errores);
+        if (!List.of("tabla", "archivo", "ninguno").contains(getString(AUDITORIA_DESTINO).toLowerCase(Locale.ROOT))) {
+            errores.add(AUDITORIA_DESTINO + " debe ser 'tabla', 'archivo' o 'ninguno' (valor: '" + getString(AUDITORIA_DESTINO) + "')");
+        }
+        if (!List.of("autoincremento", "hilo").contains(getString(IDS_ESTRATEGIA).toLowerCase(Locale.ROOT))) {
+            errores.add(IDS_ESTRATEGIA + " debe ser 'autoincremento' o 'hilo' (valor: '" + getString(IDS_ESTRATEGIA) + "')");
+        }
+        for (String clave : List.of(DRIVER_SENTENCIAS_SERVIDOR, DRIVER_CACHE_SENTENCIAS,
+                DRIVER_REESCRIBIR_LOTES, DRIVER_USAR_CURSOR)) {
+            String valor = getString(clave);
+            if (!valor.equalsIgnoreCase("true") && !valor.equalsIgnoreCase("false")) {
+                errores.add(clave + " debe ser true o false (valor: '" + valor + "')");
+            }
+        }
+        if (errores.isEmpty() && getInt(POOL_MINIMO_INACTIVAS) > getInt(POOL_MAXIMO)) {
+            errores.add(POOL_MINIMO_INACTIVAS + " no puede ser mayor que " + POOL_MAXIMO);
+        }
+        if (errores.isEmpty() && getBoolean(DRIVER_USAR_CURSOR) && getInt(DRIVER_FETCH_SIZE) == 0) {
+            errores.add(DRIVER_USAR_CURSOR + "=true requiere " + DRIVER_FETCH_SIZE + " > 0");
+        }
+        if (!errores.isEmpty()) {
+            throw new IllegalStateException("Configuración inválida:\n - " + String.join("\n - ", errores));
+        }
+    }
+
+    private void validarEntero(List<String> errores, String clave, long minimo, long maximo) {
+        validarEntero(errores, clave, getString(clave), minimo, maximo);
+    }
+
+    private static void validarEntero(List<String> errores, String clave, String texto, long minimo, long maximo) {
+        try {
+            long valor = Long.parseLong(texto);
+            if (valor < minimo || valor > maximo) {
+                errores.add(clave + " debe estar entre " + minimo + " y " + maximo + " (valor: " + valor + ")");
+            }
+        } catch (NumberFormatException e) {
+            errores.add(clave + " debe ser un número entero (valor: '" + texto + "')");
+        }
+    }
+
+    /**
+     * Valida las claves opcionales 'timeout.&lt;Dao&gt;.&lt;metodo&gt;' y 'plazo.&lt;Servicio&gt;.&lt;metodo&gt;' de
+     * todas las fuentes (archivo, entorno y sistema): se leen recién en el primer uso de cada operación,
+     * y un valor mal escrito fallaría ahí, a mitad de una transacción, en lugar de al iniciar.
+     */
+    private void validarPresupuestosPorOperacion(List<String> errores) {
+        Map<String, String> claves = new TreeMap<>(valores);
+        for (Map.Entry<String, String> e : System.getenv().entrySet()) {
+            if (e.getKey().startsWith(PREFIJO_ENTORNO)) {
+                claves.put(e.getKey(), e.getValue().trim());
+            }
+        }
+        for (String clave : System.getProperties().stringPropertyNames()) {
+            claves.put(clave, System.getProperty(clave).trim());
+        }
+        for (Map.Entry<String, String> e : claves.entrySet()) {
+            String clave = e.getKey();
+            if (clave.equals(TIMEOUT_CONSULTA_DEFECTO_MS) || clave.equals(claveEntorno(TIMEOUT_CONSULTA_DEFECTO_MS))
+                    || clave.equals(PLAZO_OPERACION_DEFECTO_MS) || clave.equals(claveEntorno(PLAZO_OPERACION_DEFECTO_MS))) {
+                continue; // Ya validadas (con su valor efectivo)
+            }
+            if (clave.startsWith("timeout.") || clave.startsWith(claveEntorno("timeout."))) {
+                validarEntero(errores, clave, e.getValue(), 0, 86_400_000); // 0 = sin límite, como el valor por defecto
+            } else if (clave.startsWith("plazo.") || clave.startsWith(claveEntorno("plazo."))) {
+                validarEntero(errores, clave, e.getValue(), 1, 86_400_000);
+            }
+        }
+    }
+
+    // --- 5. LECTURA DE VALORES ---
+
+    public String getPerfil() {
+        return valores.get(PERFIL);
+    }
+
+    public String getString(String clave) {
+        String valor = valores.get(clave);
+        if (valor == null) {
+            throw new IllegalStateException("Configuración: falta la clave '" + clave + "'.");
+        }
+        return valor;
+    }
+
+    /**
+     * Devuelve el valor de una clave opcional (sin valor por defecto de perfil), respetando
+     * la misma prioridad: sistema > entorno > archivo > porDefecto.
+     */
+    public String getString(String clave, String porDefecto) {
+        String valor = primeroNoNulo(System.getProperty(clave), System.getenv(claveEntorno(clave)), valores.get(clave));
+        return valor != null ? valor.trim() : porDefecto;
+    }
+
+    public int getInt(String clave) {
+        return Integer.parseInt(getString(clave));
+    }
+
+    public long getLong(String clave) {
+        return Long.parseLong(getString(clave));
+    }
+
+    public boolean getBoolean(String clave) {
+        return Boolean.parseBoolean(getString(clave));
+    }
+
+    /**
+     * Texto con la configuración efectiva y el origen de cada valor (la contraseña se enmascara).
+     */
+    public String describir() {
+        StringBuilder sb = new StringBuilder("[Config] Perfil '" + getPerfil() + "':");
+        for (Map.Entry<String, String> e : valores.entrySet()) {
+            if (e.getKey().equals(PERFIL)) {
+                continue;
+            }
+            String valor = e.getKey().equals(DB_PASSWORD) ? (e.getValue().isEmpty() ? "(vacía)" : "****") : e.getValue();
+            sb.append("\n  ").append(e.getKey()).append(" = ").append(valor)
+              .append("  [").append(origenes.getOrDefault(e.getKey(), "defecto")).append("]");
+        }
+        return sb.toString();
+    }
+
+    // --- 6. MÉTODOS "HELPER" ---
+
+    private static Properties leerArchivo() {
+        String ruta = primeroNoNulo(System.getProperty(CLAVE_RUTA_ARCHIVO), System.getenv(CLAVE_RUTA_ARCHIVO), null);
+        Path archivo = Paths.get(ruta != null ? ruta : ARCHIVO_POR_DEFECTO);
+        Properties props = new Properties();
+        if (!Files.exists(archivo)) {
+            if (ruta != null) {
+                throw new IllegalStateException("Configuración inválida: no existe el archivo '" + archivo + "'.");
+            }
+            return props; // Sin archivo: solo perfil + entorno
+        }
+        try (Reader in = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            props.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Configuración inválida: no se pudo leer '" + archivo + "': " + e.getMessage(), e);
+        }
+        return props;
+    }
+
+    private static String claveEntorno(String clave) {
+        return PREFIJO_ENTORNO + clave.toUpperCase(Locale.ROOT).replace('.', '_');
+    }
+
+    private static void poner(Map<String, String> valores, Map<String, String> origenes, Map<String, String> fuente, String origen) {
+        for (Map.Entry<String, String> e : fuente.entrySet()) {
+            valores.put(e.getKey(), e.getValue());
+            origenes.put(e.getKey(), origen);
+        }
+    }
+
+    private static Map<String, String> perfil(String... claveValor) {
+        Map<String, String> mapa = new LinkedHashMap<>();
+        for (int i = 0; i < claveValor.length; i += 2) {
+            mapa.put(claveValor[i], claveValor[i + 1]);
+        }
+        return mapa;
+    }
+
+    private static String primeroNoNulo(String... valores) {
+        for (String v : valores) {
+            if (v != null) {
+                return v;
+            }
+        }
+        return null;
+    }
+}
@@ -3,21 +3,198 @@ package config;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException; //  Importación agregada
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Pool de conexiones de la aplicación (HikariCP).
+ *
+ * El pool NO se crea al cargar la clase: se inicia explícitamente con {@link #iniciarAsync(Collection)}
+ * desde Main, en un hilo de fondo, para que la interfaz aparezca de inmediato aunque MySQL tarde
+ * o no esté disponible. Durante el inicio se precalienta el pool (hasta 'minimumIdle' conexiones)
+ * y se preparan las sentencias más usadas en cada conexión.
+ *
+ * Política del primer uso: {@link #getConnection()} espera a que el inicio termine como máximo
+ * 'pool.espera_primer_uso_ms'. Si el inicio falló (o la espera se agota) lanza una SQLException
+ * con un mensaje claro; tras un fallo, la siguiente llamada reintenta el inicio.
+ *
+ * URL, credenciales, tamaño del pool y propiedades del driver se leen de {@link Configuracion}.
+ */
 public class DatabaseConnectionPool {
-    private static final HikariConfig config = new HikariConfig();
-    private static final HikariDataSource ds;
+    private static volatile CompletableFuture<HikariDataSource> inicio;
 
-    static {
-        config.setJdbcUrl("jdbc:mysql://localhost:3306/gestion_mascota");
-        config.setUsername("root");
-        config.setPassword("");
-        config.setMaximumPoolSize(10); // Máximo 10 conexiones simultáneas
-        ds = new HikariDataSource(config);
+    // --- 1. CICLO DE VIDA ---
+
+    /**
+     * Inicia la creación del pool en un hilo de fondo (si no se inició antes) y devuelve
+     * inmediatamente. Imprime el desglose de tiempos al terminar.
+     *
+     * @param sentenciasFrecuentes SQL a preparar en cada conexión precalentada (puede ser vacía).
+     * @return El futuro del pool, por si el llamador quiere esperarlo.
+     */
+    public static synchronized CompletableFuture<HikariDataSource> iniciarAsync(Collection<String> sentenciasFrecuentes) {
+        if (inicio == null) {
+            List<String> sentencias = new ArrayList<>(sentenciasFrecuentes);
+            inicio = CompletableFuture.supplyAsync(() -> crearYPrecalentar(sentencias), ejecutorDeInicio());
+        }
+        return inicio;
     }
 
     public static Connection getConnection() throws SQLException {
-        return ds.getConnection(); //  Obtiene una conexión del pool
+        return esperarPool().getConnection(); //  Obtiene una conexión del pool
+    }
+
+    /**
+     * Cierra el pool (si llegó a crearse). Se invoca al salir de la aplicación.
+     * Si el inicio sigue en curso, el pool se cierra apenas termine de crearse (no queda abierto).
+     */
+    public static synchronized void cerrar() {
+        if (inicio != null) {
+            inicio.thenAccept(HikariDataSource::close); // Ya creado: se cierra ahora; si falló, no hay nada que cerrar
+        }
+        inicio = null;
+    }
+
+    /**
+     * Abre una conexión física FUERA del pool, con propiedades de driver adicionales.
+     * Pensada para herramientas de mantenimiento (ej. carga masiva) que necesitan
+     * opciones que no deben activarse en las conexiones de la aplicación
+     * (ej. 'allowLoadLocalInfileInPath'). El llamador es responsable de cerrarla.
+     *
+     * @param propiedadesExtra Propiedades del driver a agregar (puede ser null).
+     * @return Una conexión nueva, no administrada por HikariCP.
+     * @throws SQLException Si no se puede conectar.
+     */
+    public static Connection abrirConexionDedicada(Properties propiedadesExtra) throws SQLException {
+        Configuracion cfg = Configuracion.actual();
+        Properties props = new Properties();
+        props.setProperty("user", cfg.getString(Configuracion.DB_USUARIO));
+        props.setProperty("password", cfg.getString(Configuracion.DB_PASSWORD));
+        if (propiedadesExtra != null) {
+            props.putAll(propiedadesExtra);
+        }
+        return DriverManager.getConnection(cfg.getString(Configuracion.DB_URL), props);
+    }
+
+    // --- 2. MÉTODOS "HELPER" ---
+
+    /**
+     * Aplica la política del primer uso: inicia el pool si nadie lo hizo (inicio perezoso),
+     * espera como máximo 'pool.espera_primer_uso_ms' y traduce cualquier fallo a SQLException.
+     */
+    private static HikariDataSource esperarPool() throws SQLException {
+        CompletableFuture<HikariDataSource> futuro = iniciarAsync(List.of());
+        if (futuro.isDone() && !futuro.isCompletedExceptionally()) {
+            return futuro.join(); // Camino habitual: el pool ya está listo
+        }
+        long esperaMs = Configuracion.actual().getLong(Configuracion.POOL_ESPERA_PRIMER_USO_MS);
+        try {
+            return futuro.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SQLException("La base de datos todavía se está inicializando (se esperaron "
+                    + esperaMs + " ms). Intente nuevamente en unos instantes.", "08001");
+        } catch (ExecutionException e) {
+            reiniciarSiFallo(futuro);
+            Throwable causa = e.getCause();
+            throw new SQLException("No se pudo conectar a la base de datos: " + causa.getMessage(), "08001", causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba el pool de conexiones.", "08001", e);
+        }
+    }
+
+    /** Descarta un inicio fallido para que la próxima operación vuelva a intentarlo. */
+    private static synchronized void reiniciarSiFallo(CompletableFuture<HikariDataSource> futuro) {
+        if (inicio == futuro) {
+            inicio = null;
+        }
+    }
+
+    private static HikariDataSource crearYPrecalentar(List<String> sentenciasFrecuentes) {
+        long t0 = System.nanoTime();
+        Configuracion cfg = Configuracion.actual();
+        HikariDataSource ds = new HikariDataSource(crearConfigHikari(cfg)); // Falla rápido si MySQL no responde
+        long t1 = System.nanoTime();
+
+        // Precalentamiento: se toman 'minimumIdle' conexiones a la vez (así se abren todas)
+        // y en cada una se preparan las sentencias frecuentes.
+        int aPrecalentar = cfg.getInt(Configuracion.POOL_MINIMO_INACTIVAS);
+        List<Connection> conexiones = new ArrayList<>();
+        long prepararNanos = 0;
+        try {
+            for (int i = 0; i < aPrecalentar; i++) {
+                Connection conn = ds.getConnection();
+                conexiones.add(conn);
+                long p0 = System.nanoTime();
+                for (String sql : sentenciasFrecuentes) {
+                    conn.prepareStatement(sql).close(); // Solo preparar: al cerrarla vuelve a la caché de la conexión
+                }
+                prepararNanos += System.nanoTime() - p0;
+            }
+        } catch (SQLException e) {
+            System.err.println("[Inicio] Precalentamiento incompleto: " + e.getMessage());
+        } finally {
+            for (Connection conn : conexiones) {
+                try {
+                    conn.close(); // Vuelve al pool, ya abierta y con sus sentencias preparadas
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        long t2 = System.nanoTime();
+        System.out.printf("%n[Inicio] Pool listo en %d ms (creación %d ms, precalentamiento de %d conexiones %d ms,"
+                + " de los cuales %d ms en preparar %d sentencias por conexión).%n",
+                ms(t2 - t0), ms(t1 - t0), conexiones.size(), ms(t2 - t1), ms(prepararNanos), sentenciasFrecuentes.size());
+        return ds;
+    }
+
+    /**
+     * Traduce la configuración a HikariCP y a propiedades de MySQL Connector/J.
+     */
+    private static HikariConfig crearConfigHikari(Configuracion cfg) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(cfg.getString(Configuracion.DB_URL));
+        config.setUsername(cfg.getString(Configuracion.DB_USUARIO));
+        config.setPassword(cfg.getString(Configuracion.DB_PASSWORD));
+        config.setPoolName("gestion-mascotas");
+        config.setMaximumPoolSize(cfg.getInt(Configuracion.POOL_MAXIMO));
+        config.setMinimumIdle(cfg.getInt(Configuracion.POOL_MINIMO_INACTIVAS));
+        config.setConnectionTimeout(cfg.getLong(Configuracion.POOL_TIMEOUT_CONEXION_MS));
+        config.setIdleTimeout(cfg.getLong(Configuracion.POOL_TIMEOUT_INACTIVA_MS));
+        config.setMaxLifetime(cfg.getLong(Configuracion.POOL_VIDA_MAXIMA_MS));
+        // Sentencias preparadas: en el servidor (se parsean una vez) y cacheadas por conexión,
+        // así lo que se prepara al precalentar queda listo para las operaciones reales.
+        config.addDataSourceProperty("useServerPrepStmts", cfg.getString(Configuracion.DRIVER_SENTENCIAS_SERVIDOR));
+        config.addDataSourceProperty("cachePrepStmts", cfg.getString(Configuracion.DRIVER_CACHE_SENTENCIAS));
+        config.addDataSourceProperty("prepStmtCacheSize", cfg.getString(Configuracion.DRIVER_CACHE_TAMANIO));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", cfg.getString(Configuracion.DRIVER_CACHE_LIMITE_SQL));
+        // Lotes (addBatch/executeBatch) enviados como un único INSERT multi-fila
+        config.addDataSourceProperty("rewriteBatchedStatements", cfg.getString(Configuracion.DRIVER_REESCRIBIR_LOTES));
+        // Lectura de resultados grandes en bloques (cursor del servidor) en lugar de todo en memoria
+        config.addDataSourceProperty("useCursorFetch", cfg.getString(Configuracion.DRIVER_USAR_CURSOR));
+        config.addDataSourceProperty("defaultFetchSize", cfg.getString(Configuracion.DRIVER_FETCH_SIZE));
+        return config;
+    }
+
+    private static Executor ejecutorDeInicio() {
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "inicio-pool-bd");
+            hilo.setDaemon(true); // No impide que la aplicación termine
+            hilo.start();
+        };
+    }
+
+    private static long ms(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
     }
-}
\ No newline at end of file
+}
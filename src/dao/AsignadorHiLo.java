@@ -0,0 +1,126 @@
+package dao;
+
+import config.DatabaseConnectionPool;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Asignador de IDs "hi-lo": reserva bloques de IDs en la tabla 'secuencias' y los entrega en memoria.
+ *
+ * ROL: Que la aplicación conozca el ID de una fila antes de insertarla, sin una ida y vuelta a la
+ * base por cada ID.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Reserva (hi):** Cada bloque se toma con un único UPDATE atómico sobre la fila de la tabla
+ * ({@code proximo = LAST_INSERT_ID(proximo + tamanio)}) en una conexión propia con autocommit:
+ * la reserva no depende de la transacción del llamador y nunca se entrega dos veces, aunque
+ * haya varias instancias de la aplicación.
+ * 2.  **Entrega (lo):** Dentro de un bloque los IDs salen de un {@link AtomicLong} (sin locks).
+ * Solo el hilo que agota el bloque reserva el siguiente; los demás esperan ese único reemplazo.
+ * 3.  **Arranque:** Si la tabla todavía no tiene fila en 'secuencias', la crea a partir de MAX(id)+1.
+ *
+ * Los IDs de un bloque que no se usen (rollback, cierre de la aplicación) se pierden: la
+ * numeración queda con huecos, igual que con AUTO_INCREMENT.
+ */
+public final class AsignadorHiLo implements AsignadorIds {
+
+    private static final String SQL_RESERVAR = "UPDATE secuencias SET proximo = LAST_INSERT_ID(proximo + ?) WHERE tabla = ?";
+    private static final String SQL_ULTIMO = "SELECT LAST_INSERT_ID()";
+
+    /** Rango [desde, hasta) de IDs reservados; {@code proximo} avanza sin locks. */
+    private static final class Bloque {
+        final AtomicLong proximo;
+        final long hasta;
+
+        Bloque(long desde, long hasta) {
+            this.proximo = new AtomicLong(desde);
+            this.hasta = hasta;
+        }
+    }
+
+    private static final Bloque AGOTADO = new Bloque(0, 0);
+
+    private final int tamanioBloque;
+    private final ConcurrentHashMap<String, AtomicReference<Bloque>> bloques = new ConcurrentHashMap<>();
+
+    /**
+     * @param tamanioBloque Cantidad de IDs a reservar por vez (más grande = menos reservas, huecos más grandes).
+     */
+    public AsignadorHiLo(int tamanioBloque) {
+        if (tamanioBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo.");
+        }
+        this.tamanioBloque = tamanioBloque;
+    }
+
+    @Override
+    public long siguiente(String tabla) throws SQLException {
+        AtomicReference<Bloque> actual = bloques.computeIfAbsent(tabla, t -> new AtomicReference<>(AGOTADO));
+        while (true) {
+            Bloque bloque = actual.get();
+            long id = bloque.proximo.getAndIncrement();
+            if (id < bloque.hasta) {
+                return id; // Camino habitual: sin locks ni base de datos
+            }
+            synchronized (actual) {
+                if (actual.get() == bloque) { // Nadie lo reemplazó mientras se esperaba
+                    actual.set(reservar(tabla));
+                }
+            }
+        }
+    }
+
+    // --- MÉTODOS "HELPER" ---
+
+    private Bloque reservar(String tabla) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            conn.setAutoCommit(true); // La reserva se confirma sola, fuera de cualquier transacción
+            long hasta = avanzar(conn, tabla);
+            if (hasta < 0) {
+                inicializar(conn, tabla);
+                hasta = avanzar(conn, tabla);
+                if (hasta < 0) {
+                    throw new SQLException("No se pudo inicializar la secuencia de '" + tabla + "'.");
+                }
+            }
+            return new Bloque(hasta - tamanioBloque, hasta);
+        }
+    }
+
+    /**
+     * Avanza la secuencia un bloque.
+     * @return El nuevo valor de 'proximo' (fin exclusivo del bloque), o -1 si la tabla no tiene fila.
+     */
+    private long avanzar(Connection conn, String tabla) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_RESERVAR)) {
+            PresupuestoConsulta.aplicar(ps, "AsignadorHiLo.reservar");
+            ps.setInt(1, tamanioBloque);
+            ps.setString(2, tabla);
+            if (ps.executeUpdate() == 0) {
+                return -1;
+            }
+        }
+        // LAST_INSERT_ID(expr) queda asociado a esta conexión: no lo afectan otros clientes
+        try (PreparedStatement ps = conn.prepareStatement(SQL_ULTIMO);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /** Crea la fila de la tabla en 'secuencias' continuando después del mayor ID existente. */
+    private void inicializar(Connection conn, String tabla) throws SQLException {
+        // 'tabla' proviene siempre de una constante de los DAOs, nunca del usuario
+        String sql = "INSERT IGNORE INTO secuencias (tabla, proximo) SELECT ?, COALESCE(MAX(id), 0) + 1 FROM " + tabla;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            PresupuestoConsulta.aplicar(ps, "AsignadorHiLo.inicializar");
+            ps.setString(1, tabla);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package dao;
+
+import config.Configuracion;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Estrategia de asignación de IDs para los INSERT de los DAOs.
+ *
+ * ROL: Decidir quién numera las filas nuevas: MySQL ({@link #AUTOINCREMENTO}, el ID se lee con
+ * getGeneratedKeys después del INSERT) o la aplicación ({@link AsignadorHiLo}, el ID se conoce
+ * antes del INSERT y se escribe explícitamente).
+ *
+ * Con IDs asignados de antemano, las filas que dependen unas de otras (mascota -> microchip) no
+ * esperan la respuesta del primer INSERT y un lote completo sale como INSERT multi-fila.
+ * La estrategia se elige con 'ids.estrategia' (ver {@link #configurado()}).
+ */
+public interface AsignadorIds {
+
+    /** Valor de {@link #siguiente(String)} que indica "que lo asigne la base de datos". */
+    long ASIGNA_LA_BD = 0;
+
+    /** Estrategia tradicional: AUTO_INCREMENT + getGeneratedKeys. */
+    AsignadorIds AUTOINCREMENTO = tabla -> ASIGNA_LA_BD;
+
+    /**
+     * @param tabla Tabla en la que se insertará la fila (ej. "mascotas").
+     * @return El ID a usar en el INSERT, o {@link #ASIGNA_LA_BD}.
+     * @throws SQLException Si hubo que reservar un bloque nuevo y falló.
+     */
+    long siguiente(String tabla) throws SQLException;
+
+    /**
+     * Devuelve el asignador compartido según la configuración vigente
+     * (se crea una sola vez: los bloques reservados viven mientras viva la aplicación).
+     */
+    static AsignadorIds configurado() {
+        return Compartido.INSTANCIA;
+    }
+
+    /** Holder de inicialización perezosa del asignador compartido. */
+    final class Compartido {
+        static final AsignadorIds INSTANCIA = crear();
+
+        private Compartido() {
+        }
+
+        private static AsignadorIds crear() {
+            Configuracion cfg = Configuracion.actual();
+            if (cfg.getString(Configuracion.IDS_ESTRATEGIA).toLowerCase(Locale.ROOT).equals("hilo")) {
+                return new AsignadorHiLo(cfg.getInt(Configuracion.IDS_TAMANIO_BLOQUE));
+            }
+            return AUTOINCREMENTO;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package dao;
+
+import config.DatabaseConnectionPool;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché en memoria de una tabla diccionario ({@code especies}, {@code razas}, {@code veterinarias}).
+ *
+ * ROL: Traducir entre el texto que usan las entidades y la clave entera pequeña que se guarda
+ * en 'mascotas' y 'microchips', sin ir a la base en cada fila.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Lectura (id -> nombre):** Un arreglo indexado por id; cada nombre existe una sola vez en
+ * memoria, así todas las entidades comparten la misma instancia de "PERRO" o "Labrador".
+ * 2.  **Escritura (nombre -> id):** Un mapa concurrente. Si el valor es nuevo, lo da de alta
+ * ("obtener o crear") en su propia conexión con autocommit, fuera de la transacción del llamador:
+ * un valor de diccionario no se deshace aunque la operación que lo usó haga rollback.
+ * 3.  **Recarga:** Si aparece un id desconocido (otro proceso agregó un valor), recarga la tabla una vez.
+ *
+ * Las tablas son pequeñas (decenas o cientos de filas), por eso se cargan completas.
+ */
+public final class CatalogoDiccionarios {
+
+    public static final CatalogoDiccionarios ESPECIES = new CatalogoDiccionarios("especies");
+    public static final CatalogoDiccionarios RAZAS = new CatalogoDiccionarios("razas");
+    public static final CatalogoDiccionarios VETERINARIAS = new CatalogoDiccionarios("veterinarias");
+
+    private final String tabla;
+    private final String sqlSelectAll;
+    private final String sqlObtenerOCrear;
+
+    private volatile String[] nombres = new String[0]; // Índice = id (el 0 no se usa)
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private CatalogoDiccionarios(String tabla) {
+        this.tabla = tabla;
+        this.sqlSelectAll = "SELECT id, nombre FROM " + tabla;
+        // LAST_INSERT_ID(id) hace que getGeneratedKeys devuelva el id existente si el nombre ya estaba
+        this.sqlObtenerOCrear = "INSERT INTO " + tabla + " (nombre) VALUES (?) ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
+    }
+
+    // --- 1. CARGA ---
+
+    /**
+     * Carga los tres diccionarios. Se invoca al terminar el inicio del pool;
+     * si falla solo se registra el error (la carga se reintenta en el primer uso).
+     */
+    public static void precargar() {
+        try {
+            ESPECIES.cargar();
+            RAZAS.cargar();
+            VETERINARIAS.cargar();
+        } catch (SQLException e) {
+            System.err.println("[Inicio] No se pudieron cargar los diccionarios: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee la tabla completa y reemplaza el contenido de la caché.
+     */
+    public synchronized void cargar() throws SQLException {
+        String[] nuevos = nombres.clone();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sqlSelectAll)) {
+            PresupuestoConsulta.aplicar(ps, "CatalogoDiccionarios.cargar");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    if (id >= nuevos.length) {
+                        nuevos = Arrays.copyOf(nuevos, Math.max(id + 1, nuevos.length * 2));
+                    }
+                    // Se conserva la instancia previa si el nombre no cambió
+                    String nombre = rs.getString(2);
+                    nuevos[id] = nombre.equals(nuevos[id]) ? nuevos[id] : nombre;
+                }
+            }
+        }
+        for (int id = 1; id < nuevos.length; id++) {
+            if (nuevos[id] != null) {
+                ids.put(clave(nuevos[id]), id);
+            }
+        }
+        nombres = nuevos;
+    }
+
+    // --- 2. TRADUCCIÓN ---
+
+    /**
+     * @param id La clave guardada en la fila (0 si la columna es NULL).
+     * @return El nombre canónico, o null si el id es 0.
+     * @throws SQLException Si el id no existe ni siquiera tras recargar la tabla.
+     */
+    public String nombre(int id) throws SQLException {
+        if (id == 0) {
+            return null;
+        }
+        String[] actuales = nombres;
+        if (id < actuales.length && actuales[id] != null) {
+            return actuales[id];
+        }
+        cargar(); // Valor agregado por otro proceso (o primera lectura)
+        actuales = nombres;
+        if (id < actuales.length && actuales[id] != null) {
+            return actuales[id];
+        }
+        throw new SQLException("El id " + id + " no existe en la tabla '" + tabla + "'.");
+    }
+
+    /**
+     * Devuelve el id del nombre, dándolo de alta si todavía no existe.
+     *
+     * @param nombre El texto de la entidad (se ignoran espacios sobrantes).
+     * @return El id, o 0 si el nombre es null o vacío (columna NULL).
+     */
+    public int idDe(String nombre) throws SQLException {
+        if (nombre == null || nombre.isBlank()) {
+            return 0;
+        }
+        String clave = clave(nombre);
+        Integer id = ids.get(clave);
+        if (id != null) {
+            return id;
+        }
+        return obtenerOCrear(nombre.trim(), clave);
+    }
+
+    // --- 3. MÉTODOS "HELPER" ---
+
+    private synchronized int obtenerOCrear(String nombre, String clave) throws SQLException {
+        Integer previo = ids.get(clave); // Otro hilo pudo darlo de alta mientras se esperaba
+        if (previo != null) {
+            return previo;
+        }
+        int id;
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sqlObtenerOCrear, Statement.RETURN_GENERATED_KEYS)) {
+            conn.setAutoCommit(true);
+            PresupuestoConsulta.aplicar(ps, "CatalogoDiccionarios.obtenerOCrear");
+            ps.setString(1, nombre);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new SQLException("No se obtuvo el id de '" + nombre + "' en la tabla '" + tabla + "'.");
+                }
+                id = rs.getInt(1);
+            }
+        }
+        // Si ya existía con otra capitalización se recarga para conocer el nombre guardado
+        cargar();
+        ids.putIfAbsent(clave, id);
+        return id;
+    }
+
+    /** La collation de MySQL no distingue mayúsculas: la caché tampoco. */
+    private static String clave(String nombre) {
+        return nombre.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,108 @@
+package dao;
+
+import entities.EntidadRastreada;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columnas que un DAO puede escribir en su UPDATE, y armado del UPDATE parcial con solo las
+ * columnas de los campos modificados (package-private).
+ *
+ * Las columnas se declaran en el orden del UPDATE completo: el SQL de un mismo conjunto de cambios es
+ * siempre el mismo texto y el pool reutiliza su sentencia preparada.
+ *
+ * Todo UPDATE incrementa 'version'; si la entidad trae la versión leída, además la exige en el WHERE
+ * (concurrencia optimista): 0 filas afectadas = conflicto ({@link ConflictoVersionException}).
+ *
+ * @param <T> Tipo de entidad actualizada.
+ */
+final class ColumnasActualizables<T extends EntidadRastreada> {
+
+    /** Asigna el valor del campo de la entidad en la posición indicada. */
+    @FunctionalInterface
+    interface Asignador<T> {
+        void asignar(PreparedStatement ps, int indice, T entidad) throws SQLException;
+    }
+
+    private final String tabla;
+    private final Map<String, String> columnas = new LinkedHashMap<>(); // campo -> columna
+    private final Map<String, Asignador<T>> asignadores = new LinkedHashMap<>();
+
+    ColumnasActualizables(String tabla) {
+        this.tabla = tabla;
+    }
+
+    ColumnasActualizables<T> columna(String campo, String columna, Asignador<T> asignador) {
+        columnas.put(campo, columna);
+        asignadores.put(campo, asignador);
+        return this;
+    }
+
+    /**
+     * @return Los campos a escribir, en orden de declaración: los modificados o, si la entidad no
+     * tiene seguimiento, todos. Vacía si no hay nada que escribir.
+     */
+    List<String> aEscribir(T entidad) {
+        Set<String> modificados = entidad.getCamposModificados();
+        List<String> campos = new ArrayList<>(columnas.size());
+        for (String campo : columnas.keySet()) {
+            if (modificados == null || modificados.contains(campo)) {
+                campos.add(campo);
+            }
+        }
+        return campos;
+    }
+
+    /** @return El UPDATE de todas las columnas con control de versión (la forma habitual). */
+    String sqlCompleta() {
+        return sql(new ArrayList<>(columnas.keySet()), true);
+    }
+
+    /**
+     * @return "UPDATE tabla SET c1 = ?, c2 = ?, version = version + 1 WHERE id = ? AND eliminado = false
+     * [AND version = ?]" para esos campos.
+     */
+    String sql(List<String> campos, boolean conVersion) {
+        StringBuilder sb = new StringBuilder("UPDATE ").append(tabla).append(" SET ");
+        for (String campo : campos) {
+            sb.append(columnas.get(campo)).append(" = ?, ");
+        }
+        sb.append("version = version + 1 WHERE id = ? AND eliminado = false");
+        return conVersion ? sb.append(" AND version = ?").toString() : sb.toString();
+    }
+
+    /**
+     * Ejecuta el UPDATE parcial de la entidad en la conexión (transacción) del llamador.
+     * No hace nada si no hay campos modificados; no modifica la entidad (el Service llama a
+     * {@code confirmarEscritura()} después del commit).
+     *
+     * @throws ConflictoVersionException Si la entidad trae versión y la fila ya no está en ella.
+     */
+    void actualizar(Connection conn, String operacion, T entidad, long id) throws SQLException {
+        List<String> campos = aEscribir(entidad);
+        if (campos.isEmpty()) {
+            return; // Nada modificado: no hay ida y vuelta
+        }
+        Integer version = entidad.getVersion();
+        try (PreparedStatement ps = conn.prepareStatement(sql(campos, version != null))) {
+            PresupuestoConsulta.aplicar(ps, operacion);
+            int indice = 1;
+            for (String campo : campos) {
+                asignadores.get(campo).asignar(ps, indice++, entidad);
+            }
+            ps.setLong(indice++, id); // El ID va en el WHERE
+            if (version != null) {
+                ps.setInt(indice, version);
+            }
+            if (ps.executeUpdate() == 0 && version != null) {
+                throw new ConflictoVersionException(tabla, id, version);
+            }
+        }
+    }
+}
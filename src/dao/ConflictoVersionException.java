@@ -0,0 +1,40 @@
+package dao;
+
+import java.sql.SQLException;
+
+/**
+ * Se lanza cuando un UPDATE con control de versión no encuentra la fila en la versión leída:
+ * otra transacción la modificó (o la dio de baja) después de la lectura.
+ *
+ * Extiende {@link SQLException} para que viaje por la misma firma de los DAOs; la capa de servicio
+ * la distingue de los demás errores de base de datos. No lleva un SQLState de "reintentar": repetir
+ * el mismo UPDATE volvería a fallar, hay que releer la fila.
+ */
+public class ConflictoVersionException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String tabla;
+    private final long id;
+    private final int versionLeida;
+
+    public ConflictoVersionException(String tabla, long id, int versionLeida) {
+        super("La fila " + id + " de '" + tabla + "' ya no está en la versión " + versionLeida
+                + " (fue modificada o dada de baja por otra transacción).");
+        this.tabla = tabla;
+        this.id = id;
+        this.versionLeida = versionLeida;
+    }
+
+    public String getTabla() {
+        return tabla;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getVersionLeida() {
+        return versionLeida;
+    }
+}
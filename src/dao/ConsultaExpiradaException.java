@@ -0,0 +1,19 @@
+package dao;
+
+import java.sql.SQLTimeoutException;
+
+/**
+ * Se lanza cuando una consulta no puede ejecutarse (o fue cancelada) porque se agotó
+ * el plazo de la operación que la contiene.
+ *
+ * Extiende {@link SQLTimeoutException}, igual que el timeout de sentencia del driver,
+ * para que la capa de servicio trate ambos casos con un único {@code catch}.
+ */
+public class ConsultaExpiradaException extends SQLTimeoutException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConsultaExpiradaException(String mensaje) {
+        super(mensaje, "HYT00"); // SQLState estándar de "timeout expired"
+    }
+}
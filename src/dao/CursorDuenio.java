@@ -0,0 +1,99 @@
+package dao;
+
+import entities.Duenio;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Vista reutilizable de la fila actual de {@link DuenioDAO#recorrer(VisitanteFilas)}.
+ */
+public final class CursorDuenio extends CursorFilas {
+
+    private final int cId, cDni, cNombre, cApellido, cTelefono, cEmail, cDireccion, cEliminado, cMascotasActivas, cVersion, cSeqCambio, cActualizadoEn;
+
+    CursorDuenio(ResultSet rs) throws SQLException {
+        super(rs);
+        cId = columna("id");
+        cDni = columna("dni");
+        cNombre = columna("nombre");
+        cApellido = columna("apellido");
+        cTelefono = columna("telefono");
+        cEmail = columna("email");
+        cDireccion = columna("direccion");
+        cEliminado = columna("eliminado");
+        cMascotasActivas = columna("mascotas_activas");
+        cVersion = columna("version");
+        cSeqCambio = columna("seq_cambio");
+        cActualizadoEn = columna("actualizado_en");
+    }
+
+    public long getId() throws SQLException {
+        return entero(cId);
+    }
+
+    public String getDni() throws SQLException {
+        return texto(cDni);
+    }
+
+    public String getNombre() throws SQLException {
+        return texto(cNombre);
+    }
+
+    public String getApellido() throws SQLException {
+        return texto(cApellido);
+    }
+
+    public String getTelefono() throws SQLException {
+        return texto(cTelefono);
+    }
+
+    public String getEmail() throws SQLException {
+        return texto(cEmail);
+    }
+
+    public String getDireccion() throws SQLException {
+        return texto(cDireccion);
+    }
+
+    public boolean isEliminado() throws SQLException {
+        return bandera(cEliminado);
+    }
+
+    /** @return La versión de la fila (concurrencia optimista). */
+    public int getVersion() throws SQLException {
+        return (int) entero(cVersion);
+    }
+
+    public int getMascotasActivas() throws SQLException {
+        return (int) entero(cMascotasActivas);
+    }
+
+    /** @return El número del último cambio de la fila (0 si no se numeró, ej. carga masiva). */
+    public long getSeqCambio() throws SQLException {
+        return entero(cSeqCambio);
+    }
+
+    public Instant getActualizadoEn() throws SQLException {
+        return instante(cActualizadoEn);
+    }
+
+    /**
+     * Copia la fila actual a una entidad nueva.
+     */
+    public Duenio aDuenio() throws SQLException {
+        Duenio duenio = new Duenio();
+        duenio.setId(getId());
+        duenio.setDni(getDni());
+        duenio.setNombre(getNombre());
+        duenio.setApellido(getApellido());
+        duenio.setTelefono(getTelefono());
+        duenio.setEmail(getEmail());
+        duenio.setDireccion(getDireccion());
+        duenio.setEliminado(isEliminado());
+        duenio.setMascotasActivas(getMascotasActivas());
+        duenio.setVersion(getVersion());
+        duenio.marcarSinCambios();
+        return duenio;
+    }
+}
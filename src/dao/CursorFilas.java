@@ -0,0 +1,57 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Base de los cursores reutilizables que entregan los recorridos de los DAOs.
+ *
+ * Lee las columnas por índice (resuelto una sola vez al iniciar el recorrido) y directamente
+ * del ResultSet: los ids y banderas se devuelven como primitivos, sin boxing, y los textos
+ * solo se materializan si el visitante los pide.
+ */
+public abstract class CursorFilas {
+
+    /**
+     * Token para pedir {@code cambiosDesde(...)} por primera vez: incluye todos los cambios numerados.
+     * Los tokens siguientes son el último {@code getSeqCambio()} procesado.
+     */
+    public static final long TOKEN_INICIAL = 0;
+
+    protected final ResultSet rs;
+
+    protected CursorFilas(ResultSet rs) {
+        this.rs = rs;
+    }
+
+    protected final int columna(String nombre) throws SQLException {
+        return rs.findColumn(nombre);
+    }
+
+    /** @return El valor de la columna, o 0 si es NULL. */
+    protected final long entero(int columna) throws SQLException {
+        return rs.getLong(columna);
+    }
+
+    protected final boolean bandera(int columna) throws SQLException {
+        return rs.getBoolean(columna);
+    }
+
+    protected final String texto(int columna) throws SQLException {
+        return rs.getString(columna);
+    }
+
+    /** @return El instante, o null si la columna es NULL (crea un objeto: solo si se pide). */
+    protected final Instant instante(int columna) throws SQLException {
+        Timestamp valor = rs.getTimestamp(columna);
+        return valor == null ? null : valor.toInstant();
+    }
+
+    /** @return Los días desde 1970-01-01, o {@code vacio} si la columna es NULL. */
+    protected final int dia(int columna, int vacio) throws SQLException {
+        int valor = rs.getInt(columna);
+        return rs.wasNull() ? vacio : valor;
+    }
+}
@@ -0,0 +1,187 @@
+package dao;
+
+import entities.Duenio;
+import entities.Mascota;
+import entities.Microchip;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Vista reutilizable de la fila actual de {@link MascotaDAO#recorrer(VisitanteFilas)}
+ * (mascota + dueño + microchip, como en la consulta base del listado).
+ *
+ * Ids como {@code long} (0 = sin relación), especie/raza/veterinaria como ids de diccionario
+ * (el nombre se resuelve en memoria con {@link CatalogoDiccionarios}), banderas como {@code boolean} y la fecha de nacimiento
+ * como días desde 1970-01-01 ({@link #SIN_FECHA} si es NULL), sin crear objetos por fila.
+ */
+public final class CursorMascota extends CursorFilas {
+
+    /** Valor de {@link #getFechaNacimientoDia()} cuando la mascota no tiene fecha de nacimiento. */
+    public static final int SIN_FECHA = Integer.MIN_VALUE;
+
+    private final int cId, cNombre, cEspecie, cRaza, cFechaDia, cEliminado, cVersion, cSeqCambio, cActualizadoEn;
+    private final int cDuenioId, cDni, cDuenioNombre, cApellido, cDuenioEliminado;
+    private final int cMicrochipId, cCodigo, cVeterinaria, cMicrochipEliminado;
+
+    CursorMascota(ResultSet rs) throws SQLException {
+        super(rs);
+        cId = columna("id");
+        cNombre = columna("nombre");
+        cEspecie = columna("especie_id");
+        cRaza = columna("raza_id");
+        cFechaDia = columna("fecha_nacimiento_dia");
+        cEliminado = columna("mascota_eliminado");
+        cVersion = columna("version");
+        cSeqCambio = columna("seq_cambio");
+        cActualizadoEn = columna("actualizado_en");
+        cDuenioId = columna("duenio_id");
+        cDni = columna("dni");
+        cDuenioNombre = columna("duenio_nombre");
+        cApellido = columna("apellido");
+        cDuenioEliminado = columna("duenio_eliminado");
+        cMicrochipId = columna("microchip_id");
+        cCodigo = columna("codigo");
+        cVeterinaria = columna("veterinaria_id");
+        cMicrochipEliminado = columna("microchip_eliminado");
+    }
+
+    // --- Mascota ---
+
+    public long getId() throws SQLException {
+        return entero(cId);
+    }
+
+    public String getNombre() throws SQLException {
+        return texto(cNombre);
+    }
+
+    /** @return El id en el diccionario de especies. */
+    public int getEspecieId() throws SQLException {
+        return (int) entero(cEspecie);
+    }
+
+    /** @return El id en el diccionario de razas, o 0 si no tiene. */
+    public int getRazaId() throws SQLException {
+        return (int) entero(cRaza);
+    }
+
+    public String getEspecie() throws SQLException {
+        return CatalogoDiccionarios.ESPECIES.nombre(getEspecieId());
+    }
+
+    public String getRaza() throws SQLException {
+        return CatalogoDiccionarios.RAZAS.nombre(getRazaId());
+    }
+
+    /** @return Días desde 1970-01-01, o {@link #SIN_FECHA}. */
+    public int getFechaNacimientoDia() throws SQLException {
+        return dia(cFechaDia, SIN_FECHA);
+    }
+
+    public boolean isEliminado() throws SQLException {
+        return bandera(cEliminado);
+    }
+
+    /** @return La versión de la fila (concurrencia optimista). */
+    public int getVersion() throws SQLException {
+        return (int) entero(cVersion);
+    }
+
+    /** @return El número del último cambio de la fila (0 si no se numeró, ej. carga masiva). */
+    public long getSeqCambio() throws SQLException {
+        return entero(cSeqCambio);
+    }
+
+    public Instant getActualizadoEn() throws SQLException {
+        return instante(cActualizadoEn);
+    }
+
+    // --- Dueño (LEFT JOIN: puede no existir) ---
+
+    public boolean tieneDuenio() throws SQLException {
+        return getDuenioId() != 0;
+    }
+
+    public long getDuenioId() throws SQLException {
+        return entero(cDuenioId);
+    }
+
+    public String getDuenioDni() throws SQLException {
+        return texto(cDni);
+    }
+
+    public String getDuenioNombre() throws SQLException {
+        return texto(cDuenioNombre);
+    }
+
+    public String getDuenioApellido() throws SQLException {
+        return texto(cApellido);
+    }
+
+    public boolean isDuenioEliminado() throws SQLException {
+        return bandera(cDuenioEliminado);
+    }
+
+    // --- Microchip (LEFT JOIN: puede no existir) ---
+
+    public boolean tieneMicrochip() throws SQLException {
+        return getMicrochipId() != 0;
+    }
+
+    public long getMicrochipId() throws SQLException {
+        return entero(cMicrochipId);
+    }
+
+    public String getMicrochipCodigo() throws SQLException {
+        return texto(cCodigo);
+    }
+
+    /** @return El id en el diccionario de veterinarias, o 0 si no tiene. */
+    public int getMicrochipVeterinariaId() throws SQLException {
+        return (int) entero(cVeterinaria);
+    }
+
+    public String getMicrochipVeterinaria() throws SQLException {
+        return CatalogoDiccionarios.VETERINARIAS.nombre(getMicrochipVeterinariaId());
+    }
+
+    public boolean isMicrochipEliminado() throws SQLException {
+        return bandera(cMicrochipEliminado);
+    }
+
+    /**
+     * Copia la fila actual a entidades nuevas (para quien necesite conservarla).
+     */
+    public Mascota aMascota() throws SQLException {
+        Mascota mascota = new Mascota();
+        mascota.setId(getId());
+        mascota.setNombre(getNombre());
+        mascota.setEspecie(getEspecie());
+        mascota.setRaza(getRaza());
+        int fecha = getFechaNacimientoDia();
+        mascota.setFechaNacimiento(fecha == SIN_FECHA ? null : LocalDate.ofEpochDay(fecha));
+        mascota.setEliminado(isEliminado());
+        mascota.setVersion(getVersion());
+        if (tieneDuenio()) {
+            Duenio duenio = new Duenio();
+            duenio.setId(getDuenioId());
+            duenio.setDni(getDuenioDni());
+            duenio.setNombre(getDuenioNombre());
+            duenio.setApellido(getDuenioApellido());
+            duenio.setEliminado(isDuenioEliminado());
+            mascota.setDuenio(duenio);
+        }
+        if (tieneMicrochip()) {
+            Microchip microchip = new Microchip();
+            microchip.setId(getMicrochipId());
+            microchip.setCodigo(getMicrochipCodigo());
+            microchip.setVeterinaria(getMicrochipVeterinaria());
+            microchip.setEliminado(isMicrochipEliminado());
+            mascota.setMicrochip(microchip);
+        }
+        mascota.marcarSinCambios();
+        return mascota;
+    }
+}
@@ -0,0 +1,87 @@
+package dao;
+
+import entities.Microchip;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Vista reutilizable de la fila actual de {@link MicrochipDAO#recorrer(VisitanteFilas)}.
+ * A diferencia de la entidad, expone también el id de la mascota (0 si el chip está suelto).
+ */
+public final class CursorMicrochip extends CursorFilas {
+
+    private final int cId, cCodigo, cObservaciones, cVeterinaria, cMascotaId, cEliminado, cVersion, cSeqCambio, cActualizadoEn;
+
+    CursorMicrochip(ResultSet rs) throws SQLException {
+        super(rs);
+        cId = columna("id");
+        cCodigo = columna("codigo");
+        cObservaciones = columna("observaciones");
+        cVeterinaria = columna("veterinaria_id");
+        cMascotaId = columna("mascota_id");
+        cEliminado = columna("eliminado");
+        cVersion = columna("version");
+        cSeqCambio = columna("seq_cambio");
+        cActualizadoEn = columna("actualizado_en");
+    }
+
+    public long getId() throws SQLException {
+        return entero(cId);
+    }
+
+    public String getCodigo() throws SQLException {
+        return texto(cCodigo);
+    }
+
+    public String getObservaciones() throws SQLException {
+        return texto(cObservaciones);
+    }
+
+    /** @return El id en el diccionario de veterinarias, o 0 si no tiene. */
+    public int getVeterinariaId() throws SQLException {
+        return (int) entero(cVeterinaria);
+    }
+
+    public String getVeterinaria() throws SQLException {
+        return CatalogoDiccionarios.VETERINARIAS.nombre(getVeterinariaId());
+    }
+
+    /** @return El id de la mascota, o 0 si el microchip no está asociado. */
+    public long getMascotaId() throws SQLException {
+        return entero(cMascotaId);
+    }
+
+    public boolean isEliminado() throws SQLException {
+        return bandera(cEliminado);
+    }
+
+    /** @return La versión de la fila (concurrencia optimista). */
+    public int getVersion() throws SQLException {
+        return (int) entero(cVersion);
+    }
+
+    /** @return El número del último cambio de la fila (0 si no se numeró, ej. carga masiva). */
+    public long getSeqCambio() throws SQLException {
+        return entero(cSeqCambio);
+    }
+
+    public Instant getActualizadoEn() throws SQLException {
+        return instante(cActualizadoEn);
+    }
+
+    /**
+     * Copia la fila actual a una entidad nueva.
+     */
+    public Microchip aMicrochip() throws SQLException {
+        Microchip chip = new Microchip();
+        chip.setId(getId());
+        chip.setCodigo(getCodigo());
+        chip.setObservaciones(getObservaciones());
+        chip.setVeterinaria(getVeterinaria());
+        chip.setEliminado(isEliminado());
+        chip.setVersion(getVersion());
+        chip.marcarSinCambios();
+        return chip;
+    }
+}
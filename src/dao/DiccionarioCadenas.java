@@ -0,0 +1,56 @@
+package dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario (interner) acotado y concurrente para columnas de texto con pocos valores distintos.
+ *
+ * ROL: Que las entidades mapeadas por los DAOs compartan UNA instancia de "PERRO", "Labrador" o
+ * "Veterinaria Central" en lugar de retener una copia por fila. La copia que devuelve el driver
+ * sigue creándose, pero muere joven; lo que se retiene en listas y cachés es la instancia canónica.
+ *
+ * Al llegar al máximo de entradas deja de agregar valores nuevos y devuelve el texto tal cual:
+ * nunca crece sin límite ni desaloja entradas.
+ *
+ * Especie, raza y veterinaria ya no pasan por aquí: se guardan como ids de diccionario y
+ * {@link CatalogoDiccionarios} entrega directamente la instancia única de cada nombre. Se conserva
+ * para textos libres de pocos valores y como referencia en {@code herramientas.MedicionHuella}.
+ */
+public final class DiccionarioCadenas {
+
+    private final ConcurrentHashMap<String, String> valores = new ConcurrentHashMap<>();
+    private final boolean activo;
+    private final int maximo;
+
+    /**
+     * @param activo Si es false, {@link #canonica(String)} devuelve siempre el texto recibido.
+     * @param maximo Cantidad máxima de valores distintos a retener.
+     */
+    public DiccionarioCadenas(boolean activo, int maximo) {
+        this.activo = activo;
+        this.maximo = maximo;
+    }
+
+    /**
+     * Devuelve la instancia canónica del texto (o el mismo texto si es null, el diccionario
+     * está desactivado o ya está lleno).
+     */
+    public String canonica(String texto) {
+        if (texto == null || !activo) {
+            return texto;
+        }
+        String previa = valores.get(texto);
+        if (previa != null) {
+            return previa;
+        }
+        if (valores.size() >= maximo) {
+            return texto; // Lleno: no se agregan valores nuevos
+        }
+        previa = valores.putIfAbsent(texto, texto);
+        return previa != null ? previa : texto;
+    }
+
+    public int tamanio() {
+        return valores.size();
+    }
+}
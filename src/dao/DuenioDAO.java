@@ -1,8 +1,11 @@
 package dao;
 
 import entities.Duenio;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interfaz específica del Data Access Object (DAO) para la entidad {@link Duenio}.
@@ -66,4 +69,84 @@ public interface DuenioDAO extends GenericDAO<Duenio> {
      * @throws SQLException Si hay un error de base de datos.
      */
     boolean existeTelefono(String telefono) throws SQLException;
+
+    /**
+     * Recorre todos los dueños activos entregando un único cursor reutilizable por fila, sin crear entidades.
+     * @param visitante Recibe el cursor en cada fila; devuelve false para terminar antes.
+     * @return La cantidad de filas visitadas.
+     * @throws SQLException Si hay un error de base de datos.
+     * @throws E Si el visitante falla (el recorrido se cancela).
+     */
+    <E extends Exception> long recorrer(VisitanteFilas<CursorDuenio, E> visitante) throws SQLException, E;
+
+    /**
+     * Recorre, en orden de cambio, los dueños dados de alta, modificados o dados de baja después del token
+     * (sincronización incremental). Incluye las bajas lógicas: la fila llega con {@code isEliminado() == true}.
+     * @param token {@link CursorFilas#TOKEN_INICIAL}, o el último {@code getSeqCambio()} ya procesado.
+     * @param visitante Recibe el cursor en cada fila; devuelve false para terminar antes.
+     * @return La cantidad de filas visitadas.
+     * @throws SQLException Si hay un error de base de datos.
+     * @throws E Si el visitante falla (el recorrido se cancela).
+     */
+    <E extends Exception> long cambiosDesde(long token, VisitanteFilas<CursorDuenio, E> visitante) throws SQLException, E;
+
+    /**
+     * Inserta o actualiza dueños usando el DNI como clave natural (INSERT ... ON DUPLICATE KEY UPDATE).
+     * ROL ESTRATÉGICO: Sincronización diaria con refugios: los registros reenviados sin cambios
+     * no generan escrituras. Es transaccional: recibe la conexión del Service.
+     * @param duenios Los dueños recibidos (los existentes o creados quedan con su ID seteado).
+     * @param conn La conexión transaccional (del Service).
+     * @return Cuántos se insertaron, actualizaron, quedaron sin cambios u omitieron.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    ResultadoUpsert<Duenio> upsert(List<Duenio> duenios, Connection conn) throws SQLException;
+
+    /**
+     * Da de baja (lógica) al dueño solo si no tiene mascotas activas (RN-008), en una única sentencia:
+     * la verificación y la baja son atómicas, sin ventana para que se agregue una mascota entre ambas.
+     * @param id El ID del dueño.
+     * @param conn La conexión (del Service); alcanza con autocommit.
+     * @return true si se dio de baja; false si tiene mascotas activas, no existe o ya estaba eliminado.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    boolean eliminarSinMascotasActivas(Long id, Connection conn) throws SQLException;
+
+    /**
+     * Lee un dueño dado de baja lógica (que el archivador todavía no movió a 'duenios_archivo').
+     * @param id El ID del dueño.
+     * @param conn La conexión (del Service).
+     * @return El dueño, o null si no existe, está activo o ya fue archivado.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    Duenio leerEliminado(Long id, Connection conn) throws SQLException;
+
+    /**
+     * Lee un dueño activo y lo bloquea (FOR UPDATE) hasta el fin de la transacción del llamador.
+     * ROL ESTRATÉGICO: Validar una sola vez el destino de un traspaso de mascotas: mientras la
+     * transacción siga abierta, nadie puede darlo de baja ni modificarlo.
+     * @param id El ID del dueño.
+     * @param conn La conexión transaccional (del Service).
+     * @return El dueño, o null si no existe o está eliminado.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    Duenio leerParaActualizar(Long id, Connection conn) throws SQLException;
+
+    /**
+     * Bloquea (FOR UPDATE) varios dueños en orden de ID hasta el fin de la transacción del llamador.
+     * ROL ESTRATÉGICO: Que las operaciones masivas sobre mascotas tomen primero a los dueños, como las
+     * altas: todas las transacciones bloquean dueño -> mascota -> microchip en el mismo orden.
+     * @param ids Los IDs de los dueños (los inexistentes se ignoran).
+     * @param conn La conexión transaccional (del Service).
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    void bloquear(Collection<Long> ids, Connection conn) throws SQLException;
+
+    /**
+     * Ajusta el contador 'mascotas_activas' de varios dueños (altas o traspasos de mascotas por lote).
+     * Debe ejecutarse en la misma transacción que el cambio de las mascotas.
+     * @param deltas Dueño -> cantidad a sumar (negativa para restar).
+     * @param conn La conexión transaccional (del Service).
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    void sumarMascotasActivas(Map<Long, Integer> deltas, Connection conn) throws SQLException;
 }
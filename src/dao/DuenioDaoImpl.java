@@ -4,7 +4,14 @@ import config.DatabaseConnectionPool;
 import entities.Duenio; 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Clase de Implementación Concreta (Concrete Implementation) del Data Access Object para la entidad {@link Duenio}.
@@ -20,15 +27,47 @@ public class DuenioDaoImpl implements DuenioDAO {
 
     // --- 1. BLOQUE DE CONSTANTES SQL ---
     
+    private static final String TABLA = "duenios";
     private static final String SQL_INSERT = "INSERT INTO duenios (dni, nombre, apellido, telefono, email, direccion) VALUES (?, ?, ?, ?, ?, ?)";
-    private static final String SQL_UPDATE = "UPDATE duenios SET dni = ?, nombre = ?, apellido = ?, telefono = ?, email = ?, direccion = ? WHERE id = ? AND eliminado = false";
+    // Variante con el ID asignado por la aplicación (siempre como último parámetro)
+    private static final String SQL_INSERT_CON_ID = "INSERT INTO duenios (dni, nombre, apellido, telefono, email, direccion, id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // UPDATE parcial: solo las columnas de los campos modificados (ver EntidadRastreada)
+    private static final ColumnasActualizables<Duenio> COLUMNAS_UPDATE = new ColumnasActualizables<Duenio>(TABLA)
+            .columna(Duenio.CAMPO_DNI, "dni", (ps, i, d) -> ps.setString(i, d.getDni()))
+            .columna(Duenio.CAMPO_NOMBRE, "nombre", (ps, i, d) -> ps.setString(i, d.getNombre()))
+            .columna(Duenio.CAMPO_APELLIDO, "apellido", (ps, i, d) -> ps.setString(i, d.getApellido()))
+            .columna(Duenio.CAMPO_TELEFONO, "telefono", (ps, i, d) -> ps.setString(i, d.getTelefono()))
+            .columna(Duenio.CAMPO_EMAIL, "email", (ps, i, d) -> ps.setString(i, d.getEmail()))
+            .columna(Duenio.CAMPO_DIRECCION, "direccion", (ps, i, d) -> ps.setString(i, d.getDireccion()));
+    // Forma completa (todas las columnas): la de un dueño sin seguimiento; VerificadorPlanes controla su plan
+    private static final String SQL_UPDATE = COLUMNAS_UPDATE.sqlCompleta();
     
     // Baja Lógica (Soft Delete): Solo actualiza el campo 'eliminado'
-    private static final String SQL_DELETE_LOGICO = "UPDATE duenios SET eliminado = true WHERE id = ?";
+    private static final String SQL_DELETE_LOGICO = "UPDATE duenios SET eliminado = true, version = version + 1 WHERE id = ?";
+    // Baja condicionada a la RN-008. El NOT EXISTS lee 'mascotas' con bloqueo (no depende del contador
+    // desnormalizado). No hay carrera con las altas porque todo camino que da una mascota activa a un dueño
+    // bloquea primero la fila del dueño: sp_crear_mascota_completa y crearMascotasCompletas con el UPDATE
+    // del contador, transferir con leerParaActualizar. La verificación de la FK no alcanza: con la
+    // migración 09 es un trigger que no bloquea al padre.
+    private static final String SQL_DELETE_LOGICO_SIN_MASCOTAS = "UPDATE duenios d SET d.eliminado = true, d.version = d.version + 1 "
+            + "WHERE d.id = ? AND d.eliminado = false "
+            + "AND NOT EXISTS (SELECT 1 FROM mascotas m WHERE m.duenio_id = d.id AND m.eliminado = false)";
     
     // Todos los SELECT deben filtrar por 'eliminado = false'
     private static final String SQL_SELECT_BY_ID = "SELECT * FROM duenios WHERE id = ? AND eliminado = false";
     private static final String SQL_SELECT_ALL = "SELECT * FROM duenios WHERE eliminado = false";
+    // Fila recién dada de baja (imagen para la auditoría, tomada después del UPDATE)
+    private static final String SQL_SELECT_ELIMINADO_BY_ID = "SELECT * FROM duenios WHERE id = ? AND eliminado = true";
+    // Variante con bloqueo de la fila (destino de un traspaso de mascotas)
+    private static final String SQL_SELECT_BY_ID_PARA_ACTUALIZAR = SQL_SELECT_BY_ID + " FOR UPDATE";
+    // Bloqueo de varios dueños, en orden de PK; se completa con "?, ?, ..." por tramo
+    private static final String PREFIJO_BLOQUEAR = "SELECT id FROM duenios WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    // Bajas antiguas movidas por el archivador (misma forma de fila que 'duenios')
+    // (un dueño se archiva recién cuando ninguna mascota lo referencia: su contador es 0; el archivo no
+    // guarda 'version' porque una fila archivada no se actualiza)
+    private static final String SQL_SELECT_ARCHIVADO_BY_ID = "SELECT *, 0 AS mascotas_activas, 0 AS version FROM duenios_archivo WHERE id = ?";
+    // Cambios posteriores al token, incluidas las bajas lógicas (por eso no filtra 'eliminado')
+    private static final String SQL_SELECT_CAMBIOS = "SELECT * FROM duenios WHERE seq_cambio > ? ORDER BY seq_cambio";
     
     // --- Métodos Especiales de DuenioDao ---
     private static final String SQL_SELECT_BY_DNI = "SELECT * FROM duenios WHERE dni = ? AND eliminado = false";
@@ -37,6 +76,34 @@ public class DuenioDaoImpl implements DuenioDAO {
     private static final String SQL_EXISTS_DNI = "SELECT 1 FROM duenios WHERE dni = ? AND eliminado = false";
     private static final String SQL_EXISTS_EMAIL = "SELECT 1 FROM duenios WHERE email = ? AND eliminado = false";
     private static final String SQL_EXISTS_TELEFONO = "SELECT 1 FROM duenios WHERE telefono = ? AND eliminado = false";
+
+    // --- Upsert por DNI (sincronización con refugios) ---
+    // Alta o actualización en una sola sentencia; las filas sin cambios ni siquiera se envían.
+    // Las filas existentes llevan su propio ID, así la colisión es siempre sobre la misma fila.
+    private static final String SQL_UPSERT = "INSERT INTO duenios (dni, nombre, apellido, telefono, email, direccion, id) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE nombre = VALUES(nombre), apellido = VALUES(apellido), telefono = VALUES(telefono), "
+            + "email = VALUES(email), direccion = VALUES(direccion), version = version + 1";
+    // Estado previo de un tramo (bloqueado hasta el commit); se completa con "?, ?, ...)" por tramo
+    private static final String PREFIJO_SELECT_PARA_UPSERT = "SELECT * FROM duenios WHERE dni IN (%s) OR email IN (%s) FOR UPDATE";
+
+    // --- Contador desnormalizado de mascotas activas (misma transacción que el cambio de la mascota) ---
+    private static final String SQL_SUMAR_MASCOTAS_ACTIVAS = "UPDATE duenios SET mascotas_activas = mascotas_activas + ? WHERE id = ?";
+
+    /** Sentencias que el pool prepara por adelantado al iniciar (ver DatabaseConnectionPool). */
+    public static final List<String> SENTENCIAS_FRECUENTES = List.of(
+            SQL_SELECT_BY_ID, SQL_SELECT_BY_DNI, SQL_EXISTS_DNI, SQL_EXISTS_EMAIL, SQL_EXISTS_TELEFONO, SQL_INSERT, SQL_INSERT_CON_ID);
+
+    // Estrategia de IDs (AUTO_INCREMENT o bloques hi-lo, ver AsignadorIds)
+    private final AsignadorIds asignador;
+
+    /** Usa la estrategia de IDs configurada ('ids.estrategia'). */
+    public DuenioDaoImpl() {
+        this(AsignadorIds.configurado());
+    }
+
+    public DuenioDaoImpl(AsignadorIds asignador) {
+        this.asignador = asignador;
+    }
     
     // --- 2. IMPLEMENTACIÓN DE MÉTODOS TRANSACCIONALES (C-U-D) ---
     // Estos métodos reciben la 'Connection' del Service. No la cierran
@@ -44,13 +111,17 @@ public class DuenioDaoImpl implements DuenioDAO {
     /**
      * Crea un nuevo Dueño en la BD.
      * Este método debe recibir una conexión externa (transaccional).
-     * Devuelve el objeto con el ID que le asignó la BD.
+     * Devuelve el objeto con su ID (asignado por la aplicación o por la BD, según la estrategia).
      */
     @Override
     public Duenio crear(Duenio duenio, Connection conn) throws SQLException {
+        long id = asignador.siguiente(TABLA);
+        boolean idPropio = id != AsignadorIds.ASIGNA_LA_BD;
         // Usamos try-with-resources solo para el PreparedStatement
-        // Pedimos que nos devuelva las claves generadas (el ID)
-        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        // Sin ID propio, pedimos que nos devuelva las claves generadas (el ID)
+        try (PreparedStatement ps = idPropio ? conn.prepareStatement(SQL_INSERT_CON_ID)
+                : conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.crear");
             
             ps.setString(1, duenio.getDni());
             ps.setString(2, duenio.getNombre());
@@ -58,6 +129,12 @@ public class DuenioDaoImpl implements DuenioDAO {
             ps.setString(4, duenio.getTelefono());
             ps.setString(5, duenio.getEmail());
             ps.setString(6, duenio.getDireccion());
+            if (idPropio) {
+                ps.setLong(7, id); // ID ya conocido: no hace falta leer claves generadas
+                ps.executeUpdate();
+                duenio.setId(id);
+                return duenio;
+            }
             
             ps.executeUpdate(); // Ejecuta el INSERT
 
@@ -75,23 +152,14 @@ public class DuenioDaoImpl implements DuenioDAO {
     }
 
     /**
-     * Actualiza un Dueño existente en la BD.
+     * Actualiza un Dueño existente en la BD, escribiendo solo las columnas modificadas
+     * (todas si el dueño no se leyó de la base). Sin cambios no ejecuta nada.
+     * Si el dueño trae la versión leída, lanza {@link ConflictoVersionException} cuando la fila cambió.
      * Este método debe recibir una conexión externa (transaccional).
      */
     @Override
     public void actualizar(Duenio duenio, Connection conn) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
-            
-            ps.setString(1, duenio.getDni());
-            ps.setString(2, duenio.getNombre());
-            ps.setString(3, duenio.getApellido());
-            ps.setString(4, duenio.getTelefono());
-            ps.setString(5, duenio.getEmail());
-            ps.setString(6, duenio.getDireccion());
-            ps.setLong(7, duenio.getId()); // El ID va en el WHERE
-
-            ps.executeUpdate();
-        }
+        COLUMNAS_UPDATE.actualizar(conn, "DuenioDAO.actualizar", duenio, duenio.getId());
     }
 
     /**
@@ -101,11 +169,212 @@ public class DuenioDaoImpl implements DuenioDAO {
     @Override
     public void eliminar(Long id, Connection conn) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LOGICO)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.eliminar");
             ps.setLong(1, id);
             ps.executeUpdate();
         }
     }
 
+    /**
+     * Baja lógica condicional (RN-008) en una sola ida y vuelta.
+     */
+    @Override
+    public boolean eliminarSinMascotasActivas(Long id, Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LOGICO_SIN_MASCOTAS)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.eliminarSinMascotasActivas");
+            ps.setLong(1, id);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Lee un dueño dado de baja (aún no archivado) con la conexión del llamador.
+     */
+    @Override
+    public Duenio leerEliminado(Long id, Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ELIMINADO_BY_ID)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.leerEliminado");
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapResultSetToDuenio(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Lee y bloquea un dueño activo en la transacción del llamador.
+     */
+    @Override
+    public Duenio leerParaActualizar(Long id, Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_ID_PARA_ACTUALIZAR)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.leerParaActualizar");
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapResultSetToDuenio(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Un SELECT ... FOR UPDATE por tramo de IDs ordenados (los tramos también van en orden).
+     */
+    @Override
+    public void bloquear(Collection<Long> ids, Connection conn) throws SQLException {
+        List<Long> ordenados = new ArrayList<>(new TreeSet<>(ids));
+        for (int desde = 0; desde < ordenados.size(); desde += Lotes.FILAS_POR_SENTENCIA) {
+            List<Long> tramo = ordenados.subList(desde, Math.min(ordenados.size(), desde + Lotes.FILAS_POR_SENTENCIA));
+            try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_BLOQUEAR, Lotes.marcadores(tramo.size())))) {
+                PresupuestoConsulta.aplicar(ps, "DuenioDAO.bloquear");
+                for (int i = 0; i < tramo.size(); i++) {
+                    ps.setLong(i + 1, tramo.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        // Solo interesa el bloqueo
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ajusta los contadores en un único lote, en orden de ID (todas las transacciones bloquean
+     * a los dueños en el mismo orden y no se generan deadlocks entre lotes).
+     */
+    @Override
+    public void sumarMascotasActivas(Map<Long, Integer> deltas, Connection conn) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SUMAR_MASCOTAS_ACTIVAS)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.sumarMascotasActivas");
+            for (Map.Entry<Long, Integer> delta : new TreeMap<>(deltas).entrySet()) {
+                if (delta.getValue() != 0) {
+                    ps.setInt(1, delta.getValue());
+                    ps.setLong(2, delta.getKey());
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Inserta o actualiza dueños por DNI, en tramos de {@link Lotes#FILAS_POR_SENTENCIA}.
+     * Por tramo: un SELECT (con bloqueo) del estado previo y un único INSERT ... ON DUPLICATE KEY UPDATE
+     * multi-fila con los registros nuevos o modificados. Si el DNI se repite en la entrada, vale el último.
+     * Con IDs AUTO_INCREMENT las altas van en un INSERT aparte, del que se leen los IDs generados.
+     */
+    @Override
+    public ResultadoUpsert<Duenio> upsert(List<Duenio> duenios, Connection conn) throws SQLException {
+        ResultadoUpsert<Duenio> resultado = new ResultadoUpsert<>();
+        Map<String, Duenio> porDni = new LinkedHashMap<>();
+        for (Duenio duenio : duenios) {
+            porDni.put(Lotes.clave(duenio.getDni()), duenio);
+        }
+        List<Duenio> unicos = new ArrayList<>(porDni.values());
+        for (int desde = 0; desde < unicos.size(); desde += Lotes.FILAS_POR_SENTENCIA) {
+            List<Duenio> tramo = unicos.subList(desde, Math.min(unicos.size(), desde + Lotes.FILAS_POR_SENTENCIA));
+            upsertTramo(tramo, conn, resultado);
+        }
+        return resultado;
+    }
+
+    private void upsertTramo(List<Duenio> tramo, Connection conn, ResultadoUpsert<Duenio> resultado) throws SQLException {
+        // 1. Estado previo: por DNI, y a quién pertenece cada email (UNIQUE en otra columna)
+        Map<String, Duenio> existentes = new HashMap<>();
+        Map<String, String> dniPorEmail = new HashMap<>();
+        String marcas = Lotes.marcadores(tramo.size());
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_SELECT_PARA_UPSERT, marcas, marcas))) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.upsert");
+            for (int i = 0; i < tramo.size(); i++) {
+                ps.setString(i + 1, tramo.get(i).getDni());
+                ps.setString(tramo.size() + i + 1, tramo.get(i).getEmail());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Duenio previo = mapResultSetToDuenio(rs);
+                    existentes.put(Lotes.clave(previo.getDni()), previo);
+                    if (previo.getEmail() != null) {
+                        dniPorEmail.put(Lotes.clave(previo.getEmail()), Lotes.clave(previo.getDni()));
+                    }
+                }
+            }
+        }
+
+        // 2. Clasificación: solo se envían las filas nuevas o modificadas
+        List<Duenio> altasSinId = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SQL_UPSERT)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.upsert");
+            int pendientes = 0;
+            for (Duenio duenio : tramo) {
+                String dni = Lotes.clave(duenio.getDni());
+                String duenioDelEmail = dniPorEmail.get(Lotes.clave(duenio.getEmail()));
+                Duenio previo = existentes.get(dni);
+                long id;
+                if (duenioDelEmail != null && !duenioDelEmail.equals(dni)) {
+                    resultado.omitido(); // El email ya es de otro dueño: se actualizaría la fila equivocada
+                    continue;
+                } else if (previo == null) {
+                    id = asignador.siguiente(TABLA);
+                    resultado.insertado(duenio);
+                } else if (previo.getId() == null) {
+                    resultado.omitido(); // DNI repetido tras un alta AUTO_INCREMENT del tramo: ya va en su INSERT
+                    continue;
+                } else if (Boolean.TRUE.equals(previo.getEliminado())) {
+                    resultado.omitido(); // Una baja no se revierte desde una sincronización
+                    continue;
+                } else if (mismosDatos(previo, duenio)) {
+                    duenio.setId(previo.getId());
+                    resultado.sinCambios();
+                    continue;
+                } else {
+                    id = previo.getId();
+                    resultado.actualizado(previo, duenio);
+                }
+                if (duenio.getEmail() != null) {
+                    // El email queda tomado: otra fila del tramo con el mismo email se omite
+                    dniPorEmail.put(Lotes.clave(duenio.getEmail()), dni);
+                }
+                // El DNI queda clasificado: otra fila del tramo con el mismo DNI se compara contra esta
+                existentes.put(dni, duenio);
+                if (id == AsignadorIds.ASIGNA_LA_BD) {
+                    altasSinId.add(duenio); // AUTO_INCREMENT: se inserta aparte para leer el ID generado
+                    continue;
+                }
+                llenarInsert(ps, duenio);
+                ps.setLong(7, id);
+                duenio.setId(id);
+                ps.addBatch();
+                pendientes++;
+            }
+            if (pendientes > 0) {
+                ps.executeBatch(); // Con 'rewriteBatchedStatements': un único INSERT multi-fila
+            }
+        }
+
+        // 3. Altas con ID de la BD: INSERT simple (un duplicado falla en lugar de pisar otra fila)
+        Lotes.insertar(conn, asignador, TABLA, "DuenioDAO.upsert", SQL_INSERT, SQL_INSERT_CON_ID, 6,
+                altasSinId, (ps, duenio, i) -> llenarInsert(ps, duenio), Duenio::setId);
+    }
+
+    private static void llenarInsert(PreparedStatement ps, Duenio duenio) throws SQLException {
+        ps.setString(1, duenio.getDni());
+        ps.setString(2, duenio.getNombre());
+        ps.setString(3, duenio.getApellido());
+        ps.setString(4, duenio.getTelefono());
+        ps.setString(5, duenio.getEmail());
+        ps.setString(6, duenio.getDireccion());
+    }
+
+    private static boolean mismosDatos(Duenio previo, Duenio nuevo) {
+        return Objects.equals(previo.getNombre(), nuevo.getNombre())
+                && Objects.equals(previo.getApellido(), nuevo.getApellido())
+                && Objects.equals(previo.getTelefono(), nuevo.getTelefono())
+                && Objects.equals(previo.getEmail(), nuevo.getEmail())
+                && Objects.equals(previo.getDireccion(), nuevo.getDireccion());
+    }
+
     // --- 3. IMPLEMENTACIÓN DE MÉTODOS DE LECTURA  ---
     // Estos métodos manejan su propia conexión (la piden al Pool y la cierran).
 
@@ -119,6 +388,7 @@ public class DuenioDaoImpl implements DuenioDAO {
         // Se cierran solos al final del try, en orden inverso.
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_ID)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.leerPorId");
             
             ps.setLong(1, id);
             
@@ -131,6 +401,25 @@ public class DuenioDaoImpl implements DuenioDAO {
         return null; // Si no se encontró nada
     }
 
+    /**
+     * Lee un dueño archivado (ver {@link GenericDAO#leerArchivadoPorId}).
+     * Este método maneja su propia conexión.
+     */
+    @Override
+    public Duenio leerArchivadoPorId(Long id) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ARCHIVADO_BY_ID)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.leerArchivadoPorId");
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToDuenio(rs);
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Lee todos los Dueños activos (no eliminados).
      * Este método maneja su propia conexión.
@@ -140,11 +429,12 @@ public class DuenioDaoImpl implements DuenioDAO {
         List<Duenio> duenios = new ArrayList<>();
         
         try (Connection conn = DatabaseConnectionPool.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                duenios.add(mapResultSetToDuenio(rs)); // Usa el método ayudante
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.leerTodos");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    duenios.add(mapResultSetToDuenio(rs)); // Usa el método ayudante
+                }
             }
         }
         return duenios; // Devuelve la lista (vacía si no hay nada)
@@ -156,6 +446,7 @@ public class DuenioDaoImpl implements DuenioDAO {
     public Duenio buscarPorDni(String dni) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_DNI)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.buscarPorDni");
             
             ps.setString(1, dni);
             
@@ -175,6 +466,7 @@ public class DuenioDaoImpl implements DuenioDAO {
         
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_APELLIDO)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.buscarPorApellido");
             
             ps.setString(1, likePattern);
             
@@ -195,6 +487,7 @@ public class DuenioDaoImpl implements DuenioDAO {
     public Duenio buscarPorEmail(String email) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_EMAIL)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.buscarPorEmail");
             
             ps.setString(1, email);
             
@@ -212,6 +505,7 @@ public class DuenioDaoImpl implements DuenioDAO {
         // Esta consulta (SELECT 1) es más rápida que (SELECT *)
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_EXISTS_DNI)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.existeDni");
             
             ps.setString(1, dni);
             
@@ -225,6 +519,7 @@ public class DuenioDaoImpl implements DuenioDAO {
     public boolean existeEmail(String email) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_EXISTS_EMAIL)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.existeEmail");
             
             ps.setString(1, email);
             
@@ -238,6 +533,7 @@ public class DuenioDaoImpl implements DuenioDAO {
     public boolean existeTelefono(String telefono) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_EXISTS_TELEFONO)) {
+            PresupuestoConsulta.aplicar(ps, "DuenioDAO.existeTelefono");
 
             ps.setString(1, telefono);
 
@@ -249,6 +545,25 @@ public class DuenioDaoImpl implements DuenioDAO {
         }
     }
 
+    /**
+     * Recorre los dueños activos en modo streaming con un {@link CursorDuenio} reutilizable.
+     */
+    @Override
+    public <E extends Exception> long recorrer(VisitanteFilas<CursorDuenio, E> visitante) throws SQLException, E {
+        return Recorridos.recorrer(SQL_SELECT_ALL, "DuenioDAO.recorrer", CursorDuenio::new, visitante);
+    }
+
+    /**
+     * Recorre en streaming los dueños que cambiaron después del token, en orden de cambio.
+     * Antes numera los cambios confirmados que todavía estaban pendientes (ver {@link NumeradorCambios}).
+     */
+    @Override
+    public <E extends Exception> long cambiosDesde(long token, VisitanteFilas<CursorDuenio, E> visitante) throws SQLException, E {
+        NumeradorCambios.numerar(TABLA);
+        return Recorridos.recorrer(SQL_SELECT_CAMBIOS, "DuenioDAO.cambiosDesde", ps -> ps.setLong(1, token),
+                CursorDuenio::new, visitante);
+    }
+
     // --- 5. MÉTODO "HELPER" (AYUDANTE) ---
 
     /**
@@ -270,6 +585,9 @@ public class DuenioDaoImpl implements DuenioDAO {
         duenio.setEmail(rs.getString("email"));
         duenio.setDireccion(rs.getString("direccion"));
         duenio.setEliminado(rs.getBoolean("eliminado"));
+        duenio.setMascotasActivas(rs.getInt("mascotas_activas"));
+        duenio.setVersion(rs.getInt("version"));
+        duenio.marcarSinCambios(); // Estado persistido: desde acá se registran los cambios
         
         return duenio;
     }
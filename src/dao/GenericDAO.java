@@ -58,6 +58,17 @@ public interface GenericDAO <T> {
      * @throws SQLException Si hay un error de SQL.
      */
     T leerPorId(Long id) throws SQLException;
+
+    /**
+     * Lee una entidad ya archivada: dada de baja hace más del período de retención y movida a la
+     * tabla '&lt;tabla&gt;_archivo' (ver herramientas.ArchivadorEliminados). Las lecturas normales no la ven.
+     * Este método maneja su propia conexión.
+     *
+     * @param id El ID que tenía la entidad.
+     * @return El objeto <T> archivado, o null si no está en el archivo.
+     * @throws SQLException Si hay un error de SQL.
+     */
+    T leerArchivadoPorId(Long id) throws SQLException;
     
     /**
      * Lee todas las entidades activas (eliminado = false) de una tabla.
@@ -0,0 +1,102 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Inserción por lotes y listas IN (...) compartidas por los DAOs (package-private).
+ *
+ * Con IDs asignados por la aplicación ({@link AsignadorHiLo}) el lote se envía sin pedir claves
+ * generadas; con 'rewriteBatchedStatements' el driver lo convierte en INSERT multi-fila.
+ * Con {@link AsignadorIds#AUTOINCREMENTO} se leen las claves generadas en el orden de las filas.
+ */
+final class Lotes {
+
+    /** Filas por executeBatch: acota el tamaño de cada INSERT multi-fila (max_allowed_packet). */
+    static final int FILAS_POR_SENTENCIA = 1_000;
+
+    /** Completa los parámetros de una fila (sin el ID, que es siempre el último parámetro). */
+    @FunctionalInterface
+    interface LlenadorFila<T> {
+        void llenar(PreparedStatement ps, T fila, int indice) throws SQLException;
+    }
+
+    /** Guarda en la entidad el ID asignado. */
+    @FunctionalInterface
+    interface AsignacionId<T> {
+        void asignar(T fila, long id);
+    }
+
+    private Lotes() {
+    }
+
+    /**
+     * Inserta todas las filas en la conexión (transacción) del llamador.
+     *
+     * @param sqlSinId INSERT sin la columna id (AUTO_INCREMENT).
+     * @param sqlConId El mismo INSERT con 'id' como último parámetro.
+     * @param parametros Cantidad de parámetros de {@code sqlSinId}.
+     */
+    static <T> void insertar(Connection conn, AsignadorIds asignador, String tabla, String operacion,
+                             String sqlSinId, String sqlConId, int parametros, List<T> filas,
+                             LlenadorFila<T> llenador, AsignacionId<T> asignacion) throws SQLException {
+        if (filas.isEmpty()) {
+            return;
+        }
+        // El primer ID decide el camino (la estrategia no cambia durante la ejecución)
+        long primero = asignador.siguiente(tabla);
+        boolean idPropio = primero != AsignadorIds.ASIGNA_LA_BD;
+        try (PreparedStatement ps = idPropio ? conn.prepareStatement(sqlConId)
+                : conn.prepareStatement(sqlSinId, Statement.RETURN_GENERATED_KEYS)) {
+            PresupuestoConsulta.aplicar(ps, operacion);
+            for (int desde = 0; desde < filas.size(); desde += FILAS_POR_SENTENCIA) {
+                int hasta = Math.min(filas.size(), desde + FILAS_POR_SENTENCIA);
+                for (int i = desde; i < hasta; i++) {
+                    T fila = filas.get(i);
+                    llenador.llenar(ps, fila, i);
+                    if (idPropio) {
+                        long id = i == 0 ? primero : asignador.siguiente(tabla);
+                        ps.setLong(parametros + 1, id);
+                        asignacion.asignar(fila, id);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                if (!idPropio) {
+                    leerClaves(ps, filas, desde, hasta, asignacion);
+                }
+            }
+        }
+    }
+
+    /** @return "?, ?, ..., ?" con {@code cantidad} marcadores, para listas IN (...). */
+    static String marcadores(int cantidad) {
+        StringBuilder sb = new StringBuilder(cantidad * 3);
+        for (int i = 0; i < cantidad; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /** Clave de comparación para columnas UNIQUE con collation que no distingue mayúsculas. */
+    static String clave(String valor) {
+        return valor == null ? null : valor.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static <T> void leerClaves(PreparedStatement ps, List<T> filas, int desde, int hasta,
+                                       AsignacionId<T> asignacion) throws SQLException {
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            for (int i = desde; i < hasta; i++) {
+                if (!rs.next()) {
+                    throw new SQLException("Fallo al insertar el lote, no se obtuvieron todos los IDs.");
+                }
+                asignacion.asignar(filas.get(i), rs.getLong(1));
+            }
+        }
+    }
+}
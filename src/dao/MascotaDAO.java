@@ -1,8 +1,13 @@
 package dao;
 
 import entities.Mascota;
+import entities.Microchip;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Interfaz específica del Data Access Object (DAO) para la entidad {@link Mascota}.
@@ -34,12 +39,103 @@ public interface MascotaDAO extends GenericDAO<Mascota> {
 
     /**
      * Cuenta cuántas mascotas ACTIVAS tiene un dueño.
-     * ROL ESTRATÉGICO: Es mucho más rápido que traer la lista entera.
+     * ROL ESTRATÉGICO: Es mucho más rápido que traer la lista entera: lee el contador desnormalizado
+     * 'duenios.mascotas_activas' (O(1) por dueño) en lugar de contar filas de 'mascotas'.
      * El DuenioService usará esto antes de una baja lógica  para verificar que un dueño no tenga mascotas activas.
      * @param duenioId El ID del dueño.
      * @return El conteo (int) de mascotas activas.
      * @throws SQLException Si hay un error de base de datos.
      */
     int contarMascotasActivasPorDuenio(Long duenioId) throws SQLException;
+
+    /**
+     * Recorre todas las mascotas activas (con dueño y microchip) de a una fila, sin acumularlas.
+     * ROL ESTRATÉGICO: Permite exportar o procesar millones de filas con memoria constante,
+     * a diferencia de {@link #leerTodos()}. Mantiene una conexión ocupada hasta terminar.
+     * @param consumidor Recibe cada mascota; si lanza una excepción, el recorrido se cancela.
+     * @return La cantidad de filas recorridas.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    long recorrerTodos(Consumer<Mascota> consumidor) throws SQLException;
+
+    /**
+     * Recorre todas las mascotas activas entregando un único cursor reutilizable por fila
+     * (ids primitivos, fecha como día epoch), sin crear entidades.
+     * ROL ESTRATÉGICO: Para exportaciones, auditorías y procesos masivos que no deben generar basura por fila.
+     * @param visitante Recibe el cursor en cada fila; devuelve false para terminar antes.
+     * @return La cantidad de filas visitadas.
+     * @throws SQLException Si hay un error de base de datos.
+     * @throws E Si el visitante falla (el recorrido se cancela).
+     */
+    <E extends Exception> long recorrer(VisitanteFilas<CursorMascota, E> visitante) throws SQLException, E;
+
+    /**
+     * Recorre, en orden de cambio, los mascotas dados de alta, modificados o dados de baja después del token
+     * (sincronización incremental). Incluye las bajas lógicas: la fila llega con {@code isEliminado() == true}.
+     * @param token {@link CursorFilas#TOKEN_INICIAL}, o el último {@code getSeqCambio()} ya procesado.
+     * @param visitante Recibe el cursor en cada fila; devuelve false para terminar antes.
+     * @return La cantidad de filas visitadas.
+     * @throws SQLException Si hay un error de base de datos.
+     * @throws E Si el visitante falla (el recorrido se cancela).
+     */
+    <E extends Exception> long cambiosDesde(long token, VisitanteFilas<CursorMascota, E> visitante) throws SQLException, E;
+
+    /**
+     * Crea varias mascotas en la transacción del llamador, enviándolas como lote (INSERT multi-fila).
+     * ROL ESTRATÉGICO: Importaciones. Cada mascota queda con su ID seteado.
+     * @param mascotas Las mascotas a crear (cada una con su Duenio seteado).
+     * @param conn La conexión transaccional (del Service).
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    void crearLote(List<Mascota> mascotas, Connection conn) throws SQLException;
+
+    /**
+     * Da de baja (lógica) varias mascotas y sus microchips en la transacción del llamador.
+     * ROL ESTRATÉGICO: Bajas masivas con sentencias por conjunto (listas IN de hasta
+     * {@code Lotes.FILAS_POR_SENTENCIA} IDs) en lugar de una transacción por mascota.
+     * Las mascotas activas de cada tramo quedan bloqueadas (FOR UPDATE) antes de la baja, así la
+     * fila previa devuelta es exactamente la que se dio de baja. NO ajusta los contadores de los
+     * dueños: lo hace el Service con {@link DuenioDAO#sumarMascotasActivas} y las filas previas.
+     * @param ids Los IDs a dar de baja (los repetidos, inexistentes o ya dados de baja se omiten).
+     * @param conn La conexión transaccional (del Service).
+     * @return Las cantidades afectadas y la fila previa de cada mascota dada de baja.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    ResultadoBajaMasiva eliminar(Collection<Long> ids, Connection conn) throws SQLException;
+
+    /**
+     * Lee, sin bloquear, los dueños de varias mascotas (para bloquearlos antes con {@link DuenioDAO#bloquear}).
+     * @param ids Los IDs de las mascotas (los inexistentes se omiten).
+     * @param conn La conexión transaccional (del Service).
+     * @return Los IDs de sus dueños, sin repetir.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    Set<Long> leerDuenioIds(Collection<Long> ids, Connection conn) throws SQLException;
+
+    /**
+     * Reasigna varias mascotas activas a otro dueño en la transacción del llamador.
+     * ROL ESTRATÉGICO: Traspasos (adopciones desde un refugio, familias que se unifican) sin
+     * recrear las mascotas: conservan su ID, su microchip y su historial. Un UPDATE por conjunto
+     * por cada tramo de hasta {@code Lotes.FILAS_POR_SENTENCIA} IDs, sobre las mascotas bloqueadas
+     * (FOR UPDATE) del tramo. NO valida el dueño destino ni ajusta los contadores: lo hace el Service.
+     * @param ids Los IDs a traspasar (los repetidos, inexistentes, dados de baja o que ya son del destino se omiten).
+     * @param duenioDestinoId El ID del nuevo dueño.
+     * @param conn La conexión transaccional (del Service).
+     * @return Las cantidades afectadas y la fila previa (con el dueño anterior) de cada mascota traspasada.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    ResultadoTransferencia transferir(Collection<Long> ids, Long duenioDestinoId, Connection conn) throws SQLException;
+
+    /**
+     * Crea una mascota y su microchip en una única ida y vuelta a la base, de forma atómica.
+     * ROL ESTRATÉGICO: Alta en mostrador con la menor latencia posible. La validación del dueño
+     * y del código se hace del lado del servidor (SQLState 45000 con el mensaje de negocio).
+     * A diferencia de {@link #crear}, maneja su propia conexión y su propia transacción.
+     * @param mascota La mascota a crear (con su Duenio seteado).
+     * @param microchip El microchip a asociar.
+     * @return La mascota con su ID y el microchip (también con su ID) seteado.
+     * @throws SQLException Si la validación o la inserción fallan (nada queda persistido).
+     */
+    Mascota crearCompleta(Mascota mascota, Microchip microchip) throws SQLException;
 }
 
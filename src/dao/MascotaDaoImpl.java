@@ -7,7 +7,12 @@ import entities.Microchip;
 import java.sql.*;
 import java.time.LocalDate; 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /**
  * Clase de Implementación Concreta del DAO para la entidad {@link Mascota}.
@@ -22,36 +27,110 @@ public class MascotaDaoImpl implements MascotaDAO {
 
     // --- 1. CONSTANTES SQL (con Eager Loading) ---
     
+    private static final String TABLA = "mascotas";
     // Inserta la entidad Mascota, estableciendo la FK a 'duenios'
-    private static final String SQL_INSERT = "INSERT INTO mascotas (duenio_id, nombre, especie, raza, fecha_nacimiento) VALUES (?, ?, ?, ?, ?)";
-    // Actualiza los datos propios de la mascota. No permite reasignar el duenio_id.
-    private static final String SQL_UPDATE = "UPDATE mascotas SET nombre = ?, especie = ?, raza = ?, fecha_nacimiento = ? WHERE id = ? AND eliminado = false";
+    private static final String SQL_INSERT = "INSERT INTO mascotas (duenio_id, nombre, especie_id, raza_id, fecha_nacimiento) VALUES (?, ?, ?, ?, ?)";
+    // Variante con el ID asignado por la aplicación (siempre como último parámetro)
+    private static final String SQL_INSERT_CON_ID = "INSERT INTO mascotas (duenio_id, nombre, especie_id, raza_id, fecha_nacimiento, id) VALUES (?, ?, ?, ?, ?, ?)";
+    // Alta de mascota + microchip en una sola ida y vuelta (procedimiento almacenado, ver sql/gestion_mascotas.sql)
+    private static final String SQL_CALL_CREAR_COMPLETA = "CALL sp_crear_mascota_completa(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Actualiza los datos propios de la mascota. No permite reasignar el duenio_id (ver transferir).
+    // Solo escribe las columnas modificadas (ver EntidadRastreada); SQL_UPDATE es la forma completa.
+    private static final ColumnasActualizables<Mascota> COLUMNAS_UPDATE = new ColumnasActualizables<Mascota>(TABLA)
+            .columna(Mascota.CAMPO_NOMBRE, "nombre", (ps, i, m) -> ps.setString(i, m.getNombre()))
+            .columna(Mascota.CAMPO_ESPECIE, "especie_id", (ps, i, m) -> ps.setInt(i, CatalogoDiccionarios.ESPECIES.idDe(m.getEspecie())))
+            .columna(Mascota.CAMPO_RAZA, "raza_id", (ps, i, m) -> setIdDiccionario(ps, i, CatalogoDiccionarios.RAZAS.idDe(m.getRaza())))
+            .columna(Mascota.CAMPO_FECHA_NACIMIENTO, "fecha_nacimiento", (ps, i, m) -> ps.setObject(i, m.getFechaNacimiento()));
+    private static final String SQL_UPDATE = COLUMNAS_UPDATE.sqlCompleta();
     // Realiza la baja lógica (soft delete) de la mascota.
-    private static final String SQL_DELETE_LOGICO = "UPDATE mascotas SET eliminado = true WHERE id = ?";
+    private static final String SQL_DELETE_LOGICO = "UPDATE mascotas SET eliminado = true, version = version + 1 WHERE id = ?";
 
    /**
      * Consulta base para Eager Loading.
+     * Especie, raza y veterinaria llegan como ids de sus diccionarios y se traducen en memoria
+     * con {@link CatalogoDiccionarios} (sin JOIN adicional).
      * Utiliza LEFT JOIN para traer datos de 'duenios' y 'microchips' en una sola consulta, incluso si 'mascota' no tiene un dueño o microchip asignado.
      * Usa alias (ej. d.nombre AS duenio_nombre) para desambiguar columnas.
      */
     private static final String SQL_SELECT_BASE = 
         "SELECT " +
-        "    m.id, m.nombre, m.especie, m.raza, m.fecha_nacimiento, m.eliminado AS mascota_eliminado, " +
+        "    m.id, m.nombre, m.especie_id, m.raza_id, m.fecha_nacimiento, m.eliminado AS mascota_eliminado, m.version, " +
         "    d.id AS duenio_id, d.dni, d.nombre AS duenio_nombre, d.apellido, d.eliminado AS duenio_eliminado, " + 
-        "    mc.id AS microchip_id, mc.codigo, mc.veterinaria, mc.eliminado AS microchip_eliminado " +
+        "    mc.id AS microchip_id, mc.codigo, mc.veterinaria_id, mc.eliminado AS microchip_eliminado " +
         "FROM mascotas m " +
         "LEFT JOIN duenios d ON m.duenio_id = d.id " +
         "LEFT JOIN microchips mc ON m.id = mc.mascota_id " +
         "WHERE m.eliminado = false"; 
     
+    // Variante para recorridos masivos: la fecha llega como número de días (sin objetos fecha por fila)
+    private static final String CONSULTA_RECORRIDO =
+        "SELECT " +
+        "    m.id, m.nombre, m.especie_id, m.raza_id, DATEDIFF(m.fecha_nacimiento, '1970-01-01') AS fecha_nacimiento_dia, " +
+        "    m.eliminado AS mascota_eliminado, m.version, m.seq_cambio, m.actualizado_en, " +
+        "    d.id AS duenio_id, d.dni, d.nombre AS duenio_nombre, d.apellido, d.eliminado AS duenio_eliminado, " +
+        "    mc.id AS microchip_id, mc.codigo, mc.veterinaria_id, mc.eliminado AS microchip_eliminado " +
+        "FROM mascotas m " +
+        "LEFT JOIN duenios d ON m.duenio_id = d.id " +
+        "LEFT JOIN microchips mc ON m.id = mc.mascota_id ";
+    private static final String SQL_SELECT_RECORRIDO = CONSULTA_RECORRIDO + "WHERE m.eliminado = false";
+    // Cambios posteriores al token, incluidas las bajas lógicas (por eso no filtra 'eliminado')
+    private static final String SQL_SELECT_CAMBIOS = CONSULTA_RECORRIDO + "WHERE m.seq_cambio > ? ORDER BY m.seq_cambio";
+
     // Consultas derivadas que reutilizan la consulta base
     private static final String SQL_SELECT_BY_ID = SQL_SELECT_BASE + " AND m.id = ?";
     private static final String SQL_SELECT_ALL = SQL_SELECT_BASE;
     private static final String SQL_SELECT_BY_DUENIO_ID = SQL_SELECT_BASE + " AND m.duenio_id = ?";
     private static final String SQL_SELECT_BY_NOMBRE = SQL_SELECT_BASE + " AND m.nombre LIKE ?";
+
+    // Mascota archivada con los mismos alias que la consulta base. Su dueño puede seguir activo o
+    // haber sido archivado después; su microchip se archiva siempre junto con ella.
+    private static final String SQL_SELECT_ARCHIVADO_BY_ID =
+        "SELECT " +
+        "    m.id, m.nombre, m.especie_id, m.raza_id, m.fecha_nacimiento, m.eliminado AS mascota_eliminado, 0 AS version, " +
+        "    COALESCE(d.id, da.id) AS duenio_id, COALESCE(d.dni, da.dni) AS dni, " +
+        "    COALESCE(d.nombre, da.nombre) AS duenio_nombre, COALESCE(d.apellido, da.apellido) AS apellido, " +
+        "    COALESCE(d.eliminado, da.eliminado) AS duenio_eliminado, " +
+        "    mc.id AS microchip_id, mc.codigo, mc.veterinaria_id, mc.eliminado AS microchip_eliminado " +
+        "FROM mascotas_archivo m " +
+        "LEFT JOIN duenios d ON m.duenio_id = d.id " +
+        "LEFT JOIN duenios_archivo da ON m.duenio_id = da.id " +
+        "LEFT JOIN microchips_archivo mc ON m.id = mc.mascota_id " +
+        "WHERE m.id = ?";
     
-    // Consulta optimizada para conteo (requerida por DuenioService)
-    private static final String SQL_COUNT_BY_DUENIO_ID = "SELECT COUNT(*) FROM mascotas WHERE duenio_id = ? AND eliminado = false";
+    // --- Baja masiva (listas IN con "%s" en lugar de los marcadores) ---
+    // Bloquea solo las filas de 'mascotas' (OF m): dueños y microchips se leen sin bloquear
+    private static final String PREFIJO_SELECT_PARA_BAJA = SQL_SELECT_BASE + " AND m.id IN (%s) ORDER BY m.id FOR UPDATE OF m";
+    private static final String PREFIJO_DELETE_LOGICO_MICROCHIPS =
+        "UPDATE microchips SET eliminado = true, version = version + 1 WHERE mascota_id IN (%s) AND eliminado = false";
+    private static final String PREFIJO_DELETE_LOGICO_MASCOTAS =
+        "UPDATE mascotas SET eliminado = true, version = version + 1 WHERE id IN (%s) AND eliminado = false";
+
+    // Dueños de un conjunto de mascotas (lectura consistente, sin bloqueo)
+    private static final String PREFIJO_SELECT_DUENIO_IDS = "SELECT DISTINCT duenio_id FROM mascotas WHERE id IN (%s)";
+
+    // --- Traspaso masivo: las mascotas que ya son del destino no se bloquean ni se escriben ---
+    private static final String PREFIJO_SELECT_PARA_TRASPASO = SQL_SELECT_BASE + " AND m.id IN (%s) AND m.duenio_id <> ? ORDER BY m.id FOR UPDATE OF m";
+    private static final String PREFIJO_UPDATE_DUENIO =
+        "UPDATE mascotas SET duenio_id = ?, version = version + 1 WHERE id IN (%s) AND eliminado = false";
+
+    // Conteo (requerido por DuenioService): lee el contador desnormalizado del dueño en vez de un COUNT(*)
+    private static final String SQL_COUNT_BY_DUENIO_ID = "SELECT mascotas_activas FROM duenios WHERE id = ?";
+
+    /** Sentencias que el pool prepara por adelantado al iniciar (ver DatabaseConnectionPool). */
+    public static final List<String> SENTENCIAS_FRECUENTES = List.of(
+            SQL_SELECT_BY_ID, SQL_SELECT_BY_DUENIO_ID, SQL_COUNT_BY_DUENIO_ID, SQL_INSERT, SQL_INSERT_CON_ID, SQL_CALL_CREAR_COMPLETA);
+
+    // Estrategia de IDs (AUTO_INCREMENT o bloques hi-lo, ver AsignadorIds)
+    private final AsignadorIds asignador;
+
+    /** Usa la estrategia de IDs configurada ('ids.estrategia'). */
+    public MascotaDaoImpl() {
+        this(AsignadorIds.configurado());
+    }
+
+    public MascotaDaoImpl(AsignadorIds asignador) {
+        this.asignador = asignador;
+    }
 
 
     // --- 2. MÉTODOS TRANSACCIONALES (C-U-D) ---
@@ -59,17 +138,24 @@ public class MascotaDaoImpl implements MascotaDAO {
     
     /**
      * Persiste una nueva {@code Mascota} en la BD.
-     * Esta operación es transaccional y devuelve la entidad con su ID generado.
+     * Esta operación es transaccional y devuelve la entidad con su ID
+     * (asignado por la aplicación o por la BD, según la estrategia).
      */
     @Override
     public Mascota crear(Mascota mascota, Connection conn) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        long id = asignador.siguiente(TABLA);
+        boolean idPropio = id != AsignadorIds.ASIGNA_LA_BD;
+        try (PreparedStatement ps = idPropio ? conn.prepareStatement(SQL_INSERT_CON_ID)
+                : conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.crear");
             
-            ps.setLong(1, mascota.getDuenio().getId()); // Asigna la FK del Dueño
-            ps.setString(2, mascota.getNombre());
-            ps.setString(3, mascota.getEspecie());
-            ps.setString(4, mascota.getRaza());
-            ps.setObject(5, mascota.getFechaNacimiento()); // Usamos setObject para LocalDate
+            llenarInsert(ps, mascota);
+            if (idPropio) {
+                ps.setLong(6, id); // ID ya conocido: no hace falta leer claves generadas
+                ps.executeUpdate();
+                mascota.setId(id);
+                return mascota;
+            }
             
             ps.executeUpdate();
 
@@ -85,22 +171,62 @@ public class MascotaDaoImpl implements MascotaDAO {
     }
 
     /**
-     * Actualiza una {@code Mascota} existente en la BD.
+     * Persiste una {@code Mascota} y su {@code Microchip} con un único CALL al procedimiento
+     * 'sp_crear_mascota_completa', que valida, inserta ambos y confirma en su propia transacción.
+     * Maneja su propia conexión (con autocommit): no participa de una transacción del llamador.
+     */
+    @Override
+    public Mascota crearCompleta(Mascota mascota, Microchip microchip) throws SQLException {
+        // IDs asignados por la aplicación (hi-lo) o NULL para que los asigne AUTO_INCREMENT
+        long mascotaId = asignador.siguiente(TABLA);
+        long microchipId = asignador.siguiente("microchips");
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_CALL_CREAR_COMPLETA)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.crearCompleta");
+
+            setIdOpcional(ps, 1, mascotaId);
+            ps.setLong(2, mascota.getDuenio().getId());
+            ps.setString(3, mascota.getNombre());
+            ps.setInt(4, CatalogoDiccionarios.ESPECIES.idDe(mascota.getEspecie()));
+            setIdDiccionario(ps, 5, CatalogoDiccionarios.RAZAS.idDe(mascota.getRaza()));
+            ps.setObject(6, mascota.getFechaNacimiento());
+            setIdOpcional(ps, 7, microchipId);
+            ps.setString(8, microchip.getCodigo());
+            ps.setString(9, microchip.getObservaciones());
+            setIdDiccionario(ps, 10, CatalogoDiccionarios.VETERINARIAS.idDe(microchip.getVeterinaria()));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Fallo al crear la mascota completa, no se obtuvieron los IDs.");
+                }
+                mascota.setId(rs.getLong("mascota_id"));
+                microchip.setId(rs.getLong("microchip_id"));
+            }
+        }
+        mascota.setMicrochip(microchip);
+        return mascota;
+    }
+
+    /**
+     * Persiste varias {@code Mascotas} en la transacción del llamador, como INSERT multi-fila.
+     */
+    @Override
+    public void crearLote(List<Mascota> mascotas, Connection conn) throws SQLException {
+        Lotes.insertar(conn, asignador, TABLA, "MascotaDAO.crearLote", SQL_INSERT, SQL_INSERT_CON_ID, 5,
+                mascotas, (ps, mascota, i) -> llenarInsert(ps, mascota), Mascota::setId);
+    }
+
+    /**
+     * Actualiza una {@code Mascota} existente en la BD (solo las columnas modificadas,
+     * con control de versión si la mascota trae la versión leída).
      * Esta operación es transaccional.
      */
     @Override
     public void actualizar(Mascota mascota, Connection conn) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
-            ps.setString(1, mascota.getNombre());
-            ps.setString(2, mascota.getEspecie());
-            ps.setString(3, mascota.getRaza());
-            ps.setObject(4, mascota.getFechaNacimiento());
-            ps.setLong(5, mascota.getId()); // ID para el WHERE
-            
-            ps.executeUpdate();
-        }
+        COLUMNAS_UPDATE.actualizar(conn, "MascotaDAO.actualizar", mascota, mascota.getId());
     }
 
+
     /**
      * Realiza una baja lógica de una {@code Mascota}.
      * Esta operación es transaccional.
@@ -108,11 +234,127 @@ public class MascotaDaoImpl implements MascotaDAO {
     @Override
     public void eliminar(Long id, Connection conn) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LOGICO)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.eliminar");
             ps.setLong(1, id);
             ps.executeUpdate();
         }
     }
 
+    /**
+     * Baja lógica masiva: por cada tramo de IDs (ordenados, así dos bajas masivas bloquean en el
+     * mismo orden) bloquea las mascotas activas y da de baja sus microchips y a ellas, con una
+     * sentencia por tabla.
+     */
+    @Override
+    public ResultadoBajaMasiva eliminar(Collection<Long> ids, Connection conn) throws SQLException {
+        List<Long> unicos = new ArrayList<>(new TreeSet<>(ids));
+        ResultadoBajaMasiva resultado = new ResultadoBajaMasiva();
+        resultado.solicitadas(unicos.size());
+        for (int desde = 0; desde < unicos.size(); desde += Lotes.FILAS_POR_SENTENCIA) {
+            eliminarTramo(unicos.subList(desde, Math.min(unicos.size(), desde + Lotes.FILAS_POR_SENTENCIA)), conn, resultado);
+        }
+        return resultado;
+    }
+
+    private void eliminarTramo(List<Long> tramo, Connection conn, ResultadoBajaMasiva resultado) throws SQLException {
+        // 1. Mascotas todavía activas del tramo (bloqueadas hasta el commit)
+        List<Long> activas = new ArrayList<>(tramo.size());
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_SELECT_PARA_BAJA, Lotes.marcadores(tramo.size())))) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.eliminarVarias");
+            setIds(ps, tramo);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Mascota previa = mapResultSetToMascota(rs);
+                    activas.add(previa.getId());
+                    resultado.eliminada(previa);
+                }
+            }
+        }
+        if (activas.isEmpty()) {
+            return;
+        }
+        // 2. Baja de las mascotas y después de sus microchips (mismo orden que la baja individual)
+        String marcas = Lotes.marcadores(activas.size());
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_DELETE_LOGICO_MASCOTAS, marcas))) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.eliminarVarias");
+            setIds(ps, activas);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_DELETE_LOGICO_MICROCHIPS, marcas))) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.eliminarVarias");
+            setIds(ps, activas);
+            resultado.microchipsEliminados(ps.executeUpdate());
+        }
+    }
+
+    /**
+     * Una lectura por tramo de hasta {@link Lotes#FILAS_POR_SENTENCIA} IDs.
+     */
+    @Override
+    public Set<Long> leerDuenioIds(Collection<Long> ids, Connection conn) throws SQLException {
+        List<Long> unicos = new ArrayList<>(new TreeSet<>(ids));
+        Set<Long> duenioIds = new HashSet<>();
+        for (int desde = 0; desde < unicos.size(); desde += Lotes.FILAS_POR_SENTENCIA) {
+            List<Long> tramo = unicos.subList(desde, Math.min(unicos.size(), desde + Lotes.FILAS_POR_SENTENCIA));
+            try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_SELECT_DUENIO_IDS, Lotes.marcadores(tramo.size())))) {
+                PresupuestoConsulta.aplicar(ps, "MascotaDAO.leerDuenioIds");
+                setIds(ps, tramo);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        duenioIds.add(rs.getLong(1));
+                    }
+                }
+            }
+        }
+        return duenioIds;
+    }
+
+    /**
+     * Traspaso masivo: por cada tramo de IDs (ordenados) bloquea las mascotas activas que no son
+     * del destino y las reasigna con un único UPDATE.
+     */
+    @Override
+    public ResultadoTransferencia transferir(Collection<Long> ids, Long duenioDestinoId, Connection conn) throws SQLException {
+        List<Long> unicos = new ArrayList<>(new TreeSet<>(ids));
+        ResultadoTransferencia resultado = new ResultadoTransferencia();
+        resultado.solicitadas(unicos.size());
+        for (int desde = 0; desde < unicos.size(); desde += Lotes.FILAS_POR_SENTENCIA) {
+            transferirTramo(unicos.subList(desde, Math.min(unicos.size(), desde + Lotes.FILAS_POR_SENTENCIA)),
+                    duenioDestinoId, conn, resultado);
+        }
+        return resultado;
+    }
+
+    private void transferirTramo(List<Long> tramo, Long duenioDestinoId, Connection conn,
+                                 ResultadoTransferencia resultado) throws SQLException {
+        // 1. Mascotas activas del tramo que cambian de dueño (bloqueadas hasta el commit)
+        List<Long> activas = new ArrayList<>(tramo.size());
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_SELECT_PARA_TRASPASO, Lotes.marcadores(tramo.size())))) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.transferir");
+            setIds(ps, tramo);
+            ps.setLong(tramo.size() + 1, duenioDestinoId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Mascota previa = mapResultSetToMascota(rs);
+                    activas.add(previa.getId());
+                    resultado.transferida(previa);
+                }
+            }
+        }
+        if (activas.isEmpty()) {
+            return;
+        }
+        // 2. Reasignación por conjunto (el dueño destino va primero, antes de la lista IN)
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_UPDATE_DUENIO, Lotes.marcadores(activas.size())))) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.transferir");
+            ps.setLong(1, duenioDestinoId);
+            for (int i = 0; i < activas.size(); i++) {
+                ps.setLong(i + 2, activas.get(i));
+            }
+            ps.executeUpdate();
+        }
+    }
+
     // --- 3. MÉTODOS DE LECTURA ---
     // (Manejan su propia conexión del Pool)
 
@@ -123,6 +365,7 @@ public class MascotaDaoImpl implements MascotaDAO {
     public Mascota leerPorId(Long id) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.leerPorId");
             
             ps.setLong(1, id);
             
@@ -135,6 +378,26 @@ public class MascotaDaoImpl implements MascotaDAO {
         return null;
     }
 
+    /**
+     * Lee una {@code Mascota} archivada (ver {@link GenericDAO#leerArchivadoPorId}). Incluye su dueño
+     * (activo o archivado) y su microchip archivado.
+     * Este método maneja su propia conexión.
+     */
+    @Override
+    public Mascota leerArchivadoPorId(Long id) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ARCHIVADO_BY_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.leerArchivadoPorId");
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToMascota(rs);
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Lee todas las {@code Mascotas} activas, incluyendo sus relaciones.
      */
@@ -142,16 +405,49 @@ public class MascotaDaoImpl implements MascotaDAO {
     public List<Mascota> leerTodos() throws SQLException {
         List<Mascota> mascotas = new ArrayList<>();
         try (Connection conn = DatabaseConnectionPool.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.leerTodos");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    mascotas.add(mapResultSetToMascota(rs));
+                }
             }
         }
         return mascotas;
     }
 
+    /**
+     * Recorre las {@code Mascotas} activas en modo streaming (ver {@link #recorrer}),
+     * copiando cada fila a una entidad nueva.
+     */
+    @Override
+    public long recorrerTodos(Consumer<Mascota> consumidor) throws SQLException {
+        return Recorridos.recorrer(SQL_SELECT_RECORRIDO, "MascotaDAO.recorrerTodos", CursorMascota::new, fila -> {
+            consumidor.accept(fila.aMascota());
+            return true;
+        });
+    }
+
+    /**
+     * Recorre las {@code Mascotas} activas en modo streaming: el driver entrega las filas de a una
+     * y el visitante recibe siempre el mismo {@link CursorMascota}.
+     */
+    @Override
+    public <E extends Exception> long recorrer(VisitanteFilas<CursorMascota, E> visitante) throws SQLException, E {
+        return Recorridos.recorrer(SQL_SELECT_RECORRIDO, "MascotaDAO.recorrer", CursorMascota::new, visitante);
+    }
+
+    /**
+     * Recorre en streaming las {@code Mascotas} que cambiaron después del token, en orden de cambio.
+     * Antes numera los cambios confirmados que todavía estaban pendientes (ver {@link NumeradorCambios}).
+     */
+    @Override
+    public <E extends Exception> long cambiosDesde(long token, VisitanteFilas<CursorMascota, E> visitante) throws SQLException, E {
+        NumeradorCambios.numerar(TABLA);
+        return Recorridos.recorrer(SQL_SELECT_CAMBIOS, "MascotaDAO.cambiosDesde", ps -> ps.setLong(1, token),
+                CursorMascota::new, visitante);
+    }
+
     // --- 4. MÉTODOS ESPECIALES (Lectura) ---
 
     /**
@@ -162,6 +458,7 @@ public class MascotaDaoImpl implements MascotaDAO {
         List<Mascota> mascotas = new ArrayList<>();
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_DUENIO_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.buscarPorDuenioId");
             
             ps.setLong(1, duenioId);
             
@@ -184,6 +481,7 @@ public class MascotaDaoImpl implements MascotaDAO {
         
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_NOMBRE)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.buscarPorNombre");
             
             ps.setString(1, likePattern);
             
@@ -197,25 +495,35 @@ public class MascotaDaoImpl implements MascotaDAO {
     }
 
     /**
-     * Cuenta las {@code Mascotas} activas de un Dueño.
+     * Cuenta las {@code Mascotas} activas de un Dueño (una lectura por PK de 'duenios.mascotas_activas').
      */
     @Override
     public int contarMascotasActivasPorDuenio(Long duenioId) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_COUNT_BY_DUENIO_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MascotaDAO.contarMascotasActivasPorDuenio");
             
             ps.setLong(1, duenioId);
             
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt(1); // Devuelve el COUNT(*)
+                    return rs.getInt(1); // Devuelve el contador
                 }
             }
         }
         return 0; // Si no hay, devuelve 0
     }
 
-    // --- 5. MÉTODO "HELPER" (El Mapeador Complejo) ---
+    // --- 5. MÉTODOS "HELPER" (El Mapeador Complejo) ---
+
+    /** Parámetros 1..5 de SQL_INSERT (comunes a la variante con ID). */
+    private static void llenarInsert(PreparedStatement ps, Mascota mascota) throws SQLException {
+        ps.setLong(1, mascota.getDuenio().getId()); // Asigna la FK del Dueño
+        ps.setString(2, mascota.getNombre());
+        ps.setInt(3, CatalogoDiccionarios.ESPECIES.idDe(mascota.getEspecie()));
+        setIdDiccionario(ps, 4, CatalogoDiccionarios.RAZAS.idDe(mascota.getRaza()));
+        ps.setObject(5, mascota.getFechaNacimiento()); // Usamos setObject para LocalDate
+    }
     
     /**
      * Método de utilidad (helper) privado para el mapeo Objeto-Relacional (O/R Mapping).
@@ -232,10 +540,11 @@ public class MascotaDaoImpl implements MascotaDAO {
         Mascota mascota = new Mascota();
         mascota.setId(rs.getLong("id"));
         mascota.setNombre(rs.getString("nombre"));
-        mascota.setEspecie(rs.getString("especie"));
-        mascota.setRaza(rs.getString("raza"));
+        mascota.setEspecie(CatalogoDiccionarios.ESPECIES.nombre(rs.getInt("especie_id")));
+        mascota.setRaza(CatalogoDiccionarios.RAZAS.nombre(rs.getInt("raza_id")));
         mascota.setFechaNacimiento(rs.getObject("fecha_nacimiento", LocalDate.class));
         mascota.setEliminado(rs.getBoolean("mascota_eliminado"));
+        mascota.setVersion(rs.getInt("version"));
         
         // 2. Mapear y ensamblar la entidad relacionada (Duenio)
         // Se verifica si el JOIN devolvió un Dueño (LEFT JOIN puede traer NULLs)
@@ -255,11 +564,36 @@ public class MascotaDaoImpl implements MascotaDAO {
             Microchip microchip = new Microchip();
             microchip.setId(rs.getLong("microchip_id"));
             microchip.setCodigo(rs.getString("codigo"));
-            microchip.setVeterinaria(rs.getString("veterinaria"));
+            microchip.setVeterinaria(CatalogoDiccionarios.VETERINARIAS.nombre(rs.getInt("veterinaria_id")));
             microchip.setEliminado(rs.getBoolean("microchip_eliminado"));
             
             mascota.setMicrochip(microchip); // Ensambla la relación
         }
+        mascota.marcarSinCambios(); // Estado persistido: desde acá se registran los cambios
         return mascota;
     }
-}
\ No newline at end of file
+
+    /** Asigna los IDs de una lista IN (...) a partir del primer parámetro. */
+    private static void setIds(PreparedStatement ps, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            ps.setLong(i + 1, ids.get(i));
+        }
+    }
+
+    private static void setIdOpcional(PreparedStatement ps, int indice, long id) throws SQLException {
+        if (id == AsignadorIds.ASIGNA_LA_BD) {
+            ps.setNull(indice, Types.BIGINT);
+        } else {
+            ps.setLong(indice, id);
+        }
+    }
+
+    /** Asigna la FK a un diccionario opcional (0 = sin valor -> NULL). */
+    static void setIdDiccionario(PreparedStatement ps, int indice, int id) throws SQLException {
+        if (id == 0) {
+            ps.setNull(indice, Types.SMALLINT);
+        } else {
+            ps.setInt(indice, id);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dao;
 import entities.Microchip;
 import java.sql.SQLException;
 import java.sql.Connection;
+import java.util.List;
 
 /**
  * Interfaz específica del Data Access Object (DAO) para la entidad {@link Microchip}.
@@ -41,6 +42,26 @@ public interface MicrochipDAO extends GenericDAO<Microchip> {
      * @throws SQLException Si hay un error de base de datos.
      */
     Microchip buscarPorMascotaId(Long mascotaId) throws SQLException;
+
+    /**
+     * Recorre todos los microchips activos entregando un único cursor reutilizable por fila, sin crear entidades.
+     * @param visitante Recibe el cursor en cada fila; devuelve false para terminar antes.
+     * @return La cantidad de filas visitadas.
+     * @throws SQLException Si hay un error de base de datos.
+     * @throws E Si el visitante falla (el recorrido se cancela).
+     */
+    <E extends Exception> long recorrer(VisitanteFilas<CursorMicrochip, E> visitante) throws SQLException, E;
+
+    /**
+     * Recorre, en orden de cambio, los microchips dados de alta, modificados o dados de baja después del token
+     * (sincronización incremental). Incluye las bajas lógicas: la fila llega con {@code isEliminado() == true}.
+     * @param token {@link CursorFilas#TOKEN_INICIAL}, o el último {@code getSeqCambio()} ya procesado.
+     * @param visitante Recibe el cursor en cada fila; devuelve false para terminar antes.
+     * @return La cantidad de filas visitadas.
+     * @throws SQLException Si hay un error de base de datos.
+     * @throws E Si el visitante falla (el recorrido se cancela).
+     */
+    <E extends Exception> long cambiosDesde(long token, VisitanteFilas<CursorMicrochip, E> visitante) throws SQLException, E;
     
     // --- MÉTODOS TRANSACCIONALES ESPECIALES (para la relación 1-a-1) ---
      /**
@@ -51,6 +72,24 @@ public interface MicrochipDAO extends GenericDAO<Microchip> {
     * @return El microchip creado con su ID.
     */
    Microchip crear(Microchip microchip, Long mascotaId, Connection conn) throws SQLException;
+
+    /**
+     * Crea varios microchips, cada uno asociado a su mascota, enviándolos como lote (INSERT multi-fila).
+     * @param microchips Los chips a crear (quedan con su ID seteado).
+     * @param mascotaIds El ID de la mascota de cada chip, en el mismo orden.
+     * @param conn La conexión transaccional (del Service).
+     */
+    void crearLote(List<Microchip> microchips, List<Long> mascotaIds, Connection conn) throws SQLException;
+
+    /**
+     * Inserta o actualiza microchips usando el código como clave natural (INSERT ... ON DUPLICATE KEY UPDATE).
+     * Un chip existente solo actualiza observaciones y veterinaria: nunca cambia de mascota.
+     * @param microchips Los chips recibidos (los existentes o creados quedan con su ID seteado).
+     * @param mascotaIds El ID de la mascota de cada chip, en el mismo orden (se usa en las altas).
+     * @param conn La conexión transaccional (del Service).
+     * @return Cuántos se insertaron, actualizaron, quedaron sin cambios u omitieron.
+     */
+    ResultadoUpsert<Microchip> upsert(List<Microchip> microchips, List<Long> mascotaIds, Connection conn) throws SQLException;
     
     /**
      * Realiza la baja lógica de un microchip usando el ID de la mascota.
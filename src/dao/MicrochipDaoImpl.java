@@ -4,7 +4,11 @@ import config.DatabaseConnectionPool;
 import entities.Microchip;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Clase de Implementación Concreta del DAO para la entidad {@link Microchip}.
@@ -14,28 +18,74 @@ import java.util.List;
  * 1. Implementar todos los métodos de MicrochipDao.
  * 2. Proveer un método 'crear' especial que acepte el 'mascotaId'
  * para establecer la relación 1-a-1.
+ * 3. Buscar los códigos ISO 11784 (15 dígitos) por su clave numérica 'codigo_iso'
+ * (columna generada en la BD), y los códigos heredados por el texto.
  */
 public class MicrochipDaoImpl implements MicrochipDAO {
 
     // --- 1. CONSTANTES SQL ---
     
+    private static final String TABLA = "microchips";
     // SQL para el método 'crear' transaccional 1-a-1 (requerido por Service)
-    private static final String SQL_INSERT = "INSERT INTO microchips (codigo, observaciones, veterinaria, mascota_id) VALUES (?, ?, ?, ?)";
+    private static final String SQL_INSERT = "INSERT INTO microchips (codigo, observaciones, veterinaria_id, mascota_id) VALUES (?, ?, ?, ?)";
     // SQL para el método 'crear' genérico (para un microchip "suelto")
-    private static final String SQL_INSERT_GENERIC = "INSERT INTO microchips (codigo, observaciones, veterinaria) VALUES (?, ?, ?)";
-    // SQL para actualizar la entidad
-    private static final String SQL_UPDATE = "UPDATE microchips SET codigo = ?, observaciones = ?, veterinaria = ? WHERE id = ? AND eliminado = false";
+    private static final String SQL_INSERT_GENERIC = "INSERT INTO microchips (codigo, observaciones, veterinaria_id) VALUES (?, ?, ?)";
+    // Variantes con el ID asignado por la aplicación (siempre como último parámetro)
+    private static final String SQL_INSERT_CON_ID = "INSERT INTO microchips (codigo, observaciones, veterinaria_id, mascota_id, id) VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_INSERT_GENERIC_CON_ID = "INSERT INTO microchips (codigo, observaciones, veterinaria_id, id) VALUES (?, ?, ?, ?)";
+    // SQL para actualizar la entidad: solo las columnas modificadas (SQL_UPDATE es la forma completa)
+    private static final ColumnasActualizables<Microchip> COLUMNAS_UPDATE = new ColumnasActualizables<Microchip>(TABLA)
+            .columna(Microchip.CAMPO_CODIGO, "codigo", (ps, i, c) -> ps.setString(i, c.getCodigo()))
+            .columna(Microchip.CAMPO_OBSERVACIONES, "observaciones", (ps, i, c) -> ps.setString(i, c.getObservaciones()))
+            .columna(Microchip.CAMPO_VETERINARIA, "veterinaria_id",
+                    (ps, i, c) -> MascotaDaoImpl.setIdDiccionario(ps, i, CatalogoDiccionarios.VETERINARIAS.idDe(c.getVeterinaria())));
+    private static final String SQL_UPDATE = COLUMNAS_UPDATE.sqlCompleta();
     // SQL para baja lógica por ID
-    private static final String SQL_DELETE_LOGICO = "UPDATE microchips SET eliminado = true WHERE id = ?";
+    private static final String SQL_DELETE_LOGICO = "UPDATE microchips SET eliminado = true, version = version + 1 WHERE id = ?";
     // SQL para baja lógica en cascada (requerido por Service)
-    private static final String SQL_DELETE_LOGICO_BY_MASCOTA_ID = "UPDATE microchips SET eliminado = true WHERE mascota_id = ?";
+    private static final String SQL_DELETE_LOGICO_BY_MASCOTA_ID = "UPDATE microchips SET eliminado = true, version = version + 1 WHERE mascota_id = ?";
     // SQL para búsquedas, filtrando siempre por 'eliminado = false'
     private static final String SQL_SELECT_BY_ID = "SELECT * FROM microchips WHERE id = ? AND eliminado = false";
     private static final String SQL_SELECT_ALL = "SELECT * FROM microchips WHERE eliminado = false";
+    // Bajas antiguas movidas por el archivador (misma forma de fila que 'microchips', salvo 'version':
+    // una fila archivada no se actualiza)
+    private static final String SQL_SELECT_ARCHIVADO_BY_ID = "SELECT *, 0 AS version FROM microchips_archivo WHERE id = ?";
+    // Cambios posteriores al token, incluidas las bajas lógicas (por eso no filtra 'eliminado')
+    private static final String SQL_SELECT_CAMBIOS = "SELECT * FROM microchips WHERE seq_cambio > ? ORDER BY seq_cambio";
     private static final String SQL_SELECT_BY_CODIGO = "SELECT * FROM microchips WHERE codigo = ? AND eliminado = false";
     private static final String SQL_SELECT_BY_MASCOTA_ID = "SELECT * FROM microchips WHERE mascota_id = ? AND eliminado = false";
     // SQL optimizado para verificaciones de existencia
     private static final String SQL_EXISTS_CODIGO = "SELECT 1 FROM microchips WHERE codigo = ? AND eliminado = false";
+    // Variantes por clave numérica (códigos ISO): comparan enteros sobre un índice de 8 bytes por entrada
+    private static final String SQL_SELECT_BY_CODIGO_ISO = "SELECT * FROM microchips WHERE codigo_iso = ? AND eliminado = false";
+    private static final String SQL_EXISTS_CODIGO_ISO = "SELECT 1 FROM microchips WHERE codigo_iso = ? AND eliminado = false";
+
+    // --- Upsert por código (sincronización con refugios) ---
+    // Las filas existentes llevan su propio ID, así la colisión es siempre sobre la misma fila
+    private static final String SQL_UPSERT = "INSERT INTO microchips (codigo, observaciones, veterinaria_id, mascota_id, id) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE observaciones = VALUES(observaciones), veterinaria_id = VALUES(veterinaria_id), version = version + 1";
+    // Estado previo de un tramo (bloqueado hasta el commit), por código y por mascota (ambos UNIQUE)
+    private static final String PREFIJO_SELECT_PARA_UPSERT = "SELECT id, codigo, observaciones, veterinaria_id, mascota_id, eliminado "
+            + "FROM microchips WHERE codigo IN (%s) OR mascota_id IN (%s) FOR UPDATE";
+
+    /** Longitud de un código ISO 11784/11785 (país o fabricante + número de identificación). */
+    static final int LONGITUD_CODIGO_ISO = 15;
+
+    /** Sentencias que el pool prepara por adelantado al iniciar (ver DatabaseConnectionPool). */
+    public static final List<String> SENTENCIAS_FRECUENTES = List.of(
+            SQL_SELECT_BY_CODIGO_ISO, SQL_EXISTS_CODIGO_ISO, SQL_SELECT_BY_MASCOTA_ID, SQL_INSERT, SQL_INSERT_CON_ID);
+
+    // Estrategia de IDs (AUTO_INCREMENT o bloques hi-lo, ver AsignadorIds)
+    private final AsignadorIds asignador;
+
+    /** Usa la estrategia de IDs configurada ('ids.estrategia'). */
+    public MicrochipDaoImpl() {
+        this(AsignadorIds.configurado());
+    }
+
+    public MicrochipDaoImpl(AsignadorIds asignador) {
+        this.asignador = asignador;
+    }
 
 
     // --- 2. MÉTODOS TRANSACCIONALES (C-U-D) ---
@@ -48,10 +98,18 @@ public class MicrochipDaoImpl implements MicrochipDAO {
     public Microchip crear(Microchip microchip, Connection conn) throws SQLException {
         // Esta implementación asume la creación de un microchip "suelto" (no asociado).
          // La lógica transaccional 1-a-1 DEBE usar crear(Microchip, Long, Connection).
-        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_GENERIC, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, microchip.getCodigo());
-            ps.setString(2, microchip.getObservaciones());
-            ps.setString(3, microchip.getVeterinaria());
+        long id = asignador.siguiente(TABLA);
+        boolean idPropio = id != AsignadorIds.ASIGNA_LA_BD;
+        try (PreparedStatement ps = idPropio ? conn.prepareStatement(SQL_INSERT_GENERIC_CON_ID)
+                : conn.prepareStatement(SQL_INSERT_GENERIC, Statement.RETURN_GENERATED_KEYS)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.crear");
+            llenarInsert(ps, microchip);
+            if (idPropio) {
+                ps.setLong(4, id);
+                ps.executeUpdate();
+                microchip.setId(id);
+                return microchip;
+            }
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if(rs.next()) microchip.setId(rs.getLong(1));
@@ -66,12 +124,20 @@ public class MicrochipDaoImpl implements MicrochipDAO {
      */
     @Override  
     public Microchip crear(Microchip microchip, Long mascotaId, Connection conn) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        long id = asignador.siguiente(TABLA);
+        boolean idPropio = id != AsignadorIds.ASIGNA_LA_BD;
+        try (PreparedStatement ps = idPropio ? conn.prepareStatement(SQL_INSERT_CON_ID)
+                : conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.crear");
             
-            ps.setString(1, microchip.getCodigo());
-            ps.setString(2, microchip.getObservaciones());
-            ps.setString(3, microchip.getVeterinaria());
+            llenarInsert(ps, microchip);
             ps.setLong(4, mascotaId); 
+            if (idPropio) {
+                ps.setLong(5, id); // ID ya conocido: no hace falta leer claves generadas
+                ps.executeUpdate();
+                microchip.setId(id);
+                return microchip;
+            }
             
             ps.executeUpdate();
 
@@ -87,19 +153,144 @@ public class MicrochipDaoImpl implements MicrochipDAO {
     }
 
     /**
-     * Actualiza un {@code Microchip} existente en la BD.
+     * Persiste varios {@code Microchips} asociados a sus mascotas, como INSERT multi-fila.
+     */
+    @Override
+    public void crearLote(List<Microchip> microchips, List<Long> mascotaIds, Connection conn) throws SQLException {
+        if (microchips.size() != mascotaIds.size()) {
+            throw new IllegalArgumentException("Cada microchip del lote debe tener el ID de su mascota.");
+        }
+        Lotes.insertar(conn, asignador, TABLA, "MicrochipDAO.crearLote", SQL_INSERT, SQL_INSERT_CON_ID, 4,
+                microchips, (ps, microchip, i) -> {
+                    llenarInsert(ps, microchip);
+                    ps.setLong(4, mascotaIds.get(i));
+                }, Microchip::setId);
+    }
+
+    /**
+     * Inserta o actualiza microchips por código, en tramos de {@link Lotes#FILAS_POR_SENTENCIA}.
+     * Por tramo: un SELECT (con bloqueo) del estado previo y un único INSERT ... ON DUPLICATE KEY UPDATE
+     * multi-fila con los registros nuevos o modificados. Si el código se repite en la entrada, vale el último.
+     * Con IDs AUTO_INCREMENT las altas van en un INSERT aparte, del que se leen los IDs generados.
+     */
+    @Override
+    public ResultadoUpsert<Microchip> upsert(List<Microchip> microchips, List<Long> mascotaIds, Connection conn) throws SQLException {
+        if (microchips.size() != mascotaIds.size()) {
+            throw new IllegalArgumentException("Cada microchip del lote debe tener el ID de su mascota.");
+        }
+        ResultadoUpsert<Microchip> resultado = new ResultadoUpsert<>();
+        Map<String, Integer> porCodigo = new LinkedHashMap<>(); // código -> posición del último registro
+        for (int i = 0; i < microchips.size(); i++) {
+            porCodigo.put(Lotes.clave(microchips.get(i).getCodigo()), i);
+        }
+        List<Integer> unicos = new ArrayList<>(porCodigo.values());
+        for (int desde = 0; desde < unicos.size(); desde += Lotes.FILAS_POR_SENTENCIA) {
+            List<Integer> tramo = unicos.subList(desde, Math.min(unicos.size(), desde + Lotes.FILAS_POR_SENTENCIA));
+            upsertTramo(tramo, microchips, mascotaIds, conn, resultado);
+        }
+        return resultado;
+    }
+
+    private void upsertTramo(List<Integer> tramo, List<Microchip> microchips, List<Long> mascotaIds,
+                             Connection conn, ResultadoUpsert<Microchip> resultado) throws SQLException {
+        // 1. Estado previo: por código, y qué chip tiene ya cada mascota
+        Map<String, Microchip> existentes = new HashMap<>();
+        Map<String, Long> mascotaPorCodigo = new HashMap<>();
+        Map<Long, String> codigoPorMascota = new HashMap<>();
+        String marcas = Lotes.marcadores(tramo.size());
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_SELECT_PARA_UPSERT, marcas, marcas))) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.upsert");
+            for (int i = 0; i < tramo.size(); i++) {
+                ps.setString(i + 1, microchips.get(tramo.get(i)).getCodigo());
+                ps.setLong(tramo.size() + i + 1, mascotaIds.get(tramo.get(i)));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Microchip previo = new Microchip();
+                    previo.setId(rs.getLong("id"));
+                    previo.setCodigo(rs.getString("codigo"));
+                    previo.setObservaciones(rs.getString("observaciones"));
+                    previo.setVeterinaria(CatalogoDiccionarios.VETERINARIAS.nombre(rs.getInt("veterinaria_id")));
+                    previo.setEliminado(rs.getBoolean("eliminado"));
+                    String codigo = Lotes.clave(previo.getCodigo());
+                    existentes.put(codigo, previo);
+                    mascotaPorCodigo.put(codigo, rs.getLong("mascota_id"));
+                    codigoPorMascota.put(rs.getLong("mascota_id"), codigo);
+                }
+            }
+        }
+
+        // 2. Clasificación: solo se envían las filas nuevas o modificadas
+        List<Microchip> altasSinId = new ArrayList<>();
+        List<Long> mascotasDeAltas = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SQL_UPSERT)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.upsert");
+            int pendientes = 0;
+            for (int posicion : tramo) {
+                Microchip microchip = microchips.get(posicion);
+                long mascotaId = mascotaIds.get(posicion);
+                String codigo = Lotes.clave(microchip.getCodigo());
+                Microchip previo = existentes.get(codigo);
+                long id;
+                if (previo == null) {
+                    if (codigoPorMascota.containsKey(mascotaId)) {
+                        resultado.omitido(); // La mascota ya tiene otro chip (mascota_id es UNIQUE)
+                        continue;
+                    }
+                    id = asignador.siguiente(TABLA);
+                    resultado.insertado(microchip);
+                    codigoPorMascota.put(mascotaId, codigo); // Otra alta del tramo para la misma mascota se omite
+                } else if (previo.getId() == null) {
+                    resultado.omitido(); // Código repetido tras un alta AUTO_INCREMENT del tramo: ya va en su INSERT
+                    continue;
+                } else if (Boolean.TRUE.equals(previo.getEliminado()) || mascotaPorCodigo.get(codigo) != mascotaId) {
+                    resultado.omitido(); // Dado de baja, o el chip pertenece a otra mascota
+                    continue;
+                } else if (Objects.equals(previo.getObservaciones(), microchip.getObservaciones())
+                        && Objects.equals(previo.getVeterinaria(), microchip.getVeterinaria())) {
+                    microchip.setId(previo.getId());
+                    resultado.sinCambios();
+                    continue;
+                } else {
+                    id = previo.getId();
+                    resultado.actualizado(previo, microchip);
+                }
+                // El código queda clasificado: otra fila del tramo con el mismo código se compara contra esta
+                existentes.put(codigo, microchip);
+                mascotaPorCodigo.put(codigo, mascotaId);
+                if (id == AsignadorIds.ASIGNA_LA_BD) {
+                    altasSinId.add(microchip); // AUTO_INCREMENT: se inserta aparte para leer el ID generado
+                    mascotasDeAltas.add(mascotaId);
+                    continue;
+                }
+                llenarInsert(ps, microchip);
+                ps.setLong(4, mascotaId);
+                ps.setLong(5, id);
+                microchip.setId(id);
+                ps.addBatch();
+                pendientes++;
+            }
+            if (pendientes > 0) {
+                ps.executeBatch(); // Con 'rewriteBatchedStatements': un único INSERT multi-fila
+            }
+        }
+
+        // 3. Altas con ID de la BD: INSERT simple (un duplicado falla en lugar de pisar otra fila)
+        Lotes.insertar(conn, asignador, TABLA, "MicrochipDAO.upsert", SQL_INSERT, SQL_INSERT_CON_ID, 4,
+                altasSinId, (ps, microchip, i) -> {
+                    llenarInsert(ps, microchip);
+                    ps.setLong(4, mascotasDeAltas.get(i));
+                }, Microchip::setId);
+    }
+
+    /**
+     * Actualiza un {@code Microchip} existente en la BD (solo las columnas modificadas,
+     * con control de versión si el microchip trae la versión leída).
      * Esta operación es transaccional.
      */
     @Override
     public void actualizar(Microchip microchip, Connection conn) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
-            ps.setString(1, microchip.getCodigo());
-            ps.setString(2, microchip.getObservaciones());
-            ps.setString(3, microchip.getVeterinaria());
-            ps.setLong(4, microchip.getId()); // ID para el WHERE
-            
-            ps.executeUpdate();
-        }
+        COLUMNAS_UPDATE.actualizar(conn, "MicrochipDAO.actualizar", microchip, microchip.getId());
     }
 
     /**
@@ -109,6 +300,7 @@ public class MicrochipDaoImpl implements MicrochipDAO {
     @Override
     public void eliminar(Long id, Connection conn) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LOGICO)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.eliminar");
             ps.setLong(1, id);
             ps.executeUpdate();
         }
@@ -121,6 +313,7 @@ public class MicrochipDaoImpl implements MicrochipDAO {
     @Override 
     public void eliminarPorMascotaId(Long mascotaId, Connection conn) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LOGICO_BY_MASCOTA_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.eliminarPorMascotaId");
             ps.setLong(1, mascotaId);
             ps.executeUpdate();
         }
@@ -136,6 +329,7 @@ public class MicrochipDaoImpl implements MicrochipDAO {
     public Microchip leerPorId(Long id) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.leerPorId");
             
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -147,6 +341,25 @@ public class MicrochipDaoImpl implements MicrochipDAO {
         return null;
     }
 
+    /**
+     * Lee un {@code Microchip} archivado (ver {@link GenericDAO#leerArchivadoPorId}).
+     * Este método maneja su propia conexión.
+     */
+    @Override
+    public Microchip leerArchivadoPorId(Long id) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ARCHIVADO_BY_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.leerArchivadoPorId");
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToMicrochip(rs);
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Lee todos los {@code Microchips} activos (no eliminados).
      * Este método maneja su propia conexión.
@@ -155,11 +368,12 @@ public class MicrochipDaoImpl implements MicrochipDAO {
     public List<Microchip> leerTodos() throws SQLException {
         List<Microchip> chips = new ArrayList<>();
         try (Connection conn = DatabaseConnectionPool.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL);
-             ResultSet rs = ps.executeQuery()) {
-            
-            while (rs.next()) {
-                chips.add(mapResultSetToMicrochip(rs));
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.leerTodos");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    chips.add(mapResultSetToMicrochip(rs));
+                }
             }
         }
         return chips;
@@ -169,14 +383,17 @@ public class MicrochipDaoImpl implements MicrochipDAO {
 
     /**
      * Busca un {@code Microchip} por su código (solo si no está eliminado).
+     * Los códigos ISO se buscan por 'codigo_iso'; el resto, por el texto.
      * Este método maneja su propia conexión.
      */
     @Override
     public Microchip buscarPorCodigo(String codigo) throws SQLException {
+        long iso = codigoIso(codigo);
         try (Connection conn = DatabaseConnectionPool.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_CODIGO)) {
+             PreparedStatement ps = conn.prepareStatement(iso >= 0 ? SQL_SELECT_BY_CODIGO_ISO : SQL_SELECT_BY_CODIGO)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.buscarPorCodigo");
             
-            ps.setString(1, codigo);
+            setCodigo(ps, 1, codigo, iso);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     return mapResultSetToMicrochip(rs);
@@ -188,14 +405,17 @@ public class MicrochipDaoImpl implements MicrochipDAO {
 
     /**
      * Verifica si un código de {@code Microchip} ya existe (y no está eliminado).
+     * Los códigos ISO se verifican por 'codigo_iso'; el resto, por el texto.
      * Este método maneja su propia conexión.
      */
     @Override
     public boolean existeCodigo(String codigo) throws SQLException {
+        long iso = codigoIso(codigo);
         try (Connection conn = DatabaseConnectionPool.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_EXISTS_CODIGO)) {
+             PreparedStatement ps = conn.prepareStatement(iso >= 0 ? SQL_EXISTS_CODIGO_ISO : SQL_EXISTS_CODIGO)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.existeCodigo");
             
-            ps.setString(1, codigo);
+            setCodigo(ps, 1, codigo, iso);
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next();
             }
@@ -210,6 +430,7 @@ public class MicrochipDaoImpl implements MicrochipDAO {
     public Microchip buscarPorMascotaId(Long mascotaId) throws SQLException {
         try (Connection conn = DatabaseConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_MASCOTA_ID)) {
+            PresupuestoConsulta.aplicar(ps, "MicrochipDAO.buscarPorMascotaId");
             
             ps.setLong(1, mascotaId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -221,7 +442,33 @@ public class MicrochipDaoImpl implements MicrochipDAO {
         return null;
     }
 
-    // --- 5. MÉTODO "HELPER" ---
+    /**
+     * Recorre los microchips activos en modo streaming con un {@link CursorMicrochip} reutilizable.
+     */
+    @Override
+    public <E extends Exception> long recorrer(VisitanteFilas<CursorMicrochip, E> visitante) throws SQLException, E {
+        return Recorridos.recorrer(SQL_SELECT_ALL, "MicrochipDAO.recorrer", CursorMicrochip::new, visitante);
+    }
+
+    /**
+     * Recorre en streaming los microchips que cambiaron después del token, en orden de cambio.
+     * Antes numera los cambios confirmados que todavía estaban pendientes (ver {@link NumeradorCambios}).
+     */
+    @Override
+    public <E extends Exception> long cambiosDesde(long token, VisitanteFilas<CursorMicrochip, E> visitante) throws SQLException, E {
+        NumeradorCambios.numerar(TABLA);
+        return Recorridos.recorrer(SQL_SELECT_CAMBIOS, "MicrochipDAO.cambiosDesde", ps -> ps.setLong(1, token),
+                CursorMicrochip::new, visitante);
+    }
+
+    // --- 5. MÉTODOS "HELPER" ---
+
+    /** Parámetros 1..3 de los INSERT (comunes a todas las variantes). */
+    private static void llenarInsert(PreparedStatement ps, Microchip microchip) throws SQLException {
+        ps.setString(1, microchip.getCodigo());
+        ps.setString(2, microchip.getObservaciones());
+        MascotaDaoImpl.setIdDiccionario(ps, 3, CatalogoDiccionarios.VETERINARIAS.idDe(microchip.getVeterinaria()));
+    }
 
     /**
      * Método de utilidad (helper) privado para el mapeo Objeto-Relacional (O/R Mapping).
@@ -236,10 +483,41 @@ public class MicrochipDaoImpl implements MicrochipDAO {
         chip.setId(rs.getLong("id"));
         chip.setCodigo(rs.getString("codigo"));
         chip.setObservaciones(rs.getString("observaciones"));
-        chip.setVeterinaria(rs.getString("veterinaria"));
+        chip.setVeterinaria(CatalogoDiccionarios.VETERINARIAS.nombre(rs.getInt("veterinaria_id")));
         chip.setEliminado(rs.getBoolean("eliminado"));
+        chip.setVersion(rs.getInt("version"));
+        chip.marcarSinCambios(); // Estado persistido: desde acá se registran los cambios
         // No seteamos mascota_id, porque la relación es unidireccional
         // El objeto Microchip no sabe a qué mascota pertenece.
         return chip;
     }
+
+    /**
+     * Interpreta el código como ISO 11784: exactamente 15 dígitos decimales, igual que la
+     * expresión de la columna generada 'codigo_iso' (sin recortar espacios ni signos).
+     *
+     * @return El valor numérico, o -1 si el código no tiene formato ISO.
+     */
+    static long codigoIso(String codigo) {
+        if (codigo == null || codigo.length() != LONGITUD_CODIGO_ISO) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = 0; i < LONGITUD_CODIGO_ISO; i++) {
+            char c = codigo.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0'); // 15 dígitos entran holgados en un long
+        }
+        return valor;
+    }
+
+    private static void setCodigo(PreparedStatement ps, int indice, String codigo, long iso) throws SQLException {
+        if (iso >= 0) {
+            ps.setLong(indice, iso);
+        } else {
+            ps.setString(indice, codigo);
+        }
+    }
 }
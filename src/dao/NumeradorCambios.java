@@ -0,0 +1,128 @@
+package dao;
+
+import config.DatabaseConnectionPool;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Numerador diferido de los cambios de 'duenios', 'mascotas' y 'microchips' (columna 'seq_cambio').
+ *
+ * ROL: Dar al feed de cambios ({@code cambiosDesde} de cada DAO) un orden total sin que las escrituras lo
+ * paguen. Los triggers (sql/migraciones/12_numeracion_diferida_cambios.sql) solo marcan la fila cambiada
+ * con seq_cambio = NULL; el número se asigna acá, fuera de la transacción que escribió.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Numeración:** Por tabla, en transacciones cortas de hasta {@link Lotes#FILAS_POR_SENTENCIA} filas:
+ * bloquea la fila 'cambios.&lt;tabla&gt;' de 'secuencias' (los numeradores de todas las instancias se
+ * serializan ahí; las escrituras de los usuarios ya no la tocan), toma las filas pendientes en orden
+ * de ID, les asigna números consecutivos y avanza la secuencia en el mismo COMMIT.
+ * 2.  **Solo cambios confirmados:** Las filas pendientes que una transacción en curso tiene bloqueadas
+ * se saltean (SKIP LOCKED) y se numeran en una pasada posterior, después de su COMMIT. Como cada
+ * numerador empieza cuando el anterior ya confirmó, todo número nuevo es mayor que los ya visibles:
+ * quien lee "seq_cambio &gt; token" nunca ve aparecer después un número menor que su token.
+ *
+ * Lo invocan los {@code cambiosDesde} antes de leer y herramientas.ArchivadorEliminados antes de archivar.
+ */
+public final class NumeradorCambios {
+
+    /** Tablas con seguimiento de cambios (el nombre se interpola en las sentencias). */
+    public static final List<String> TABLAS = List.of("duenios", "mascotas", "microchips");
+
+    private static final String SQL_BLOQUEAR_SECUENCIA = "SELECT proximo FROM secuencias WHERE tabla = ? FOR UPDATE";
+    private static final String SQL_AVANZAR_SECUENCIA = "UPDATE secuencias SET proximo = ? WHERE tabla = ?";
+    // Pendientes ya confirmados; se completan con el nombre de la tabla
+    private static final String PREFIJO_SELECT_PENDIENTES =
+        "SELECT id FROM %s WHERE seq_cambio IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    // 'actualizado_en' se conserva: numerar no es un cambio de la fila (el trigger tampoco la vuelve a marcar)
+    private static final String PREFIJO_NUMERAR =
+        "UPDATE %s SET seq_cambio = ?, actualizado_en = actualizado_en WHERE id = ?";
+
+    private NumeradorCambios() {
+    }
+
+    /**
+     * Numera todas las filas pendientes (y ya confirmadas) de la tabla, con una conexión del pool.
+     *
+     * @param tabla Una de {@link #TABLAS}.
+     * @return Cantidad de filas numeradas.
+     * @throws SQLException Si falla un tramo (su transacción se deshace; los tramos anteriores quedan numerados).
+     */
+    public static long numerar(String tabla) throws SQLException {
+        if (!TABLAS.contains(tabla)) {
+            throw new IllegalArgumentException("La tabla '" + tabla + "' no tiene seguimiento de cambios.");
+        }
+        long total = 0;
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            int aislamiento = conn.getTransactionIsolation();
+            // READ COMMITTED: el FOR UPDATE bloquea solo las filas pendientes, sin gap locks que frenen altas
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            conn.setAutoCommit(false);
+            try {
+                int numeradas;
+                do {
+                    numeradas = numerarTramo(conn, tabla);
+                    conn.commit();
+                    total += numeradas;
+                } while (numeradas == Lotes.FILAS_POR_SENTENCIA);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(aislamiento);
+            }
+        }
+        return total;
+    }
+
+    /** Un tramo en la transacción abierta de la conexión (sin confirmarla). */
+    private static int numerarTramo(Connection conn, String tabla) throws SQLException {
+        String secuencia = "cambios." + tabla;
+        long proximo;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_BLOQUEAR_SECUENCIA)) {
+            PresupuestoConsulta.aplicar(ps, "NumeradorCambios.numerar");
+            ps.setString(1, secuencia);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Falta la secuencia de cambios de " + tabla + ".");
+                }
+                proximo = rs.getLong(1);
+            }
+        }
+
+        List<Long> pendientes = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_SELECT_PENDIENTES, tabla))) {
+            PresupuestoConsulta.aplicar(ps, "NumeradorCambios.numerar");
+            ps.setInt(1, Lotes.FILAS_POR_SENTENCIA);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    pendientes.add(rs.getLong(1));
+                }
+            }
+        }
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_NUMERAR, tabla))) {
+            PresupuestoConsulta.aplicar(ps, "NumeradorCambios.numerar");
+            for (Long id : pendientes) {
+                ps.setLong(1, proximo++);
+                ps.setLong(2, id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(SQL_AVANZAR_SECUENCIA)) {
+            PresupuestoConsulta.aplicar(ps, "NumeradorCambios.numerar");
+            ps.setLong(1, proximo);
+            ps.setString(2, secuencia);
+            ps.executeUpdate();
+        }
+        return pendientes.size();
+    }
+}
@@ -0,0 +1,88 @@
+package dao;
+
+import config.Configuracion;
+
+/**
+ * Plazo (deadline) de una operación de servicio, compartido por todas las consultas que
+ * esa operación ejecuta en el hilo actual.
+ *
+ * ROL: Transportar el presupuesto de latencia de la capa de servicio hasta los DAOs sin
+ * agregar parámetros a cada método. Se usa con try-with-resources:
+ * <pre>
+ *   try (Plazo plazo = Plazo.iniciar("MascotaService.crearMascotaCompleta")) {
+ *       ... varias llamadas a DAOs ...
+ *   }
+ * </pre>
+ * {@link PresupuestoConsulta} limita el timeout de cada sentencia al tiempo restante del plazo,
+ * y falla de inmediato con {@link ConsultaExpiradaException} si el plazo ya venció.
+ * Los plazos anidados nunca extienden al exterior: rige el vencimiento más cercano.
+ */
+public final class Plazo implements AutoCloseable {
+
+    private static final String PREFIJO_CLAVE = "plazo.";
+
+    private static final ThreadLocal<Plazo> ACTUAL = new ThreadLocal<>();
+
+    private final String operacion;
+    private final long vencimientoNanos;
+    private final Plazo anterior;
+
+    private Plazo(String operacion, long vencimientoNanos, Plazo anterior) {
+        this.operacion = operacion;
+        this.vencimientoNanos = vencimientoNanos;
+        this.anterior = anterior;
+    }
+
+    /**
+     * Abre un plazo para la operación con el presupuesto configurado
+     * ('plazo.&lt;operacion&gt;' o, si no existe, 'plazo.operacion_defecto_ms').
+     *
+     * @param operacion Nombre de la operación (ej. "DuenioService.insertar").
+     * @return El plazo abierto (cerrarlo restaura el plazo anterior del hilo).
+     */
+    public static Plazo iniciar(String operacion) {
+        Configuracion cfg = Configuracion.actual();
+        long presupuestoMs = Long.parseLong(cfg.getString(PREFIJO_CLAVE + operacion,
+                cfg.getString(Configuracion.PLAZO_OPERACION_DEFECTO_MS)));
+        return iniciar(operacion, presupuestoMs);
+    }
+
+    /**
+     * Abre un plazo con un presupuesto explícito en milisegundos.
+     */
+    public static Plazo iniciar(String operacion, long presupuestoMs) {
+        Plazo anterior = ACTUAL.get();
+        long vencimiento = System.nanoTime() + presupuestoMs * 1_000_000L;
+        if (anterior != null && anterior.vencimientoNanos - vencimiento < 0) {
+            vencimiento = anterior.vencimientoNanos; // Un plazo interno no puede extender al externo
+        }
+        Plazo plazo = new Plazo(operacion, vencimiento, anterior);
+        ACTUAL.set(plazo);
+        return plazo;
+    }
+
+    /**
+     * @return El plazo vigente en el hilo actual, o null si no hay ninguno.
+     */
+    public static Plazo actual() {
+        return ACTUAL.get();
+    }
+
+    /** @return Milisegundos que quedan (0 o negativo si ya venció). */
+    public long restanteMs() {
+        return (vencimientoNanos - System.nanoTime()) / 1_000_000L;
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    @Override
+    public void close() {
+        if (anterior == null) {
+            ACTUAL.remove();
+        } else {
+            ACTUAL.set(anterior);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dao;
+
+import config.Configuracion;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Presupuestos de latencia por operación de DAO, aplicados como timeout de sentencia.
+ *
+ * ROL: Evitar que una consulta lenta (ej. un LIKE sin índice o un listado completo) retenga
+ * una conexión del pool indefinidamente. Cada DAO llama a {@link #aplicar(Statement, String)}
+ * antes de ejecutar la sentencia.
+ *
+ * PRESUPUESTO EFECTIVO = mínimo entre:
+ * 1.  El presupuesto de la operación: 'timeout.&lt;operacion&gt;' de la configuración, o el valor
+ * por defecto de esta clase para las operaciones conocidas, o 'timeout.consulta_defecto_ms'.
+ * 2.  El tiempo restante del {@link Plazo} de la operación de servicio (si hay uno abierto).
+ * Un presupuesto de 0 significa "sin timeout propio" (solo rige el plazo, si existe).
+ *
+ * El driver cancela la sentencia al vencer el timeout (KILL QUERY) y lanza una
+ * {@link java.sql.SQLTimeoutException}. La resolución de JDBC es de segundos: se redondea hacia arriba.
+ */
+public final class PresupuestoConsulta {
+
+    private static final String PREFIJO_CLAVE = "timeout.";
+
+    // Presupuestos propios de las operaciones más frecuentes (ms), sobreescribibles por configuración
+    private static final Map<String, Long> PRESUPUESTOS_CONOCIDOS = Map.ofEntries(
+        Map.entry("DuenioDAO.existeDni", 1_000L),
+        Map.entry("DuenioDAO.existeEmail", 1_000L),
+        Map.entry("DuenioDAO.existeTelefono", 1_000L),
+        Map.entry("DuenioDAO.leerPorId", 2_000L),
+        Map.entry("DuenioDAO.buscarPorDni", 2_000L),
+        Map.entry("DuenioDAO.buscarPorEmail", 2_000L),
+        Map.entry("DuenioDAO.buscarPorApellido", 3_000L),
+        Map.entry("MascotaDAO.leerPorId", 2_000L),
+        Map.entry("MascotaDAO.buscarPorDuenioId", 2_000L),
+        Map.entry("MascotaDAO.contarMascotasActivasPorDuenio", 1_000L),
+        Map.entry("MascotaDAO.buscarPorNombre", 3_000L),
+        Map.entry("MicrochipDAO.existeCodigo", 1_000L),
+        Map.entry("MicrochipDAO.buscarPorCodigo", 2_000L),
+        Map.entry("MicrochipDAO.buscarPorMascotaId", 2_000L),
+        // Recorridos completos en streaming: duran lo que tarde el consumidor, sin timeout propio
+        Map.entry("MascotaDAO.recorrerTodos", 0L),
+        Map.entry("MascotaDAO.recorrer", 0L),
+        Map.entry("DuenioDAO.recorrer", 0L),
+        Map.entry("MicrochipDAO.recorrer", 0L),
+        Map.entry("MascotaDAO.cambiosDesde", 0L),
+        Map.entry("DuenioDAO.cambiosDesde", 0L),
+        Map.entry("MicrochipDAO.cambiosDesde", 0L)
+    );
+
+    // Caché de presupuestos resueltos (evita consultar la configuración en cada sentencia)
+    private static final Map<String, Long> RESUELTOS = new ConcurrentHashMap<>();
+
+    private PresupuestoConsulta() {
+    }
+
+    /**
+     * Fija el timeout de la sentencia según el presupuesto de la operación y el plazo vigente.
+     *
+     * @param st La sentencia a limitar (todavía no ejecutada).
+     * @param operacion Nombre de la operación (ej. "MascotaDAO.buscarPorNombre").
+     * @throws ConsultaExpiradaException Si el plazo de la operación de servicio ya venció.
+     * @throws SQLException Si el driver rechaza el timeout.
+     */
+    public static void aplicar(Statement st, String operacion) throws SQLException {
+        long presupuestoMs = RESUELTOS.computeIfAbsent(operacion, PresupuestoConsulta::resolver);
+        Plazo plazo = Plazo.actual();
+        if (plazo != null) {
+            long restanteMs = plazo.restanteMs();
+            if (restanteMs <= 0) {
+                throw new ConsultaExpiradaException("Plazo agotado para '" + plazo.getOperacion()
+                        + "': no se ejecuta " + operacion + ".");
+            }
+            presupuestoMs = presupuestoMs == 0 ? restanteMs : Math.min(presupuestoMs, restanteMs);
+        }
+        if (presupuestoMs > 0) {
+            st.setQueryTimeout((int) Math.max(1, (presupuestoMs + 999) / 1000));
+        }
+    }
+
+    /** Olvida los presupuestos resueltos (tras recargar la configuración). */
+    public static void limpiarCache() {
+        RESUELTOS.clear();
+    }
+
+    private static long resolver(String operacion) {
+        Configuracion cfg = Configuracion.actual();
+        String configurado = cfg.getString(PREFIJO_CLAVE + operacion, null);
+        if (configurado != null) {
+            return Long.parseLong(configurado);
+        }
+        Long conocido = PRESUPUESTOS_CONOCIDOS.get(operacion);
+        return conocido != null ? conocido : cfg.getLong(Configuracion.TIMEOUT_CONSULTA_DEFECTO_MS);
+    }
+}
@@ -0,0 +1,176 @@
+package dao;
+
+import config.Configuracion;
+import config.DatabaseConnectionPool;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reconciliador en segundo plano del contador desnormalizado 'duenios.mascotas_activas'.
+ *
+ * ROL: Red de seguridad del contador. Los servicios lo mantienen en la misma transacción que el alta
+ * o la baja de cada mascota, pero una escritura que no pase por ellos (un script, una carga manual)
+ * lo dejaría desviado para siempre.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Detección:** Recorre 'duenios' por ventanas de 'contadores.ventana_ids' IDs consecutivos y
+ * compara el contador con el COUNT(*) real de sus mascotas activas (lectura consistente, sin bloqueos).
+ * 2.  **Reparación:** Cada dueño desviado se corrige con un UPDATE propio que vuelve a contar al
+ * ejecutarse (lectura con bloqueo): si el desvío era solo una transacción en curso, no cambia nada.
+ * 3.  **Periodicidad:** Con 'contadores.reconciliacion_intervalo_s' &gt; 0 se ejecuta en un hilo propio
+ * cada ese intervalo; con 0 solo corre al invocar {@link #reconciliar()}.
+ */
+public final class ReconciliadorMascotasActivas implements AutoCloseable {
+
+    private static final String SQL_MAXIMO_ID = "SELECT COALESCE(MAX(id), 0) FROM duenios";
+    private static final String SQL_DESVIADOS =
+        "SELECT d.id FROM duenios d LEFT JOIN mascotas m ON m.duenio_id = d.id AND m.eliminado = false "
+            + "WHERE d.id > ? AND d.id <= ? GROUP BY d.id, d.mascotas_activas HAVING d.mascotas_activas <> COUNT(m.id)";
+    private static final String SQL_REPARAR =
+        "UPDATE duenios d SET d.mascotas_activas = "
+            + "(SELECT COUNT(*) FROM mascotas m WHERE m.duenio_id = d.id AND m.eliminado = false) "
+            + "WHERE d.id = ? AND d.mascotas_activas <> "
+            + "(SELECT COUNT(*) FROM mascotas m WHERE m.duenio_id = d.id AND m.eliminado = false)";
+
+    private final int ventanaIds;
+    private final long intervaloSegundos;
+    private ScheduledExecutorService programador;
+
+    private final LongAdder revisados = new LongAdder();
+    private final LongAdder reparados = new LongAdder();
+
+    /**
+     * @param ventanaIds IDs de dueños revisados por consulta.
+     * @param intervaloSegundos Pausa entre reconciliaciones en segundo plano (0 = desactivadas).
+     */
+    public ReconciliadorMascotasActivas(int ventanaIds, long intervaloSegundos) {
+        if (ventanaIds <= 0 || intervaloSegundos < 0) {
+            throw new IllegalArgumentException("Parámetros de reconciliación inválidos.");
+        }
+        this.ventanaIds = ventanaIds;
+        this.intervaloSegundos = intervaloSegundos;
+    }
+
+    /** Crea el reconciliador según 'contadores.*'. */
+    public static ReconciliadorMascotasActivas configurado() {
+        Configuracion cfg = Configuracion.actual();
+        return new ReconciliadorMascotasActivas(cfg.getInt(Configuracion.CONTADORES_VENTANA_IDS),
+                cfg.getLong(Configuracion.CONTADORES_RECONCILIACION_INTERVALO_S));
+    }
+
+    // --- 1. EJECUCIÓN EN SEGUNDO PLANO ---
+
+    /**
+     * Programa la reconciliación periódica (la primera, un intervalo después de iniciar).
+     * No hace nada si el intervalo es 0 o si ya se inició.
+     */
+    public synchronized void iniciar() {
+        if (intervaloSegundos == 0 || programador != null) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "contadores-reconciliador");
+            hilo.setDaemon(true); // No impide que la aplicación termine
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::reconciliarEnSegundoPlano, intervaloSegundos, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    private void reconciliarEnSegundoPlano() {
+        try {
+            int corregidos = reconciliar();
+            if (corregidos > 0) {
+                System.err.println("[Contadores] Se corrigieron " + corregidos + " contadores de mascotas activas desviados.");
+            }
+        } catch (SQLException e) {
+            // Se reintenta en la próxima ejecución; una excepción cancelaría la programación
+            System.err.println("[Contadores] Falló la reconciliación: " + e.getMessage());
+        }
+    }
+
+    // --- 2. RECONCILIACIÓN ---
+
+    /**
+     * Revisa todos los dueños y corrige los contadores desviados.
+     *
+     * @return Cantidad de dueños corregidos.
+     * @throws SQLException Si hay un error de base de datos.
+     */
+    public int reconciliar() throws SQLException {
+        long maximo;
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_MAXIMO_ID)) {
+            PresupuestoConsulta.aplicar(ps, "ReconciliadorMascotasActivas.maximoId");
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                maximo = rs.getLong(1);
+            }
+        }
+        int corregidos = 0;
+        for (long desde = 0; desde < maximo; desde += ventanaIds) {
+            corregidos += reconciliarVentana(desde, Math.min(maximo, desde + ventanaIds));
+        }
+        return corregidos;
+    }
+
+    /** Una ventana (desde, hasta] de IDs, con una conexión del pool en autocommit. */
+    private int reconciliarVentana(long desde, long hasta) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            List<Long> desviados = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(SQL_DESVIADOS)) {
+                PresupuestoConsulta.aplicar(ps, "ReconciliadorMascotasActivas.detectar");
+                ps.setLong(1, desde);
+                ps.setLong(2, hasta);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        desviados.add(rs.getLong(1));
+                    }
+                }
+            }
+            revisados.add(hasta - desde);
+            int corregidos = 0;
+            try (PreparedStatement ps = conn.prepareStatement(SQL_REPARAR)) {
+                PresupuestoConsulta.aplicar(ps, "ReconciliadorMascotasActivas.reparar");
+                for (Long id : desviados) {
+                    ps.setLong(1, id);
+                    corregidos += ps.executeUpdate();
+                }
+            }
+            reparados.add(corregidos);
+            return corregidos;
+        }
+    }
+
+    // --- 3. CIERRE Y MÉTRICAS ---
+
+    /** Cancela la reconciliación periódica (una en curso termina su ventana actual y se abandona). */
+    public synchronized void cerrar() {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        cerrar();
+    }
+
+    /** @return IDs de dueños revisados desde el inicio. */
+    public long getRevisados() {
+        return revisados.sum();
+    }
+
+    /** @return Contadores corregidos desde el inicio. */
+    public long getReparados() {
+        return reparados.sum();
+    }
+}
@@ -0,0 +1,80 @@
+package dao;
+
+import config.DatabaseConnectionPool;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Lógica común de los recorridos completos en streaming de los DAOs.
+ */
+final class Recorridos {
+
+    /** Crea el cursor de un recorrido a partir del ResultSet abierto. */
+    @FunctionalInterface
+    interface FabricaCursor<C> {
+        C crear(ResultSet rs) throws SQLException;
+    }
+
+    /** Asigna los parámetros de la consulta antes de ejecutarla. */
+    @FunctionalInterface
+    interface Parametros {
+        void asignar(PreparedStatement ps) throws SQLException;
+    }
+
+    private static final Parametros SIN_PARAMETROS = ps -> { };
+
+    private Recorridos() {
+    }
+
+    /**
+     * Ejecuta la consulta en modo streaming (el driver entrega las filas de a una; fetch size
+     * Integer.MIN_VALUE en MySQL Connector/J) y pasa un único cursor al visitante por cada fila.
+     *
+     * @return La cantidad de filas visitadas.
+     */
+    static <C, E extends Exception> long recorrer(String sql, String operacion, FabricaCursor<C> fabrica,
+                                                  VisitanteFilas<C, E> visitante) throws SQLException, E {
+        return recorrer(sql, operacion, SIN_PARAMETROS, fabrica, visitante);
+    }
+
+    /**
+     * Igual que {@link #recorrer(String, String, FabricaCursor, VisitanteFilas)}, para consultas con parámetros.
+     */
+    static <C, E extends Exception> long recorrer(String sql, String operacion, Parametros parametros,
+                                                  FabricaCursor<C> fabrica,
+                                                  VisitanteFilas<C, E> visitante) throws SQLException, E {
+        long filas = 0;
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            PresupuestoConsulta.aplicar(ps, operacion);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            parametros.asignar(ps);
+            ResultSet rs = ps.executeQuery();
+            boolean completo = false;
+            try {
+                C cursor = fabrica.crear(rs);
+                boolean seguir = true;
+                while (seguir && rs.next()) {
+                    filas++;
+                    seguir = visitante.visitar(cursor);
+                }
+                completo = seguir;
+            } finally {
+                if (completo) {
+                    rs.close();
+                } else {
+                    // Sin cancelar, cerrar un ResultSet en streaming lee (y descarta) todas las filas restantes
+                    ps.cancel();
+                    try {
+                        rs.close();
+                    } catch (SQLException e) {
+                        // Esperable: la consulta fue interrumpida a propósito
+                    }
+                }
+            }
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,59 @@
+package dao;
+
+import entities.Mascota;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de una baja lógica masiva de mascotas ({@link MascotaDAO#eliminar(java.util.Collection, java.sql.Connection)}).
+ *
+ * Cada ID recibido (sin repetidos) cae en exactamente una categoría:
+ * - eliminadas: la mascota estaba activa y se dio de baja (junto con su microchip, si tenía uno activo).
+ * - omitidas: la mascota no existe o ya estaba dada de baja; no se escribió nada.
+ *
+ * Conserva la fila previa de cada mascota dada de baja (con su dueño y su microchip): es lo que
+ * necesitan el servicio para ajustar los contadores de cada dueño y la auditoría para sus imágenes.
+ */
+public final class ResultadoBajaMasiva {
+
+    private int solicitadas;
+    private int microchipsEliminados;
+    private final List<Mascota> eliminadas = new ArrayList<>();
+
+    void solicitadas(int cantidad) {
+        solicitadas += cantidad;
+    }
+
+    void eliminada(Mascota previa) {
+        eliminadas.add(previa);
+    }
+
+    void microchipsEliminados(int cantidad) {
+        microchipsEliminados += cantidad;
+    }
+
+    public int getMascotasEliminadas() {
+        return eliminadas.size();
+    }
+
+    public int getMicrochipsEliminados() {
+        return microchipsEliminados;
+    }
+
+    /** @return IDs inexistentes o que ya estaban dados de baja. */
+    public int getOmitidas() {
+        return solicitadas - eliminadas.size();
+    }
+
+    /** @return Las mascotas dadas de baja, tal como estaban antes de la baja, en orden de ID. */
+    public List<Mascota> getEliminadas() {
+        return Collections.unmodifiableList(eliminadas);
+    }
+
+    @Override
+    public String toString() {
+        return "mascotas eliminadas=" + eliminadas.size() + ", microchips eliminados=" + microchipsEliminados
+                + ", omitidas=" + getOmitidas();
+    }
+}
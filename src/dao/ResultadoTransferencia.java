@@ -0,0 +1,49 @@
+package dao;
+
+import entities.Mascota;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de un traspaso masivo de mascotas a otro dueño ({@link MascotaDAO#transferir}).
+ *
+ * Cada ID recibido (sin repetidos) cae en exactamente una categoría:
+ * - transferidas: la mascota estaba activa, era de otro dueño y se reasignó al destino.
+ * - omitidas: la mascota no existe, está dada de baja o ya era del destino; no se escribió nada.
+ *
+ * Conserva la fila previa de cada mascota transferida (con su dueño anterior): con ella el servicio
+ * descuenta el contador de cada dueño de origen y la auditoría arma la imagen previa.
+ */
+public final class ResultadoTransferencia {
+
+    private int solicitadas;
+    private final List<Mascota> transferidas = new ArrayList<>();
+
+    void solicitadas(int cantidad) {
+        solicitadas += cantidad;
+    }
+
+    void transferida(Mascota previa) {
+        transferidas.add(previa);
+    }
+
+    public int getCantidadTransferidas() {
+        return transferidas.size();
+    }
+
+    /** @return IDs inexistentes, dados de baja o que ya eran del dueño destino. */
+    public int getOmitidas() {
+        return solicitadas - transferidas.size();
+    }
+
+    /** @return Las mascotas transferidas, tal como estaban antes del traspaso, en orden de ID. */
+    public List<Mascota> getTransferidas() {
+        return Collections.unmodifiableList(transferidas);
+    }
+
+    @Override
+    public String toString() {
+        return "transferidas=" + transferidas.size() + ", omitidas=" + getOmitidas();
+    }
+}
@@ -0,0 +1,86 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de un upsert por lotes ({@link DuenioDAO#upsert}, {@link MicrochipDAO#upsert}).
+ *
+ * Cada registro recibido cae en exactamente una categoría:
+ * - insertados: no existía (por su clave natural) y se creó.
+ * - actualizados: existía con datos distintos y se actualizó.
+ * - sinCambios: existía con los mismos datos; no se escribió nada.
+ * - omitidos: no se aplicó (registro dado de baja, o su valor choca con otra clave única de otro registro).
+ *
+ * Además conserva, para cada registro escrito, la fila previa (null en las altas) y el registro
+ * aplicado, en el mismo orden: es lo que necesita la auditoría para sus imágenes antes/después.
+ *
+ * @param <T> Tipo de entidad sincronizada.
+ */
+public final class ResultadoUpsert<T> {
+
+    private int insertados;
+    private int actualizados;
+    private int sinCambios;
+    private int omitidos;
+    private final List<T> previos = new ArrayList<>();
+    private final List<T> escritos = new ArrayList<>();
+
+    void insertado(T nuevo) {
+        insertados++;
+        previos.add(null);
+        escritos.add(nuevo);
+    }
+
+    void actualizado(T previo, T nuevo) {
+        actualizados++;
+        previos.add(previo);
+        escritos.add(nuevo);
+    }
+
+    void sinCambios() {
+        sinCambios++;
+    }
+
+    void omitido() {
+        omitidos++;
+    }
+
+    public int getInsertados() {
+        return insertados;
+    }
+
+    public int getActualizados() {
+        return actualizados;
+    }
+
+    public int getSinCambios() {
+        return sinCambios;
+    }
+
+    public int getOmitidos() {
+        return omitidos;
+    }
+
+    /** @return Las filas previas de los registros escritos (null para las altas), alineadas con {@link #getEscritos()}. */
+    public List<T> getPrevios() {
+        return Collections.unmodifiableList(previos);
+    }
+
+    /** @return Los registros que generaron una escritura, con su ID ya asignado si se conoce. */
+    public List<T> getEscritos() {
+        return Collections.unmodifiableList(escritos);
+    }
+
+    /** @return Cantidad de registros que generaron una escritura. */
+    public int getCantidadEscritos() {
+        return insertados + actualizados;
+    }
+
+    @Override
+    public String toString() {
+        return "insertados=" + insertados + ", actualizados=" + actualizados
+                + ", sin cambios=" + sinCambios + ", omitidos=" + omitidos;
+    }
+}
@@ -0,0 +1,23 @@
+package dao;
+
+/**
+ * Visitante de filas para los recorridos completos de los DAOs ({@code recorrer(...)}).
+ *
+ * En lugar de una entidad nueva por fila, el DAO entrega siempre el MISMO cursor,
+ * posicionado en la fila actual. El cursor solo es válido durante la llamada a
+ * {@link #visitar(Object)}: no debe guardarse ni usarse después.
+ *
+ * @param <C> Tipo de cursor (ej. {@link CursorMascota}).
+ * @param <E> Excepción que puede lanzar el visitante (ej. IOException al exportar).
+ */
+@FunctionalInterface
+public interface VisitanteFilas<C, E extends Exception> {
+
+    /**
+     * Procesa la fila actual.
+     * @param fila El cursor reutilizable, posicionado en la fila.
+     * @return true para seguir con la próxima fila, false para terminar el recorrido.
+     * @throws E Si el procesamiento falla (el recorrido se cancela).
+     */
+    boolean visitar(C fila) throws E;
+}
@@ -3,7 +3,15 @@ package entities;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Duenio {
+public class Duenio extends EntidadRastreada {
+    // Campos actualizables (ver EntidadRastreada)
+    public static final String CAMPO_DNI = "dni";
+    public static final String CAMPO_NOMBRE = "nombre";
+    public static final String CAMPO_APELLIDO = "apellido";
+    public static final String CAMPO_TELEFONO = "telefono";
+    public static final String CAMPO_EMAIL = "email";
+    public static final String CAMPO_DIRECCION = "direccion";
+
     // Atributos
     private Long id;
     private String dni;
@@ -13,6 +21,7 @@ public class Duenio {
     private String telefono;
     private String direccion;
     private Boolean eliminado;
+    private Integer mascotasActivas; // Contador mantenido por la base (solo lectura para la aplicación)
      // Atributos de RELACIÓN
     private List<Mascota> mascotas = new ArrayList <>();; // Relación 1-a-Muchos (lado "Uno")
     
@@ -47,6 +56,7 @@ public class Duenio {
     }
 
     public void setDni(String dni) {
+        registrarCambio(CAMPO_DNI, this.dni, dni);
         this.dni = dni;
     }
 
@@ -55,6 +65,7 @@ public class Duenio {
     }
 
     public void setNombre(String nombre) {
+        registrarCambio(CAMPO_NOMBRE, this.nombre, nombre);
         this.nombre = nombre;
     }
 
@@ -63,6 +74,7 @@ public class Duenio {
     }
 
     public void setApellido(String apellido) {
+        registrarCambio(CAMPO_APELLIDO, this.apellido, apellido);
         this.apellido = apellido;
     }
 
@@ -71,6 +83,7 @@ public class Duenio {
     }
 
     public void setEmail(String email) {
+        registrarCambio(CAMPO_EMAIL, this.email, email);
         this.email = email;
     }
 
@@ -79,6 +92,7 @@ public class Duenio {
     }
 
     public void setTelefono(String telefono) {
+        registrarCambio(CAMPO_TELEFONO, this.telefono, telefono);
         this.telefono = telefono;
     }
 
@@ -87,6 +101,7 @@ public class Duenio {
     }
 
     public void setDireccion(String direccion) {
+        registrarCambio(CAMPO_DIRECCION, this.direccion, direccion);
         this.direccion = direccion;
     }
 
@@ -98,6 +113,14 @@ public class Duenio {
         this.eliminado = eliminado;
     }
 
+    public Integer getMascotasActivas() {
+        return mascotasActivas;
+    }
+
+    public void setMascotasActivas(Integer mascotasActivas) {
+        this.mascotasActivas = mascotasActivas;
+    }
+
     public List<Mascota> getMascotas() {
         return mascotas;
     }
@@ -117,6 +140,7 @@ public class Duenio {
                 ", email=" + email +
                 ", direccion=" + direccion + 
                 ", eliminado=" + eliminado + 
+                ", mascotasActivas=" + mascotasActivas + 
                 ", mascotas=" + mascotas + '}';     
     }
     
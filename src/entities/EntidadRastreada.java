@@ -0,0 +1,69 @@
+package entities;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Base de las entidades persistentes con seguimiento de cambios ("dirty tracking").
+ *
+ * Los DAOs llaman a {@link #marcarSinCambios()} al armar una entidad leída de la base; desde ahí,
+ * cada setter de una columna actualizable anota el campo si el valor nuevo es distinto del actual.
+ * Con eso el DAO escribe solo las columnas modificadas y el Service no va a la base si no hay ninguna.
+ *
+ * Una entidad armada a mano (nunca leída) no tiene seguimiento: se desconoce qué cambió y
+ * se escribe completa, como antes.
+ *
+ * También conserva la {@code version} de la fila leída (concurrencia optimista): el UPDATE solo se
+ * aplica si la fila sigue en esa versión, así dos operadores que editan el mismo registro no se
+ * pisan en silencio. Sin versión (entidad armada a mano) el UPDATE no la verifica.
+ */
+public abstract class EntidadRastreada {
+
+    private Set<String> camposModificados; // null = sin seguimiento (entidad no leída de la base)
+    private Integer version; // Versión de la fila leída; null = desconocida
+
+    /** Toma el estado actual como el persistido (después de leer la fila o de confirmar una escritura). */
+    public void marcarSinCambios() {
+        camposModificados = new HashSet<>();
+    }
+
+    /**
+     * @return Los campos modificados desde la última lectura o escritura, o null si la entidad
+     * no tiene seguimiento (se deben escribir todos).
+     */
+    public Set<String> getCamposModificados() {
+        return camposModificados == null ? null : Collections.unmodifiableSet(camposModificados);
+    }
+
+    /**
+     * Después del commit de una escritura: la fila quedó en la versión siguiente y con estos valores.
+     */
+    public void confirmarEscritura() {
+        if (version != null) {
+            version++;
+        }
+        marcarSinCambios();
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    /** @return false solo si la entidad tiene seguimiento y ningún campo cambió. */
+    public boolean tieneCambios() {
+        return camposModificados == null || !camposModificados.isEmpty();
+    }
+
+    /** Anota el campo si el setter cambia su valor. */
+    protected void registrarCambio(String campo, Object anterior, Object nuevo) {
+        if (camposModificados != null && !Objects.equals(anterior, nuevo)) {
+            camposModificados.add(campo);
+        }
+    }
+}
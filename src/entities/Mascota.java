@@ -2,7 +2,13 @@ package entities;
 
 import java.time.LocalDate;
 
-public class Mascota {
+public class Mascota extends EntidadRastreada {
+    // Campos actualizables (ver EntidadRastreada)
+    public static final String CAMPO_NOMBRE = "nombre";
+    public static final String CAMPO_ESPECIE = "especie";
+    public static final String CAMPO_RAZA = "raza";
+    public static final String CAMPO_FECHA_NACIMIENTO = "fechaNacimiento";
+
     // Atributos 
     private Long id;
     private String nombre;
@@ -44,6 +50,7 @@ public class Mascota {
     }
 
     public void setNombre(String nombre) {
+        registrarCambio(CAMPO_NOMBRE, this.nombre, nombre);
         this.nombre = nombre;
     }
 
@@ -52,6 +59,7 @@ public class Mascota {
     }
 
     public void setEspecie(String especie) {
+        registrarCambio(CAMPO_ESPECIE, this.especie, especie);
         this.especie = especie;
     }
 
@@ -60,6 +68,7 @@ public class Mascota {
     }
 
     public void setRaza(String raza) {
+        registrarCambio(CAMPO_RAZA, this.raza, raza);
         this.raza = raza;
     }
 
@@ -68,6 +77,7 @@ public class Mascota {
     }
 
     public void setFechaNacimiento(LocalDate fechaNacimiento) {
+        registrarCambio(CAMPO_FECHA_NACIMIENTO, this.fechaNacimiento, fechaNacimiento);
         this.fechaNacimiento = fechaNacimiento;
     }
 
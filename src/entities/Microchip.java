@@ -2,7 +2,12 @@ package entities;
 
 import java.time.LocalDate;
 
-public class Microchip {
+public class Microchip extends EntidadRastreada {
+    // Campos actualizables (ver EntidadRastreada)
+    public static final String CAMPO_CODIGO = "codigo";
+    public static final String CAMPO_OBSERVACIONES = "observaciones";
+    public static final String CAMPO_VETERINARIA = "veterinaria";
+
     // Atributos 
     private Long id;
     private Boolean eliminado; 
@@ -47,6 +52,7 @@ public class Microchip {
     }
 
     public void setCodigo(String codigo) {
+        registrarCambio(CAMPO_CODIGO, this.codigo, codigo);
         this.codigo = codigo;
     }
 
@@ -63,6 +69,7 @@ public class Microchip {
     }
 
     public void setVeterinaria(String veterinaria) {
+        registrarCambio(CAMPO_VETERINARIA, this.veterinaria, veterinaria);
         this.veterinaria = veterinaria;
     }
 
@@ -71,6 +78,7 @@ public class Microchip {
     }
 
     public void setObservaciones(String observaciones) {
+        registrarCambio(CAMPO_OBSERVACIONES, this.observaciones, observaciones);
         this.observaciones = observaciones;
     }
     
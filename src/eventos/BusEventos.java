@@ -0,0 +1,290 @@
+package eventos;
+
+import config.Configuracion;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus de eventos de dominio en memoria, publicado por los servicios después de cada commit.
+ *
+ * ROL: Avisar a cachés, índices de búsqueda o auditorías que una escritura quedó confirmada,
+ * sin que ninguno de ellos agregue latencia a la transacción que la produjo.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Publicación (después del commit):** Los servicios llaman a {@link #publicar} solo cuando
+ * {@code conn.commit()} terminó bien; ante rollback no se publica nada. Publicar nunca bloquea
+ * ni lanza excepciones: reserva una celda de un buffer circular con un CAS y escribe el evento.
+ * 2.  **Buffer acotado:** Si el buffer está lleno (suscriptores más lentos que las escrituras),
+ * el evento se descarta y se cuenta en {@link #getDescartados()}: la escritura ya está confirmada
+ * y no se la frena por un consumidor atrasado (el feed de cambios de los DAOs permite recuperarse).
+ * 3.  **Despacho:** Un único hilo despachador vacía el buffer en orden y entrega cada evento a las
+ * suscripciones interesadas a través de su {@link Executor} (uno propio o el compartido, de
+ * 'eventos.hilos_suscriptores' hilos). Con un ejecutor de un solo hilo, el suscriptor recibe los
+ * eventos en el orden en que se confirmaron.
+ * 4.  **Cierre:** {@link #cerrar()} entrega lo pendiente y detiene el despachador y el ejecutor compartido.
+ *
+ * El despachador arranca con la primera suscripción: sin suscriptores, publicar no hace nada.
+ */
+public final class BusEventos implements AutoCloseable {
+
+    // Pausa máxima del despachador sin eventos (los productores lo despiertan antes)
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long ESPERA_CIERRE_MS = 5_000;
+
+    /** Tipos de eventos, ejecutor y consumidor de una suscripción. */
+    private static final class Suscripcion {
+        final Set<TipoEvento> tipos;
+        final SuscriptorEventos suscriptor;
+        final Executor ejecutor;
+
+        Suscripcion(Set<TipoEvento> tipos, SuscriptorEventos suscriptor, Executor ejecutor) {
+            this.tipos = EnumSet.copyOf(tipos);
+            this.suscriptor = suscriptor;
+            this.ejecutor = ejecutor;
+        }
+    }
+
+    // --- 1. BUFFER CIRCULAR (varios productores, un consumidor) ---
+
+    private final AtomicReferenceArray<EventoDominio> celdas;
+    private final int mascara;
+    private final AtomicLong cola = new AtomicLong();  // Próxima posición a reservar (productores)
+    private volatile long cabeza;                       // Próxima posición a leer (solo el despachador)
+    private volatile boolean despachadorEsperando;
+
+    // --- 2. SUSCRIPCIONES Y DESPACHO ---
+
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    private final int hilosCompartidos;
+    private ExecutorService ejecutorCompartido;         // Se crea con la primera suscripción que lo usa
+    private volatile Thread despachador;
+    private volatile boolean activo = true;
+
+    // --- 3. MÉTRICAS ---
+
+    private final LongAdder publicados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder fallidos = new LongAdder();
+
+    /**
+     * @param capacidad Eventos que pueden esperar despacho (se redondea a potencia de 2).
+     * @param hilosCompartidos Hilos del ejecutor de las suscripciones que no indican uno propio.
+     */
+    public BusEventos(int capacidad, int hilosCompartidos) {
+        if (capacidad <= 0 || hilosCompartidos <= 0) {
+            throw new IllegalArgumentException("La capacidad y los hilos del bus de eventos deben ser positivos.");
+        }
+        int potencia = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.celdas = new AtomicReferenceArray<>(potencia);
+        this.mascara = potencia - 1;
+        this.hilosCompartidos = hilosCompartidos;
+    }
+
+    /**
+     * Crea el bus según 'eventos.capacidad' y 'eventos.hilos_suscriptores'.
+     */
+    public static BusEventos configurado() {
+        Configuracion cfg = Configuracion.actual();
+        return new BusEventos(cfg.getInt(Configuracion.EVENTOS_CAPACIDAD), cfg.getInt(Configuracion.EVENTOS_HILOS_SUSCRIPTORES));
+    }
+
+    // --- 4. SUSCRIPCIÓN ---
+
+    /**
+     * Registra un suscriptor que se ejecuta en el ejecutor compartido del bus.
+     */
+    public void suscribir(Set<TipoEvento> tipos, SuscriptorEventos suscriptor) {
+        suscribir(tipos, suscriptor, null);
+    }
+
+    /**
+     * Registra un suscriptor con su propio ejecutor (ej. uno de un solo hilo para conservar el orden).
+     * El bus no cierra los ejecutores propios.
+     *
+     * @param tipos Los tipos de eventos que le interesan.
+     * @param ejecutor Dónde se ejecuta el suscriptor; null para usar el ejecutor compartido.
+     */
+    public synchronized void suscribir(Set<TipoEvento> tipos, SuscriptorEventos suscriptor, Executor ejecutor) {
+        if (!activo) {
+            throw new IllegalStateException("El bus de eventos está cerrado.");
+        }
+        if (ejecutor == null) {
+            if (ejecutorCompartido == null) {
+                ejecutorCompartido = Executors.newFixedThreadPool(hilosCompartidos, fabricaHilos("eventos-suscriptor"));
+            }
+            ejecutor = ejecutorCompartido;
+        }
+        if (despachador == null) {
+            despachador = fabricaHilos("eventos-despachador").newThread(this::despachar);
+            despachador.start();
+        }
+        // Recién ahora los productores dejan de ignorar los eventos (y ya ven al despachador)
+        suscripciones.add(new Suscripcion(tipos, suscriptor, ejecutor));
+    }
+
+    // --- 5. PUBLICACIÓN ---
+
+    /**
+     * Encola el evento para su despacho asíncrono. Se invoca después del commit.
+     *
+     * @return false si se descartó por buffer lleno o bus cerrado.
+     */
+    public boolean publicar(EventoDominio evento) {
+        if (suscripciones.isEmpty()) {
+            return true; // Nadie escucha: no hay nada que entregar
+        }
+        if (!activo) {
+            descartados.increment();
+            return false;
+        }
+        long posicion;
+        do {
+            posicion = cola.get();
+            if (posicion - cabeza >= celdas.length()) {
+                descartados.increment();
+                return false;
+            }
+        } while (!cola.compareAndSet(posicion, posicion + 1));
+        // Escritura volátil: junto con la lectura de 'despachadorEsperando' evita perder el aviso
+        celdas.set((int) (posicion & mascara), evento);
+        publicados.increment();
+        if (despachadorEsperando) {
+            LockSupport.unpark(despachador);
+        }
+        return true;
+    }
+
+    // --- 6. DESPACHO ---
+
+    private void despachar() {
+        while (true) {
+            EventoDominio evento = tomar();
+            if (evento != null) {
+                entregar(evento);
+            } else if (!activo && cabeza == cola.get()) {
+                return; // Cerrado y sin pendientes
+            } else {
+                esperar();
+            }
+        }
+    }
+
+    /** @return El próximo evento, o null si no hay (o si su productor todavía no terminó de escribirlo). */
+    private EventoDominio tomar() {
+        long posicion = cabeza;
+        int indice = (int) (posicion & mascara);
+        EventoDominio evento = celdas.get(indice);
+        if (evento == null) {
+            return null;
+        }
+        celdas.lazySet(indice, null); // Se libera la celda antes de avanzar la cabeza
+        cabeza = posicion + 1;
+        return evento;
+    }
+
+    private void esperar() {
+        despachadorEsperando = true;
+        if (celdas.get((int) (cabeza & mascara)) == null && activo) {
+            LockSupport.parkNanos(this, ESPERA_MAXIMA_NANOS);
+        }
+        despachadorEsperando = false;
+    }
+
+    private void entregar(EventoDominio evento) {
+        for (Suscripcion suscripcion : suscripciones) {
+            if (!suscripcion.tipos.contains(evento.getTipo())) {
+                continue;
+            }
+            try {
+                suscripcion.ejecutor.execute(() -> {
+                    try {
+                        suscripcion.suscriptor.recibir(evento);
+                    } catch (Exception e) {
+                        fallidos.increment();
+                        System.err.println("[Eventos] Falló un suscriptor de " + evento + ": " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fallidos.increment(); // Ejecutor propio cerrado o saturado
+            }
+        }
+    }
+
+    // --- 7. CIERRE Y MÉTRICAS ---
+
+    /**
+     * Deja de aceptar eventos, entrega los pendientes y detiene el despachador y el ejecutor compartido.
+     */
+    public void cerrar() {
+        Thread hilo;
+        ExecutorService compartido;
+        synchronized (this) {
+            if (!activo) {
+                return;
+            }
+            activo = false;
+            hilo = despachador;
+            compartido = ejecutorCompartido;
+        }
+        try {
+            if (hilo != null) {
+                LockSupport.unpark(hilo);
+                hilo.join(ESPERA_CIERRE_MS);
+            }
+            if (compartido != null) {
+                compartido.shutdown();
+                compartido.awaitTermination(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        cerrar();
+    }
+
+    public long getPublicados() {
+        return publicados.sum();
+    }
+
+    /** @return Eventos perdidos por buffer lleno o bus cerrado. */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /** @return Entregas en las que el suscriptor lanzó una excepción o su ejecutor la rechazó. */
+    public long getFallidos() {
+        return fallidos.sum();
+    }
+
+    /** @return Eventos publicados que todavía no se despacharon. */
+    public long getPendientes() {
+        return cola.get() - cabeza;
+    }
+
+    // --- MÉTODOS "HELPER" ---
+
+    private static ThreadFactory fabricaHilos(String prefijo) {
+        AtomicInteger numero = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, prefijo + "-" + numero.incrementAndGet());
+            hilo.setDaemon(true); // No impiden que la aplicación termine
+            return hilo;
+        };
+    }
+}
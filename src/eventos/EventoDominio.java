@@ -0,0 +1,43 @@
+package eventos;
+
+/**
+ * Hecho confirmado en la base de datos (inmutable).
+ *
+ * Lleva solo el tipo y el id de la entidad: los suscriptores que necesiten el estado completo
+ * lo leen de la base (o del feed de cambios), así el evento no retiene entidades ni depende
+ * de que el llamador no las modifique después de publicar.
+ */
+public final class EventoDominio {
+
+    private final TipoEvento tipo;
+    private final long id;
+    private final long instanteMs;
+
+    /**
+     * @param tipo Qué ocurrió.
+     * @param id El ID de la entidad afectada.
+     */
+    public EventoDominio(TipoEvento tipo, long id) {
+        this.tipo = tipo;
+        this.id = id;
+        this.instanteMs = System.currentTimeMillis();
+    }
+
+    public TipoEvento getTipo() {
+        return tipo;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /** @return El momento de la publicación (epoch ms), inmediatamente posterior al commit. */
+    public long getInstanteMs() {
+        return instanteMs;
+    }
+
+    @Override
+    public String toString() {
+        return tipo + "(id=" + id + ")";
+    }
+}
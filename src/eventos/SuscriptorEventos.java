@@ -0,0 +1,13 @@
+package eventos;
+
+/**
+ * Consumidor de eventos registrado en el {@link BusEventos}.
+ *
+ * Se ejecuta en el ejecutor de su suscripción, nunca en el hilo que hizo el commit.
+ * Si lanza una excepción, el bus la registra y sigue con los próximos eventos.
+ */
+@FunctionalInterface
+public interface SuscriptorEventos {
+
+    void recibir(EventoDominio evento) throws Exception;
+}
@@ -0,0 +1,19 @@
+package eventos;
+
+/**
+ * Tipos de eventos de dominio que publican los servicios al confirmar una transacción.
+ *
+ * El id del {@link EventoDominio} es siempre el de la entidad nombrada en el tipo.
+ */
+public enum TipoEvento {
+    DUENIO_CREADO,
+    DUENIO_ACTUALIZADO,
+    DUENIO_ELIMINADO,
+    /** Alta de mascota (individual o por lote); su microchip se crea en la misma transacción. */
+    MASCOTA_CREADA,
+    MASCOTA_ACTUALIZADA,
+    /** Baja lógica de la mascota, que incluye la de su microchip (cascada). */
+    MASCOTA_ELIMINADA,
+    /** Alta o modificación de un microchip desde {@code MicrochipService}. */
+    MICROCHIP_MODIFICADO
+}
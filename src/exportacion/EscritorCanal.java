@@ -0,0 +1,102 @@
+package exportacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritor de texto UTF-8 sobre un {@link FileChannel} con buffers fijos y reutilizados.
+ *
+ * Los caracteres se acumulan en un {@link CharBuffer}, se codifican a un {@link ByteBuffer} directo
+ * y se escriben al canal solo cuando el buffer se llena: la memoria usada no depende del tamaño del
+ * archivo. Con gzip, el canal de destino es un GZIPOutputStream sobre el mismo FileChannel.
+ */
+final class EscritorCanal implements Closeable {
+
+    private static final int TAMANIO_CARACTERES = 16 * 1024;
+    private static final int TAMANIO_BYTES = 64 * 1024;
+
+    private final WritableByteChannel canal;
+    private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder();
+    private final CharBuffer caracteres = CharBuffer.allocate(TAMANIO_CARACTERES);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(TAMANIO_BYTES);
+    private long bytesEscritos;
+
+    EscritorCanal(Path archivo, boolean gzip) throws IOException {
+        FileChannel archivoCanal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.canal = gzip
+                ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(archivoCanal), TAMANIO_BYTES))
+                : archivoCanal;
+    }
+
+    /**
+     * Agrega el contenido del StringBuilder (normalmente una fila completa).
+     */
+    void escribir(StringBuilder texto) throws IOException {
+        int desde = 0;
+        int largo = texto.length();
+        while (desde < largo) {
+            if (!caracteres.hasRemaining()) {
+                codificar(false);
+            }
+            int cantidad = Math.min(caracteres.remaining(), largo - desde);
+            int posicion = caracteres.position();
+            texto.getChars(desde, desde + cantidad, caracteres.array(), caracteres.arrayOffset() + posicion);
+            caracteres.position(posicion + cantidad);
+            desde += cantidad;
+        }
+    }
+
+    /** @return Bytes sin comprimir entregados al canal hasta ahora. */
+    long getBytesEscritos() {
+        return bytesEscritos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            codificar(true);
+            while (codificador.flush(bytes).isOverflow()) {
+                vaciar();
+            }
+            vaciar();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private void codificar(boolean fin) throws IOException {
+        caracteres.flip();
+        while (true) {
+            CoderResult resultado = codificador.encode(caracteres, bytes, fin);
+            if (resultado.isOverflow()) {
+                vaciar();
+            } else {
+                if (resultado.isError()) {
+                    resultado.throwException();
+                }
+                break;
+            }
+        }
+        caracteres.compact(); // Conserva un posible par sustituto incompleto para la próxima vuelta
+    }
+
+    private void vaciar() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            bytesEscritos += canal.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,201 @@
+package exportacion;
+
+import config.DatabaseConnectionPool;
+import dao.MascotaDAO;
+import dao.CursorMascota;
+import dao.MascotaDaoImpl;
+import dao.VisitanteFilas;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Exportador del registro completo de mascotas activas (con dueño y microchip) para los
+ * registros municipales.
+ *
+ * ROL: Volcar millones de filas a archivos sin riesgo de quedarse sin memoria.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Streaming:** Lee las filas con {@link MascotaDAO#recorrer} (de a una, con un cursor reutilizable:
+ * sin lista intermedia ni entidades por fila).
+ * 2.  **Escritura:** Formatea cada fila en un StringBuilder reutilizado y la escribe con
+ * {@link EscritorCanal} (FileChannel + buffers NIO fijos), opcionalmente comprimida con gzip.
+ * 3.  **Partición:** Abre un archivo nuevo cada {@code filasPorArchivo} filas
+ * ({@code registro-mascotas-AAAAMMDD-0001.csv}, {@code -0002}, ...), cada uno con su encabezado.
+ * 4.  **Progreso:** Informa filas y archivos escritos cada {@link #INTERVALO_PROGRESO} filas.
+ *
+ * Uso por consola: {@code java exportacion.ExportadorRegistro <directorio> [csv|jsonl] [--gzip] [--filas N]}
+ */
+public class ExportadorRegistro {
+
+    /**
+     * Recibe el avance de la exportación.
+     */
+    @FunctionalInterface
+    public interface Progreso {
+        void informar(long filas, int archivos, long bytes);
+    }
+
+    public static final long FILAS_POR_ARCHIVO_DEFECTO = 1_000_000;
+    static final long INTERVALO_PROGRESO = 50_000;
+
+    private final MascotaDAO mascotaDao;
+
+    /**
+     * Constructor para la inyección de dependencias.
+     * @param mascotaDao DAO de mascotas (fuente de las filas).
+     */
+    public ExportadorRegistro(MascotaDAO mascotaDao) {
+        this.mascotaDao = mascotaDao;
+    }
+
+    // --- 1. EXPORTACIÓN ---
+
+    /**
+     * Exporta todas las mascotas activas al directorio indicado.
+     *
+     * @param directorio Directorio de destino (se crea si no existe).
+     * @param formato Formato de salida.
+     * @param gzip true para comprimir cada archivo (extensión '.gz').
+     * @param filasPorArchivo Máximo de filas por archivo.
+     * @param progreso Callback de avance (puede ser null).
+     * @return Los archivos generados, en orden.
+     * @throws Exception Si falla la lectura de la base o la escritura de archivos.
+     */
+    public List<Path> exportar(Path directorio, FormatoExportacion formato, boolean gzip, long filasPorArchivo,
+                               Progreso progreso) throws Exception {
+        if (filasPorArchivo <= 0) {
+            throw new Exception("Error de validación: La cantidad de filas por archivo debe ser mayor que 0.");
+        }
+        Files.createDirectories(directorio);
+        String base = "registro-mascotas-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        Volcado volcado = new Volcado(directorio, base, formato, gzip, filasPorArchivo, progreso);
+        try {
+            mascotaDao.recorrer(volcado);
+            volcado.cerrarArchivo();
+        } catch (IOException e) {
+            volcado.cerrarSinFallar();
+            throw new Exception("Error de escritura al exportar el registro: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            volcado.cerrarSinFallar();
+            throw new Exception("Error de base de datos al exportar el registro: " + e.getMessage(), e);
+        }
+        if (progreso != null) {
+            progreso.informar(volcado.filas, volcado.archivos.size(), volcado.bytes);
+        }
+        return volcado.archivos;
+    }
+
+    /**
+     * Estado de una exportación en curso: archivo abierto, contadores y el buffer de la fila.
+     */
+    private static final class Volcado implements VisitanteFilas<CursorMascota, Exception> {
+        private final Path directorio;
+        private final String base;
+        private final FormatoExportacion formato;
+        private final boolean gzip;
+        private final long filasPorArchivo;
+        private final Progreso progreso;
+        private final StringBuilder fila = new StringBuilder(256);
+        private final List<Path> archivos = new ArrayList<>();
+        private EscritorCanal escritor;
+        private long filasEnArchivo;
+        private long filas;
+        private long bytes;
+
+        Volcado(Path directorio, String base, FormatoExportacion formato, boolean gzip, long filasPorArchivo,
+                Progreso progreso) {
+            this.directorio = directorio;
+            this.base = base;
+            this.formato = formato;
+            this.gzip = gzip;
+            this.filasPorArchivo = filasPorArchivo;
+            this.progreso = progreso;
+        }
+
+        @Override
+        public boolean visitar(CursorMascota mascota) throws IOException, SQLException {
+            if (escritor == null || filasEnArchivo == filasPorArchivo) {
+                abrirSiguiente();
+            }
+            fila.setLength(0);
+            formato.escribirFila(mascota, fila);
+            escritor.escribir(fila);
+            filasEnArchivo++;
+            filas++;
+            if (progreso != null && filas % INTERVALO_PROGRESO == 0) {
+                progreso.informar(filas, archivos.size(), bytes + escritor.getBytesEscritos());
+            }
+            return true;
+        }
+
+        private void abrirSiguiente() throws IOException {
+            cerrarArchivo();
+            String nombre = String.format("%s-%04d.%s%s", base, archivos.size() + 1,
+                    formato.getExtension(), gzip ? ".gz" : "");
+            Path archivo = directorio.resolve(nombre);
+            escritor = new EscritorCanal(archivo, gzip);
+            archivos.add(archivo);
+            filasEnArchivo = 0;
+            fila.setLength(0);
+            formato.escribirEncabezado(fila);
+            escritor.escribir(fila);
+        }
+
+        void cerrarArchivo() throws IOException {
+            if (escritor != null) {
+                escritor.close();
+                bytes += escritor.getBytesEscritos();
+                escritor = null;
+            }
+        }
+
+        void cerrarSinFallar() {
+            try {
+                cerrarArchivo();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // --- 2. PUNTO DE ENTRADA ---
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Uso: ExportadorRegistro <directorio> [csv|jsonl] [--gzip] [--filas N]");
+            System.exit(2);
+        }
+        FormatoExportacion formato = FormatoExportacion.CSV;
+        boolean gzip = false;
+        long filasPorArchivo = FILAS_POR_ARCHIVO_DEFECTO;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--gzip" -> gzip = true;
+                case "--filas" -> filasPorArchivo = Long.parseLong(args[++i]);
+                default -> formato = FormatoExportacion.valueOf(args[i].toUpperCase(Locale.ROOT));
+            }
+        }
+        long t0 = System.nanoTime();
+        int codigoSalida = 0;
+        try {
+            List<Path> archivos = new ExportadorRegistro(new MascotaDaoImpl())
+                    .exportar(Paths.get(args[0]), formato, gzip, filasPorArchivo, (filas, partes, bytes) ->
+                            System.out.printf("\r  %,d filas, %d archivo(s), %,d KB", filas, partes, bytes / 1024));
+            System.out.printf("%nExportación terminada en %d ms: %s%n", (System.nanoTime() - t0) / 1_000_000, archivos);
+        } catch (Exception e) {
+            System.err.println("\n⚠️ " + e.getMessage());
+            codigoSalida = 1;
+        } finally {
+            DatabaseConnectionPool.cerrar();
+        }
+        System.exit(codigoSalida);
+    }
+}
@@ -0,0 +1,202 @@
+package exportacion;
+
+import dao.CursorMascota;
+import java.sql.SQLException;
+
+/**
+ * Formatos de archivo soportados por el {@link ExportadorRegistro}.
+ *
+ * Cada formato sabe escribir su encabezado y la fila actual de un {@link CursorMascota} en un
+ * {@link StringBuilder} reutilizable, sin crear objetos intermedios por columna (ni siquiera para las fechas).
+ */
+public enum FormatoExportacion {
+
+    /** CSV (RFC 4180): separador ',', campos entre comillas solo cuando hace falta, NULL como campo vacío. */
+    CSV("csv") {
+        @Override
+        void escribirEncabezado(StringBuilder sb) {
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(COLUMNAS[i]);
+            }
+            sb.append('\n');
+        }
+
+        @Override
+        void escribirFila(CursorMascota m, StringBuilder sb) throws SQLException {
+            sb.append(m.getId()).append(',');
+            csv(sb, m.getNombre()).append(',');
+            csv(sb, m.getEspecie()).append(',');
+            csv(sb, m.getRaza()).append(',');
+            int fecha = m.getFechaNacimientoDia();
+            if (fecha != CursorMascota.SIN_FECHA) {
+                anexarFecha(sb, fecha);
+            }
+            sb.append(',');
+            if (m.tieneDuenio()) {
+                sb.append(m.getDuenioId()).append(',');
+                csv(sb, m.getDuenioDni()).append(',');
+                csv(sb, m.getDuenioNombre()).append(',');
+                csv(sb, m.getDuenioApellido()).append(',');
+            } else {
+                sb.append(",,,,");
+            }
+            if (m.tieneMicrochip()) {
+                sb.append(m.getMicrochipId()).append(',');
+                csv(sb, m.getMicrochipCodigo()).append(',');
+                csv(sb, m.getMicrochipVeterinaria());
+            } else {
+                sb.append(",,");
+            }
+            sb.append('\n');
+        }
+    },
+
+    /** JSON Lines: un objeto JSON por línea (sin encabezado), NULL como null. */
+    JSONL("jsonl") {
+        @Override
+        void escribirEncabezado(StringBuilder sb) {
+            // JSON Lines no tiene encabezado: cada línea es autodescriptiva
+        }
+
+        @Override
+        void escribirFila(CursorMascota m, StringBuilder sb) throws SQLException {
+            boolean duenio = m.tieneDuenio();
+            boolean microchip = m.tieneMicrochip();
+            sb.append("{\"mascota_id\":").append(m.getId());
+            sb.append(",\"nombre\":");
+            json(sb, m.getNombre());
+            sb.append(",\"especie\":");
+            json(sb, m.getEspecie());
+            sb.append(",\"raza\":");
+            json(sb, m.getRaza());
+            sb.append(",\"fecha_nacimiento\":");
+            int fecha = m.getFechaNacimientoDia();
+            if (fecha != CursorMascota.SIN_FECHA) {
+                anexarFecha(sb.append('"'), fecha).append('"');
+            } else {
+                sb.append("null");
+            }
+            sb.append(",\"duenio_id\":");
+            if (duenio) {
+                sb.append(m.getDuenioId());
+            } else {
+                sb.append("null");
+            }
+            sb.append(",\"dni\":");
+            json(sb, duenio ? m.getDuenioDni() : null);
+            sb.append(",\"duenio_nombre\":");
+            json(sb, duenio ? m.getDuenioNombre() : null);
+            sb.append(",\"duenio_apellido\":");
+            json(sb, duenio ? m.getDuenioApellido() : null);
+            sb.append(",\"microchip_id\":");
+            if (microchip) {
+                sb.append(m.getMicrochipId());
+            } else {
+                sb.append("null");
+            }
+            sb.append(",\"microchip_codigo\":");
+            json(sb, microchip ? m.getMicrochipCodigo() : null);
+            sb.append(",\"veterinaria\":");
+            json(sb, microchip ? m.getMicrochipVeterinaria() : null);
+            sb.append("}\n");
+        }
+    };
+
+    static final String[] COLUMNAS = {
+        "mascota_id", "nombre", "especie", "raza", "fecha_nacimiento",
+        "duenio_id", "dni", "duenio_nombre", "duenio_apellido",
+        "microchip_id", "microchip_codigo", "veterinaria"
+    };
+
+    private final String extension;
+
+    FormatoExportacion(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    abstract void escribirEncabezado(StringBuilder sb);
+
+    abstract void escribirFila(CursorMascota mascota, StringBuilder sb) throws SQLException;
+
+    // --- MÉTODOS "HELPER" DE FORMATO ---
+
+    /**
+     * Agrega la fecha ISO (AAAA-MM-DD) correspondiente a un día epoch, sin crear un LocalDate
+     * (algoritmo "days from civil" inverso de H. Hinnant, calendario gregoriano proléptico).
+     */
+    static StringBuilder anexarFecha(StringBuilder sb, int diaEpoch) {
+        long z = diaEpoch + 719_468L;
+        long era = (z >= 0 ? z : z - 146_096) / 146_097;
+        long diaDeEra = z - era * 146_097;
+        long anioDeEra = (diaDeEra - diaDeEra / 1460 + diaDeEra / 36_524 - diaDeEra / 146_096) / 365;
+        long diaDelAnio = diaDeEra - (365 * anioDeEra + anioDeEra / 4 - anioDeEra / 100);
+        long mesDesdeMarzo = (5 * diaDelAnio + 2) / 153;
+        long dia = diaDelAnio - (153 * mesDesdeMarzo + 2) / 5 + 1;
+        long mes = mesDesdeMarzo < 10 ? mesDesdeMarzo + 3 : mesDesdeMarzo - 9;
+        long anio = anioDeEra + era * 400 + (mes <= 2 ? 1 : 0);
+        dosDigitos(dosDigitos(sb, anio / 100), anio % 100).append('-');
+        return dosDigitos(dosDigitos(sb, mes).append('-'), dia);
+    }
+
+    private static StringBuilder dosDigitos(StringBuilder sb, long valor) {
+        return sb.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+    }
+
+
+    private static StringBuilder csv(StringBuilder sb, String valor) {
+        if (valor == null) {
+            return sb;
+        }
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            return sb.append(valor);
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                sb.append('"'); // Las comillas se duplican
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    private static void json(StringBuilder sb, String valor) {
+        if (valor == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append("\\u00");
+                        sb.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,259 @@
+package herramientas;
+
+import config.Configuracion;
+import config.DatabaseConnectionPool;
+import dao.NumeradorCambios;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tarea de archivado de las bajas lógicas antiguas.
+ *
+ * ROL: Mantener chicas las tablas activas (y sus índices) moviendo a las tablas '*_archivo' las filas
+ * dadas de baja hace más de 'archivado.retencion_dias' días. Las lecturas normales no cambian: ya
+ * filtraban 'eliminado = false'; las filas archivadas se leen con {@code leerArchivadoPorId} de cada DAO.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Orden por FKs:** Primero las mascotas (cada una junto con su microchip, que la referencia),
+ * después los microchips dados de baja por su cuenta y por último los dueños que ya no tienen
+ * ninguna mascota en la tabla activa.
+ * 2.  **Lotes chicos:** Cada tabla se recorre por ventanas de 'archivado.ventana_ids' IDs consecutivos
+ * (rango de PK, sin OFFSET). Cada ventana es una transacción corta: bloquea las filas candidatas,
+ * las copia al archivo (INSERT ... SELECT) y las borra de la tabla activa.
+ * 3.  **Moderación:** Entre ventanas espera al menos 'archivado.pausa_ms' y nunca menos de lo que tardó
+ * la ventana anterior, para no competir con las operaciones de los usuarios.
+ * 4.  **Reanudación:** El último ID revisado de cada tabla se guarda en 'archivado_progreso' en la misma
+ * transacción que la ventana: una ejecución interrumpida continúa desde ahí. Al terminar una tabla
+ * el avance vuelve a cero para la próxima ejecución.
+ *
+ * La antigüedad de una baja se mide con 'actualizado_en' (la baja lógica es la última escritura de
+ * la fila). Solo se archivan bajas ya numeradas (el feed de cambios puede entregarlas: el borrado físico
+ * no genera cambios nuevos); por eso, antes de empezar, se numeran los pendientes con dao.NumeradorCambios.
+ *
+ * Uso (desde la raíz del proyecto): {@code java herramientas.ArchivadorEliminados}
+ */
+public class ArchivadorEliminados {
+
+    // --- 1. DESCRIPCIÓN DE LAS TABLAS ---
+
+    private static final String COLUMNAS_DUENIOS = "id, dni, nombre, apellido, telefono, email, direccion, eliminado, actualizado_en, seq_cambio";
+    private static final String COLUMNAS_MASCOTAS = "id, eliminado, nombre, especie_id, raza_id, fecha_nacimiento, duenio_id, actualizado_en, seq_cambio";
+    private static final String COLUMNAS_MICROCHIPS = "id, eliminado, codigo, observaciones, veterinaria_id, mascota_id, actualizado_en, seq_cambio";
+
+    /**
+     * Una tabla a archivar: la consulta que bloquea las candidatas de una ventana
+     * (parámetros: desde exclusivo, hasta inclusivo, límite de antigüedad) y las sentencias que las
+     * mueven, en orden, con "%s" en lugar de la lista de IDs.
+     */
+    private static final class PasoArchivo {
+        final String tabla;
+        final String sqlCandidatos;
+        final List<String> sqlMovimientos;
+
+        PasoArchivo(String tabla, String sqlCandidatos, String... sqlMovimientos) {
+            this.tabla = tabla;
+            this.sqlCandidatos = sqlCandidatos;
+            this.sqlMovimientos = List.of(sqlMovimientos);
+        }
+    }
+
+    private static final List<PasoArchivo> PASOS = List.of(
+        // El microchip de una mascota archivada se mueve con ella, esté o no dado de baja (FK mascota_id)
+        new PasoArchivo("mascotas",
+            "SELECT m.id FROM mascotas m WHERE m.id > ? AND m.id <= ? AND m.eliminado = TRUE AND m.actualizado_en < ? "
+                + "AND m.seq_cambio IS NOT NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM microchips c WHERE c.mascota_id = m.id AND c.seq_cambio IS NULL) FOR UPDATE",
+            "INSERT INTO microchips_archivo (" + COLUMNAS_MICROCHIPS + ") SELECT " + COLUMNAS_MICROCHIPS
+                + " FROM microchips WHERE mascota_id IN (%s)",
+            "DELETE FROM microchips WHERE mascota_id IN (%s)",
+            "INSERT INTO mascotas_archivo (" + COLUMNAS_MASCOTAS + ") SELECT " + COLUMNAS_MASCOTAS
+                + " FROM mascotas WHERE id IN (%s)",
+            "DELETE FROM mascotas WHERE id IN (%s)"),
+        new PasoArchivo("microchips",
+            "SELECT id FROM microchips WHERE id > ? AND id <= ? AND eliminado = TRUE AND actualizado_en < ? "
+                + "AND seq_cambio IS NOT NULL FOR UPDATE",
+            "INSERT INTO microchips_archivo (" + COLUMNAS_MICROCHIPS + ") SELECT " + COLUMNAS_MICROCHIPS
+                + " FROM microchips WHERE id IN (%s)",
+            "DELETE FROM microchips WHERE id IN (%s)"),
+        // Un dueño con mascotas activas (o dadas de baja hace poco) todavía es referenciado: se espera
+        new PasoArchivo("duenios",
+            "SELECT d.id FROM duenios d WHERE d.id > ? AND d.id <= ? AND d.eliminado = TRUE AND d.actualizado_en < ? "
+                + "AND d.seq_cambio IS NOT NULL AND NOT EXISTS (SELECT 1 FROM mascotas m WHERE m.duenio_id = d.id) FOR UPDATE",
+            "INSERT INTO duenios_archivo (" + COLUMNAS_DUENIOS + ") SELECT " + COLUMNAS_DUENIOS
+                + " FROM duenios WHERE id IN (%s)",
+            "DELETE FROM duenios WHERE id IN (%s)")
+    );
+
+    private static final String SQL_LEER_PROGRESO = "SELECT ultimo_id FROM archivado_progreso WHERE tabla = ?";
+    private static final String SQL_GUARDAR_PROGRESO =
+        "INSERT INTO archivado_progreso (tabla, ultimo_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE ultimo_id = VALUES(ultimo_id)";
+
+    // --- 2. ESTADO ---
+
+    private final int retencionDias;
+    private final int ventanaIds;
+    private final long pausaMs;
+
+    public ArchivadorEliminados(int retencionDias, int ventanaIds, long pausaMs) {
+        if (retencionDias < 0 || ventanaIds <= 0 || pausaMs < 0) {
+            throw new IllegalArgumentException("Parámetros de archivado inválidos.");
+        }
+        this.retencionDias = retencionDias;
+        this.ventanaIds = ventanaIds;
+        this.pausaMs = pausaMs;
+    }
+
+    /** Crea el archivador según 'archivado.*'. */
+    public static ArchivadorEliminados configurado() {
+        Configuracion cfg = Configuracion.actual();
+        return new ArchivadorEliminados(cfg.getInt(Configuracion.ARCHIVADO_RETENCION_DIAS),
+                cfg.getInt(Configuracion.ARCHIVADO_VENTANA_IDS), cfg.getLong(Configuracion.ARCHIVADO_PAUSA_MS));
+    }
+
+    // --- 3. ARCHIVADO ---
+
+    /**
+     * Archiva todas las tablas, en orden, con una conexión propia (no ocupa el pool de la aplicación).
+     *
+     * @return Cantidad total de filas movidas al archivo.
+     * @throws SQLException Si falla una ventana (su transacción se revierte; el avance guardado se conserva).
+     * @throws InterruptedException Si se interrumpe durante una pausa.
+     */
+    public long archivar() throws SQLException, InterruptedException {
+        Timestamp limite = Timestamp.from(Instant.now().minus(Duration.ofDays(retencionDias)));
+        for (String tabla : NumeradorCambios.TABLAS) {
+            NumeradorCambios.numerar(tabla);
+        }
+        long total = 0;
+        try (Connection conn = DatabaseConnectionPool.abrirConexionDedicada(null)) {
+            // READ COMMITTED: el FOR UPDATE bloquea solo las filas candidatas, sin gap locks
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            conn.setAutoCommit(false);
+            try {
+                for (PasoArchivo paso : PASOS) {
+                    total += archivarTabla(conn, paso, limite);
+                }
+            } catch (SQLException | InterruptedException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return total;
+    }
+
+    private long archivarTabla(Connection conn, PasoArchivo paso, Timestamp limite) throws SQLException, InterruptedException {
+        long desde = leerProgreso(conn, paso.tabla);
+        long maximo = maximoId(conn, paso.tabla); // Las filas creadas después no pueden estar vencidas
+        conn.commit();
+        if (desde > 0) {
+            System.out.printf("[%s] se reanuda desde el ID %,d%n", paso.tabla, desde);
+        }
+        long inicio = System.nanoTime();
+        long movidas = 0;
+        while (desde < maximo) {
+            long inicioVentana = System.nanoTime();
+            long hasta = Math.min(maximo, desde + ventanaIds);
+            List<Long> ids = candidatos(conn, paso, desde, hasta, limite);
+            if (!ids.isEmpty()) {
+                mover(conn, paso, ids);
+                movidas += ids.size();
+            }
+            guardarProgreso(conn, paso.tabla, hasta);
+            conn.commit();
+            desde = hasta;
+            if (!ids.isEmpty() && desde < maximo) {
+                long duracionMs = (System.nanoTime() - inicioVentana) / 1_000_000;
+                Thread.sleep(Math.max(pausaMs, duracionMs));
+            }
+        }
+        guardarProgreso(conn, paso.tabla, 0); // Pasada completa: la próxima ejecución empieza de nuevo
+        conn.commit();
+        System.out.printf("[%s] %,d filas archivadas en %.1f s%n", paso.tabla, movidas, (System.nanoTime() - inicio) / 1e9);
+        return movidas;
+    }
+
+    private List<Long> candidatos(Connection conn, PasoArchivo paso, long desde, long hasta, Timestamp limite) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(paso.sqlCandidatos)) {
+            ps.setLong(1, desde);
+            ps.setLong(2, hasta);
+            ps.setTimestamp(3, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void mover(Connection conn, PasoArchivo paso, List<Long> ids) throws SQLException {
+        String marcadores = marcadores(ids.size());
+        for (String plantilla : paso.sqlMovimientos) {
+            try (PreparedStatement ps = conn.prepareStatement(String.format(plantilla, marcadores))) {
+                for (int i = 0; i < ids.size(); i++) {
+                    ps.setLong(i + 1, ids.get(i));
+                }
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    // --- 4. AVANCE ---
+
+    private long leerProgreso(Connection conn, String tabla) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_LEER_PROGRESO)) {
+            ps.setString(1, tabla);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void guardarProgreso(Connection conn, String tabla, long ultimoId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_GUARDAR_PROGRESO)) {
+            ps.setString(1, tabla);
+            ps.setLong(2, ultimoId);
+            ps.executeUpdate();
+        }
+    }
+
+    // --- 5. MÉTODOS "HELPER" ---
+
+    private static long maximoId(Connection conn, String tabla) throws SQLException {
+        // 'tabla' proviene siempre de PASOS, nunca del usuario
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM " + tabla);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String marcadores(int cantidad) {
+        StringBuilder sb = new StringBuilder(cantidad * 3);
+        for (int i = 0; i < cantidad; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    // --- 6. PUNTO DE ENTRADA ---
+
+    public static void main(String[] args) {
+        try {
+            long inicio = System.nanoTime();
+            long total = configurado().archivar();
+            System.out.printf("Archivado completo: %,d filas en %.1f s.%n", total, (System.nanoTime() - inicio) / 1e9);
+        } catch (Exception e) {
+            System.err.println("⚠️ Error en el archivado: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
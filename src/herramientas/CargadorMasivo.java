@@ -0,0 +1,345 @@
+package herramientas;
+
+import config.DatabaseConnectionPool;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Herramienta de carga masiva de los archivos TSV producidos por {@link GeneradorDatos}.
+ *
+ * ROL: Poblar rápidamente una base de pruebas con millones de filas.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Carga rápida:** Usa LOAD DATA LOCAL INFILE (una sentencia por archivo "parte").
+ * Si el servidor o el driver no permiten archivos locales, cae a INSERT por lotes
+ * (con 'rewriteBatchedStatements', es decir, INSERT multi-fila).
+ * 2.  **Índices secundarios:** Elimina los índices secundarios que no respaldan FKs antes de cargar
+ * y los reconstruye al final en un único ALTER por tabla (construcción ordenada, mucho más
+ * barata que mantenerlos fila por fila). Los índices de FK se conservan.
+ * 3.  **Orden:** Respeta las FKs (diccionarios -> duenios -> mascotas -> microchips).
+ * 4.  **Seguimiento de cambios:** La carga no pasa por la secuencia de cambios (una sola fila
+ * bloqueada por tabla serializaría el INSERT); los consumidores la toman con una copia completa.
+ * 5.  **Contadores:** Al terminar calcula 'duenios.mascotas_activas' con un único UPDATE agrupado
+ * (las filas cargadas no pasan por los servicios que lo mantienen).
+ * 6.  **Secuencias de IDs:** Los archivos traen IDs explícitos; al terminar adelanta las filas de
+ * 'secuencias' (ids.estrategia=hilo) más allá del MAX(id) cargado, para que el asignador hi-lo no
+ * entregue IDs ya usados.
+ *
+ * Uso (desde la raíz del proyecto):
+ * <pre>
+ *   java herramientas.CargadorMasivo generar &lt;dir&gt; &lt;mascotas&gt; [semilla] [hilos]
+ *   java herramientas.CargadorMasivo cargar &lt;dir&gt;
+ *   java herramientas.CargadorMasivo completo &lt;dir&gt; &lt;mascotas&gt; [semilla] [hilos]
+ * </pre>
+ * Requiere 'local_infile=ON' en el servidor para la vía rápida. Se asume una base vacía
+ * (recién creada con 'sql/gestion_mascotas.sql').
+ */
+public class CargadorMasivo {
+
+    // --- 1. DESCRIPCIÓN DE LAS TABLAS ---
+
+    /**
+     * Tabla a cargar: columnas en el orden del TSV e índices secundarios que se pueden
+     * quitar durante la carga (nombre -> definición para reconstruirlos).
+     */
+    private static final class TablaCarga {
+        final String nombre;
+        final String[] columnas;
+        final Map<String, String> indicesSecundarios;
+
+        TablaCarga(String nombre, String[] columnas, Map<String, String> indicesSecundarios) {
+            this.nombre = nombre;
+            this.columnas = columnas;
+            this.indicesSecundarios = indicesSecundarios;
+        }
+    }
+
+    private static final List<TablaCarga> TABLAS = List.of(
+        // Diccionarios: pocas filas, su índice UNIQUE(nombre) se conserva
+        new TablaCarga(GeneradorDatos.TABLA_ESPECIES, new String[]{"id", "nombre"}, indices()),
+        new TablaCarga(GeneradorDatos.TABLA_RAZAS, new String[]{"id", "nombre"}, indices()),
+        new TablaCarga(GeneradorDatos.TABLA_VETERINARIAS, new String[]{"id", "nombre"}, indices()),
+        new TablaCarga(GeneradorDatos.TABLA_DUENIOS,
+            new String[]{"id", "dni", "nombre", "apellido", "telefono", "email", "direccion", "eliminado"},
+            indices("dni", "UNIQUE INDEX dni (dni)", "email", "UNIQUE INDEX email (email)",
+                    "idx_duenios_telefono", "INDEX idx_duenios_telefono (telefono)",
+                    "idx_duenios_seq_cambio", "INDEX idx_duenios_seq_cambio (seq_cambio)")),
+        new TablaCarga(GeneradorDatos.TABLA_MASCOTAS,
+            new String[]{"id", "eliminado", "nombre", "especie_id", "raza_id", "fecha_nacimiento", "duenio_id"},
+            indices("idx_mascotas_seq_cambio", "INDEX idx_mascotas_seq_cambio (seq_cambio)")),
+        new TablaCarga(GeneradorDatos.TABLA_MICROCHIPS,
+            new String[]{"id", "eliminado", "codigo", "observaciones", "veterinaria_id", "mascota_id"},
+            indices("codigo", "UNIQUE INDEX codigo (codigo)",
+                    "idx_microchips_seq_cambio", "INDEX idx_microchips_seq_cambio (seq_cambio)"))
+    );
+
+    // Códigos de error que indican que LOAD DATA LOCAL no está habilitado (servidor o driver)
+    private static final int ER_NOT_ALLOWED_COMMAND = 1148;
+    private static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;
+    private static final int CR_LOAD_DATA_LOCAL_INFILE_REJECTED = 2068;
+
+    private static final int TAMANIO_LOTE = 5_000;
+
+    private static final String SQL_CONTAR_MASCOTAS_ACTIVAS =
+        "UPDATE duenios d JOIN (SELECT duenio_id, COUNT(*) AS cantidad FROM mascotas WHERE eliminado = FALSE GROUP BY duenio_id) c "
+            + "ON c.duenio_id = d.id SET d.mascotas_activas = c.cantidad";
+
+    // Tablas cuyos IDs reparte el asignador hi-lo (ver dao.AsignadorHiLo y sql/migraciones/04_secuencias.sql)
+    private static final List<String> TABLAS_CON_SECUENCIA = List.of(
+        GeneradorDatos.TABLA_DUENIOS, GeneradorDatos.TABLA_MASCOTAS, GeneradorDatos.TABLA_MICROCHIPS);
+    // Nunca retrocede: si la fila no existe, el asignador la crea en el primer uso desde MAX(id) + 1
+    private static final String PREFIJO_ADELANTAR_SECUENCIA =
+        "UPDATE secuencias SET proximo = GREATEST(proximo, (SELECT COALESCE(MAX(id), 0) + 1 FROM %s)) WHERE tabla = ?";
+
+    private static final String SQL_EXISTE_INDICE =
+        "SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?";
+
+    // --- 2. ESTADO ---
+
+    private final Path directorio;
+    private boolean usarLoadData = true;
+
+    public CargadorMasivo(Path directorio) {
+        this.directorio = directorio.toAbsolutePath().normalize();
+    }
+
+    // --- 3. CARGA ---
+
+    /**
+     * Carga todas las partes del directorio, tabla por tabla.
+     * Los índices quitados se reconstruyen aunque la carga falle a mitad de camino.
+     *
+     * @throws Exception Si falla la carga o la reconstrucción de índices.
+     */
+    public void cargar() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("allowLoadLocalInfileInPath", directorio.toString()); // Solo este directorio
+        props.setProperty("rewriteBatchedStatements", "true");                  // Para el plan B
+
+        long inicio = System.nanoTime();
+        try (Connection conn = DatabaseConnectionPool.abrirConexionDedicada(props)) {
+            ejecutar(conn, "SET SESSION unique_checks = 0");
+            ejecutar(conn, "SET SESSION foreign_key_checks = 0");
+            // Los triggers de seguimiento no numeran la carga: las filas quedan con seq_cambio = 0
+            ejecutar(conn, "SET @omitir_seq_cambio = 1");
+            Map<TablaCarga, Map<String, String>> quitados = new LinkedHashMap<>();
+            try {
+                for (TablaCarga tabla : TABLAS) {
+                    quitados.put(tabla, quitarIndices(conn, tabla));
+                }
+                for (TablaCarga tabla : TABLAS) {
+                    cargarTabla(conn, tabla);
+                }
+            } finally {
+                for (Map.Entry<TablaCarga, Map<String, String>> e : quitados.entrySet()) {
+                    reconstruirIndices(conn, e.getKey(), e.getValue());
+                }
+                ejecutar(conn, "SET SESSION foreign_key_checks = 1");
+                ejecutar(conn, "SET SESSION unique_checks = 1");
+            }
+            long inicioContadores = System.nanoTime();
+            ejecutar(conn, SQL_CONTAR_MASCOTAS_ACTIVAS);
+            System.out.printf("[duenios] mascotas_activas calculado en %.1f s%n", (System.nanoTime() - inicioContadores) / 1e9);
+            adelantarSecuencias(conn);
+            for (TablaCarga tabla : TABLAS) {
+                ejecutar(conn, "ANALYZE TABLE " + tabla.nombre); // Estadísticas frescas para el optimizador
+            }
+        }
+        System.out.printf("Carga completa en %.1f s.%n", (System.nanoTime() - inicio) / 1e9);
+    }
+
+    /** Deja cada secuencia de IDs por delante de los IDs explícitos que trajo la carga. */
+    private void adelantarSecuencias(Connection conn) throws SQLException {
+        for (String tabla : TABLAS_CON_SECUENCIA) {
+            try (PreparedStatement ps = conn.prepareStatement(String.format(PREFIJO_ADELANTAR_SECUENCIA, tabla))) {
+                ps.setString(1, tabla);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private void cargarTabla(Connection conn, TablaCarga tabla) throws Exception {
+        List<Path> partes = listarPartes(tabla.nombre);
+        if (partes.isEmpty()) {
+            System.out.println("[" + tabla.nombre + "] sin archivos, se omite.");
+            return;
+        }
+        long inicio = System.nanoTime();
+        long filas = 0;
+        for (Path parte : partes) {
+            if (usarLoadData) {
+                try {
+                    filas += cargarConLoadData(conn, tabla, parte);
+                    continue;
+                } catch (SQLException e) {
+                    if (!esLocalInfileDeshabilitado(e)) {
+                        throw e;
+                    }
+                    System.out.println("LOAD DATA LOCAL no disponible (" + e.getMessage() + "). Se usa INSERT por lotes.");
+                    usarLoadData = false;
+                }
+            }
+            filas += cargarPorLotes(conn, tabla, parte);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("[%s] %,d filas en %.1f s (%,.0f filas/s)%n", tabla.nombre, filas, segundos, filas / segundos);
+    }
+
+    private long cargarConLoadData(Connection conn, TablaCarga tabla, Path parte) throws SQLException {
+        String ruta = parte.toString().replace('\\', '/').replace("'", "\\'");
+        String sql = "LOAD DATA LOCAL INFILE '" + ruta + "' INTO TABLE " + tabla.nombre
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' LINES TERMINATED BY '\\n'"
+                + " (" + String.join(", ", tabla.columnas) + ")";
+        try (Statement st = conn.createStatement()) {
+            return st.executeLargeUpdate(sql);
+        }
+    }
+
+    /**
+     * Plan B: INSERT por lotes. Con 'rewriteBatchedStatements' el driver envía cada lote
+     * como un único INSERT multi-fila.
+     */
+    private long cargarPorLotes(Connection conn, TablaCarga tabla, Path parte) throws SQLException, IOException {
+        String marcadores = Stream.of(tabla.columnas).map(c -> "?").collect(Collectors.joining(", "));
+        String sql = "INSERT INTO " + tabla.nombre + " (" + String.join(", ", tabla.columnas) + ") VALUES (" + marcadores + ")";
+        long filas = 0;
+        boolean autoCommitPrevio = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             BufferedReader in = Files.newBufferedReader(parte, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                String[] campos = linea.split("\t", -1);
+                for (int i = 0; i < campos.length; i++) {
+                    ps.setString(i + 1, "\\N".equals(campos[i]) ? null : campos[i]);
+                }
+                ps.addBatch();
+                if (++filas % TAMANIO_LOTE == 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        } catch (SQLException | IOException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommitPrevio);
+        }
+        return filas;
+    }
+
+    // --- 4. ÍNDICES ---
+
+    private Map<String, String> quitarIndices(Connection conn, TablaCarga tabla) throws SQLException {
+        Map<String, String> quitados = new LinkedHashMap<>();
+        for (Map.Entry<String, String> indice : tabla.indicesSecundarios.entrySet()) {
+            if (existeIndice(conn, tabla.nombre, indice.getKey())) {
+                ejecutar(conn, "ALTER TABLE " + tabla.nombre + " DROP INDEX " + indice.getKey());
+                quitados.put(indice.getKey(), indice.getValue());
+            }
+        }
+        return quitados;
+    }
+
+    private void reconstruirIndices(Connection conn, TablaCarga tabla, Map<String, String> quitados) throws SQLException {
+        if (quitados.isEmpty()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        // Un solo ALTER por tabla: todos los índices se construyen en la misma pasada
+        String sql = "ALTER TABLE " + tabla.nombre + " "
+                + quitados.values().stream().map(def -> "ADD " + def).collect(Collectors.joining(", "));
+        ejecutar(conn, sql);
+        System.out.printf("[%s] índices %s reconstruidos en %.1f s%n",
+                tabla.nombre, quitados.keySet(), (System.nanoTime() - inicio) / 1e9);
+    }
+
+    private boolean existeIndice(Connection conn, String tabla, String indice) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_EXISTE_INDICE)) {
+            ps.setString(1, tabla);
+            ps.setString(2, indice);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // --- 5. MÉTODOS "HELPER" ---
+
+    private List<Path> listarPartes(String tabla) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                .filter(p -> p.getFileName().toString().startsWith(tabla + "-") && p.toString().endsWith(".tsv"))
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static boolean esLocalInfileDeshabilitado(SQLException e) {
+        int codigo = e.getErrorCode();
+        return codigo == ER_NOT_ALLOWED_COMMAND
+            || codigo == ER_CLIENT_LOCAL_FILES_DISABLED
+            || codigo == CR_LOAD_DATA_LOCAL_INFILE_REJECTED;
+    }
+
+    private static void ejecutar(Connection conn, String sql) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private static Map<String, String> indices(String... nombreYDefinicion) {
+        Map<String, String> mapa = new LinkedHashMap<>();
+        for (int i = 0; i < nombreYDefinicion.length; i += 2) {
+            mapa.put(nombreYDefinicion[i], nombreYDefinicion[i + 1]);
+        }
+        return mapa;
+    }
+
+    // --- 6. PUNTO DE ENTRADA ---
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Uso: CargadorMasivo generar|cargar|completo <dir> [mascotas] [semilla] [hilos]");
+            return;
+        }
+        String comando = args[0];
+        Path dir = Paths.get(args[1]);
+        try {
+            if (comando.equals("generar") || comando.equals("completo")) {
+                long mascotas = Long.parseLong(args[2]);
+                long semilla = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+                int hilos = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+                GeneradorDatos generador = new GeneradorDatos(semilla, mascotas, 2.5, hilos);
+                long inicio = System.nanoTime();
+                generador.generar(dir);
+                System.out.printf("Generados %,d dueños y %,d mascotas/microchips en %.1f s.%n",
+                        generador.getCantidadDuenios(), generador.getCantidadMascotas(), (System.nanoTime() - inicio) / 1e9);
+            }
+            if (comando.equals("cargar") || comando.equals("completo")) {
+                new CargadorMasivo(dir).cargar();
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Error en la carga masiva: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
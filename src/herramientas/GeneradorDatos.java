@@ -0,0 +1,290 @@
+package herramientas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generador de datos sintéticos para pruebas de volumen.
+ *
+ * ROL: Produce archivos TSV (separados por tabulador) con los diccionarios (especies, razas,
+ * veterinarias), dueños, mascotas y microchips listos para ser cargados por {@link CargadorMasivo}.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Determinismo:** La misma semilla produce exactamente los mismos archivos, sin importar
+ * la cantidad de hilos. Cada bloque de filas usa su propio generador derivado de (semilla, tabla, bloque).
+ * 2.  **Respeto del esquema:** Los valores cumplen las restricciones de 'sql/gestion_mascotas.sql':
+ * DNI, Email, código de chip y mascota_id únicos; teléfono de al menos 7 caracteres; email con '@';
+ * nombre de mascota no vacío; y FKs válidas (los IDs se escriben explícitamente, 1..N; los de los
+ * diccionarios son la posición del valor en {@link #ESPECIES}, {@link #RAZAS_DISTINTAS} y {@link #VETERINARIAS}, +1).
+ * 3.  **Paralelismo:** Cada bloque se escribe en su propio archivo ("parte"), en paralelo.
+ *
+ * Formato de salida (un archivo por tabla y bloque, ej. mascotas-0003.tsv):
+ * - Separador de campos: TAB. Separador de líneas: '\n'. NULL se escribe como \N (formato de LOAD DATA).
+ */
+public class GeneradorDatos {
+
+    // --- 1. CONSTANTES ---
+
+    /** Cantidad de filas por archivo "parte" (fija, para que la salida no dependa de los hilos). */
+    public static final int FILAS_POR_PARTE = 500_000;
+
+    static final String TABLA_DUENIOS = "duenios";
+    static final String TABLA_MASCOTAS = "mascotas";
+    static final String TABLA_MICROCHIPS = "microchips";
+    static final String TABLA_ESPECIES = "especies";
+    static final String TABLA_RAZAS = "razas";
+    static final String TABLA_VETERINARIAS = "veterinarias";
+
+    private static final String NULO = "\\N";
+
+    private static final String[] NOMBRES = {
+        "Juan", "Maria", "Carlos", "Ana", "Lucia", "Martin", "Sofia", "Diego", "Valentina", "Pablo",
+        "Camila", "Jorge", "Florencia", "Nicolas", "Julieta", "Federico", "Agustina", "Matias", "Paula", "Tomas"
+    };
+    private static final String[] APELLIDOS = {
+        "Perez", "Gomez", "Lopez", "Martinez", "Rodriguez", "Fernandez", "Garcia", "Sanchez", "Romero", "Diaz",
+        "Alvarez", "Torres", "Ruiz", "Ramirez", "Flores", "Benitez", "Acosta", "Medina", "Herrera", "Suarez"
+    };
+    private static final String[] CALLES = {
+        "San Martin", "Belgrano", "Rivadavia", "Mitre", "Sarmiento", "Moreno", "Alem", "Urquiza", "Colon", "Av. Siempre Viva"
+    };
+    private static final String[] NOMBRES_MASCOTA = {
+        "Firulais", "Mishi", "Rex", "Nemo", "Luna", "Toby", "Coco", "Simba", "Lola", "Max",
+        "Kira", "Rocky", "Nina", "Bruno", "Olivia", "Thor", "Frida", "Milo", "Chispa", "Manchas"
+    };
+    // Especies con su peso relativo (aprox. la distribución real de una clínica)
+    static final String[] ESPECIES = {"PERRO", "GATO", "AVE", "CONEJO", "PEZ", "REPTIL"};
+    private static final int[] PESOS_ESPECIE = {55, 33, 5, 4, 2, 1};
+    static final String[][] RAZAS = {
+        {"Labrador", "Ovejero", "Caniche", "Bulldog", "Beagle", "Callejero", "Golden Retriever", "Boxer"},
+        {"Siames", "Persa", "Callejero", "Maine Coon", "Bengali"},
+        {"Canario", "Loro", "Cotorra"},
+        {"Enano", "Belier"},
+        {"Dorado", "Betta"},
+        {"Tortuga", "Iguana"}
+    };
+    static final String[] VETERINARIAS = {
+        "Veterinaria Central", "Veterinaria Norte", "Hospital Veterinario", "Mundo Marino", "Refugio Patitas",
+        "Clinica del Sur", "Veterinaria San Roque", "Centro Animal"
+    };
+
+    // Diccionario de razas: los valores de RAZAS sin repetir ("Callejero" aparece en dos especies)
+    static final String[] RAZAS_DISTINTAS;
+    private static final int[][] ID_RAZA; // [especie][raza] -> id en 'razas'
+    static {
+        List<String> distintas = new ArrayList<>();
+        ID_RAZA = new int[RAZAS.length][];
+        for (int e = 0; e < RAZAS.length; e++) {
+            ID_RAZA[e] = new int[RAZAS[e].length];
+            for (int r = 0; r < RAZAS[e].length; r++) {
+                int posicion = distintas.indexOf(RAZAS[e][r]);
+                if (posicion < 0) {
+                    distintas.add(RAZAS[e][r]);
+                    posicion = distintas.size() - 1;
+                }
+                ID_RAZA[e][r] = posicion + 1;
+            }
+        }
+        RAZAS_DISTINTAS = distintas.toArray(new String[0]);
+    }
+
+    // --- 2. ESTADO ---
+
+    private final long semilla;
+    private final long cantidadMascotas;
+    private final long cantidadDuenios;
+    private final int hilos;
+
+    /**
+     * @param semilla Semilla del generador (misma semilla = mismos datos).
+     * @param cantidadMascotas Cantidad de mascotas a generar (cada una con su microchip).
+     * @param mascotasPorDuenio Promedio de mascotas por dueño (ej. 2.5).
+     * @param hilos Cantidad de hilos de escritura.
+     */
+    public GeneradorDatos(long semilla, long cantidadMascotas, double mascotasPorDuenio, int hilos) {
+        if (cantidadMascotas <= 0 || mascotasPorDuenio <= 0 || hilos <= 0) {
+            throw new IllegalArgumentException("Error de validación: cantidades e hilos deben ser positivos.");
+        }
+        this.semilla = semilla;
+        this.cantidadMascotas = cantidadMascotas;
+        this.cantidadDuenios = Math.max(1, (long) Math.ceil(cantidadMascotas / mascotasPorDuenio));
+        this.hilos = hilos;
+    }
+
+    public long getCantidadDuenios() {
+        return cantidadDuenios;
+    }
+
+    public long getCantidadMascotas() {
+        return cantidadMascotas;
+    }
+
+    // --- 3. GENERACIÓN ---
+
+    /**
+     * Genera todos los archivos en el directorio indicado (lo crea si no existe).
+     * Mascotas y microchips se generan en la misma pasada para que el estado
+     * 'eliminado' del chip coincida con el de su mascota (baja en cascada).
+     *
+     * @param directorio Directorio de salida.
+     * @throws Exception Si falla la escritura de algún archivo.
+     */
+    public void generar(Path directorio) throws Exception {
+        Files.createDirectories(directorio);
+        escribirDiccionario(directorio, TABLA_ESPECIES, ESPECIES);
+        escribirDiccionario(directorio, TABLA_RAZAS, RAZAS_DISTINTAS);
+        escribirDiccionario(directorio, TABLA_VETERINARIAS, VETERINARIAS);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> tareas = new ArrayList<>();
+        try {
+            for (long inicio = 1; inicio <= cantidadDuenios; inicio += FILAS_POR_PARTE) {
+                final long desde = inicio;
+                final long hasta = Math.min(cantidadDuenios, inicio + FILAS_POR_PARTE - 1);
+                tareas.add(executor.submit(() -> { escribirDuenios(directorio, desde, hasta); return null; }));
+            }
+            for (long inicio = 1; inicio <= cantidadMascotas; inicio += FILAS_POR_PARTE) {
+                final long desde = inicio;
+                final long hasta = Math.min(cantidadMascotas, inicio + FILAS_POR_PARTE - 1);
+                tareas.add(executor.submit(() -> { escribirMascotasYChips(directorio, desde, hasta); return null; }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(); // Propaga el primer error de escritura
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void escribirDiccionario(Path directorio, String tabla, String[] valores) throws IOException {
+        try (BufferedWriter out = abrir(directorio, tabla, 1)) {
+            for (int i = 0; i < valores.length; i++) {
+                out.append(Integer.toString(i + 1)).append('\t').append(valores[i]).append('\n');
+            }
+        }
+    }
+
+    private void escribirDuenios(Path directorio, long desde, long hasta) throws IOException {
+        SplittableRandom rnd = generadorDeBloque(TABLA_DUENIOS, desde);
+        StringBuilder sb = new StringBuilder(256);
+        try (BufferedWriter out = abrir(directorio, TABLA_DUENIOS, desde)) {
+            for (long id = desde; id <= hasta; id++) {
+                String nombre = NOMBRES[rnd.nextInt(NOMBRES.length)];
+                String apellido = APELLIDOS[rnd.nextInt(APELLIDOS.length)];
+                sb.setLength(0);
+                sb.append(id).append('\t')
+                  .append(10_000_000L + id).append('\t')                       // dni (único)
+                  .append(nombre).append('\t')
+                  .append(apellido).append('\t')
+                  .append("11");
+                rellenarConCeros(sb, id, 9).append('\t');                     // telefono (único, >= 7)
+                sb.append(nombre.toLowerCase()).append('.').append(apellido.toLowerCase())
+                  .append('.').append(id).append("@correo.test").append('\t'); // email (único, con '@')
+                if (rnd.nextInt(10) == 0) {
+                    sb.append(NULO);                                             // direccion opcional
+                } else {
+                    sb.append(CALLES[rnd.nextInt(CALLES.length)]).append(' ').append(1 + rnd.nextInt(5000));
+                }
+                sb.append('\t').append('0').append('\n');                       // eliminado
+                out.append(sb);
+            }
+        }
+    }
+
+    private void escribirMascotasYChips(Path directorio, long desde, long hasta) throws IOException {
+        SplittableRandom rnd = generadorDeBloque(TABLA_MASCOTAS, desde);
+        long diasRango = 20L * 365;
+        long hoy = LocalDate.of(2025, 1, 1).toEpochDay(); // Fijo: la salida no depende de la fecha actual
+        StringBuilder sbMascota = new StringBuilder(256);
+        StringBuilder sbChip = new StringBuilder(256);
+        try (BufferedWriter mascotas = abrir(directorio, TABLA_MASCOTAS, desde);
+             BufferedWriter chips = abrir(directorio, TABLA_MICROCHIPS, desde)) {
+            for (long id = desde; id <= hasta; id++) {
+                int especie = elegirEspecie(rnd);
+                int[] razas = ID_RAZA[especie];
+                boolean eliminado = rnd.nextInt(50) == 0; // ~2% dados de baja
+                long duenioId = 1 + rnd.nextLong(cantidadDuenios);
+
+                sbMascota.setLength(0);
+                sbMascota.append(id).append('\t')
+                         .append(eliminado ? '1' : '0').append('\t')
+                         .append(NOMBRES_MASCOTA[rnd.nextInt(NOMBRES_MASCOTA.length)]).append('\t')
+                         .append(especie + 1).append('\t');                  // especie_id
+                if (rnd.nextInt(8) == 0) {
+                    sbMascota.append(NULO);
+                } else {
+                    sbMascota.append(razas[rnd.nextInt(razas.length)]);   // raza_id
+                }
+                sbMascota.append('\t');
+                if (rnd.nextInt(20) == 0) {
+                    sbMascota.append(NULO);
+                } else {
+                    sbMascota.append(LocalDate.ofEpochDay(hoy - rnd.nextLong(diasRango)));
+                }
+                sbMascota.append('\t').append(duenioId).append('\n');
+                mascotas.append(sbMascota);
+
+                // Microchip 1-a-1: mismo ID que la mascota, código ISO 11784 de 15 dígitos (único)
+                sbChip.setLength(0);
+                sbChip.append(id).append('\t')
+                      .append(eliminado ? '1' : '0').append('\t')
+                      .append("985");
+                rellenarConCeros(sbChip, id, 12).append('\t')
+                      .append(rnd.nextInt(10) == 0 ? "Vacunas al dia" : NULO).append('\t')
+                      .append(1 + rnd.nextInt(VETERINARIAS.length)).append('\t') // veterinaria_id
+                      .append(id).append('\n');
+                chips.append(sbChip);
+            }
+        }
+    }
+
+    // --- 4. MÉTODOS "HELPER" ---
+
+    /**
+     * Deriva un generador propio para un bloque, a partir de la semilla global.
+     * Así cada bloque es reproducible aunque se ejecute en cualquier hilo y orden.
+     */
+    private SplittableRandom generadorDeBloque(String tabla, long inicioBloque) {
+        long mezcla = semilla * 0x9E3779B97F4A7C15L + tabla.hashCode() * 31L + inicioBloque;
+        return new SplittableRandom(mezcla);
+    }
+
+    private int elegirEspecie(SplittableRandom rnd) {
+        int valor = rnd.nextInt(100);
+        int acumulado = 0;
+        for (int i = 0; i < PESOS_ESPECIE.length; i++) {
+            acumulado += PESOS_ESPECIE[i];
+            if (valor < acumulado) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /** Equivalente a String.format("%0Nd") sin el costo de parsear un formato por fila. */
+    private static StringBuilder rellenarConCeros(StringBuilder sb, long valor, int digitos) {
+        String texto = Long.toString(valor);
+        for (int i = texto.length(); i < digitos; i++) {
+            sb.append('0');
+        }
+        return sb.append(texto);
+    }
+
+    private BufferedWriter abrir(Path directorio, String tabla, long inicioBloque) throws IOException {
+        Path archivo = directorio.resolve(nombreParte(tabla, inicioBloque));
+        return new BufferedWriter(Files.newBufferedWriter(archivo, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    static String nombreParte(String tabla, long inicioBloque) {
+        return String.format("%s-%04d.tsv", tabla, (inicioBloque - 1) / FILAS_POR_PARTE);
+    }
+}
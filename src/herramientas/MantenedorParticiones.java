@@ -0,0 +1,153 @@
+package herramientas;
+
+import config.Configuracion;
+import config.DatabaseConnectionPool;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tarea de mantenimiento de las particiones por rango de 'id' de 'mascotas'
+ * (ver sql/migraciones/09_particionado_mascotas.sql).
+ *
+ * ROL: Que los IDs nuevos caigan siempre en una partición de tamaño acotado y no en 'pmax'.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Diagnóstico:** Lee las particiones de information_schema y el próximo ID que se puede asignar
+ * (MAX(id) o el último bloque hi-lo reservado en 'secuencias').
+ * 2.  **Adelanto:** Si quedan menos de 'particiones.adelanto' particiones libres por delante de ese ID,
+ * parte 'pmax' en particiones nuevas de 'particiones.tamanio_ids' IDs (REORGANIZE PARTITION).
+ * Con 'pmax' vacía la operación solo cambia metadatos; si ya recibió filas (la tarea se atrasó),
+ * avisa porque esas filas se copian.
+ * 3.  **Tablas sin particionar:** No hace nada (la migración 09 es opcional).
+ *
+ * Uso (desde la raíz del proyecto, ej. una vez por día con cron): {@code java herramientas.MantenedorParticiones}
+ */
+public class MantenedorParticiones {
+
+    // --- 1. CONFIGURACIÓN ---
+
+    static final String TABLA = "mascotas";
+    static final String PARTICION_FINAL = "pmax";
+
+    private static final String SQL_PARTICIONES =
+        "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY PARTITION_ORDINAL_POSITION";
+    private static final String SQL_PROXIMO_ID =
+        "SELECT GREATEST(COALESCE((SELECT MAX(id) FROM mascotas), 0), "
+            + "COALESCE((SELECT proximo FROM secuencias WHERE tabla = 'mascotas'), 0))";
+    private static final String SQL_FILAS_FINAL = "SELECT COUNT(*) FROM mascotas PARTITION (pmax)";
+
+    private final long tamanioIds;
+    private final int adelanto;
+
+    public MantenedorParticiones(long tamanioIds, int adelanto) {
+        if (tamanioIds <= 0 || adelanto <= 0) {
+            throw new IllegalArgumentException("Parámetros de particionado inválidos.");
+        }
+        this.tamanioIds = tamanioIds;
+        this.adelanto = adelanto;
+    }
+
+    /** Crea el mantenedor según 'particiones.*'. */
+    public static MantenedorParticiones configurado() {
+        Configuracion cfg = Configuracion.actual();
+        return new MantenedorParticiones(cfg.getLong(Configuracion.PARTICIONES_TAMANIO_IDS),
+                cfg.getInt(Configuracion.PARTICIONES_ADELANTO));
+    }
+
+    // --- 2. MANTENIMIENTO ---
+
+    /**
+     * Agrega las particiones que falten por delante del próximo ID.
+     *
+     * @return Cantidad de particiones agregadas (0 si alcanzaban o si la tabla no está particionada).
+     * @throws SQLException Si falla la lectura o el REORGANIZE.
+     */
+    public int mantener(Connection conn) throws SQLException {
+        Long techo = techoActual(conn);
+        if (techo == null) {
+            System.out.println("[" + TABLA + "] no está particionada (ver sql/migraciones/09): nada que hacer.");
+            return 0;
+        }
+        long proximoId = consultarLong(conn, SQL_PROXIMO_ID);
+        long objetivo = proximoId + adelanto * tamanioIds;
+        List<String> nuevas = new ArrayList<>();
+        for (long desde = techo; desde < objetivo; desde += tamanioIds) {
+            nuevas.add("PARTITION p" + desde + " VALUES LESS THAN (" + (desde + tamanioIds) + ")");
+        }
+        if (nuevas.isEmpty()) {
+            System.out.printf("[%s] próximo ID %,d, particiones hasta %,d: no hace falta agregar.%n", TABLA, proximoId, techo);
+            return 0;
+        }
+        long filasFinal = consultarLong(conn, SQL_FILAS_FINAL);
+        if (filasFinal > 0) {
+            System.out.printf("[%s] aviso: '%s' ya tiene %,d filas; se copian al reorganizar.%n", TABLA, PARTICION_FINAL, filasFinal);
+        }
+        nuevas.add("PARTITION " + PARTICION_FINAL + " VALUES LESS THAN MAXVALUE");
+        long inicio = System.nanoTime();
+        try (Statement st = conn.createStatement()) {
+            st.execute("ALTER TABLE " + TABLA + " REORGANIZE PARTITION " + PARTICION_FINAL
+                    + " INTO (" + String.join(", ", nuevas) + ")");
+        }
+        System.out.printf("[%s] %d partición(es) agregada(s) hasta el ID %,d en %.1f s%n",
+                TABLA, nuevas.size() - 1, techo + (nuevas.size() - 1) * tamanioIds, (System.nanoTime() - inicio) / 1e9);
+        return nuevas.size() - 1;
+    }
+
+    /**
+     * @return El límite superior de la última partición acotada (primer ID que cae en 'pmax'),
+     * o null si la tabla no está particionada.
+     * @throws SQLException Si está particionada pero sin 'pmax' al final (esquema no reconocido).
+     */
+    static Long techoActual(Connection conn) throws SQLException {
+        Long techo = null;
+        String ultima = null;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_PARTICIONES)) {
+            ps.setString(1, TABLA);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ultima = rs.getString(1);
+                    String limite = rs.getString(2);
+                    if (ultima == null) {
+                        return null; // Tabla sin particionar: una única fila con nombre NULL
+                    }
+                    if (!"MAXVALUE".equalsIgnoreCase(limite)) {
+                        techo = Long.parseLong(limite);
+                    }
+                }
+            }
+        }
+        if (!PARTICION_FINAL.equals(ultima) || techo == null) {
+            throw new SQLException("Particionado de '" + TABLA + "' no reconocido: se esperaba terminar en '"
+                    + PARTICION_FINAL + "' (VALUES LESS THAN MAXVALUE).");
+        }
+        return techo;
+    }
+
+    // --- 3. MÉTODOS "HELPER" ---
+
+    private static long consultarLong(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // --- 4. PUNTO DE ENTRADA ---
+
+    public static void main(String[] args) {
+        try (Connection conn = DatabaseConnectionPool.abrirConexionDedicada(null)) {
+            configurado().mantener(conn);
+        } catch (Exception e) {
+            System.err.println("⚠️ Error al mantener las particiones: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package herramientas;
+
+import dao.DiccionarioCadenas;
+import entities.Duenio;
+import entities.Mascota;
+import entities.Microchip;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Medición de la huella en heap de una lista grande de mascotas, con y sin {@link DiccionarioCadenas}.
+ *
+ * ROL: Cuantificar cuánta memoria retienen las copias repetidas de especie, raza y veterinaria.
+ *
+ * Arma la misma lista de N mascotas (con dueño y microchip) dos veces, simulando al driver JDBC:
+ * cada texto leído es una instancia NUEVA (como devuelve {@code ResultSet.getString}). La primera
+ * vez se guardan las copias tal cual; la segunda, pasadas por el diccionario. La huella es la
+ * diferencia de heap usado (tras GC) antes y después de armar la lista.
+ *
+ * Uso: {@code java -Xmx2g herramientas.MedicionHuella [mascotas]} (por defecto 1.000.000).
+ */
+public class MedicionHuella {
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("Huella de %,d mascotas (con dueño y microchip):%n", cantidad);
+
+        long sin = medir(cantidad, new DiccionarioCadenas(false, 0));
+        System.out.printf("  Sin deduplicar:  %,10d KB  (%d bytes/mascota)%n", sin / 1024, sin / cantidad);
+
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(true, 4096);
+        long con = medir(cantidad, diccionario);
+        System.out.printf("  Con diccionario: %,10d KB  (%d bytes/mascota, %d textos distintos)%n",
+                con / 1024, con / cantidad, diccionario.tamanio());
+
+        System.out.printf("  Ahorro:          %,10d KB  (%.1f%%)%n", (sin - con) / 1024, 100.0 * (sin - con) / sin);
+    }
+
+    private static long medir(int cantidad, DiccionarioCadenas diccionario) {
+        long antes = heapUsado();
+        List<Mascota> mascotas = armar(cantidad, diccionario);
+        long despues = heapUsado();
+        Reference.reachabilityFence(mascotas); // Mantiene viva la lista hasta después de medir
+        return despues - antes;
+    }
+
+    private static List<Mascota> armar(int cantidad, DiccionarioCadenas diccionario) {
+        SplittableRandom azar = new SplittableRandom(42);
+        List<Mascota> mascotas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            int especie = azar.nextInt(GeneradorDatos.ESPECIES.length);
+            String[] razas = GeneradorDatos.RAZAS[especie];
+
+            Duenio duenio = new Duenio();
+            duenio.setId((long) (i / 2 + 1));
+            duenio.setDni(String.valueOf(10_000_000 + i / 2));
+            duenio.setNombre(copia("Nombre " + (i / 2)));
+            duenio.setApellido(copia("Apellido " + (i / 2)));
+
+            Microchip microchip = new Microchip();
+            microchip.setId((long) i);
+            microchip.setCodigo(String.valueOf(985_000_000_000_000L + i));
+            microchip.setVeterinaria(diccionario.canonica(
+                    copia(GeneradorDatos.VETERINARIAS[azar.nextInt(GeneradorDatos.VETERINARIAS.length)])));
+
+            Mascota mascota = new Mascota();
+            mascota.setId((long) i);
+            mascota.setNombre(copia("Mascota " + i));
+            mascota.setEspecie(diccionario.canonica(copia(GeneradorDatos.ESPECIES[especie])));
+            mascota.setRaza(diccionario.canonica(copia(razas[azar.nextInt(razas.length)])));
+            mascota.setFechaNacimiento(LocalDate.ofEpochDay(15_000 + azar.nextInt(5_000)));
+            mascota.setEliminado(false);
+            mascota.setDuenio(duenio);
+            mascota.setMicrochip(microchip);
+            mascotas.add(mascota);
+        }
+        return mascotas;
+    }
+
+    /** Una instancia nueva con el mismo contenido, como la que crea el driver por cada fila. */
+    private static String copia(String texto) {
+        return new String(texto.toCharArray());
+    }
+
+    private static long heapUsado() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
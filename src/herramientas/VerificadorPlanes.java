@@ -0,0 +1,243 @@
+package herramientas;
+
+import config.DatabaseConnectionPool;
+import dao.DuenioDaoImpl;
+import dao.MascotaDaoImpl;
+import dao.MicrochipDaoImpl;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Verificador de planes de ejecución (regresión de rendimiento) para las consultas de los DAOs.
+ *
+ * ROL: Impedir que se agregue una consulta que recorra tablas completas sin que nadie lo note.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Recolección:** Toma por reflexión todas las constantes {@code SQL_*} de
+ * {@link DuenioDaoImpl}, {@link MascotaDaoImpl} y {@link MicrochipDaoImpl}.
+ * 2.  **Análisis:** Ejecuta {@code EXPLAIN FORMAT=JSON} sobre cada SELECT/UPDATE/DELETE contra una
+ * base local con datos (los INSERT no tienen plan de acceso y se omiten).
+ * 3.  **Veredicto:** Falla (código de salida 1) si algún plan usa full table scan (access_type ALL),
+ * filesort o tabla temporal, salvo que la consulta esté en {@link #PERMITIDAS} con su justificación.
+ * 4.  **Poda de particiones:** Si 'mascotas' está particionada (sql/migraciones/09), falla también si una
+ * consulta lee más de una partición de una tabla, salvo que esté en {@link #SIN_PODA} con su justificación.
+ *
+ * Uso: {@code java herramientas.VerificadorPlanes [--sembrar <mascotas>]}
+ * Con tablas pequeñas el optimizador prefiere recorrerlas enteras aunque haya índice,
+ * por eso se exige un mínimo de filas ({@link #MINIMO_MASCOTAS}); '--sembrar' carga datos
+ * sintéticos con {@link GeneradorDatos} y {@link CargadorMasivo} en una base vacía.
+ */
+public class VerificadorPlanes {
+
+    // --- 1. CONFIGURACIÓN ---
+
+    private static final List<Class<?>> DAOS = List.of(DuenioDaoImpl.class, MascotaDaoImpl.class, MicrochipDaoImpl.class);
+
+    /**
+     * Lista de consultas revisadas que pueden recorrer la tabla completa (clave: "Clase.CONSTANTE").
+     * Agregar una entrada requiere justificar por qué la consulta no puede usar un índice.
+     */
+    private static final Map<String, String> PERMITIDAS = new LinkedHashMap<>();
+    static {
+        PERMITIDAS.put("DuenioDaoImpl.SQL_SELECT_ALL", "Listado completo de dueños: recorre la tabla por definición.");
+        PERMITIDAS.put("DuenioDaoImpl.SQL_SELECT_BY_APELLIDO", "LIKE '%texto%' (comodín inicial): no indexable con B-Tree.");
+        PERMITIDAS.put("MascotaDaoImpl.SQL_SELECT_BASE", "Consulta base del listado completo (igual a SQL_SELECT_ALL).");
+        PERMITIDAS.put("MascotaDaoImpl.SQL_SELECT_ALL", "Listado completo de mascotas: recorre la tabla por definición.");
+        PERMITIDAS.put("MascotaDaoImpl.SQL_SELECT_RECORRIDO", "Recorrido masivo en streaming (exportación): recorre la tabla por definición.");
+        PERMITIDAS.put("MascotaDaoImpl.SQL_SELECT_BY_NOMBRE", "LIKE '%texto%' (comodín inicial): no indexable con B-Tree.");
+        PERMITIDAS.put("MicrochipDaoImpl.SQL_SELECT_ALL", "Listado completo de microchips: recorre la tabla por definición.");
+    }
+
+    /**
+     * Consultas revisadas que pueden leer todas las particiones de 'mascotas' (el rango es por 'id';
+     * solo un filtro por 'id' permite elegir una única partición). Cada partición se lee por índice.
+     */
+    private static final Map<String, String> SIN_PODA = new LinkedHashMap<>();
+    static {
+        SIN_PODA.put("MascotaDaoImpl.SQL_SELECT_BY_DUENIO_ID", "Filtra por duenio_id: una búsqueda en el índice de cada partición.");
+        SIN_PODA.put("MascotaDaoImpl.SQL_SELECT_CAMBIOS", "Filtra por seq_cambio: rango del índice de cada partición, ordenado al combinar.");
+    }
+
+    static final long MINIMO_MASCOTAS = 10_000;
+
+    // Fragmentos del JSON de EXPLAIN que delatan un plan costoso
+    private static final Pattern TABLA_ACCESO = Pattern.compile(
+            "\"table_name\"\\s*:\\s*\"([^\"]+)\"[^{}]*?\"access_type\"\\s*:\\s*\"ALL\"");
+    private static final Pattern FILESORT = Pattern.compile("\"using_filesort\"\\s*:\\s*true");
+    private static final Pattern TEMPORAL = Pattern.compile("\"using_temporary_table\"\\s*:\\s*true");
+    // Solo las tablas particionadas tienen la lista "partitions" en el plan
+    private static final Pattern TABLA_PARTICIONES = Pattern.compile(
+            "\"table_name\"\\s*:\\s*\"([^\"]+)\"[^{}]*?\"partitions\"\\s*:\\s*\\[([^\\]]*)\\]");
+    static final String SIN_PODA_PREFIJO = "sin poda: ";
+
+    // --- 2. VERIFICACIÓN ---
+
+    /**
+     * Analiza todas las constantes SQL y devuelve la lista de problemas encontrados
+     * (vacía si todos los planes son aceptables).
+     */
+    public List<String> verificar(Connection conn) throws Exception {
+        List<String> problemas = new ArrayList<>();
+        for (Map.Entry<String, String> consulta : recolectarConsultas().entrySet()) {
+            String clave = consulta.getKey();
+            String sql = consulta.getValue();
+            String tipo = sql.trim().toUpperCase(Locale.ROOT);
+            if (!(tipo.startsWith("SELECT") || tipo.startsWith("UPDATE") || tipo.startsWith("DELETE"))) {
+                continue; // INSERT y otras sentencias no tienen plan de acceso
+            }
+            String plan;
+            try {
+                plan = explicar(conn, sql);
+            } catch (SQLException e) {
+                problemas.add(clave + ": no se pudo obtener el plan (" + e.getMessage() + ")");
+                continue;
+            }
+            List<String> hallazgos = analizar(plan);
+            if (SIN_PODA.containsKey(clave) && hallazgos.removeIf(h -> h.startsWith(SIN_PODA_PREFIJO))) {
+                System.out.println("  SIN PODA  " + clave + " -> " + SIN_PODA.get(clave));
+            }
+            if (hallazgos.isEmpty()) {
+                System.out.println("  OK        " + clave);
+            } else if (PERMITIDAS.containsKey(clave)) {
+                System.out.println("  PERMITIDA " + clave + " " + hallazgos + " -> " + PERMITIDAS.get(clave));
+            } else {
+                System.out.println("  FALLA     " + clave + " " + hallazgos);
+                problemas.add(clave + ": " + hallazgos + "\n      " + sql);
+            }
+        }
+        return problemas;
+    }
+
+    /**
+     * Recolecta las constantes {@code SQL_*} (static final String) de cada DAO.
+     * @return Mapa ordenado "Clase.CONSTANTE" -> SQL.
+     */
+    static Map<String, String> recolectarConsultas() throws IllegalAccessException {
+        Map<String, String> consultas = new LinkedHashMap<>();
+        for (Class<?> dao : DAOS) {
+            for (Field campo : dao.getDeclaredFields()) {
+                int mod = campo.getModifiers();
+                if (Modifier.isStatic(mod) && Modifier.isFinal(mod)
+                        && campo.getType() == String.class && campo.getName().startsWith("SQL_")) {
+                    campo.setAccessible(true);
+                    consultas.put(dao.getSimpleName() + "." + campo.getName(), (String) campo.get(null));
+                }
+            }
+        }
+        return consultas;
+    }
+
+    private String explicar(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN FORMAT=JSON " + sql)) {
+            // Los valores concretos no importan para elegir el plan: se usa un valor "típico" por parámetro
+            int parametros = contarParametros(sql);
+            for (int i = 1; i <= parametros; i++) {
+                ps.setString(i, "1");
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : "";
+            }
+        }
+    }
+
+    static List<String> analizar(String planJson) {
+        List<String> hallazgos = new ArrayList<>();
+        Matcher m = TABLA_ACCESO.matcher(planJson);
+        TreeSet<String> tablas = new TreeSet<>();
+        while (m.find()) {
+            tablas.add(m.group(1));
+        }
+        for (String tabla : tablas) {
+            hallazgos.add("full scan de '" + tabla + "'");
+        }
+        if (FILESORT.matcher(planJson).find()) {
+            hallazgos.add("filesort");
+        }
+        if (TEMPORAL.matcher(planJson).find()) {
+            hallazgos.add("tabla temporal");
+        }
+        Matcher p = TABLA_PARTICIONES.matcher(planJson);
+        while (p.find()) {
+            int particiones = p.group(2).split(",").length;
+            if (particiones > 1) {
+                hallazgos.add(SIN_PODA_PREFIJO + particiones + " particiones de '" + p.group(1) + "'");
+            }
+        }
+        return hallazgos;
+    }
+
+    /** Cuenta los marcadores '?' que están fuera de literales entre comillas simples. */
+    static int contarParametros(String sql) {
+        int cantidad = 0;
+        boolean enLiteral = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                enLiteral = !enLiteral;
+            } else if (c == '?' && !enLiteral) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    private static long contarMascotas(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM mascotas");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // --- 3. PUNTO DE ENTRADA ---
+
+    public static void main(String[] args) {
+        try {
+            if (args.length >= 2 && args[0].equals("--sembrar")) {
+                Path dir = Files.createTempDirectory("semilla-planes");
+                GeneradorDatos generador = new GeneradorDatos(42L, Long.parseLong(args[1]), 2.5,
+                        Runtime.getRuntime().availableProcessors());
+                generador.generar(dir);
+                new CargadorMasivo(dir).cargar();
+            }
+            List<String> problemas;
+            try (Connection conn = DatabaseConnectionPool.getConnection()) {
+                long mascotas = contarMascotas(conn);
+                if (mascotas < MINIMO_MASCOTAS) {
+                    System.err.println("La base tiene " + mascotas + " mascotas (mínimo " + MINIMO_MASCOTAS
+                            + "): los planes no serían representativos. Use --sembrar <mascotas>.");
+                    System.exit(2);
+                }
+                System.out.println("Verificando planes de ejecución (" + mascotas + " mascotas)...");
+                if (MantenedorParticiones.techoActual(conn) == null) {
+                    System.out.println("'mascotas' no está particionada: no se verifica la poda de particiones.");
+                }
+                problemas = new VerificadorPlanes().verificar(conn);
+            }
+            if (!problemas.isEmpty()) {
+                System.err.println("\n/--- ¡ERROR! --- " + problemas.size() + " consulta(s) con planes costosos:");
+                problemas.forEach(p -> System.err.println("  - " + p));
+                System.exit(1);
+            }
+            System.out.println("\nTodos los planes son aceptables.");
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println("⚠️ Error al verificar los planes: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+}
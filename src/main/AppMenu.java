@@ -1,5 +1,7 @@
 package main;
 
+import service.OperacionExpiradaException;
+
 /**
  * Componente Orquestador de la aplicación (Application Orchestrator).
  *
@@ -46,6 +48,9 @@ public class AppMenu {
                 // El método retorna 'true' si se seleccionó la opción de salida (0)
                 salir = handler.procesarOpcion(opcion);
                 
+            } catch (OperacionExpiradaException e) {
+                // La operación superó su plazo: no es un error de datos, se puede reintentar
+                display.mostrarAviso(e.getMessage());
             } catch (Exception e) {
                 /// 4. Manejo Centralizado de Excepciones
                 // Captura cualquier error de negocio (Service) o de persistencia (DAO)
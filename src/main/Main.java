@@ -1,7 +1,14 @@
 package main;
 
+import config.Configuracion;
+import config.DatabaseConnectionPool;
+import auditoria.Auditoria;
 import dao.*;
+import eventos.BusEventos;
+import exportacion.ExportadorRegistro;
 import service.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 /**
  * Clase principal de ejecución del sistema (Entry Point).
@@ -11,21 +18,55 @@ import java.util.Scanner;
  * 2. Dependency Injection (DI): Configuración manual de las dependencias entre capas
  * (DAO -> Service -> Handler -> AppMenu).
  * 3. Ejecución: Inicio del ciclo de vida de la aplicación.
+ *
+ * El pool de conexiones se inicia en segundo plano (ver {@link DatabaseConnectionPool}),
+ * así el menú aparece de inmediato aunque MySQL tarde en responder.
  */
 public class Main {
     public static void main(String[] args) {
+        long t0 = System.nanoTime();
+
+        // --- 0. CONFIGURACIÓN (se valida antes de cualquier otra cosa) ---
+        Configuracion configuracion;
+        try {
+            configuracion = Configuracion.cargar();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        System.out.println(configuracion.describir());
+
+        // --- 0.1 INICIO ASÍNCRONO DEL POOL (precalentamiento + sentencias frecuentes) ---
+        List<String> sentenciasFrecuentes = new ArrayList<>();
+        sentenciasFrecuentes.addAll(DuenioDaoImpl.SENTENCIAS_FRECUENTES);
+        sentenciasFrecuentes.addAll(MascotaDaoImpl.SENTENCIAS_FRECUENTES);
+        sentenciasFrecuentes.addAll(MicrochipDaoImpl.SENTENCIAS_FRECUENTES);
+        // Con el pool listo se cargan los diccionarios (especies, razas, veterinarias)
+        DatabaseConnectionPool.iniciarAsync(sentenciasFrecuentes).thenRun(CatalogoDiccionarios::precargar);
+
        // --- 1. INICIALIZACIÓN DE LA CAPA DE ACCESO A DATOS (DAO Layer) ---
         // Instanciación de las implementaciones concretas para el acceso a la Base de Datos.
         DuenioDAO duenioDao = new DuenioDaoImpl();
         MascotaDAO mascotaDao = new MascotaDaoImpl();
         MicrochipDAO microchipDao = new MicrochipDaoImpl();
+        // Corrige en segundo plano los contadores 'mascotas_activas' desviados ('contadores.*')
+        ReconciliadorMascotasActivas reconciliador = ReconciliadorMascotasActivas.configurado();
+        reconciliador.iniciar();
 
        // --- 2. INICIALIZACIÓN DE LA CAPA DE SERVICIO (Service Layer) ---
         // Inyección de dependencias: Los servicios reciben las instancias de los DAOs necesarios.
         // Se configuran las dependencias cruzadas para validaciones de integridad referencial lógica.
-        DuenioService duenioService = new DuenioServiceImpl(duenioDao, mascotaDao);
-        MicrochipService microchipService = new MicrochipServiceImpl(microchipDao);
-        MascotaService mascotaService = new MascotaServiceImpl(mascotaDao, microchipDao, duenioDao);
+        // Todos publican en el mismo bus de eventos (los suscriptores se registran sobre 'eventos').
+        // La auditoría escribe en segundo plano; el hook la vacía también si el proceso se interrumpe.
+        BusEventos eventos = BusEventos.configurado();
+        Auditoria auditoria = Auditoria.configurada();
+        Runtime.getRuntime().addShutdownHook(new Thread(auditoria::cerrar, "auditoria-cierre"));
+        // Una única política de reintentos: sus métricas por operación muestran dónde hay contención
+        PoliticaReintentos reintentos = PoliticaReintentos.configurada();
+        DuenioService duenioService = new DuenioServiceImpl(duenioDao, eventos, auditoria, reintentos);
+        MicrochipService microchipService = new MicrochipServiceImpl(microchipDao, eventos, auditoria, reintentos);
+        MascotaService mascotaService = new MascotaServiceImpl(mascotaDao, microchipDao, duenioDao, eventos, auditoria, reintentos);
+        ExportadorRegistro exportador = new ExportadorRegistro(mascotaDao);
         
       // --- 3. INICIALIZACIÓN DE LA CAPA DE PRESENTACIÓN (UI Layer) ---
         // Configuración de componentes de Vista (Display) y Control (Handler).
@@ -34,7 +75,7 @@ public class Main {
         
         // El MenuHandler actúa como controlador, orquestando la interacción entre el usuario y los servicios.
         MenuHandler menuHandler = new MenuHandler(scanner, menuDisplay, 
-                                                  duenioService, mascotaService, microchipService);
+                                                  duenioService, mascotaService, microchipService, exportador);
         
         // --- 4. INICIALIZACIÓN DEL ORQUESTADOR DE APLICACIÓN ---
         // Configuración del componente que gestiona el ciclo de vida del menú principal.
@@ -42,6 +83,13 @@ public class Main {
         
         // --- 5. EJECUCIÓN ---
         // Inicio del flujo principal de la aplicación.
+        System.out.printf("[Inicio] Interfaz lista en %d ms (la base de datos se conecta en segundo plano).%n",
+                (System.nanoTime() - t0) / 1_000_000);
         menu.iniciar();
+        reconciliador.cerrar();
+        eventos.cerrar(); // Entrega lo pendiente antes de cerrar el pool (los suscriptores pueden usarlo)
+        auditoria.cerrar(); // Escribe los registros pendientes (la tabla de auditoría usa el pool)
+        DatabaseConnectionPool.cerrar();
+        System.out.print(reintentos.describir()); // Contención de la sesión (nada si no hubo reintentos)
     }
 }
@@ -36,6 +36,10 @@ public class MenuDisplay {
         System.out.println(" 9. Listar Todas las Mascotas");
         System.out.println(" 10. Listar Mascotas por Dueño");
         System.out.println(" 11. Eliminar Mascota (Baja en Cascada)");
+        System.out.println(" 13. Transferir Mascotas a Otro Dueño");
+
+        System.out.println("\n--- Reportes ---");
+        System.out.println(" 12. Exportar Registro Completo (CSV / JSON Lines)");
         
         System.out.println("--------------------------------------------------------------");
         System.out.println(" 0. Salir del Sistema");
@@ -52,6 +56,16 @@ public class MenuDisplay {
         System.err.println(mensaje);
     }
 
+    /**
+     * Muestra un aviso no fatal (ej. una operación cancelada por tiempo agotado que se puede reintentar).
+     * @param mensaje El detalle del aviso.
+     */
+    public void mostrarAviso(String mensaje) {
+        System.out.println("\n--- AVISO ---");
+        System.out.println(mensaje);
+        System.out.println("-------------\n");
+    }
+
    /**
      * Muestra un mensaje de operación exitosa.
      * @param mensaje El detalle de la operación realizada.
@@ -77,7 +91,8 @@ public class MenuDisplay {
             System.out.println("ID: " + duenio.getId() + 
                                " | DNI: " + duenio.getDni() + 
                                " | Nombre: " + duenio.getNombre() + " " + duenio.getApellido() +
-                               " | Email: " + duenio.getEmail());
+                               " | Email: " + duenio.getEmail() +
+                               " | Mascotas: " + duenio.getMascotasActivas()); // Contador de la fila, sin consulta extra
         }
     }
 
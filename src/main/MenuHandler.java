@@ -1,13 +1,19 @@
 package main;
 
+import dao.ResultadoTransferencia;
 import entities.Duenio;
 import entities.Mascota;
 import entities.Microchip;
+import exportacion.ExportadorRegistro;
+import exportacion.FormatoExportacion;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import service.DuenioService;
 import service.MascotaService;
 import service.MicrochipService;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -30,6 +36,7 @@ public class MenuHandler {
     private final DuenioService duenioService;
     private final MascotaService mascotaService;
     private final MicrochipService microchipService;
+    private final ExportadorRegistro exportador;
 
     /**
      * Constructor para la inyección de dependencias.
@@ -38,15 +45,17 @@ public class MenuHandler {
      * @param duenioService Servicio de gestión de Dueños.
      * @param mascotaService Servicio de gestión de Mascotas.
      * @param microchipService Servicio de gestión de Microchips.
+     * @param exportador Exportador del registro completo (reportes municipales).
      */
     public MenuHandler(Scanner scanner, MenuDisplay display, 
                        DuenioService duenioService, MascotaService mascotaService, 
-                       MicrochipService microchipService) {
+                       MicrochipService microchipService, ExportadorRegistro exportador) {
         this.scanner = scanner;
         this.display = display;
         this.duenioService = duenioService;
         this.mascotaService = mascotaService;
         this.microchipService = microchipService;
+        this.exportador = exportador;
     }
 
    /**
@@ -91,6 +100,9 @@ public class MenuHandler {
             case 9 -> listarMascotas();
             case 10 -> listarMascotasPorDuenio();
             case 11 -> eliminarMascota();
+            case 13 -> transferirMascotas();
+           // Reportes
+            case 12 -> exportarRegistro();
             case 0 -> {
                 return true; // Salir
             }
@@ -330,6 +342,47 @@ public class MenuHandler {
         }
     }
     
+    private void transferirMascotas() throws Exception {
+        System.out.println("\n--- 13. Transferir Mascotas a Otro Dueño ---");
+        System.out.print("Ingrese los IDs de las mascotas, separados por comas: ");
+        List<Long> mascotaIds = new ArrayList<>();
+        for (String id : scanner.nextLine().split(",")) {
+            if (!id.isBlank()) {
+                mascotaIds.add(Long.parseLong(id.trim()));
+            }
+        }
+        System.out.print("Ingrese el ID del dueño destino: ");
+        Long duenioDestinoId = Long.parseLong(scanner.nextLine().trim());
+
+        // Ejecuta el traspaso transaccional (todas o ninguna)
+        ResultadoTransferencia resultado = mascotaService.transferir(mascotaIds, duenioDestinoId);
+        display.mostrarExito(resultado.getCantidadTransferidas() + " mascota(s) transferida(s) al dueño ID "
+                + duenioDestinoId + (resultado.getOmitidas() > 0
+                        ? " (" + resultado.getOmitidas() + " omitida(s): inexistentes, dadas de baja o ya eran suyas)." : "."));
+    }
+
+    // --- REPORTES ---
+
+    private void exportarRegistro() throws Exception {
+        System.out.println("\n--- 12. Exportar Registro Completo ---");
+        System.out.print("Directorio de destino [exportaciones]: ");
+        String entrada = scanner.nextLine().trim();
+        Path directorio = Paths.get(entrada.isEmpty() ? "exportaciones" : entrada);
+        System.out.print("Formato (1 = CSV, 2 = JSON Lines) [1]: ");
+        FormatoExportacion formato = scanner.nextLine().trim().equals("2") ? FormatoExportacion.JSONL : FormatoExportacion.CSV;
+        System.out.print("¿Comprimir con gzip? (s/n) [n]: ");
+        boolean gzip = scanner.nextLine().trim().equalsIgnoreCase("s");
+        System.out.print("Filas por archivo [" + ExportadorRegistro.FILAS_POR_ARCHIVO_DEFECTO + "]: ");
+        entrada = scanner.nextLine().trim();
+        long filasPorArchivo = entrada.isEmpty() ? ExportadorRegistro.FILAS_POR_ARCHIVO_DEFECTO : Long.parseLong(entrada);
+
+        List<Path> archivos = exportador.exportar(directorio, formato, gzip, filasPorArchivo,
+                (filas, partes, bytes) -> System.out.printf("\r  Exportadas %,d filas en %d archivo(s)...", filas, partes));
+        System.out.println();
+        display.mostrarExito("Registro exportado en " + archivos.size() + " archivo(s):\n  "
+                + String.join("\n  ", archivos.stream().map(Path::toString).toList()));
+    }
+
     /**
      * Solicita y parsea una fecha ingresada por el usuario.
      * Formato esperado: YYYY-MM-DD (Estándar ISO-8601).
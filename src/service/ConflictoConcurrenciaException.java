@@ -0,0 +1,26 @@
+package service;
+
+import dao.ConflictoVersionException;
+
+/**
+ * Indica que una actualización no se aplicó porque el registro cambió desde que se leyó
+ * (otro operador lo modificó o lo dio de baja). La transacción se deshizo.
+ *
+ * Es distinta de los errores de base de datos para que la capa de presentación pueda ofrecer
+ * releer el registro y repetir los cambios, en lugar de mostrar un fallo genérico.
+ * Conserva como causa la {@link ConflictoVersionException} del DAO.
+ */
+public class ConflictoConcurrenciaException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param entidad Descripción de la entidad con artículo (ej. "el dueño", "la mascota").
+     * @param causa El conflicto informado por el DAO.
+     */
+    public ConflictoConcurrenciaException(String entidad, ConflictoVersionException causa) {
+        super("No se guardaron los cambios de " + entidad + " con ID " + causa.getId()
+                + ": el registro cambió desde que se leyó (otro usuario lo modificó o lo dio de baja). "
+                + "Vuelva a cargarlo y repita los cambios.", causa);
+    }
+}
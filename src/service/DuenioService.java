@@ -1,5 +1,6 @@
 package service;
 
+import dao.ResultadoUpsert;
 import entities.Duenio;
 import java.util.List;
 
@@ -49,4 +50,12 @@ public interface DuenioService extends GenericService<Duenio> {
      * @throws Exception Si la validación de entrada falla (ej. email vacío) o si ocurre un error en la capa de persistencia.
      */
     Duenio buscarPorEmail(String email) throws Exception;
+
+    /**
+     * Inserta o actualiza un lote de dueños usando el DNI como clave (sincronización con refugios).
+     * @param duenios Los dueños recibidos.
+     * @return Cuántos se insertaron, actualizaron, quedaron sin cambios u omitieron.
+     * @throws Exception Si la validación o la transacción fallan (el lote se deshace completo).
+     */
+    ResultadoUpsert<Duenio> upsert(List<Duenio> duenios) throws Exception;
 }
@@ -1,12 +1,20 @@
 package service;
 
+import auditoria.Auditoria;
+import auditoria.RegistroAuditoria.Operacion;
 import config.DatabaseConnectionPool;
+import dao.ConflictoVersionException;
 import dao.DuenioDAO; 
-import dao.MascotaDAO; 
+import dao.ResultadoUpsert;
 import entities.Duenio;
+import eventos.BusEventos;
+import eventos.EventoDominio;
+import eventos.TipoEvento;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Implementación concreta de la lógica de negocio para la entidad {@link Duenio}.
@@ -21,16 +29,22 @@ import java.util.List;
 public class DuenioServiceImpl implements DuenioService {
    // Dependencias de la capa de acceso a datos (Inyección de Dependencias)
     private final DuenioDAO duenioDao;
-    private final MascotaDAO mascotaDao; // Necesario para la RN-008 (eliminar dueño)
+    private final BusEventos eventos;     // Avisos después de cada commit
+    private final Auditoria auditoria;    // Imágenes antes/después, escritas en segundo plano
+    private final PoliticaReintentos reintentos; // Repite la transacción si MySQL la aborta (deadlock)
 
     /**
      * Constructor para la inyección de dependencias.
      * * @param duenioDao Instancia del DAO para operaciones sobre Dueños.
-     * @param mascotaDao Instancia del DAO para operaciones sobre Mascotas (requerido para validaciones de integridad referencial lógica).
+     * @param eventos Bus donde se publican los cambios confirmados.
+     * @param auditoria Registro de auditoría de las escrituras confirmadas.
+     * @param reintentos Política de reintentos de las transacciones abortadas por deadlock o espera de bloqueo.
      */
-    public DuenioServiceImpl(DuenioDAO duenioDao, MascotaDAO mascotaDao) {
+    public DuenioServiceImpl(DuenioDAO duenioDao, BusEventos eventos, Auditoria auditoria, PoliticaReintentos reintentos) {
         this.duenioDao = duenioDao;
-        this.mascotaDao = mascotaDao;
+        this.eventos = eventos;
+        this.auditoria = auditoria;
+        this.reintentos = reintentos;
     }
 
   // --- MÉTODOS TRANSACCIONALES (ESCRITURA) ---
@@ -46,52 +60,117 @@ public class DuenioServiceImpl implements DuenioService {
      */
     @Override
     public Duenio insertar(Duenio duenio) throws Exception {
-        // 1. Validación de entrada
-        if (duenio.getDni() == null || duenio.getDni().trim().isEmpty()) {
-            throw new Exception("Error de validación: El DNI no puede estar vacío.");
-        }
-        if (duenio.getNombre() == null || duenio.getNombre().trim().isEmpty()) {
-            throw new Exception("Error de validación: El Nombre no puede estar vacío.");
-        }
-        // 2. Validación de Reglas de Negocio (Unicidad)
-        if (duenioDao.existeDni(duenio.getDni())) {
-            throw new Exception("Violación de regla de negocio: El DNI '" + duenio.getDni() + "' ya se encuentra registrado.");
-        }
-        if (duenio.getEmail() != null && !duenio.getEmail().trim().isEmpty()) {
-            if (duenioDao.existeEmail(duenio.getEmail())) {
-                throw new Exception("Violación de regla de negocio: El Email '" + duenio.getEmail() + "' ya se encuentra registrado.");
+        return reintentos.ejecutarConPlazo("DuenioService.insertar", "crear el dueño", () -> {
+            // 1. Validación de entrada
+            if (duenio.getDni() == null || duenio.getDni().trim().isEmpty()) {
+                throw new Exception("Error de validación: El DNI no puede estar vacío.");
             }
-        }
-        if (duenio.getTelefono() != null && !duenio.getTelefono().isEmpty() && duenioDao.existeTelefono(duenio.getTelefono())) {
-            throw new Exception("Violación de regla de negocio: El Teléfono '" + duenio.getTelefono() + "' ya se encuentra registrado.");
-        }
+            if (duenio.getNombre() == null || duenio.getNombre().trim().isEmpty()) {
+                throw new Exception("Error de validación: El Nombre no puede estar vacío.");
+            }
+            // 2. Validación de Reglas de Negocio (Unicidad)
+            if (duenioDao.existeDni(duenio.getDni())) {
+                throw new Exception("Violación de regla de negocio: El DNI '" + duenio.getDni() + "' ya se encuentra registrado.");
+            }
+            if (duenio.getEmail() != null && !duenio.getEmail().trim().isEmpty()) {
+                if (duenioDao.existeEmail(duenio.getEmail())) {
+                    throw new Exception("Violación de regla de negocio: El Email '" + duenio.getEmail() + "' ya se encuentra registrado.");
+                }
+            }
+            if (duenio.getTelefono() != null && !duenio.getTelefono().isEmpty() && duenioDao.existeTelefono(duenio.getTelefono())) {
+                throw new Exception("Violación de regla de negocio: El Teléfono '" + duenio.getTelefono() + "' ya se encuentra registrado.");
+            }
+
+            // 3. Gestión de Transacción
+            Connection conn = null;
+            Duenio duenioCreado = null;
 
-        // 3. Gestión de Transacción
-        Connection conn = null;
-        Duenio duenioCreado = null;
-        
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false); // Inicio de bloque transaccional
-            // Invocación al DAO con la conexión transaccional
-            duenioCreado = duenioDao.crear(duenio, conn);
-            conn.commit();// Confirmación de cambios
-        } catch (SQLException e) {
-            if (conn != null) {
-                conn.rollback(); // Reversión en caso de error
-            }
-            throw new Exception("Error de base de datos al crear el dueño: " + e.getMessage());
-        }  finally {
-            if (conn != null) {
-                 try {
-                     conn.setAutoCommit(true);  // Restaurar estado por defecto
-                     conn.close(); // Retorno de conexión al pool
-                 } catch (SQLException e) {
-                    e.printStackTrace(); 
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false); // Inicio de bloque transaccional
+                // Invocación al DAO con la conexión transaccional
+                duenioCreado = duenioDao.crear(duenio, conn);
+                conn.commit();// Confirmación de cambios
+                eventos.publicar(new EventoDominio(TipoEvento.DUENIO_CREADO, duenioCreado.getId()));
+                auditoria.registrarDuenio(Operacion.ALTA, null, duenioCreado);
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) {
+                    conn.rollback(); // Reversión en caso de error
+                }
+                throw new Exception("Error de base de datos al crear el dueño: " + e.getMessage(), e);
+            }  finally {
+                if (conn != null) {
+                     try {
+                         conn.setAutoCommit(true);  // Restaurar estado por defecto
+                         conn.close(); // Retorno de conexión al pool
+                     } catch (SQLException e) {
+                        e.printStackTrace(); 
+                        }
+                }
+            }
+            return duenioCreado;
+        });
+    }
+
+    /**
+     * Sincroniza un lote de dueños recibido de un refugio (alta o actualización por DNI).
+     * * Flujo de Ejecución:
+     * 1. Validación en memoria de los campos obligatorios de cada registro.
+     * 2. Una única transacción con {@link DuenioDAO#upsert}: los registros sin cambios no se escriben.
+     * Si algo falla, se deshace el lote completo.
+     * 3. Después del commit, un evento ({@code DUENIO_CREADO} o {@code DUENIO_ACTUALIZADO}) y una
+     * entrada de auditoría por cada registro escrito.
+     */
+    @Override
+    public ResultadoUpsert<Duenio> upsert(List<Duenio> duenios) throws Exception {
+        return reintentos.ejecutarConPlazo("DuenioService.upsert", "sincronizar los dueños", () -> {
+            if (duenios == null || duenios.isEmpty()) {
+                throw new Exception("Error de validación: El lote de dueños está vacío.");
+            }
+            for (Duenio duenio : duenios) {
+                if (duenio == null || duenio.getDni() == null || duenio.getDni().trim().isEmpty()) {
+                    throw new Exception("Error de validación: El DNI no puede estar vacío.");
+                }
+                if (duenio.getNombre() == null || duenio.getNombre().trim().isEmpty()) {
+                    throw new Exception("Error de validación: El Nombre no puede estar vacío (DNI " + duenio.getDni() + ").");
+                }
+            }
+
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                ResultadoUpsert<Duenio> resultado = duenioDao.upsert(duenios, conn);
+                conn.commit();
+                for (int i = 0; i < resultado.getCantidadEscritos(); i++) {
+                    Duenio previo = resultado.getPrevios().get(i);
+                    Duenio escrito = resultado.getEscritos().get(i);
+                    eventos.publicar(new EventoDominio(previo == null ? TipoEvento.DUENIO_CREADO
+                            : TipoEvento.DUENIO_ACTUALIZADO, escrito.getId()));
+                    auditoria.registrarDuenio(previo == null ? Operacion.ALTA : Operacion.MODIFICACION,
+                            previo, escrito);
+                }
+                return resultado;
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) conn.rollback();
+                throw new Exception("Error de BD al sincronizar los dueños (lote deshecho): " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
                     }
+                }
             }
-        }
-        return duenioCreado;
+        });
     }
 
     /**
@@ -100,40 +179,62 @@ public class DuenioServiceImpl implements DuenioService {
      * 1. Validación de ID y campos obligatorios.
      * 2. Verificación de unicidad de DNI (excluyendo al registro actual).
      * 3. Ejecución de la actualización en contexto transaccional.
+     * Concurrencia optimista: si otro operador guardó el mismo dueño después de que se leyó, no se
+     * pisan sus cambios; se lanza {@link ConflictoConcurrenciaException} (sin bloquear la fila mientras se edita).
      */
     @Override
     public void actualizar(Duenio duenio) throws Exception {
-        // 1. Validaciones
-        if (duenio == null || duenio.getId() == null || duenio.getId() <= 0) {
-            throw new Exception("Error de validación: El dueño o su ID son inválidos.");
-        }
-        if (duenio.getDni() == null || duenio.getDni().trim().isEmpty()) {
-            throw new Exception("Error de validación: El DNI no puede estar vacío.");
-        }
-        // 2. Regla de Negocio: Unicidad de DNI en actualización
-        // Se debe permitir conservar el mismo DNI, pero no usar uno que pertenezca a otro registro.
-        Duenio duenioExistente = duenioDao.buscarPorDni(duenio.getDni());
-        if (duenioExistente != null && !duenioExistente.getId().equals(duenio.getId())) {
-            throw new Exception("Error de negocio: El DNI '" + duenio.getDni() + "' ya pertenece a otro dueño.");
-        }
-        // (Validaciones para Email, etc.)
-
-        // 3. Transacción
-        Connection conn = null;
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false);
-            duenioDao.actualizar(duenio, conn);
-            conn.commit();
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw new Exception("Error de base de datos al actualizar el dueño: " + e.getMessage());
-        } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-                conn.close();
+        reintentos.ejecutarConPlazo("DuenioService.actualizar", "actualizar el dueño", () -> {
+            // 1. Validaciones
+            if (duenio == null || duenio.getId() == null || duenio.getId() <= 0) {
+                throw new Exception("Error de validación: El dueño o su ID son inválidos.");
             }
-        }
+            if (!duenio.tieneCambios()) {
+                return; // Leído de la base y sin modificaciones: no hay nada que escribir ni avisar
+            }
+            if (duenio.getDni() == null || duenio.getDni().trim().isEmpty()) {
+                throw new Exception("Error de validación: El DNI no puede estar vacío.");
+            }
+            // 2. Regla de Negocio: Unicidad de DNI en actualización
+            // Se debe permitir conservar el mismo DNI, pero no usar uno que pertenezca a otro registro.
+            // Solo se consulta si el DNI cambió (o si se desconoce qué cambió).
+            Set<String> cambios = duenio.getCamposModificados();
+            Duenio duenioExistente = cambios == null || cambios.contains(Duenio.CAMPO_DNI)
+                    ? duenioDao.buscarPorDni(duenio.getDni()) : null;
+            if (duenioExistente != null && !duenioExistente.getId().equals(duenio.getId())) {
+                throw new Exception("Error de negocio: El DNI '" + duenio.getDni() + "' ya pertenece a otro dueño.");
+            }
+            // (Validaciones para Email, etc.)
+            // Imagen previa para la auditoría (si se buscó el DNI y era el propio, ya se leyó arriba)
+            Duenio antes = !auditoria.isActiva() ? null
+                    : duenioExistente != null ? duenioExistente : duenioDao.leerPorId(duenio.getId());
+
+            // 3. Transacción
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                duenioDao.actualizar(duenio, conn);
+                conn.commit();
+                duenio.confirmarEscritura(); // Nueva versión y sin cambios pendientes
+                eventos.publicar(new EventoDominio(TipoEvento.DUENIO_ACTUALIZADO, duenio.getId()));
+                auditoria.registrarDuenio(Operacion.MODIFICACION, antes, duenio);
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (ConflictoVersionException e) {
+                if (conn != null) conn.rollback();
+                throw new ConflictoConcurrenciaException("el dueño", e);
+            } catch (SQLException e) {
+                if (conn != null) conn.rollback();
+                throw new Exception("Error de base de datos al actualizar el dueño: " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            }
+        });
     }
 
    /**
@@ -141,35 +242,49 @@ public class DuenioServiceImpl implements DuenioService {
      *  Regla de Negocio Crítica (RN-008):
      * No se permite eliminar un dueño si posee mascotas activas asociadas.
      * Esta validación garantiza la integridad lógica del sistema.
+     *
+     * La regla y la baja van en un único UPDATE condicional (una ida y vuelta, en autocommit, sin
+     * carrera con un alta de mascota). Solo si no se dio de baja se relee al dueño para explicar por qué;
+     * con la auditoría activa, la imagen previa se lee después de la baja (la fila ya no cambia).
      */
     @Override
     public void eliminar(Long duenioId) throws Exception {
-        if (duenioId == null || duenioId <= 0) {
-            throw new Exception("Error de validación: El ID del dueño es inválido.");
-        }
-        // Validación de Integridad Referencial Lógica (RN-008)
-        int mascotasActivas = mascotaDao.contarMascotasActivasPorDuenio(duenioId);
-        if (mascotasActivas > 0) {
-            throw new Exception("Error de negocio (RN-008): No se puede eliminar al dueño (ID " + duenioId 
-                    + ") porque aún tiene " + mascotasActivas + " mascota(s) activa(s).");
-        }
+        reintentos.ejecutarConPlazo("DuenioService.eliminar", "eliminar el dueño", () -> {
+            if (duenioId == null || duenioId <= 0) {
+                throw new Exception("Error de validación: El ID del dueño es inválido.");
+            }
 
-        // Transacción
-        Connection conn = null;
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false);
-            duenioDao.eliminar(duenioId, conn);
-            conn.commit();
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw new Exception("Error de base de datos al eliminar el dueño: " + e.getMessage());
-        } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-                conn.close();
+            // Validación de Integridad Referencial Lógica (RN-008) y baja en la misma sentencia
+            boolean eliminado;
+            Duenio antes = null;
+            try (Connection conn = DatabaseConnectionPool.getConnection()) {
+                eliminado = duenioDao.eliminarSinMascotasActivas(duenioId, conn);
+                if (eliminado && auditoria.isActiva()) {
+                    // Imagen previa: la fila dada de baja, sin el cambio del UPDATE (solo toca 'eliminado' y 'version')
+                    antes = duenioDao.leerEliminado(duenioId, conn);
+                    if (antes != null) {
+                        antes.setEliminado(false);
+                        antes.setVersion(antes.getVersion() - 1);
+                    }
+                }
+            } catch (SQLTimeoutException e) {
+                throw e; // No es un error de BD genérico: Operaciones lo informa como plazo agotado
+            } catch (SQLException e) {
+                throw new Exception("Error de base de datos al eliminar el dueño: " + e.getMessage(), e);
             }
-        }
+            if (!eliminado) {
+                // Camino de error: una lectura por PK para dar el mismo mensaje de negocio que antes
+                Duenio actual = duenioDao.leerPorId(duenioId);
+                if (actual == null) {
+                    throw new Exception("Error de negocio: El dueño con ID " + duenioId + " no existe o ya fue eliminado.");
+                }
+                int mascotasActivas = actual.getMascotasActivas() == null ? 0 : actual.getMascotasActivas();
+                throw new Exception("Error de negocio (RN-008): No se puede eliminar al dueño (ID " + duenioId
+                        + ") porque aún tiene " + (mascotasActivas > 0 ? mascotasActivas + " mascota(s) activa(s)." : "mascotas activas."));
+            }
+            eventos.publicar(new EventoDominio(TipoEvento.DUENIO_ELIMINADO, duenioId));
+            auditoria.registrarDuenio(Operacion.BAJA, antes, null);
+        });
     }
 
     // --- MÉTODOS DE LECTURA (NO TRANSACCIONALES) ---
@@ -179,10 +294,12 @@ public class DuenioServiceImpl implements DuenioService {
      */
     @Override
     public Duenio getById(Long id) throws Exception {
-        if (id == null || id <= 0) {
-            throw new Exception("Error de validación: El ID debe ser un número positivo.");
-        }
-        return duenioDao.leerPorId(id); // Solo delega la llamada al DAO (el DAO maneja su propia conexión)
+        return Operaciones.ejecutarConPlazo("DuenioService.getById", "buscar el dueño", () -> {
+            if (id == null || id <= 0) {
+                throw new Exception("Error de validación: El ID debe ser un número positivo.");
+            }
+            return duenioDao.leerPorId(id); // Solo delega la llamada al DAO (el DAO maneja su propia conexión)
+        });
     }
 
     /**
@@ -191,25 +308,31 @@ public class DuenioServiceImpl implements DuenioService {
      */
     @Override
     public List<Duenio> getAll() throws Exception {
-        return duenioDao.leerTodos();
+        return Operaciones.ejecutarConPlazo("DuenioService.getAll", "listar los dueños", () -> {
+            return duenioDao.leerTodos();
+        });
     }
 
     // --- Métodos Especiales de DuenioService ---
 
     @Override
     public Duenio buscarPorDni(String dni) throws Exception {
-        if (dni == null || dni.trim().isEmpty()) {
-            throw new Exception("Error de validación: El DNI no puede estar vacío.");
-        }
-        return duenioDao.buscarPorDni(dni);
+        return Operaciones.ejecutarConPlazo("DuenioService.buscarPorDni", "buscar el dueño por DNI", () -> {
+            if (dni == null || dni.trim().isEmpty()) {
+                throw new Exception("Error de validación: El DNI no puede estar vacío.");
+            }
+            return duenioDao.buscarPorDni(dni);
+        });
     }
 
     @Override
     public List<Duenio> buscarPorApellido(String apellido) throws Exception {
-        if (apellido == null || apellido.trim().isEmpty()) {
-            throw new Exception("Error de validación: El Apellido no puede estar vacío.");
-        }
-        return duenioDao.buscarPorApellido(apellido);
+        return Operaciones.ejecutarConPlazo("DuenioService.buscarPorApellido", "buscar dueños por apellido", () -> {
+            if (apellido == null || apellido.trim().isEmpty()) {
+                throw new Exception("Error de validación: El Apellido no puede estar vacío.");
+            }
+            return duenioDao.buscarPorApellido(apellido);
+        });
     }
 
     /**
@@ -218,11 +341,13 @@ public class DuenioServiceImpl implements DuenioService {
      */
     @Override
     public Duenio buscarPorEmail(String email) throws Exception {
-        if (email == null || email.trim().isEmpty()) {
-            throw new Exception("Error de validación: El email es requerido.");
-        }
-        // ¡CORRECCIÓN AQUÍ! Llamamos al DAO, no escribimos SQL.
-        return duenioDao.buscarPorEmail(email);
+        return Operaciones.ejecutarConPlazo("DuenioService.buscarPorEmail", "buscar el dueño por email", () -> {
+            if (email == null || email.trim().isEmpty()) {
+                throw new Exception("Error de validación: El email es requerido.");
+            }
+            // ¡CORRECCIÓN AQUÍ! Llamamos al DAO, no escribimos SQL.
+            return duenioDao.buscarPorEmail(email);
+        });
     }
     
     // --- MÉTODOS PRIVADOS DE VALIDACIÓN ---
@@ -1,7 +1,10 @@
 package service;
 
+import dao.ResultadoBajaMasiva;
+import dao.ResultadoTransferencia;
 import entities.Mascota;
 import entities.Microchip;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -33,6 +36,37 @@ public interface MascotaService extends GenericService<Mascota> {
      * @throws Exception Si la validación o la transacción fallan.
      */
     Mascota crearMascotaCompleta(Mascota mascota, Microchip microchip) throws Exception;
+
+    /**
+     * Crea un lote de mascotas, cada una con su Microchip seteado, en una única transacción.
+     * Si una fila falla, se deshace el lote completo.
+     * @param mascotas Las mascotas a crear (con Duenio y Microchip seteados).
+     * @return Las mismas mascotas, con sus IDs y los de sus microchips.
+     * @throws Exception Si la validación o la transacción fallan.
+     */
+    List<Mascota> crearMascotasCompletas(List<Mascota> mascotas) throws Exception;
+
+    /**
+     * Da de baja (lógica) varias mascotas, con sus microchips, en una única transacción.
+     * Los IDs inexistentes o ya dados de baja se omiten (no es un error); los contadores de
+     * mascotas activas de los dueños se descuentan solo por las mascotas efectivamente dadas de baja.
+     * @param mascotaIds Los IDs de las mascotas a eliminar.
+     * @return Las cantidades afectadas (mascotas, microchips y omitidas).
+     * @throws Exception Si la validación o la transacción fallan (nada queda dado de baja).
+     */
+    ResultadoBajaMasiva eliminar(Collection<Long> mascotaIds) throws Exception;
+
+    /**
+     * Traspasa varias mascotas activas a otro dueño en una única transacción (conservan su ID,
+     * su microchip y su historial). El dueño destino se valida una sola vez y queda bloqueado hasta
+     * el commit; los contadores de mascotas activas de los dueños de origen y del destino se ajustan
+     * en la misma transacción. Los IDs inexistentes, dados de baja o que ya son del destino se omiten.
+     * @param mascotaIds Los IDs de las mascotas a traspasar.
+     * @param duenioDestinoId El ID del nuevo dueño.
+     * @return Las cantidades afectadas (transferidas y omitidas).
+     * @throws Exception Si la validación o la transacción fallan (ninguna mascota cambia de dueño).
+     */
+    ResultadoTransferencia transferir(Collection<Long> mascotaIds, Long duenioDestinoId) throws Exception;
     
     /**
      * Recupera una lista de entidades {@code Mascota} activas (no eliminadas) 
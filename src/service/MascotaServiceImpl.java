@@ -1,14 +1,31 @@
 package service;
 
+import auditoria.Auditoria;
+import auditoria.RegistroAuditoria.Operacion;
 import config.DatabaseConnectionPool;
+import dao.ConflictoVersionException;
 import dao.DuenioDAO;
 import dao.MascotaDAO;
 import dao.MicrochipDAO;
+import dao.ResultadoBajaMasiva;
+import dao.ResultadoTransferencia;
+import entities.Duenio;
 import entities.Mascota;
 import entities.Microchip;
+import eventos.BusEventos;
+import eventos.EventoDominio;
+import eventos.TipoEvento;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Implementación concreta de la lógica de negocio para la entidad {@link Mascota}.
@@ -17,7 +34,8 @@ import java.util.List;
  * RESPONSABILIDADES:
  * 1.  **Gestión de Transacciones Complejas:** Implementa la atomicidad en operaciones
  * que involucran múltiples entidades (Mascota y Microchip) mediante el control manual
- * de transacciones JDBC (commit/rollback).
+ * de transacciones JDBC (commit/rollback). Si MySQL aborta la transacción por un deadlock,
+ * {@link PoliticaReintentos} la repite completa.
  * 2.  **Orquestación de DAOs:** Coordina la interacción entre {@link MascotaDAO},
  * {@link MicrochipDAO} y {@link DuenioDAO}.
  * 3.  **Validación de Integridad:** Asegura la consistencia de los datos y las reglas
@@ -28,17 +46,31 @@ public class MascotaServiceImpl implements MascotaService {
     private final MascotaDAO mascotaDao;
     private final MicrochipDAO microchipDao;
     private final DuenioDAO duenioDao;
+    private final BusEventos eventos; // Avisos después de cada commit
+    private final Auditoria auditoria; // Imágenes antes/después, escritas en segundo plano
+    private final PoliticaReintentos reintentos; // Repite la transacción si MySQL la aborta (deadlock)
+
+    // SQLState con el que los procedimientos almacenados informan una regla de negocio violada (SIGNAL)
+    private static final String SQLSTATE_REGLA_NEGOCIO = "45000";
 
    /**
      * Constructor para la inyección de dependencias.
      * @param mascotaDao Instancia del DAO de Mascotas.
      * @param microchipDao Instancia del DAO de Microchips (requerido para la relación 1-a-1).
      * @param duenioDao Instancia del DAO de Dueños (requerido para validación de existencia).
+     * @param eventos Bus donde se publican los cambios confirmados.
+     * @param auditoria Registro de auditoría de las escrituras confirmadas.
+     * @param reintentos Política de reintentos de las transacciones abortadas por deadlock o espera de bloqueo.
      */
-    public MascotaServiceImpl(MascotaDAO mascotaDao, MicrochipDAO microchipDao, DuenioDAO duenioDao) {
+    public MascotaServiceImpl(MascotaDAO mascotaDao, MicrochipDAO microchipDao, DuenioDAO duenioDao,
+                              BusEventos eventos, Auditoria auditoria,
+                              PoliticaReintentos reintentos) {
         this.mascotaDao = mascotaDao;
         this.microchipDao = microchipDao;
         this.duenioDao = duenioDao;
+        this.eventos = eventos;
+        this.auditoria = auditoria;
+        this.reintentos = reintentos;
     }
 
    // --- MÉTODOS DE NEGOCIO TRANSACCIONALES ---
@@ -46,108 +78,324 @@ public class MascotaServiceImpl implements MascotaService {
      * Ejecuta una transacción ACID para persistir una {@code Mascota} y su {@code Microchip} asociado.
      *
      * Flujo de Ejecución:
-     * 1. Validaciones de entrada y reglas de negocio (existencia de dueño, unicidad de chip).
-     * 2. Inicio de transacción JDBC (autoCommit = false).
-     * 3. Inserción de la Mascota (para obtener el ID generado).
-     * 4. Inserción del Microchip (vinculado al ID de la mascota recién creada).
-     * 5. Confirmación (Commit). Si ocurre un error en cualquier paso, se ejecuta Rollback.
+     * 1. Validaciones de entrada en memoria (nulos y campos obligatorios).
+     * 2. Un único CALL ({@link MascotaDAO#crearCompleta}): el procedimiento verifica la existencia del
+     * dueño (sumándole la mascota a su contador 'mascotas_activas') y la unicidad del chip, inserta
+     * ambos y confirma; ante cualquier error deshace todo.
+     * 3. Las reglas de negocio violadas llegan con SQLState 45000 y se informan como tales.
      */
     @Override
     public Mascota crearMascotaCompleta(Mascota mascota, Microchip microchip) throws Exception {
-        // 1. Validaciones de Integridad y Reglas de Negocio
-        if (mascota == null || microchip == null) {
-            throw new Exception("Error: La mascota y el microchip no pueden ser nulos.");
-        }
-        if (mascota.getDuenio() == null || mascota.getDuenio().getId() == null) {
-            throw new Exception("Error de validación: La mascota debe tener un dueño.");
-        }
-        // Verificación de integridad referencial: El dueño debe existir
-        if (duenioDao.leerPorId(mascota.getDuenio().getId()) == null) {
-            throw new Exception("Error de negocio: El dueño con ID " + mascota.getDuenio().getId() + " no existe.");
-        }
-        // Verificación de campos obligatorios del Microchip
-        if (microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
-            throw new Exception("Error de validación: El código del microchip es obligatorio.");
-        }
-        // Verificación de unicidad del Microchip
-        if (microchipDao.existeCodigo(microchip.getCodigo())) {
-            throw new Exception("Error de negocio: El código de microchip '" + microchip.getCodigo() + "' ya se encuentra registrado.");
-        }
-        // Verificación de campos obligatorios de la Mascota
-        if (mascota.getNombre() == null || mascota.getNombre().trim().isEmpty()){
-            throw new Exception("Error de validación: El nombre de la mascota es obligatorio.");
-        }
+        return reintentos.ejecutarConPlazo("MascotaService.crearMascotaCompleta", "crear la mascota", () -> {
+            // 1. Validaciones de entrada
+            if (mascota == null || microchip == null) {
+                throw new Exception("Error: La mascota y el microchip no pueden ser nulos.");
+            }
+            if (mascota.getDuenio() == null || mascota.getDuenio().getId() == null) {
+                throw new Exception("Error de validación: La mascota debe tener un dueño.");
+            }
+            // Verificación de campos obligatorios del Microchip
+            if (microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
+                throw new Exception("Error de validación: El código del microchip es obligatorio.");
+            }
+            // Verificación de campos obligatorios de la Mascota
+            if (mascota.getNombre() == null || mascota.getNombre().trim().isEmpty()){
+                throw new Exception("Error de validación: El nombre de la mascota es obligatorio.");
+            }
 
-        // 2. Gestión de la Transacción
-        Connection conn = null; 
-
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false); // Inicio del bloque transaccional
-
-            //Persistencia de la Entidad Principal (Mascota)
-            Mascota mascotaCreada = mascotaDao.crear(mascota, conn);
-            
-            // Persistencia de la Entidad Dependiente (Microchip)
-            // Se utiliza el ID generado de la mascota para establecer la relación FK
-            Microchip microchipCreado = microchipDao.crear(microchip, mascotaCreada.getId(), conn);
-            conn.commit();  // Confirmación
-            // Actualización del modelo de objetos en memoria
-            mascotaCreada.setMicrochip(microchipCreado);
-            return mascotaCreada;
-        } catch (SQLException e) {
-            // Manejo de errores y Rollback
-            if (conn != null) {
-                System.err.println("Rollback ejecutado por: " + e.getMessage());
-                conn.rollback(); // Reversión completa de la operación
-            }
-            throw new Exception("Error de base de datos al crear la mascota (transacción deshecha): " + e.getMessage()); 
-        } finally {
-            // Limpieza de recursos
-            if (conn != null) {
-                try {
-                conn.setAutoCommit(true); // Restaurar estado
-                conn.close(); // Retorno al pool
+            // 2. Alta atómica en una sola ida y vuelta (existencia del dueño y unicidad del chip incluidas)
+            try {
+                Mascota creada = mascotaDao.crearCompleta(mascota, microchip); // El procedimiento ya confirmó
+                eventos.publicar(new EventoDominio(TipoEvento.MASCOTA_CREADA, creada.getId()));
+                auditoria.registrarMascota(Operacion.ALTA, null, creada);
+                auditoria.registrarMicrochip(Operacion.ALTA, null, microchip);
+                return creada;
+            } catch (SQLTimeoutException e) {
+                throw e; // No es un error de BD genérico: Operaciones lo informa como plazo agotado
             } catch (SQLException e) {
-                    e.printStackTrace();
+                if (SQLSTATE_REGLA_NEGOCIO.equals(e.getSQLState())) {
+                    throw new Exception("Error de negocio: " + e.getMessage());
                 }
-        }
-     }
-   }     
+                throw new Exception("Error de base de datos al crear la mascota (transacción deshecha): " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Crea un lote de mascotas con sus microchips en una única transacción (todo o nada).
+     *
+     * Pensado para importaciones: las validaciones por fila son solo en memoria (campos obligatorios
+     * y códigos repetidos dentro del lote); la existencia de los dueños y la unicidad de los códigos
+     * frente a la base las garantizan las restricciones (FK y UNIQUE), que deshacen el lote completo.
+     * Los contadores de mascotas activas de los dueños se ajustan al principio de la transacción
+     * (un UPDATE por dueño, que los bloquea); después salen las mascotas en un INSERT multi-fila
+     * y los microchips en otro.
+     */
+    @Override
+    public List<Mascota> crearMascotasCompletas(List<Mascota> mascotas) throws Exception {
+        return reintentos.ejecutarConPlazo("MascotaService.crearMascotasCompletas", "importar las mascotas", () -> {
+            if (mascotas == null || mascotas.isEmpty()) {
+                throw new Exception("Error de validación: El lote de mascotas está vacío.");
+            }
+            List<Microchip> microchips = new ArrayList<>(mascotas.size());
+            Map<Long, Integer> altasPorDuenio = new HashMap<>();
+            Set<String> codigos = new HashSet<>();
+            for (Mascota mascota : mascotas) {
+                Microchip microchip = mascota == null ? null : mascota.getMicrochip();
+                if (microchip == null) {
+                    throw new Exception("Error de validación: Cada mascota del lote debe tener su microchip.");
+                }
+                if (mascota.getDuenio() == null || mascota.getDuenio().getId() == null) {
+                    throw new Exception("Error de validación: La mascota '" + mascota.getNombre() + "' debe tener un dueño.");
+                }
+                if (mascota.getNombre() == null || mascota.getNombre().trim().isEmpty()) {
+                    throw new Exception("Error de validación: El nombre de la mascota es obligatorio.");
+                }
+                if (microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
+                    throw new Exception("Error de validación: El código del microchip es obligatorio.");
+                }
+                if (!codigos.add(microchip.getCodigo())) {
+                    throw new Exception("Error de validación: El código de microchip '" + microchip.getCodigo() + "' está repetido en el lote.");
+                }
+                microchips.add(microchip);
+                altasPorDuenio.merge(mascota.getDuenio().getId(), 1, Integer::sum);
+            }
+
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                // Primero los dueños (en orden de ID), como sp_crear_mascota_completa: todas las altas
+                // bloquean dueño -> mascota -> microchip en el mismo orden
+                duenioDao.sumarMascotasActivas(altasPorDuenio, conn);
+                mascotaDao.crearLote(mascotas, conn);
+                List<Long> mascotaIds = new ArrayList<>(mascotas.size());
+                for (Mascota mascota : mascotas) {
+                    mascotaIds.add(mascota.getId());
+                }
+                microchipDao.crearLote(microchips, mascotaIds, conn);
+                conn.commit();
+                for (Mascota mascota : mascotas) {
+                    eventos.publicar(new EventoDominio(TipoEvento.MASCOTA_CREADA, mascota.getId()));
+                    auditoria.registrarMascota(Operacion.ALTA, null, mascota);
+                    auditoria.registrarMicrochip(Operacion.ALTA, null, mascota.getMicrochip());
+                }
+                return mascotas;
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) {
+                    System.err.println("Rollback ejecutado por: " + e.getMessage());
+                    conn.rollback();
+                }
+                throw new Exception("Error de base de datos al importar las mascotas (lote deshecho): " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Realiza la baja lógica en cascada de una {@code Mascota} y su {@code Microchip}.
-     * Ambas operaciones se ejecutan dentro de una única transacción para garantizar consistencia.
+     * Ambas operaciones se ejecutan dentro de una única transacción para garantizar consistencia,
+     * bloqueando dueño -> mascota -> microchip (el mismo orden que las altas y las operaciones masivas).
+     * Si la mascota no existe o ya estaba dada de baja, informa el error y no publica ningún evento.
      */
     @Override
     public void eliminar(Long mascotaId) throws Exception {
-        if (mascotaId == null || mascotaId <= 0) {
-            throw new Exception("Error de validación: El ID de la mascota es inválido.");
-        }
+        reintentos.ejecutarConPlazo("MascotaService.eliminar", "eliminar la mascota", () -> {
+            if (mascotaId == null || mascotaId <= 0) {
+                throw new Exception("Error de validación: El ID de la mascota es inválido.");
+            }
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false); // Inicio transacción
+                // 1. Bloqueo del dueño por PK, antes que la mascota (su ID se lee sin bloquear)
+                Set<Long> duenios = mascotaDao.leerDuenioIds(List.of(mascotaId), conn);
+                duenioDao.bloquear(duenios, conn);
+                // 2. Baja lógica de la mascota y después de su microchip (la fila previa queda bloqueada)
+                ResultadoBajaMasiva resultado = mascotaDao.eliminar(List.of(mascotaId), conn);
+                if (resultado.getMascotasEliminadas() == 0) {
+                    conn.rollback(); // Nada que confirmar: sin evento ni auditoría
+                    throw new Exception("Error de negocio: La mascota con ID " + mascotaId + " no existe o ya fue eliminada.");
+                }
+                // 3. Descuento del contador, solo si la mascota seguía activa
+                duenioDao.sumarMascotasActivas(bajasPorDuenio(resultado.getEliminadas(), duenios), conn);
+                conn.commit(); // Confirmación
+                eventos.publicar(new EventoDominio(TipoEvento.MASCOTA_ELIMINADA, mascotaId));
+                // Imagen previa: la fila bloqueada que se dio de baja (incluye el microchip, dado de baja en cascada)
+                Mascota previa = resultado.getEliminadas().get(0);
+                auditoria.registrarMascota(Operacion.BAJA, previa, null);
+                if (previa.getMicrochip() != null && !Boolean.TRUE.equals(previa.getMicrochip().getEliminado())) {
+                    auditoria.registrarMicrochip(Operacion.BAJA, previa.getMicrochip(), null);
+                }
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) {
+                    conn.rollback(); // Deshace todo si algo falla
+                }
+                throw new Exception("Error de BD al eliminar la mascota: " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try{
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    }catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false); // Inicio transacción
-            // 1. Baja lógica de la entidad dependiente (Microchip)
-            microchipDao.eliminarPorMascotaId(mascotaId, conn);
-            // 2. Baja lógica de la entidad principal (Mascota)
-            mascotaDao.eliminar(mascotaId, conn);
-            conn.commit(); // Confirmación
-        } catch (SQLException e) {
-            if (conn != null) {
-                conn.rollback(); // Deshace todo si algo falla
-            }
-            throw new Exception("Error de BD al eliminar la mascota: " + e.getMessage());
-        } finally {
-            if (conn != null) {
-                try{
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }catch (SQLException e) {
-                    e.printStackTrace();
+    /**
+     * Baja lógica masiva en cascada (mascotas y microchips) en una única transacción.
+     * Primero bloquea a los dueños afectados (en orden de ID); después el DAO bloquea y da de baja por tramos con sentencias por conjunto; con sus filas previas se
+     * descuenta el contador de cada dueño en la misma transacción (un UPDATE por dueño).
+     * Los eventos y la auditoría se emiten por mascota después del commit.
+     */
+    @Override
+    public ResultadoBajaMasiva eliminar(Collection<Long> mascotaIds) throws Exception {
+        return reintentos.ejecutarConPlazo("MascotaService.eliminarVarias", "eliminar las mascotas", () -> {
+            if (mascotaIds == null || mascotaIds.isEmpty()) {
+                throw new Exception("Error de validación: La lista de mascotas a eliminar está vacía.");
+            }
+            for (Long mascotaId : mascotaIds) {
+                if (mascotaId == null || mascotaId <= 0) {
+                    throw new Exception("Error de validación: El ID de mascota " + mascotaId + " es inválido.");
                 }
             }
-        }
+
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                // 1. Bloqueo de los dueños (en orden de ID), antes que sus mascotas, como las altas
+                Set<Long> duenios = mascotaDao.leerDuenioIds(mascotaIds, conn);
+                duenioDao.bloquear(duenios, conn);
+                // 2. Baja de mascotas y microchips (las filas previas quedan en el resultado)
+                ResultadoBajaMasiva resultado = mascotaDao.eliminar(mascotaIds, conn);
+                // 3. Descuento de los contadores, solo por las mascotas que seguían activas
+                //    (si una cambió de dueño antes de bloquearla, se repite todo: ver bajasPorDuenio)
+                duenioDao.sumarMascotasActivas(bajasPorDuenio(resultado.getEliminadas(), duenios), conn);
+                conn.commit();
+                for (Mascota previa : resultado.getEliminadas()) {
+                    eventos.publicar(new EventoDominio(TipoEvento.MASCOTA_ELIMINADA, previa.getId()));
+                    auditoria.registrarMascota(Operacion.BAJA, previa, null);
+                    if (previa.getMicrochip() != null && !Boolean.TRUE.equals(previa.getMicrochip().getEliminado())) {
+                        auditoria.registrarMicrochip(Operacion.BAJA, previa.getMicrochip(), null);
+                    }
+                }
+                return resultado;
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) {
+                    System.err.println("Rollback ejecutado por: " + e.getMessage());
+                    conn.rollback();
+                }
+                throw new Exception("Error de BD al eliminar las mascotas (ninguna quedó dada de baja): " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Traspaso masivo de mascotas a otro dueño en una única transacción.
+     * 1. Bloquea al dueño destino (validación única: no puede darse de baja mientras dure el traspaso).
+     * 2. El DAO reasigna las mascotas por tramos, con un UPDATE por conjunto por tramo.
+     * 3. Ajusta los contadores: -1 por mascota a cada dueño de origen, +N al destino.
+     */
+    @Override
+    public ResultadoTransferencia transferir(Collection<Long> mascotaIds, Long duenioDestinoId) throws Exception {
+        return reintentos.ejecutarConPlazo("MascotaService.transferir", "transferir las mascotas", () -> {
+            if (mascotaIds == null || mascotaIds.isEmpty()) {
+                throw new Exception("Error de validación: La lista de mascotas a transferir está vacía.");
+            }
+            for (Long mascotaId : mascotaIds) {
+                if (mascotaId == null || mascotaId <= 0) {
+                    throw new Exception("Error de validación: El ID de mascota " + mascotaId + " es inválido.");
+                }
+            }
+            if (duenioDestinoId == null || duenioDestinoId <= 0) {
+                throw new Exception("Error de validación: El ID del dueño destino es inválido.");
+            }
+
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                // 1. Bloqueo de los dueños de origen y del destino (en orden de ID), antes que las mascotas
+                Set<Long> duenios = new HashSet<>(mascotaDao.leerDuenioIds(mascotaIds, conn));
+                duenios.add(duenioDestinoId);
+                duenioDao.bloquear(duenios, conn);
+                // 2. Validación (única) del dueño destino
+                Duenio destino = duenioDao.leerParaActualizar(duenioDestinoId, conn);
+                if (destino == null) {
+                    conn.rollback();
+                    throw new Exception("Error de negocio: El dueño destino con ID " + duenioDestinoId + " no existe o está eliminado.");
+                }
+                // 3. Reasignación de las mascotas (las filas previas quedan en el resultado)
+                ResultadoTransferencia resultado = mascotaDao.transferir(mascotaIds, duenioDestinoId, conn);
+                // 4. Contadores de los dueños de origen y del destino
+                //    (un dueño de origen sin bloquear repite todo, como en bajasPorDuenio)
+                Map<Long, Integer> deltas = new HashMap<>();
+                for (Mascota previa : resultado.getTransferidas()) {
+                    if (previa.getDuenio() != null) {
+                        verificarBloqueado(previa.getDuenio().getId(), duenios);
+                        deltas.merge(previa.getDuenio().getId(), -1, Integer::sum);
+                    }
+                }
+                deltas.merge(duenioDestinoId, resultado.getCantidadTransferidas(), Integer::sum);
+                duenioDao.sumarMascotasActivas(deltas, conn);
+                conn.commit();
+                for (Mascota previa : resultado.getTransferidas()) {
+                    eventos.publicar(new EventoDominio(TipoEvento.MASCOTA_ACTUALIZADA, previa.getId()));
+                    auditoria.registrarMascota(Operacion.MODIFICACION, previa, new Mascota(previa.getId(), previa.getNombre(),
+                            previa.getEspecie(), previa.getRaza(), previa.getFechaNacimiento(), previa.getEliminado(),
+                            destino, previa.getMicrochip()));
+                }
+                return resultado;
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) {
+                    System.err.println("Rollback ejecutado por: " + e.getMessage());
+                    conn.rollback();
+                }
+                throw new Exception("Error de BD al transferir las mascotas (ninguna cambió de dueño): " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
     }
 
     // --- MÉTODOS DE LA INTERFAZ GENÉRICA ---
@@ -167,51 +415,99 @@ public class MascotaServiceImpl implements MascotaService {
      */
     @Override
     public void actualizar(Mascota mascota) throws Exception {
-        if (mascota == null || mascota.getId() == null || mascota.getId() <= 0) {
-            throw new Exception("Error de validación: La mascota o su ID son inválidos.");
-        }
+        reintentos.ejecutarConPlazo("MascotaService.actualizar", "actualizar la mascota", () -> {
+            if (mascota == null || mascota.getId() == null || mascota.getId() <= 0) {
+                throw new Exception("Error de validación: La mascota o su ID son inválidos.");
+            }
+            if (!mascota.tieneCambios()) {
+                return; // Sin modificaciones: ni transacción ni evento
+            }
+            Mascota antes = auditoria.isActiva() ? mascotaDao.leerPorId(mascota.getId()) : null;
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false);
-            mascotaDao.actualizar(mascota, conn); 
-            conn.commit();
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw new Exception("Error de BD al actualizar mascota: " + e.getMessage());
-        } finally {
-            if (conn != null) {
-                try{
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }catch (SQLException e) {
-                    e.printStackTrace();
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                mascotaDao.actualizar(mascota, conn); 
+                conn.commit();
+                mascota.confirmarEscritura(); // Nueva versión y sin cambios pendientes
+                eventos.publicar(new EventoDominio(TipoEvento.MASCOTA_ACTUALIZADA, mascota.getId()));
+                auditoria.registrarMascota(Operacion.MODIFICACION, antes, mascota);
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (ConflictoVersionException e) {
+                if (conn != null) conn.rollback();
+                throw new ConflictoConcurrenciaException("la mascota", e);
+            } catch (SQLException e) {
+                if (conn != null) conn.rollback();
+                throw new Exception("Error de BD al actualizar mascota: " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try{
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    }catch (SQLException e) {
+                        e.printStackTrace();
+                    }
                 }
             }
-        }
+        });
     }
 
     // --- MÉTODOS DE LECTURA (NO TRANSACCIONALES) ---
     
     @Override
     public Mascota getById(Long id) throws Exception {
-        if (id == null || id <= 0) {
-            throw new Exception("Error de validación: El ID debe ser un número positivo.");
-        }
-        return mascotaDao.leerPorId(id);
+        return Operaciones.ejecutarConPlazo("MascotaService.getById", "buscar la mascota", () -> {
+            if (id == null || id <= 0) {
+                throw new Exception("Error de validación: El ID debe ser un número positivo.");
+            }
+            return mascotaDao.leerPorId(id);
+        });
     }
 
     @Override
     public List<Mascota> getAll() throws Exception {
-        return mascotaDao.leerTodos();
+        return Operaciones.ejecutarConPlazo("MascotaService.getAll", "listar las mascotas", () -> {
+            return mascotaDao.leerTodos();
+        });
     }
 
     @Override
     public List<Mascota> buscarPorDuenioId(Long duenioId) throws Exception {
-        if (duenioId == null || duenioId <= 0) {
-            throw new Exception("Error de validación: El ID del dueño es inválido.");
+        return Operaciones.ejecutarConPlazo("MascotaService.buscarPorDuenioId", "buscar las mascotas del dueño", () -> {
+            if (duenioId == null || duenioId <= 0) {
+                throw new Exception("Error de validación: El ID del dueño es inválido.");
+            }
+            return mascotaDao.buscarPorDuenioId(duenioId);
+        });
+    }
+
+    // --- MÉTODOS "HELPER" ---
+
+    /**
+     * Descuento del contador por dueño de las mascotas dadas de baja.
+     * Cada dueño debe estar entre los bloqueados antes de tocar las mascotas: si una mascota cambió
+     * de dueño entre la lectura sin bloqueo y su bloqueo, bloquear ahora al dueño nuevo invertiría el
+     * orden dueño -> mascota. En ese caso se deshace la transacción con un fallo de serialización
+     * (PoliticaReintentos la repite con una lectura nueva).
+     */
+    private static Map<Long, Integer> bajasPorDuenio(List<Mascota> previas, Set<Long> dueniosBloqueados) throws SQLException {
+        Map<Long, Integer> bajas = new HashMap<>();
+        for (Mascota previa : previas) {
+            if (previa.getDuenio() != null) {
+                verificarBloqueado(previa.getDuenio().getId(), dueniosBloqueados);
+                bajas.merge(previa.getDuenio().getId(), -1, Integer::sum);
+            }
+        }
+        return bajas;
+    }
+
+    private static void verificarBloqueado(Long duenioId, Set<Long> dueniosBloqueados) throws SQLException {
+        if (!dueniosBloqueados.contains(duenioId)) {
+            throw new SQLTransactionRollbackException("Una mascota cambió de dueño durante la operación; se repite.",
+                    PoliticaReintentos.SQLSTATE_SERIALIZACION);
         }
-        return mascotaDao.buscarPorDuenioId(duenioId);
     }
 }
@@ -1,6 +1,8 @@
 package service;
 
+import dao.ResultadoUpsert;
 import entities.Microchip;
+import java.util.List;
 
 /**
  * Interfaz (Contrato) para la Capa de Servicio (Service Layer) de la entidad {@link Microchip}.
@@ -29,4 +31,13 @@ public interface MicrochipService extends GenericService<Microchip> {
      * @throws Exception Si la validación de entrada falla (ej. código vacío)  o si ocurre un error en la capa de persistencia.
      */
     Microchip buscarPorCodigo(String codigo) throws Exception;
+
+    /**
+     * Inserta o actualiza un lote de microchips usando el código como clave (sincronización con refugios).
+     * @param microchips Los chips recibidos.
+     * @param mascotaIds El ID de la mascota de cada chip, en el mismo orden.
+     * @return Cuántos se insertaron, actualizaron, quedaron sin cambios u omitieron.
+     * @throws Exception Si la validación o la transacción fallan (el lote se deshace completo).
+     */
+    ResultadoUpsert<Microchip> upsert(List<Microchip> microchips, List<Long> mascotaIds) throws Exception;
 }
@@ -1,11 +1,20 @@
 package service;
 
+import auditoria.Auditoria;
+import auditoria.RegistroAuditoria.Operacion;
 import config.DatabaseConnectionPool;
+import dao.ConflictoVersionException;
 import dao.MicrochipDAO; // 👈 Importa tu interfaz DAO (con mayúsculas)
+import dao.ResultadoUpsert;
 import entities.Microchip;
+import eventos.BusEventos;
+import eventos.EventoDominio;
+import eventos.TipoEvento;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Implementación concreta de la lógica de negocio para la entidad {@link Microchip}.
@@ -21,13 +30,23 @@ import java.util.List;
 public class MicrochipServiceImpl implements MicrochipService {
     // Dependencia de la capa de acceso a datos
     private final MicrochipDAO microchipDao;
+    private final BusEventos eventos; // Avisos después de cada commit
+    private final Auditoria auditoria; // Imágenes antes/después, escritas en segundo plano
+    private final PoliticaReintentos reintentos; // Repite la transacción si MySQL la aborta (deadlock)
 
     /**
      * Constructor para la inyección de dependencias.
      * @param microchipDao Instancia del DAO para operaciones sobre Microchips.
+     * @param eventos Bus donde se publican los cambios confirmados.
+     * @param auditoria Registro de auditoría de las escrituras confirmadas.
+     * @param reintentos Política de reintentos de las transacciones abortadas por deadlock o espera de bloqueo.
      */
-    public MicrochipServiceImpl(MicrochipDAO microchipDao) {
+    public MicrochipServiceImpl(MicrochipDAO microchipDao, BusEventos eventos, Auditoria auditoria,
+                                PoliticaReintentos reintentos) {
         this.microchipDao = microchipDao;
+        this.eventos = eventos;
+        this.auditoria = auditoria;
+        this.reintentos = reintentos;
     }
 
     // --- MÉTODOS TRANSACCIONALES (ESCRITURA) ---
@@ -38,73 +57,157 @@ public class MicrochipServiceImpl implements MicrochipService {
      */
     @Override
     public Microchip insertar(Microchip microchip) throws Exception {
-        // 1. Validación de entrada
-        if (microchip == null || microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
-            throw new Exception("Error de validación: El código del microchip es obligatorio.");
-        }
-        // 2. Regla de Negocio: Unicidad del Código
-        if (microchipDao.existeCodigo(microchip.getCodigo())) {
-            throw new Exception("Error de negocio: El código '" + microchip.getCodigo() + "' ya existe.");
-        }
-        /// 3. Transacción JDBC
-        Connection conn = null;
-        Microchip chipCreado = null;
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false); // Inicio transacción
-            // Invocación al DAO (método genérico)
-            chipCreado = microchipDao.crear(microchip, conn); 
-            conn.commit();// Confirmación
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw new Exception("Error de BD al crear microchip: " + e.getMessage());
-        } finally {
-            if (conn != null) {
-                try { conn.setAutoCommit(true); conn.close(); 
-                } catch (SQLException e) {
-                    e.printStackTrace();
+        return reintentos.ejecutarConPlazo("MicrochipService.insertar", "crear el microchip", () -> {
+            // 1. Validación de entrada
+            if (microchip == null || microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
+                throw new Exception("Error de validación: El código del microchip es obligatorio.");
+            }
+            // 2. Regla de Negocio: Unicidad del Código
+            if (microchipDao.existeCodigo(microchip.getCodigo())) {
+                throw new Exception("Error de negocio: El código '" + microchip.getCodigo() + "' ya existe.");
+            }
+            /// 3. Transacción JDBC
+            Connection conn = null;
+            Microchip chipCreado = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false); // Inicio transacción
+                // Invocación al DAO (método genérico)
+                chipCreado = microchipDao.crear(microchip, conn); 
+                conn.commit();// Confirmación
+                eventos.publicar(new EventoDominio(TipoEvento.MICROCHIP_MODIFICADO, chipCreado.getId()));
+                auditoria.registrarMicrochip(Operacion.ALTA, null, chipCreado);
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) conn.rollback();
+                throw new Exception("Error de BD al crear microchip: " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try { conn.setAutoCommit(true); conn.close(); 
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
                 }
             }
-        }
-        return chipCreado;
+            return chipCreado;
+        });
+    }
+
+    /**
+     * Sincroniza un lote de microchips recibido de un refugio (alta o actualización por código).
+     * Cada chip se acompaña del ID de su mascota (requerido para las altas).
+     * Los registros sin cambios no se escriben; si algo falla, se deshace el lote completo.
+     * Después del commit publica un {@code MICROCHIP_MODIFICADO} y audita cada registro escrito.
+     */
+    @Override
+    public ResultadoUpsert<Microchip> upsert(List<Microchip> microchips, List<Long> mascotaIds) throws Exception {
+        return reintentos.ejecutarConPlazo("MicrochipService.upsert", "sincronizar los microchips", () -> {
+            if (microchips == null || microchips.isEmpty()) {
+                throw new Exception("Error de validación: El lote de microchips está vacío.");
+            }
+            if (mascotaIds == null || mascotaIds.size() != microchips.size()) {
+                throw new Exception("Error de validación: Cada microchip del lote debe indicar su mascota.");
+            }
+            for (int i = 0; i < microchips.size(); i++) {
+                Microchip microchip = microchips.get(i);
+                if (microchip == null || microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
+                    throw new Exception("Error de validación: El código del microchip es obligatorio.");
+                }
+                if (mascotaIds.get(i) == null || mascotaIds.get(i) <= 0) {
+                    throw new Exception("Error de validación: ID de mascota inválido para el chip '" + microchip.getCodigo() + "'.");
+                }
+            }
+
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                ResultadoUpsert<Microchip> resultado = microchipDao.upsert(microchips, mascotaIds, conn);
+                conn.commit();
+                for (int i = 0; i < resultado.getCantidadEscritos(); i++) {
+                    Microchip previo = resultado.getPrevios().get(i);
+                    Microchip escrito = resultado.getEscritos().get(i);
+                    eventos.publicar(new EventoDominio(TipoEvento.MICROCHIP_MODIFICADO, escrito.getId()));
+                    auditoria.registrarMicrochip(previo == null ? Operacion.ALTA : Operacion.MODIFICACION,
+                            previo, escrito);
+                }
+                return resultado;
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (SQLException e) {
+                if (conn != null) conn.rollback();
+                throw new Exception("Error de BD al sincronizar los microchips (lote deshecho): " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
     }
 
     //Actualiza los datos de un {@code Microchip} existente.
     @Override
     public void actualizar(Microchip microchip) throws Exception {
-        // 1. Validaciones
-        if (microchip.getId() == null || microchip.getId() <= 0) {
-             throw new Exception("Error de validación: ID de Microchip inválido para actualizar.");
-        }
-        if (microchip == null  || microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
-            throw new Exception("Error de validación: El código no puede estar vacío.");
-        }
-       // 2. Regla de Negocio: Unicidad en UPDATE (excluyendo al propio registro)
-        Microchip chipExistente = microchipDao.buscarPorCodigo(microchip.getCodigo());
-        if (chipExistente != null && !chipExistente.getId().equals(microchip.getId())) {
-            throw new Exception("Violación de regla: El código '" + microchip.getCodigo() + "' ya pertenece a otro microchip.");
-        }
-        
-        // 3. Transacción
-        Connection conn = null;
-        try {
-            conn = DatabaseConnectionPool.getConnection();
-            conn.setAutoCommit(false);
-            microchipDao.actualizar(microchip, conn);
-            conn.commit();
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw new Exception("Error de BD al actualizar microchip: " + e.getMessage());
-        } finally {
-            if (conn != null) {
-                try { 
-                    conn.setAutoCommit(true); 
-                    conn.close(); 
-                } catch (SQLException e) { 
-                    e.printStackTrace(); 
+        reintentos.ejecutarConPlazo("MicrochipService.actualizar", "actualizar el microchip", () -> {
+            // 1. Validaciones
+            if (microchip.getId() == null || microchip.getId() <= 0) {
+                 throw new Exception("Error de validación: ID de Microchip inválido para actualizar.");
+            }
+            if (microchip == null  || microchip.getCodigo() == null || microchip.getCodigo().trim().isEmpty()) {
+                throw new Exception("Error de validación: El código no puede estar vacío.");
+            }
+            if (!microchip.tieneCambios()) {
+                return; // Sin modificaciones: ni transacción ni evento
+            }
+           // 2. Regla de Negocio: Unicidad en UPDATE (excluyendo al propio registro), solo si el código cambió
+            Set<String> cambios = microchip.getCamposModificados();
+            Microchip chipExistente = cambios == null || cambios.contains(Microchip.CAMPO_CODIGO)
+                    ? microchipDao.buscarPorCodigo(microchip.getCodigo()) : null;
+            if (chipExistente != null && !chipExistente.getId().equals(microchip.getId())) {
+                throw new Exception("Violación de regla: El código '" + microchip.getCodigo() + "' ya pertenece a otro microchip.");
+            }
+            // Imagen previa para la auditoría (si se buscó el código y era el propio, ya se leyó arriba)
+            Microchip antes = !auditoria.isActiva() ? null
+                    : chipExistente != null ? chipExistente : microchipDao.leerPorId(microchip.getId());
+
+            // 3. Transacción
+            Connection conn = null;
+            try {
+                conn = DatabaseConnectionPool.getConnection();
+                conn.setAutoCommit(false);
+                microchipDao.actualizar(microchip, conn);
+                conn.commit();
+                microchip.confirmarEscritura(); // Nueva versión y sin cambios pendientes
+                eventos.publicar(new EventoDominio(TipoEvento.MICROCHIP_MODIFICADO, microchip.getId()));
+                auditoria.registrarMicrochip(Operacion.MODIFICACION, antes, microchip);
+            } catch (SQLTimeoutException e) {
+                if (conn != null) conn.rollback();
+                throw e;
+            } catch (ConflictoVersionException e) {
+                if (conn != null) conn.rollback();
+                throw new ConflictoConcurrenciaException("el microchip", e);
+            } catch (SQLException e) {
+                if (conn != null) conn.rollback();
+                throw new Exception("Error de BD al actualizar microchip: " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try { 
+                        conn.setAutoCommit(true); 
+                        conn.close(); 
+                    } catch (SQLException e) { 
+                        e.printStackTrace(); 
+                    }
                 }
             }
-        }
+        });
     }
 
     /**
@@ -122,22 +225,28 @@ public class MicrochipServiceImpl implements MicrochipService {
 
     @Override
     public Microchip getById(Long id) throws Exception {
-        if (id == null || id <= 0) {
-            throw new Exception("Error de validación: El ID es inválido.");
-        }
-        return microchipDao.leerPorId(id);
+        return Operaciones.ejecutarConPlazo("MicrochipService.getById", "buscar el microchip", () -> {
+            if (id == null || id <= 0) {
+                throw new Exception("Error de validación: El ID es inválido.");
+            }
+            return microchipDao.leerPorId(id);
+        });
     }
 
     @Override
     public List<Microchip> getAll() throws Exception {
-        return microchipDao.leerTodos();
+        return Operaciones.ejecutarConPlazo("MicrochipService.getAll", "listar los microchips", () -> {
+            return microchipDao.leerTodos();
+        });
     }
 
     @Override
     public Microchip buscarPorCodigo(String codigo) throws Exception {
-        if (codigo == null || codigo.trim().isEmpty()) {
-            throw new Exception("Error de validación: El código no puede estar vacío.");
-        }
-        return microchipDao.buscarPorCodigo(codigo);
+        return Operaciones.ejecutarConPlazo("MicrochipService.buscarPorCodigo", "buscar el microchip por código", () -> {
+            if (codigo == null || codigo.trim().isEmpty()) {
+                throw new Exception("Error de validación: El código no puede estar vacío.");
+            }
+            return microchipDao.buscarPorCodigo(codigo);
+        });
     }
 }
@@ -0,0 +1,25 @@
+package service;
+
+import java.sql.SQLTimeoutException;
+
+/**
+ * Indica que una operación de servicio no terminó dentro de su plazo y fue cancelada
+ * (la transacción, si la había, se deshizo).
+ *
+ * Es distinta de los errores de negocio y de base de datos para que la capa de presentación
+ * pueda degradar con elegancia (ej. sugerir reintentar o acotar la búsqueda) en lugar de
+ * mostrar un fallo genérico. Conserva como causa la {@link SQLTimeoutException} original.
+ */
+public class OperacionExpiradaException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param accion Descripción de la operación en infinitivo (ej. "listar las mascotas").
+     * @param causa El timeout informado por el DAO o el driver.
+     */
+    public OperacionExpiradaException(String accion, SQLTimeoutException causa) {
+        super("Tiempo agotado al " + accion + ": la operación fue cancelada. "
+                + "Intente nuevamente en unos instantes o acote la búsqueda.", causa);
+    }
+}
@@ -0,0 +1,48 @@
+package service;
+
+import dao.Plazo;
+import java.sql.SQLTimeoutException;
+
+/**
+ * Ejecución de una operación de servicio dentro de su {@link Plazo} (package-private).
+ *
+ * ROL: Un único lugar donde se abre el plazo de la operación y donde un timeout (del driver o del
+ * plazo) se convierte en {@link OperacionExpiradaException}. Los métodos de lectura lo usan directamente;
+ * los de escritura, a través de {@link PoliticaReintentos#ejecutarConPlazo}, que además repite la unidad
+ * de trabajo si MySQL aborta la transacción.
+ *
+ * Una unidad de trabajo que deshace su transacción ante un timeout debe volver a lanzar la
+ * {@link SQLTimeoutException} original: la conversión se hace acá.
+ */
+final class Operaciones {
+
+    private Operaciones() {
+    }
+
+    /**
+     * @param operacion Nombre de la operación (ej. "DuenioService.insertar"): elige el presupuesto 'plazo.*'.
+     * @param accion Descripción en infinitivo para el mensaje de timeout (ej. "crear el dueño").
+     * @return El resultado de la unidad de trabajo.
+     * @throws OperacionExpiradaException Si la unidad de trabajo terminó por un timeout.
+     */
+    static <T> T ejecutarConPlazo(String operacion, String accion,
+                                  PoliticaReintentos.UnidadDeTrabajo<T> unidad) throws Exception {
+        Plazo plazo = Plazo.iniciar(operacion);
+        try {
+            return unidad.ejecutar();
+        } catch (SQLTimeoutException e) {
+            throw new OperacionExpiradaException(accion, e);
+        } finally {
+            plazo.close();
+        }
+    }
+
+    /** Igual que {@link #ejecutarConPlazo(String, String, PoliticaReintentos.UnidadDeTrabajo)}, sin resultado. */
+    static void ejecutarConPlazo(String operacion, String accion,
+                                 PoliticaReintentos.UnidadSinResultado unidad) throws Exception {
+        ejecutarConPlazo(operacion, accion, () -> {
+            unidad.ejecutar();
+            return null;
+        });
+    }
+}
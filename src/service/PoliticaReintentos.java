@@ -0,0 +1,229 @@
+package service;
+
+import config.Configuracion;
+import dao.ConflictoVersionException;
+import dao.ConsultaExpiradaException;
+import dao.Plazo;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Política de reintentos de las unidades de trabajo transaccionales de la capa de servicio.
+ *
+ * ROL: Que un deadlock o una espera de bloqueo agotada (típicos con una carga masiva concurrente con
+ * el mostrador) no hagan perder la operación. MySQL ya deshizo la transacción víctima: repetir la
+ * unidad de trabajo completa (conexión, sentencias y commit) suele alcanzar.
+ *
+ * RESPONSABILIDADES:
+ * 1.  **Clasificación:** Solo se reintentan los errores que MySQL resuelve abortando una transacción:
+ * deadlock (1213), espera de bloqueo agotada (1205) o SQLState 40001, buscados en la cadena de causas.
+ * Nunca un conflicto de versión ({@link ConflictoVersionException}: repetir el UPDATE volvería a fallar)
+ * ni el vencimiento del plazo de la operación ({@link ConsultaExpiradaException}).
+ * 2.  **Espera:** Antes del reintento n se espera un tiempo al azar entre 0 y
+ * min('reintentos.espera_maxima_ms', 'reintentos.espera_base_ms' * 2^(n-1)) (backoff exponencial con
+ * "full jitter", para que las transacciones que chocaron no vuelvan a chocar al mismo tiempo).
+ * Si la espera no entra en el {@link Plazo} vigente, no se reintenta.
+ * 3.  **Métricas:** Reintentos, operaciones recuperadas y agotadas, en total y por operación
+ * (muestran dónde está la contención).
+ *
+ * La unidad de trabajo se repite desde el principio, así que no debe dejar efectos fuera de la
+ * transacción antes del commit; tampoco debe ejecutarse dentro de una transacción del llamador.
+ */
+public final class PoliticaReintentos {
+
+    // Códigos de error de MySQL (vendor codes) y SQLState de "transacción deshecha por serialización"
+    static final int ERROR_ESPERA_BLOQUEO = 1205;
+    static final int ERROR_DEADLOCK = 1213;
+    static final String SQLSTATE_SERIALIZACION = "40001";
+
+    /** Una unidad de trabajo completa: obtiene su conexión, ejecuta, confirma y devuelve el resultado. */
+    @FunctionalInterface
+    public interface UnidadDeTrabajo<T> {
+        T ejecutar() throws Exception;
+    }
+
+    /** Unidad de trabajo sin resultado. */
+    @FunctionalInterface
+    public interface UnidadSinResultado {
+        void ejecutar() throws Exception;
+    }
+
+    /** Contadores de una operación. */
+    private static final class Contadores {
+        final LongAdder reintentos = new LongAdder();
+        final LongAdder recuperadas = new LongAdder();
+        final LongAdder agotadas = new LongAdder();
+    }
+
+    private final int maximoIntentos;
+    private final long esperaBaseMs;
+    private final long esperaMaximaMs;
+
+    private final Map<String, Contadores> porOperacion = new ConcurrentHashMap<>();
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder recuperadas = new LongAdder();
+    private final LongAdder agotadas = new LongAdder();
+
+    /**
+     * @param maximoIntentos Intentos totales, incluido el primero (1 = no reintentar).
+     * @param esperaBaseMs Tope de la espera antes del primer reintento; se duplica en cada uno.
+     * @param esperaMaximaMs Tope de cualquier espera.
+     */
+    public PoliticaReintentos(int maximoIntentos, long esperaBaseMs, long esperaMaximaMs) {
+        if (maximoIntentos < 1 || esperaBaseMs <= 0 || esperaMaximaMs < esperaBaseMs) {
+            throw new IllegalArgumentException("Parámetros de reintentos inválidos.");
+        }
+        this.maximoIntentos = maximoIntentos;
+        this.esperaBaseMs = esperaBaseMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /** Crea la política según 'reintentos.*'. */
+    public static PoliticaReintentos configurada() {
+        Configuracion cfg = Configuracion.actual();
+        long base = cfg.getLong(Configuracion.REINTENTOS_ESPERA_BASE_MS);
+        return new PoliticaReintentos(cfg.getInt(Configuracion.REINTENTOS_MAXIMO_INTENTOS), base,
+                Math.max(base, cfg.getLong(Configuracion.REINTENTOS_ESPERA_MAXIMA_MS)));
+    }
+
+    // --- 1. EJECUCIÓN ---
+
+    /**
+     * Ejecuta la unidad de trabajo y la repite mientras falle por un error reintentable.
+     *
+     * @param operacion Nombre de la operación para las métricas (ej. "MascotaService.transferir").
+     * @return El resultado del intento que terminó bien.
+     * @throws Exception El error del último intento (si no era reintentable, el del primero), sin cambios.
+     */
+    public <T> T ejecutar(String operacion, UnidadDeTrabajo<T> unidad) throws Exception {
+        for (int intento = 1; ; intento++) {
+            try {
+                T resultado = unidad.ejecutar();
+                if (intento > 1) {
+                    recuperadas.increment();
+                    contadores(operacion).recuperadas.increment();
+                }
+                return resultado;
+            } catch (Exception e) {
+                if (!esReintentable(e)) {
+                    throw e;
+                }
+                long esperaMs = esperaAntesDelReintento(intento);
+                Plazo plazo = Plazo.actual();
+                if (intento >= maximoIntentos || (plazo != null && plazo.restanteMs() <= esperaMs)) {
+                    agotadas.increment();
+                    contadores(operacion).agotadas.increment();
+                    throw e;
+                }
+                reintentos.increment();
+                contadores(operacion).reintentos.increment();
+                try {
+                    Thread.sleep(esperaMs);
+                } catch (InterruptedException interrupcion) {
+                    Thread.currentThread().interrupt(); // Se abandona: el hilo debe terminar
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /** Igual que {@link #ejecutar(String, UnidadDeTrabajo)}, para unidades de trabajo sin resultado. */
+    public void ejecutarSinResultado(String operacion, UnidadSinResultado unidad) throws Exception {
+        ejecutar(operacion, () -> {
+            unidad.ejecutar();
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta una operación de escritura completa: abre su {@link Plazo}, repite la unidad de trabajo
+     * mientras falle por un error reintentable y, si termina por un timeout, lanza
+     * {@link OperacionExpiradaException} (ver {@link Operaciones}).
+     *
+     * @param accion Descripción en infinitivo para el mensaje de timeout (ej. "crear el dueño").
+     */
+    public <T> T ejecutarConPlazo(String operacion, String accion, UnidadDeTrabajo<T> unidad) throws Exception {
+        return Operaciones.ejecutarConPlazo(operacion, accion, () -> ejecutar(operacion, unidad));
+    }
+
+    /** Igual que {@link #ejecutarConPlazo(String, String, UnidadDeTrabajo)}, para operaciones sin resultado. */
+    public void ejecutarConPlazo(String operacion, String accion, UnidadSinResultado unidad) throws Exception {
+        Operaciones.ejecutarConPlazo(operacion, accion, () -> ejecutarSinResultado(operacion, unidad));
+    }
+
+    // --- 2. CLASIFICACIÓN Y ESPERA ---
+
+    /**
+     * @return true si el error, o alguna de sus causas, es un aborto de transacción que se resuelve
+     * repitiéndola (deadlock, espera de bloqueo agotada, fallo de serialización).
+     */
+    public static boolean esReintentable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ConflictoVersionException || t instanceof ConsultaExpiradaException) {
+                return false; // Repetir no sirve (releer la fila) o ya no hay tiempo
+            }
+            if (t instanceof SQLException) {
+                SQLException sql = (SQLException) t;
+                if (sql instanceof SQLTransactionRollbackException
+                        || sql.getErrorCode() == ERROR_DEADLOCK
+                        || sql.getErrorCode() == ERROR_ESPERA_BLOQUEO
+                        || SQLSTATE_SERIALIZACION.equals(sql.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Espera al azar (full jitter) antes del reintento que sigue al intento indicado. */
+    long esperaAntesDelReintento(int intento) {
+        long tope = Math.min(esperaMaximaMs, esperaBaseMs << Math.min(intento - 1, 30));
+        return ThreadLocalRandom.current().nextLong(tope + 1);
+    }
+
+    private Contadores contadores(String operacion) {
+        return porOperacion.computeIfAbsent(operacion, clave -> new Contadores());
+    }
+
+    // --- 3. MÉTRICAS ---
+
+    /** @return Reintentos hechos desde el inicio (todas las operaciones). */
+    public long getReintentos() {
+        return reintentos.sum();
+    }
+
+    /** @return Operaciones que terminaron bien después de al menos un reintento. */
+    public long getRecuperadas() {
+        return recuperadas.sum();
+    }
+
+    /** @return Operaciones que fallaron con un error reintentable después de agotar intentos o plazo. */
+    public long getAgotadas() {
+        return agotadas.sum();
+    }
+
+    /** @return Reintentos por operación, de la más contendida a la menos. */
+    public Map<String, Long> reintentosPorOperacion() {
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        porOperacion.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().reintentos.sum(), a.getValue().reintentos.sum()))
+                .forEach(entrada -> resultado.put(entrada.getKey(), entrada.getValue().reintentos.sum()));
+        return resultado;
+    }
+
+    /** @return Resumen de una línea por operación con contención (vacío si nunca hubo reintentos). */
+    public String describir() {
+        StringBuilder sb = new StringBuilder();
+        for (String operacion : reintentosPorOperacion().keySet()) {
+            Contadores c = porOperacion.get(operacion);
+            sb.append(String.format("[Reintentos] %s: %d reintento(s), %d recuperada(s), %d agotada(s)%n",
+                    operacion, c.reintentos.sum(), c.recuperadas.sum(), c.agotadas.sum()));
+        }
+        return sb.toString();
+    }
+}